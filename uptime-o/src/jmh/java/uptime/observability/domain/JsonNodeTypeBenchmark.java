@@ -0,0 +1,93 @@
+package uptime.observability.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Conversions of the JSONB heartbeat columns: parsing on load, serializing on write, and the deep copy
+ * Hibernate takes of every loaded value for dirty checking, with {@link JsonNodeType} and with {@link RawJsonType}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonNodeTypeBenchmark {
+
+    private final JsonNodeType type = new JsonNodeType();
+
+    private String json;
+
+    private JsonNode node;
+
+    private byte[] utf8;
+
+    private RawJson raw;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        StringBuilder body = new StringBuilder("{\"status\":\"ok\",\"checks\":[");
+        for (int i = 0; i < 50; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"name\":\"check-").append(i).append("\",\"healthy\":true,\"latencyMs\":").append(i * 3).append('}');
+        }
+        body.append("],\"headers\":{\"content-type\":\"application/json\",\"server\":\"nginx\",\"cache-control\":\"no-cache\"}}");
+        json = body.toString();
+        node = JsonNodeType.fromJson(json);
+        utf8 = json.getBytes(StandardCharsets.UTF_8);
+        raw = RawJson.of(utf8);
+    }
+
+    @Benchmark
+    public JsonNode fromJson() throws JsonProcessingException {
+        return JsonNodeType.fromJson(json);
+    }
+
+    @Benchmark
+    public String toJson() throws JsonProcessingException {
+        return JsonNodeType.toJson(node);
+    }
+
+    @Benchmark
+    public JsonNode deepCopy() {
+        return type.deepCopy(node);
+    }
+
+    @Benchmark
+    public byte[] writeNodeResponse() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(node);
+    }
+
+    @Benchmark
+    public RawJson rawFromBytes() {
+        return RawJson.of(utf8);
+    }
+
+    @Benchmark
+    public String rawToJson() {
+        return raw.toString();
+    }
+
+    @Benchmark
+    public byte[] writeRawResponse() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(raw);
+    }
+}
@@ -0,0 +1,89 @@
+package uptime.observability.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uptime.observability.domain.Agent;
+import uptime.observability.domain.Datacenter;
+import uptime.observability.domain.HttpHeartbeat;
+import uptime.observability.domain.Region;
+import uptime.observability.service.dto.AgentMetricsDTO;
+
+/**
+ * Per-agent aggregation of a monitor's heartbeats, as done for the monitor detail page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AgentMetricsBenchmark {
+
+    private static final int AGENTS = 10;
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    private int rows;
+
+    private List<HttpHeartbeat> heartbeats;
+
+    private CheckStatistics statistics;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        List<Agent> agents = new ArrayList<>();
+        for (int i = 0; i < AGENTS; i++) {
+            Region region = new Region();
+            region.setName("Region " + (i % 3));
+            Datacenter datacenter = new Datacenter();
+            datacenter.setName("Datacenter " + i);
+            datacenter.setRegion(region);
+            Agent agent = new Agent();
+            agent.setId((long) i);
+            agent.setName("agent-" + i);
+            agent.setDatacenter(datacenter);
+            agents.add(agent);
+        }
+
+        // Newest first, as returned by the repository
+        Instant now = Instant.now();
+        heartbeats = new ArrayList<>(rows);
+        statistics = new CheckStatistics();
+        for (int i = 0; i < rows; i++) {
+            int responseTimeMs = 50 + (int) Math.abs(random.nextGaussian() * 200);
+            HttpHeartbeat heartbeat = new HttpHeartbeat()
+                .executedAt(now.minusSeconds(i))
+                .success(random.nextInt(100) > 1)
+                .responseTimeMs(responseTimeMs)
+                .responseStatusCode(200);
+            heartbeat.setAgent(agents.get(i % AGENTS));
+            heartbeats.add(heartbeat);
+            statistics.add(heartbeat);
+        }
+    }
+
+    @Benchmark
+    public List<AgentMetricsDTO> aggregateAgentMetrics() {
+        return MonitorDetailService.aggregateAgentMetrics(heartbeats, List.of(), 500, 1000);
+    }
+
+    @Benchmark
+    public Integer percentile() {
+        return statistics.percentile(99);
+    }
+}
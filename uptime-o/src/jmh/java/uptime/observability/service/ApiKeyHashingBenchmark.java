@@ -0,0 +1,41 @@
+package uptime.observability.service;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+/**
+ * Hashing of an API key, done on every request authenticated by API key before the cache lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiKeyHashingBenchmark {
+
+    private ApiKeyService apiKeyService;
+
+    private String apiKey;
+
+    @Setup
+    public void setup() {
+        apiKeyService = new ApiKeyService(null, null, new ConcurrentMapCacheManager(), event -> {});
+        apiKey = "uptimeo_3q2+7w5Zk1sVbQy9XhN0cR4tLm8uPjGd6aFe";
+    }
+
+    @Benchmark
+    public String hashApiKey() {
+        return apiKeyService.hashApiKey(apiKey);
+    }
+}
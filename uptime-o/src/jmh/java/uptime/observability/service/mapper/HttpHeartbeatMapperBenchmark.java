@@ -0,0 +1,73 @@
+package uptime.observability.service.mapper;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uptime.observability.domain.Agent;
+import uptime.observability.domain.HttpHeartbeat;
+import uptime.observability.domain.HttpMonitor;
+import uptime.observability.service.dto.HttpHeartbeatDTO;
+
+/**
+ * Mapping of a heartbeat between entity and DTO, done for every ingested and every listed heartbeat.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpHeartbeatMapperBenchmark {
+
+    private HttpHeartbeatMapper httpHeartbeatMapper;
+
+    private HttpHeartbeat entity;
+
+    private HttpHeartbeatDTO dto;
+
+    @Setup
+    public void setup() {
+        httpHeartbeatMapper = new HttpHeartbeatMapperImpl();
+        HttpMonitor monitor = new HttpMonitor();
+        monitor.setId(1L);
+        monitor.setName("api health");
+        Agent agent = new Agent();
+        agent.setId(2L);
+        agent.setName("agent-2");
+        entity = new HttpHeartbeat()
+            .id(3L)
+            .executedAt(Instant.now())
+            .success(true)
+            .responseTimeMs(120)
+            .responseSizeBytes(2048)
+            .responseStatusCode(200)
+            .responseContentType("application/json")
+            .responseServer("nginx")
+            .dnsLookupMs(4)
+            .tcpConnectMs(12)
+            .tlsHandshakeMs(30)
+            .timeToFirstByteMs(80);
+        entity.setMonitor(monitor);
+        entity.setAgent(agent);
+        dto = httpHeartbeatMapper.toDto(entity);
+    }
+
+    @Benchmark
+    public HttpHeartbeatDTO toDto() {
+        return httpHeartbeatMapper.toDto(entity);
+    }
+
+    @Benchmark
+    public HttpHeartbeat toEntity() {
+        return httpHeartbeatMapper.toEntity(dto);
+    }
+}
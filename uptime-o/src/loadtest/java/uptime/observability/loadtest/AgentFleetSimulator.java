@@ -0,0 +1,387 @@
+package uptime.observability.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import uptime.observability.UptimeOApp;
+
+/**
+ * Synthetic agent fleet to find the ingestion capacity of a deployment.
+ * <p>
+ * Creates a region, datacenter, schedules, {@code --monitors} HTTP monitors, {@code --agents} agents each
+ * assigned every monitor, and an API key through the admin API. Each agent then behaves like the real one:
+ * it takes its lease, polls its configuration, runs its checks on the schedule intervals and phase offsets it
+ * was given, and ships heartbeats in batches. Check outcomes follow {@code --failure-rate}, and monitors on
+ * schedules that include the response body carry one of about {@code --body-bytes}.
+ * <p>
+ * Without {@code --base-url}, the application is started in this JVM (prod profile) against a Testcontainers
+ * Postgres, which needs Docker. Otherwise the server at {@code --base-url} is used, and database growth is
+ * only reported when {@code --jdbc-url} points at its database.
+ * <p>
+ * Reports sustained accepted heartbeats per second, ingestion request latency (p50/p95/p99/max) and the growth
+ * of the database and heartbeat table over the measured part of the run.
+ */
+public class AgentFleetSimulator {
+
+    private static final String HEARTBEAT_TABLE = "api_heartbeats";
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+
+        PostgreSQLContainer<?> postgres = null;
+        ConfigurableApplicationContext application = null;
+        if (options.baseUrl == null) {
+            postgres = new PostgreSQLContainer<>("postgres:17.4").withDatabaseName("uptimeO");
+            postgres.start();
+            options.jdbcUrl = postgres.getJdbcUrl();
+            options.jdbcUsername = postgres.getUsername();
+            options.jdbcPassword = postgres.getPassword();
+            application = startApplication(options);
+            options.baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+        }
+
+        try {
+            new AgentFleetSimulator(options).run();
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+            if (postgres != null) {
+                postgres.stop();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(Options options) {
+        return new SpringApplicationBuilder(UptimeOApp.class)
+            .profiles("prod")
+            .properties(
+                "server.port=0",
+                "spring.datasource.url=" + options.jdbcUrl,
+                "spring.datasource.username=" + options.jdbcUsername,
+                "spring.datasource.password=" + options.jdbcPassword,
+                "spring.mail.host=localhost",
+                "logging.level.ROOT=WARN",
+                "logging.level.uptime.observability=WARN"
+            )
+            .run();
+    }
+
+    private final Options options;
+
+    private final HttpClient client;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final FleetStats stats = new FleetStats();
+
+    AgentFleetSimulator(Options options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    }
+
+    void run() throws Exception {
+        String jwt = authenticate();
+        List<Long> agentIds = seed(jwt);
+        if (options.apiKey == null) {
+            options.apiKey = createApiKey(jwt);
+        }
+
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(options.threads);
+        List<SimulatedAgent> agents = new ArrayList<>();
+        for (Long agentId : agentIds) {
+            SimulatedAgent agent = new SimulatedAgent(agentId, options, client, mapper, scheduler, stats);
+            agent.start();
+            agents.add(agent);
+        }
+        System.out.printf("%d agents started, %d checks each%n", agents.size(), options.monitors);
+
+        Map<String, Long> sizesBefore = null;
+        long start = System.nanoTime();
+        long warmupEnd = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        long previousAccepted = 0;
+        while (System.nanoTime() < end) {
+            Thread.sleep(options.reportSeconds * 1000L);
+            if (sizesBefore == null && System.nanoTime() >= warmupEnd) {
+                stats.startMeasuring();
+                sizesBefore = databaseSizes();
+            }
+            long accepted = stats.heartbeatsAccepted.get();
+            List<Long> window = stats.drainWindow();
+            System.out.printf(
+                "[%4ds] accepted %7.1f hb/s  requests %5d  p99 %7.1f ms  failed %d  dropped %d%s%n",
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start),
+                (accepted - previousAccepted) / (double) options.reportSeconds,
+                window.size(),
+                FleetStats.percentileMs(window, 0.99),
+                stats.heartbeatsFailed.get(),
+                stats.heartbeatsDropped.get(),
+                sizesBefore == null ? "  (warmup)" : ""
+            );
+            previousAccepted = accepted;
+        }
+        double sustainedRate = stats.sustainedRate();
+        List<Long> latencies = stats.measuredLatencies();
+        Map<String, Long> sizesAfter = databaseSizes();
+
+        agents.forEach(SimulatedAgent::stop);
+        scheduler.shutdown();
+        scheduler.awaitTermination(30, TimeUnit.SECONDS);
+
+        report(sustainedRate, latencies, sizesBefore, sizesAfter);
+    }
+
+    private void report(double sustainedRate, List<Long> latencies, Map<String, Long> sizesBefore, Map<String, Long> sizesAfter) {
+        System.out.println();
+        System.out.printf("Fleet: %d agents x %d monitors, speedup %.1f, batch size %d%n", options.agents, options.monitors, options.speedup, options.batchSize);
+        System.out.printf("Sustained ingestion: %.1f heartbeats/s over %d s%n", sustainedRate, options.durationSeconds);
+        System.out.printf(
+            "Ingestion latency (ms per request): p50 %.1f  p95 %.1f  p99 %.1f  max %.1f  (%d requests)%n",
+            FleetStats.percentileMs(latencies, 0.50),
+            FleetStats.percentileMs(latencies, 0.95),
+            FleetStats.percentileMs(latencies, 0.99),
+            FleetStats.percentileMs(latencies, 1.0),
+            latencies.size()
+        );
+        System.out.printf(
+            "Heartbeats: generated %d, accepted %d, dropped %d, failed %d, statuses %s%n",
+            stats.heartbeatsGenerated.get(),
+            stats.heartbeatsAccepted.get(),
+            stats.heartbeatsDropped.get(),
+            stats.heartbeatsFailed.get(),
+            stats.ingestionStatuses()
+        );
+        System.out.printf(
+            "Config polls: %d (%d not modified), lock calls: %d (%d conflicts)%n",
+            stats.configPolls.get(),
+            stats.configNotModified.get(),
+            stats.lockCalls.get(),
+            stats.lockConflicts.get()
+        );
+        if (sizesBefore == null || sizesAfter == null || sizesBefore.isEmpty() || sizesAfter.isEmpty()) {
+            System.out.println("Database growth: not measured (pass --jdbc-url, --jdbc-username and --jdbc-password)");
+            return;
+        }
+        long databaseGrowth = sizesAfter.get("database") - sizesBefore.get("database");
+        long tableGrowth = sizesAfter.get("table") - sizesBefore.get("table");
+        long rows = sizesAfter.get("rows") - sizesBefore.get("rows");
+        double bytesPerHeartbeat = rows > 0 ? tableGrowth / (double) rows : 0;
+        System.out.printf(
+            "Database growth: %.1f MB (heartbeat table and indexes %.1f MB, %d rows, %.0f bytes/heartbeat)%n",
+            databaseGrowth / 1_048_576.0,
+            tableGrowth / 1_048_576.0,
+            rows,
+            bytesPerHeartbeat
+        );
+        System.out.printf("At the sustained rate: %.1f GB/day of heartbeats%n", bytesPerHeartbeat * sustainedRate * 86_400 / 1_073_741_824.0);
+    }
+
+    private Map<String, Long> databaseSizes() {
+        Map<String, Long> sizes = new HashMap<>();
+        if (options.jdbcUrl == null) {
+            return sizes;
+        }
+        try (
+            Connection connection = DriverManager.getConnection(options.jdbcUrl, options.jdbcUsername, options.jdbcPassword);
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery(
+                "SELECT pg_database_size(current_database()), pg_total_relation_size('" +
+                HEARTBEAT_TABLE +
+                "'), (SELECT count(*) FROM " +
+                HEARTBEAT_TABLE +
+                ")"
+            )
+        ) {
+            resultSet.next();
+            sizes.put("database", resultSet.getLong(1));
+            sizes.put("table", resultSet.getLong(2));
+            sizes.put("rows", resultSet.getLong(3));
+        } catch (SQLException e) {
+            System.err.println("Could not measure database size: " + e.getMessage());
+        }
+        return sizes;
+    }
+
+    private String authenticate() {
+        ObjectNode login = mapper.createObjectNode().put("username", options.username).put("password", options.password);
+        return post("/api/authenticate", null, login).path("id_token").asText();
+    }
+
+    /**
+     * Create the fleet: one schedule per interval (with and without response body), the monitors spread over
+     * them, and the agents, each assigned every monitor.
+     *
+     * @return the agent ids.
+     */
+    private List<Long> seed(String jwt) {
+        String suffix = Long.toString(System.currentTimeMillis() % 100_000, 36);
+        long regionId = post("/api/regions", jwt, mapper.createObjectNode().put("name", "loadtest-" + suffix)).path("id").asLong();
+        ObjectNode datacenter = mapper.createObjectNode().put("code", "LT" + suffix).put("name", "loadtest-" + suffix);
+        datacenter.putObject("region").put("id", regionId);
+        long datacenterId = post("/api/datacenters", jwt, datacenter).path("id").asLong();
+
+        List<Long> plainSchedules = new ArrayList<>();
+        List<Long> bodySchedules = new ArrayList<>();
+        for (int interval : options.intervals) {
+            plainSchedules.add(createSchedule(jwt, "loadtest-" + suffix + "-" + interval + "s", interval, false));
+            bodySchedules.add(createSchedule(jwt, "loadtest-" + suffix + "-" + interval + "s-body", interval, true));
+        }
+
+        List<Long> monitorIds = new ArrayList<>();
+        for (int i = 0; i < options.monitors; i++) {
+            boolean body = ThreadLocalRandom.current().nextDouble() < options.bodyShare;
+            List<Long> schedules = body ? bodySchedules : plainSchedules;
+            ObjectNode monitor = mapper
+                .createObjectNode()
+                .put("name", "loadtest-" + suffix + "-" + i)
+                .put("method", "GET")
+                .put("type", "HTTP")
+                .put("url", "https://loadtest.invalid/" + i);
+            monitor.putObject("schedule").put("id", schedules.get(i % schedules.size()));
+            monitorIds.add(post("/api/http-monitors", jwt, monitor).path("id").asLong());
+        }
+
+        List<Long> agentIds = new ArrayList<>();
+        for (int i = 0; i < options.agents; i++) {
+            ObjectNode agent = mapper.createObjectNode().put("name", "loadtest-" + suffix + "-" + i);
+            agent.putObject("datacenter").put("id", datacenterId);
+            long agentId = post("/api/agents", jwt, agent).path("id").asLong();
+            for (Long monitorId : monitorIds) {
+                post("/api/agent-monitors", jwt, mapper.createObjectNode().put("active", true).put("agentId", agentId).put("monitorId", monitorId));
+            }
+            agentIds.add(agentId);
+        }
+        System.out.printf("Seeded %d monitors and %d agents (suffix %s)%n", monitorIds.size(), agentIds.size(), suffix);
+        return agentIds;
+    }
+
+    private long createSchedule(String jwt, String name, int interval, boolean includeResponseBody) {
+        ObjectNode schedule = mapper
+            .createObjectNode()
+            .put("name", name)
+            .put("interval", interval)
+            .put("includeResponseBody", includeResponseBody)
+            .put("thresholdsWarning", 500)
+            .put("thresholdsCritical", 1000);
+        return post("/api/schedules", jwt, schedule).path("id").asLong();
+    }
+
+    private String createApiKey(String jwt) {
+        // A generous per-key limit: the point is to find the server's limit, not the rate limiter's
+        ObjectNode apiKey = mapper
+            .createObjectNode()
+            .put("name", "loadtest-" + System.currentTimeMillis())
+            .put("rateLimitPerSecond", 1_000_000)
+            .put("rateLimitBurst", 1_000_000);
+        return post("/api/admin/api-keys", jwt, apiKey).path("plainTextKey").asText();
+    }
+
+    private JsonNode post(String uri, String jwt, JsonNode body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(options.baseUrl + uri))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+        if (jwt != null) {
+            builder.header("Authorization", "Bearer " + jwt);
+        }
+        try {
+            HttpResponse<String> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 300) {
+                throw new IllegalStateException("POST " + uri + " answered " + response.statusCode() + ": " + response.body());
+            }
+            return mapper.readTree(response.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during POST " + uri, e);
+        } catch (IOException e) {
+            throw new IllegalStateException("POST " + uri + " failed", e);
+        }
+    }
+
+    /**
+     * Command line options, as {@code --name=value}.
+     */
+    static class Options {
+
+        String baseUrl;
+        String jdbcUrl;
+        String jdbcUsername;
+        String jdbcPassword;
+        String username = "admin";
+        String password = "admin";
+        String apiKey;
+        int agents = 20;
+        int monitors = 50;
+        int[] intervals = { 30, 60, 300 };
+        double speedup = 1;
+        double failureRate = 0.02;
+        double bodyShare = 0.2;
+        int bodyBytes = 4096;
+        int batchSize = 50;
+        long flushMs = 1000;
+        int configPollSeconds = 60;
+        int warmupSeconds = 60;
+        int durationSeconds = 300;
+        int reportSeconds = 10;
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+                }
+                String name = arg.substring(2, arg.indexOf('='));
+                String value = arg.substring(arg.indexOf('=') + 1);
+                switch (name) {
+                    case "base-url" -> options.baseUrl = value.replaceAll("/+$", "");
+                    case "jdbc-url" -> options.jdbcUrl = value;
+                    case "jdbc-username" -> options.jdbcUsername = value;
+                    case "jdbc-password" -> options.jdbcPassword = value;
+                    case "username" -> options.username = value;
+                    case "password" -> options.password = value;
+                    case "api-key" -> options.apiKey = value;
+                    case "agents" -> options.agents = Integer.parseInt(value);
+                    case "monitors" -> options.monitors = Integer.parseInt(value);
+                    case "intervals" -> options.intervals = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                    case "speedup" -> options.speedup = Double.parseDouble(value);
+                    case "failure-rate" -> options.failureRate = Double.parseDouble(value);
+                    case "body-share" -> options.bodyShare = Double.parseDouble(value);
+                    case "body-bytes" -> options.bodyBytes = Integer.parseInt(value);
+                    case "batch-size" -> options.batchSize = Integer.parseInt(value);
+                    case "flush-ms" -> options.flushMs = Long.parseLong(value);
+                    case "config-poll-seconds" -> options.configPollSeconds = Integer.parseInt(value);
+                    case "warmup-seconds" -> options.warmupSeconds = Integer.parseInt(value);
+                    case "duration-seconds" -> options.durationSeconds = Integer.parseInt(value);
+                    case "report-seconds" -> options.reportSeconds = Integer.parseInt(value);
+                    case "threads" -> options.threads = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option: --" + name);
+                }
+            }
+            return options;
+        }
+    }
+}
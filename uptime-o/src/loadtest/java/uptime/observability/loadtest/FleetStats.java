@@ -0,0 +1,110 @@
+package uptime.observability.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and ingestion latencies of a simulated fleet, for the whole run and for the current report window.
+ */
+class FleetStats {
+
+    final AtomicLong heartbeatsGenerated = new AtomicLong();
+    final AtomicLong heartbeatsAccepted = new AtomicLong();
+    final AtomicLong heartbeatsDropped = new AtomicLong();
+    final AtomicLong heartbeatsFailed = new AtomicLong();
+    final AtomicLong configPolls = new AtomicLong();
+    final AtomicLong configNotModified = new AtomicLong();
+    final AtomicLong lockCalls = new AtomicLong();
+    final AtomicLong lockConflicts = new AtomicLong();
+
+    private final Map<Integer, AtomicLong> ingestionStatuses = new ConcurrentHashMap<>();
+
+    private final List<Long> latencies = new ArrayList<>();
+
+    private List<Long> windowLatencies = new ArrayList<>();
+
+    private volatile boolean measuring;
+
+    private long measuredAccepted;
+
+    private long measureStartNanos;
+
+    /**
+     * Record an ingestion request (single or batch) and its outcome.
+     *
+     * @param latencyNanos time from sending the request to its response.
+     * @param status the HTTP status, or {@code -1} if the request failed.
+     * @param heartbeats the number of heartbeats in the request.
+     * @param dropped the number of heartbeats the server dropped for a stale fencing token.
+     */
+    void recordIngestion(long latencyNanos, int status, int heartbeats, int dropped) {
+        ingestionStatuses.computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+        if (status >= 200 && status < 300) {
+            heartbeatsAccepted.addAndGet(heartbeats - dropped);
+            heartbeatsDropped.addAndGet(dropped);
+        } else if (status == 409) {
+            heartbeatsDropped.addAndGet(heartbeats);
+        } else {
+            heartbeatsFailed.addAndGet(heartbeats);
+        }
+        synchronized (this) {
+            windowLatencies.add(latencyNanos);
+            if (measuring) {
+                latencies.add(latencyNanos);
+            }
+        }
+    }
+
+    /**
+     * Start the measured part of the run, once the fleet is warmed up.
+     */
+    synchronized void startMeasuring() {
+        measuring = true;
+        measuredAccepted = heartbeatsAccepted.get();
+        measureStartNanos = System.nanoTime();
+    }
+
+    /**
+     * @return the latencies recorded since the previous call, sorted.
+     */
+    synchronized List<Long> drainWindow() {
+        List<Long> window = windowLatencies;
+        windowLatencies = new ArrayList<>();
+        Collections.sort(window);
+        return window;
+    }
+
+    /**
+     * @return the latencies recorded since {@link #startMeasuring()}, sorted.
+     */
+    synchronized List<Long> measuredLatencies() {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * @return accepted heartbeats per second since {@link #startMeasuring()}.
+     */
+    synchronized double sustainedRate() {
+        double seconds = (System.nanoTime() - measureStartNanos) / 1_000_000_000.0;
+        return seconds > 0 ? (heartbeatsAccepted.get() - measuredAccepted) / seconds : 0;
+    }
+
+    Map<Integer, AtomicLong> ingestionStatuses() {
+        return new TreeMap<>(ingestionStatuses);
+    }
+
+    static double percentileMs(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.size() - 1, Math.ceil(p * sorted.size()) - 1);
+        return sorted.get(Math.max(index, 0)) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,283 @@
+package uptime.observability.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One simulated agent: holds the agent's lease, polls its configuration, runs every assigned monitor on its
+ * schedule interval and phase offset, and ships the resulting heartbeats in batches, like the real agent does.
+ * Checks are not performed, their outcome is drawn from the configured failure rate and latency distribution.
+ */
+class SimulatedAgent {
+
+    private static final String API_KEY_HEADER = "X-API-Key";
+
+    private final long agentId;
+    private final String holderId;
+    private final AgentFleetSimulator.Options options;
+    private final HttpClient client;
+    private final ObjectMapper mapper;
+    private final ScheduledExecutorService scheduler;
+    private final FleetStats stats;
+
+    private final Map<Long, ScheduledFuture<?>> checks = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<ObjectNode> pending = new ConcurrentLinkedQueue<>();
+    private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+
+    private volatile Long fencingToken;
+    private volatile String configEtag;
+
+    SimulatedAgent(
+        long agentId,
+        AgentFleetSimulator.Options options,
+        HttpClient client,
+        ObjectMapper mapper,
+        ScheduledExecutorService scheduler,
+        FleetStats stats
+    ) {
+        this.agentId = agentId;
+        this.holderId = "loadtest-" + agentId + "-" + Long.toHexString(System.nanoTime());
+        this.options = options;
+        this.client = client;
+        this.mapper = mapper;
+        this.scheduler = scheduler;
+        this.stats = stats;
+    }
+
+    void start() {
+        int ttlSeconds = acquireLock();
+        pollConfig();
+        long renewMs = Math.max(1000, ttlSeconds * 1000L / 3);
+        long pollMs = options.configPollSeconds * 1000L;
+        long jitter = ThreadLocalRandom.current().nextLong(pollMs);
+        tasks.add(scheduler.scheduleWithFixedDelay(this::renewLock, renewMs, renewMs, TimeUnit.MILLISECONDS));
+        tasks.add(scheduler.scheduleWithFixedDelay(this::pollConfig, jitter, pollMs, TimeUnit.MILLISECONDS));
+        tasks.add(scheduler.scheduleWithFixedDelay(this::flush, options.flushMs, options.flushMs, TimeUnit.MILLISECONDS));
+    }
+
+    void stop() {
+        tasks.forEach(task -> task.cancel(false));
+        checks.values().forEach(check -> check.cancel(false));
+        flush();
+        if (fencingToken != null) {
+            send(request("/api/agent/lock?agentId=" + agentId + "&fencingToken=" + fencingToken).DELETE().build());
+        }
+    }
+
+    private int acquireLock() {
+        stats.lockCalls.incrementAndGet();
+        HttpResponse<String> response = send(request("/api/agent/lock?agentId=" + agentId + "&holderId=" + holderId).POST(HttpRequest.BodyPublishers.noBody()).build());
+        if (response == null || response.statusCode() != 200) {
+            stats.lockConflicts.incrementAndGet();
+            fencingToken = null;
+            return 30;
+        }
+        JsonNode lease = readTree(response.body());
+        fencingToken = lease.path("fencingToken").asLong();
+        return lease.path("ttlSeconds").asInt(30);
+    }
+
+    private void renewLock() {
+        if (fencingToken == null) {
+            acquireLock();
+            return;
+        }
+        stats.lockCalls.incrementAndGet();
+        HttpResponse<String> response = send(request("/api/agent/lock/renew?agentId=" + agentId + "&fencingToken=" + fencingToken).POST(HttpRequest.BodyPublishers.noBody()).build());
+        if (response == null || response.statusCode() != 200) {
+            stats.lockConflicts.incrementAndGet();
+            acquireLock();
+        }
+    }
+
+    private void pollConfig() {
+        stats.configPolls.incrementAndGet();
+        HttpRequest.Builder builder = request("/api/agent/monitors?agentId=" + agentId).GET();
+        if (configEtag != null) {
+            builder.header("If-None-Match", configEtag);
+        }
+        HttpResponse<String> response = send(builder.build());
+        if (response == null) {
+            return;
+        }
+        if (response.statusCode() == 304) {
+            stats.configNotModified.incrementAndGet();
+            return;
+        }
+        if (response.statusCode() != 200) {
+            return;
+        }
+        configEtag = response.headers().firstValue("ETag").orElse(null);
+        JsonNode monitors = readTree(response.body());
+        Set<Long> assigned = new HashSet<>();
+        for (JsonNode monitor : monitors) {
+            long monitorId = monitor.path("id").asLong();
+            assigned.add(monitorId);
+            checks.computeIfAbsent(monitorId, id -> scheduleCheck(monitor));
+        }
+        checks.entrySet().removeIf(entry -> {
+            if (assigned.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().cancel(false);
+            return true;
+        });
+    }
+
+    private ScheduledFuture<?> scheduleCheck(JsonNode monitor) {
+        JsonNode schedule = monitor.path("schedule");
+        long intervalMs = Math.max(1, (long) (schedule.path("interval").asLong(60) * 1000 / options.speedup));
+        long offsetMs = (long) (monitor.path("phaseOffsetMs").asLong(0) / options.speedup);
+        long initialDelay = Math.floorMod(offsetMs - System.currentTimeMillis(), intervalMs);
+        long monitorId = monitor.path("id").asLong();
+        boolean includeBody = schedule.path("includeResponseBody").asBoolean(false);
+        int warning = schedule.path("thresholdsWarning").asInt(500);
+        int critical = schedule.path("thresholdsCritical").asInt(1000);
+        return scheduler.scheduleAtFixedRate(() -> check(monitorId, includeBody, warning, critical), initialDelay, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void check(long monitorId, boolean includeBody, int warning, int critical) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ObjectNode heartbeat = mapper.createObjectNode();
+        heartbeat.put("executedAt", Instant.now().toString());
+        heartbeat.putObject("monitor").put("id", monitorId);
+        heartbeat.putObject("agent").put("id", agentId);
+        if (fencingToken != null) {
+            heartbeat.put("fencingToken", fencingToken);
+        }
+        heartbeat.put("warningThresholdMs", warning);
+        heartbeat.put("criticalThresholdMs", critical);
+
+        if (random.nextDouble() < options.failureRate) {
+            boolean timeout = random.nextBoolean();
+            heartbeat.put("success", false);
+            heartbeat.put("responseTimeMs", timeout ? 30_000 : 50 + random.nextInt(500));
+            heartbeat.put("errorType", timeout ? "TIMEOUT" : "HTTP_ERROR");
+            heartbeat.put("errorMessage", timeout ? "Request timed out after 30000 ms" : "Unexpected status code 503");
+            if (!timeout) {
+                heartbeat.put("responseStatusCode", 503);
+            }
+        } else {
+            // Log-normal response times, median around 150 ms with a long tail
+            int responseTimeMs = (int) Math.min(30_000, Math.exp(5 + 0.6 * random.nextGaussian()));
+            int dns = random.nextInt(1, 20);
+            int tcp = random.nextInt(5, 40);
+            int tls = random.nextInt(10, 80);
+            heartbeat.put("success", true);
+            heartbeat.put("responseTimeMs", responseTimeMs);
+            heartbeat.put("responseStatusCode", 200);
+            heartbeat.put("responseSizeBytes", options.bodyBytes);
+            heartbeat.put("responseContentType", "application/json");
+            heartbeat.put("responseServer", "nginx");
+            heartbeat.put("dnsLookupMs", dns);
+            heartbeat.put("tcpConnectMs", tcp);
+            heartbeat.put("tlsHandshakeMs", tls);
+            heartbeat.put("timeToFirstByteMs", Math.max(1, responseTimeMs - dns - tcp - tls));
+            ObjectNode headers = heartbeat.putObject("rawResponseHeaders");
+            headers.put("content-type", "application/json");
+            headers.put("server", "nginx");
+            headers.put("cache-control", "no-cache");
+            headers.put("date", Instant.now().toString());
+            if (includeBody) {
+                heartbeat.set("rawResponseBody", responseBody(random));
+            }
+        }
+        stats.heartbeatsGenerated.incrementAndGet();
+        pending.add(heartbeat);
+    }
+
+    private ObjectNode responseBody(ThreadLocalRandom random) {
+        ObjectNode body = mapper.createObjectNode();
+        body.put("status", "ok");
+        ArrayNode items = body.putArray("items");
+        int size = 20;
+        for (int i = 0; size < options.bodyBytes; i++) {
+            String value = Long.toHexString(random.nextLong());
+            items.addObject().put("id", i).put("value", value);
+            size += 22 + value.length();
+        }
+        return body;
+    }
+
+    private void flush() {
+        List<ObjectNode> batch = new ArrayList<>();
+        ObjectNode heartbeat;
+        while ((heartbeat = pending.poll()) != null) {
+            batch.add(heartbeat);
+            if (batch.size() == options.batchSize) {
+                ship(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            ship(batch);
+        }
+    }
+
+    private void ship(List<ObjectNode> heartbeats) {
+        String uri;
+        String body;
+        if (heartbeats.size() == 1 && options.batchSize == 1) {
+            uri = "/api/agent/heartbeats";
+            body = heartbeats.get(0).toString();
+        } else {
+            uri = "/api/agent/heartbeats/batch";
+            body = mapper.createArrayNode().addAll(heartbeats).toString();
+        }
+        HttpRequest request = request(uri).header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        long start = System.nanoTime();
+        client
+            .sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, error) -> {
+                long latency = System.nanoTime() - start;
+                if (error != null) {
+                    stats.recordIngestion(latency, -1, heartbeats.size(), 0);
+                    return;
+                }
+                int dropped = response.headers().firstValue("X-Heartbeats-Dropped").map(Integer::parseInt).orElse(0);
+                stats.recordIngestion(latency, response.statusCode(), heartbeats.size(), dropped);
+            });
+    }
+
+    private HttpRequest.Builder request(String uri) {
+        return HttpRequest.newBuilder(URI.create(options.baseUrl + uri)).header(API_KEY_HEADER, options.apiKey).timeout(Duration.ofSeconds(60));
+    }
+
+    private HttpResponse<String> send(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return mapper.readTree(json);
+        } catch (Exception e) {
+            return mapper.createObjectNode();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package uptime.observability.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Throughput and tail latency of a running server on the ingestion and dashboard endpoints, to compare platform
+ * and virtual threads.
+ * <p>
+ * Run it once against a server started with {@code SPRING_THREADS_VIRTUAL_ENABLED=false} and once with
+ * {@code true}, on the same database and pool sizes and with rate limiting left disabled (its default), and
+ * compare the two reports. {@code --concurrency} threads send requests back to back for {@code --duration-seconds}
+ * per endpoint; the dashboard is called as {@code --username}.
+ */
+public class ThreadingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        new ThreadingBenchmark(Options.parse(args)).run();
+    }
+
+    private final Options options;
+
+    private final HttpClient client;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    ThreadingBenchmark(Options options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    }
+
+    void run() throws InterruptedException {
+        String heartbeat =
+            "{\"monitor\":{\"id\":" +
+            options.monitorId +
+            "},\"agent\":{\"id\":" +
+            options.agentId +
+            "},\"success\":true,\"responseTimeMs\":120,\"responseStatusCode\":200,\"executedAt\":\"%s\"}";
+        measure("Ingestion POST /api/agent/heartbeats", () ->
+            HttpRequest.newBuilder(URI.create(options.baseUrl + "/api/agent/heartbeats"))
+                .header("X-API-Key", options.apiKey)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(String.format(heartbeat, Instant.now())))
+                .build()
+        );
+        String jwt = authenticate();
+        measure("Dashboard GET /api/http-monitors/dashboard-stats", () ->
+            HttpRequest.newBuilder(URI.create(options.baseUrl + "/api/http-monitors/dashboard-stats"))
+                .header("Authorization", "Bearer " + jwt)
+                .GET()
+                .build()
+        );
+    }
+
+    private void measure(String name, Supplier<HttpRequest> requests) throws InterruptedException {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        Map<Integer, AtomicLong> statuses = new ConcurrentHashMap<>();
+        long deadline = System.nanoTime() + Duration.ofSeconds(options.durationSeconds).toNanos();
+
+        Runnable worker = () -> {
+            while (System.nanoTime() < deadline) {
+                long start = System.nanoTime();
+                int status;
+                try {
+                    status = client.send(requests.get(), HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (IOException e) {
+                    status = -1;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                latencies.add(System.nanoTime() - start);
+                statuses.computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+            }
+        };
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < options.concurrency; i++) {
+            Thread thread = new Thread(worker, "threading-benchmark-" + i);
+            thread.start();
+            workers.add(thread);
+        }
+        for (Thread thread : workers) {
+            thread.join();
+        }
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.println(name);
+        System.out.printf("  Requests: %.1f/s over %d s%n", sorted.size() / (double) options.durationSeconds, options.durationSeconds);
+        System.out.printf(
+            "  Latency (ms): p50 %.1f  p95 %.1f  p99 %.1f  max %.1f%n",
+            FleetStats.percentileMs(sorted, 0.50),
+            FleetStats.percentileMs(sorted, 0.95),
+            FleetStats.percentileMs(sorted, 0.99),
+            FleetStats.percentileMs(sorted, 1.0)
+        );
+        // -1 counts requests that got no response
+        System.out.printf("  Statuses: %s%n", new TreeMap<>(statuses));
+    }
+
+    private String authenticate() {
+        String login = mapper.createObjectNode().put("username", options.username).put("password", options.password).toString();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(options.baseUrl + "/api/authenticate"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(login))
+            .build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 300) {
+                throw new IllegalStateException("POST /api/authenticate answered " + response.statusCode() + ": " + response.body());
+            }
+            return mapper.readTree(response.body()).path("id_token").asText();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during POST /api/authenticate", e);
+        } catch (IOException e) {
+            throw new IllegalStateException("POST /api/authenticate failed", e);
+        }
+    }
+
+    /**
+     * Command line options, as {@code --name=value}.
+     */
+    static class Options {
+
+        String baseUrl;
+        String apiKey;
+        String username = "admin";
+        String password = "admin";
+        Long agentId;
+        Long monitorId;
+        int concurrency = 200;
+        int durationSeconds = 30;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+                }
+                String name = arg.substring(2, arg.indexOf('='));
+                String value = arg.substring(arg.indexOf('=') + 1);
+                switch (name) {
+                    case "base-url" -> options.baseUrl = value.replaceAll("/+$", "");
+                    case "api-key" -> options.apiKey = value;
+                    case "username" -> options.username = value;
+                    case "password" -> options.password = value;
+                    case "agent-id" -> options.agentId = Long.parseLong(value);
+                    case "monitor-id" -> options.monitorId = Long.parseLong(value);
+                    case "concurrency" -> options.concurrency = Integer.parseInt(value);
+                    case "duration-seconds" -> options.durationSeconds = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option: --" + name);
+                }
+            }
+            if (options.baseUrl == null || options.apiKey == null || options.agentId == null || options.monitorId == null) {
+                throw new IllegalArgumentException("--base-url, --api-key, --agent-id and --monitor-id are required");
+            }
+            return options;
+        }
+    }
+}
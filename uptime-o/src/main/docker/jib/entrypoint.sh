@@ -36,4 +36,28 @@ file_env 'SPRING_LIQUIBASE_USER'
 file_env 'SPRING_LIQUIBASE_PASSWORD'
 file_env 'JHIPSTER_REGISTRY_PASSWORD'
 
-exec java ${JAVA_OPTS} -noverify -XX:+AlwaysPreTouch -Djava.security.egd=file:/dev/./urandom -cp /app/resources/:/app/classes/:/app/libs/* "uptime.observability.UptimeOApp"  "$@"
+JAVA_CLASSPATH="/app/resources/:/app/classes/:/app/libs/*"
+if [[ -d /app/classpath ]]; then
+    # Packaged by the fast-start Maven profile: class data sharing only archives classes from jars
+    JAVA_CLASSPATH="/app/classpath/*:/app/libs/*"
+fi
+
+if [[ "${SPRING_AOT_ENABLED}" == "true" ]]; then
+    JAVA_OPTS="${JAVA_OPTS} -Dspring.aot.enabled=true"
+fi
+
+# Set by the fast-start Maven profile. When there is no archive yet, a training run refreshes the Spring context
+# and records the classes it loaded; later starts map them instead of loading and verifying them again. Mount a
+# volume there to keep the archive across containers of the same image.
+if [[ -n "${JAVA_CDS_ARCHIVE}" ]]; then
+    if [[ ! -f "${JAVA_CDS_ARCHIVE}" ]]; then
+        echo "Writing the class data sharing archive ${JAVA_CDS_ARCHIVE}..."
+        java ${JAVA_OPTS} -XX:ArchiveClassesAtExit="${JAVA_CDS_ARCHIVE}.$$" -Dspring.context.exit=onRefresh -Djava.security.egd=file:/dev/./urandom -cp "${JAVA_CLASSPATH}" "uptime.observability.UptimeOApp" "$@" \
+            && mv "${JAVA_CDS_ARCHIVE}.$$" "${JAVA_CDS_ARCHIVE}"
+    fi
+    if [[ -f "${JAVA_CDS_ARCHIVE}" ]]; then
+        JAVA_OPTS="${JAVA_OPTS} -XX:SharedArchiveFile=${JAVA_CDS_ARCHIVE}"
+    fi
+fi
+
+exec java ${JAVA_OPTS} -noverify -XX:+AlwaysPreTouch -Djava.security.egd=file:/dev/./urandom -cp "${JAVA_CLASSPATH}" "uptime.observability.UptimeOApp"  "$@"
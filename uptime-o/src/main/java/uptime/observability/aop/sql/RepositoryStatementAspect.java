@@ -0,0 +1,85 @@
+package uptime.observability.aop.sql;
+
+import java.util.Collection;
+import java.util.Optional;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.domain.Slice;
+import uptime.observability.management.SqlMetersService;
+
+/**
+ * Aspect attributing the statements of the heartbeat and agent monitor repositories to the repository method that
+ * issued them, and counting the rows each method returns.
+ */
+@Aspect
+public class RepositoryStatementAspect {
+
+    private final SqlMetersService sqlMetersService;
+
+    public RepositoryStatementAspect(SqlMetersService sqlMetersService) {
+        this.sqlMetersService = sqlMetersService;
+    }
+
+    /**
+     * Pointcut that matches the methods of the instrumented repositories, including the inherited ones.
+     */
+    @Pointcut(
+        "this(uptime.observability.repository.HttpHeartbeatRepository)" +
+        " || this(uptime.observability.repository.AgentMonitorRepository)"
+    )
+    public void instrumentedRepositoryPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that labels the statements issued while a repository method runs.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable if the repository method throws.
+     */
+    @Around("instrumentedRepositoryPointcut()")
+    public Object labelStatements(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        String repository = repositoryName(joinPoint);
+        String method = signature.getName();
+        String[] previous = sqlMetersService.enterRepositoryMethod(repository, method);
+        try {
+            Object result = joinPoint.proceed();
+            if (signature.getReturnType() != void.class) {
+                sqlMetersService.trackRows(repository, method, rows(result));
+            }
+            return result;
+        } finally {
+            sqlMetersService.exitRepositoryMethod(previous);
+        }
+    }
+
+    private static String repositoryName(ProceedingJoinPoint joinPoint) {
+        for (Class<?> repositoryInterface : joinPoint.getThis().getClass().getInterfaces()) {
+            if (repositoryInterface.getPackageName().equals("uptime.observability.repository")) {
+                return repositoryInterface.getSimpleName();
+            }
+        }
+        return joinPoint.getSignature().getDeclaringType().getSimpleName();
+    }
+
+    static int rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return 1;
+    }
+}
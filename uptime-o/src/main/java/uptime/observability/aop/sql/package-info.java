@@ -0,0 +1,4 @@
+/**
+ * SQL telemetry aspect.
+ */
+package uptime.observability.aop.sql;
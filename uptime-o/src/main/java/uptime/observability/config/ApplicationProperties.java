@@ -1,5 +1,9 @@
 package uptime.observability.config;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -13,6 +17,18 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
     private final Encryption encryption = new Encryption();
+    private final LiveStatus liveStatus = new LiveStatus();
+    private final AgentConfig agentConfig = new AgentConfig();
+    private final ApiKey apiKey = new ApiKey();
+    private final RateLimit rateLimit = new RateLimit();
+    private final Threads threads = new Threads();
+    private final Ingestion ingestion = new Ingestion();
+    private final Sql sql = new Sql();
+    private final EntityCache entityCache = new EntityCache();
+    private final Cluster cluster = new Cluster();
+    private final ReadReplicas readReplicas = new ReadReplicas();
+    private final Bulkheads bulkheads = new Bulkheads();
+    private final Incidents incidents = new Incidents();
 
     // jhipster-needle-application-properties-property
 
@@ -24,6 +40,54 @@ public class ApplicationProperties {
         return encryption;
     }
 
+    public LiveStatus getLiveStatus() {
+        return liveStatus;
+    }
+
+    public AgentConfig getAgentConfig() {
+        return agentConfig;
+    }
+
+    public ApiKey getApiKey() {
+        return apiKey;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public Threads getThreads() {
+        return threads;
+    }
+
+    public Ingestion getIngestion() {
+        return ingestion;
+    }
+
+    public Sql getSql() {
+        return sql;
+    }
+
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public ReadReplicas getReadReplicas() {
+        return readReplicas;
+    }
+
+    public Bulkheads getBulkheads() {
+        return bulkheads;
+    }
+
+    public Incidents getIncidents() {
+        return incidents;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -51,5 +115,831 @@ public class ApplicationProperties {
             this.secretKey = secretKey;
         }
     }
+
+    public static class LiveStatus {
+
+        /**
+         * How often coalesced heartbeat updates are pushed to live subscribers.
+         */
+        private long flushIntervalMs = 1000;
+
+        private final Sse sse = new Sse();
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+
+        public Sse getSse() {
+            return sse;
+        }
+
+        public static class Sse {
+
+            /**
+             * Number of recent frames kept for {@code Last-Event-ID} resumption.
+             */
+            private int replaySize = 512;
+
+            /**
+             * Interval between keep-alive comments sent to idle streams.
+             */
+            private long heartbeatIntervalMs = 15000;
+
+            /**
+             * Lifetime of a single stream before the client has to reconnect (and resume).
+             */
+            private long timeoutMs = 1800000;
+
+            /**
+             * Frames queued per subscriber while its client is slow to read; a subscriber whose queue overflows is
+             * dropped, and resumes from its {@code Last-Event-ID} once it reconnects.
+             */
+            private int queueSize = 1024;
+
+            public int getReplaySize() {
+                return replaySize;
+            }
+
+            public void setReplaySize(int replaySize) {
+                this.replaySize = replaySize;
+            }
+
+            public long getHeartbeatIntervalMs() {
+                return heartbeatIntervalMs;
+            }
+
+            public void setHeartbeatIntervalMs(long heartbeatIntervalMs) {
+                this.heartbeatIntervalMs = heartbeatIntervalMs;
+            }
+
+            public long getTimeoutMs() {
+                return timeoutMs;
+            }
+
+            public void setTimeoutMs(long timeoutMs) {
+                this.timeoutMs = timeoutMs;
+            }
+
+            public int getQueueSize() {
+                return queueSize;
+            }
+
+            public void setQueueSize(int queueSize) {
+                this.queueSize = queueSize;
+            }
+        }
+    }
+
+    public static class AgentConfig {
+
+        /**
+         * How long a cached agent configuration snapshot is served before its version is checked against
+         * the database again (catches changes made by other instances or outside the application).
+         */
+        private long snapshotRevalidateMs = 30000;
+
+        /**
+         * Default time a watch request stays parked before it is answered with {@code 304}.
+         */
+        private long watchTimeoutMs = 30000;
+
+        /**
+         * Upper bound for the {@code timeoutMs} an agent may ask for on a watch request.
+         */
+        private long watchMaxTimeoutMs = 300000;
+
+        /**
+         * How long configuration changes are kept to answer delta requests; agents that come back later get
+         * their full configuration.
+         */
+        private long changeRetentionSeconds = 604800;
+
+        public long getSnapshotRevalidateMs() {
+            return snapshotRevalidateMs;
+        }
+
+        public void setSnapshotRevalidateMs(long snapshotRevalidateMs) {
+            this.snapshotRevalidateMs = snapshotRevalidateMs;
+        }
+
+        public long getWatchTimeoutMs() {
+            return watchTimeoutMs;
+        }
+
+        public void setWatchTimeoutMs(long watchTimeoutMs) {
+            this.watchTimeoutMs = watchTimeoutMs;
+        }
+
+        public long getWatchMaxTimeoutMs() {
+            return watchMaxTimeoutMs;
+        }
+
+        public void setWatchMaxTimeoutMs(long watchMaxTimeoutMs) {
+            this.watchMaxTimeoutMs = watchMaxTimeoutMs;
+        }
+
+        public long getChangeRetentionSeconds() {
+            return changeRetentionSeconds;
+        }
+
+        public void setChangeRetentionSeconds(long changeRetentionSeconds) {
+            this.changeRetentionSeconds = changeRetentionSeconds;
+        }
+    }
+
+    public static class ApiKey {
+
+        /**
+         * How long a validated API key is served from the cache before it is looked up again.
+         */
+        private long cacheTtlSeconds = 60;
+
+        /**
+         * Maximum number of validated API keys kept in the cache.
+         */
+        private long cacheMaxEntries = 1000;
+
+        /**
+         * How long an unknown API key is remembered as such, so that repeated bad keys do not reach the database.
+         */
+        private long negativeCacheTtlSeconds = 30;
+
+        /**
+         * Maximum number of unknown API keys remembered; kept apart so bad keys cannot push out valid ones.
+         */
+        private long negativeCacheMaxEntries = 10000;
+
+        /**
+         * How often the last-used dates of API keys are written back to the database.
+         */
+        private long lastUsedFlushIntervalMs = 30000;
+
+        public long getCacheTtlSeconds() {
+            return cacheTtlSeconds;
+        }
+
+        public void setCacheTtlSeconds(long cacheTtlSeconds) {
+            this.cacheTtlSeconds = cacheTtlSeconds;
+        }
+
+        public long getCacheMaxEntries() {
+            return cacheMaxEntries;
+        }
+
+        public void setCacheMaxEntries(long cacheMaxEntries) {
+            this.cacheMaxEntries = cacheMaxEntries;
+        }
+
+        public long getNegativeCacheTtlSeconds() {
+            return negativeCacheTtlSeconds;
+        }
+
+        public void setNegativeCacheTtlSeconds(long negativeCacheTtlSeconds) {
+            this.negativeCacheTtlSeconds = negativeCacheTtlSeconds;
+        }
+
+        public long getNegativeCacheMaxEntries() {
+            return negativeCacheMaxEntries;
+        }
+
+        public void setNegativeCacheMaxEntries(long negativeCacheMaxEntries) {
+            this.negativeCacheMaxEntries = negativeCacheMaxEntries;
+        }
+
+        public long getLastUsedFlushIntervalMs() {
+            return lastUsedFlushIntervalMs;
+        }
+
+        public void setLastUsedFlushIntervalMs(long lastUsedFlushIntervalMs) {
+            this.lastUsedFlushIntervalMs = lastUsedFlushIntervalMs;
+        }
+    }
+
+    public static class RateLimit {
+
+        /**
+         * Whether requests authenticated by API key are rate limited. Off by default: a fleet of agents often shares one
+         * key, and the default rate is sized for a single agent.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Sustained requests per second allowed per API key, unless the key overrides it.
+         */
+        private int requestsPerSecond = 20;
+
+        /**
+         * Requests an API key may send at once after being idle, unless the key overrides it.
+         */
+        private int burst = 40;
+
+        /**
+         * Sustained requests per second allowed per agent of an API key (by {@code agentId}), {@code 0} to disable.
+         */
+        private int agentRequestsPerSecond = 0;
+
+        /**
+         * Requests one agent may send at once after being idle.
+         */
+        private int agentBurst = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
+
+        public void setRequestsPerSecond(int requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public int getAgentRequestsPerSecond() {
+            return agentRequestsPerSecond;
+        }
+
+        public void setAgentRequestsPerSecond(int agentRequestsPerSecond) {
+            this.agentRequestsPerSecond = agentRequestsPerSecond;
+        }
+
+        public int getAgentBurst() {
+            return agentBurst;
+        }
+
+        public void setAgentBurst(int agentBurst) {
+            this.agentBurst = agentBurst;
+        }
+    }
+
+    public static class Threads {
+
+        /**
+         * With virtual threads or {@link Bulkheads}, requests admitted at once per database connection of the pool;
+         * further requests wait for a slot instead of piling up on the pool.
+         */
+        private int requestsPerConnection = 2;
+
+        /**
+         * How long a request waits for a slot before it is answered with {@code 503}, without {@link Bulkheads}.
+         */
+        private long admissionTimeoutMs = 5000;
+
+        public int getRequestsPerConnection() {
+            return requestsPerConnection;
+        }
+
+        public void setRequestsPerConnection(int requestsPerConnection) {
+            this.requestsPerConnection = requestsPerConnection;
+        }
+
+        public long getAdmissionTimeoutMs() {
+            return admissionTimeoutMs;
+        }
+
+        public void setAdmissionTimeoutMs(long admissionTimeoutMs) {
+            this.admissionTimeoutMs = admissionTimeoutMs;
+        }
+    }
+
+    public static class Ingestion {
+
+        /**
+         * The ingestion endpoint reports {@code LAGGING} when the p99 time from check execution to
+         * persistence exceeds this.
+         */
+        private long lagThresholdMs = 60_000;
+
+        /**
+         * The ingestion endpoint reports {@code BACKLOGGED} when more heartbeats than this are in flight.
+         */
+        private int backlogThreshold = 500;
+
+        /**
+         * Cap on the raw headers and body stored with a heartbeat, for schedules that do not set their own.
+         */
+        private int maxPayloadBytes = 65_536;
+
+        /**
+         * Hashes of recently stored payload blobs remembered by each instance, so that repeats are referenced
+         * without sending their content again.
+         */
+        private int blobHashCacheSize = 10_000;
+
+        /**
+         * On schedules with change-only storage, one check per interval within a run of healthy checks is still
+         * stored as a heartbeat.
+         */
+        private long runSampleIntervalMs = 3_600_000;
+
+        /**
+         * Runs are rolled over at multiples of this since the epoch, so that each holds the checks of one bucket and
+         * statistics over a window count the runs that started within it.
+         */
+        private long runBucketSeconds = 300;
+
+        /**
+         * Checks folded into runs are written to them once per interval, instead of one update per check.
+         */
+        private long runFlushIntervalMs = 5_000;
+
+        public long getLagThresholdMs() {
+            return lagThresholdMs;
+        }
+
+        public void setLagThresholdMs(long lagThresholdMs) {
+            this.lagThresholdMs = lagThresholdMs;
+        }
+
+        public int getBacklogThreshold() {
+            return backlogThreshold;
+        }
+
+        public void setBacklogThreshold(int backlogThreshold) {
+            this.backlogThreshold = backlogThreshold;
+        }
+
+        public int getMaxPayloadBytes() {
+            return maxPayloadBytes;
+        }
+
+        public void setMaxPayloadBytes(int maxPayloadBytes) {
+            this.maxPayloadBytes = maxPayloadBytes;
+        }
+
+        public int getBlobHashCacheSize() {
+            return blobHashCacheSize;
+        }
+
+        public void setBlobHashCacheSize(int blobHashCacheSize) {
+            this.blobHashCacheSize = blobHashCacheSize;
+        }
+
+        public long getRunSampleIntervalMs() {
+            return runSampleIntervalMs;
+        }
+
+        public void setRunSampleIntervalMs(long runSampleIntervalMs) {
+            this.runSampleIntervalMs = runSampleIntervalMs;
+        }
+
+        public long getRunBucketSeconds() {
+            return runBucketSeconds;
+        }
+
+        public void setRunBucketSeconds(long runBucketSeconds) {
+            this.runBucketSeconds = runBucketSeconds;
+        }
+
+        public long getRunFlushIntervalMs() {
+            return runFlushIntervalMs;
+        }
+
+        public void setRunFlushIntervalMs(long runFlushIntervalMs) {
+            this.runFlushIntervalMs = runFlushIntervalMs;
+        }
+    }
+
+    public static class Sql {
+
+        /**
+         * Wrap the datasource to time statements per repository method and capture slow ones.
+         */
+        private boolean telemetryEnabled = true;
+
+        /**
+         * Statements slower than this are captured with their plan, without their bind values.
+         */
+        private long slowQueryThresholdMs = 500;
+
+        /**
+         * Number of slow statements kept, the oldest are dropped first.
+         */
+        private int slowQueryBufferSize = 50;
+
+        /**
+         * Run {@code EXPLAIN} for captured slow statements, on a separate connection. The statement is replayed with
+         * its bind values, which are not kept; quoted literals are redacted from the plan.
+         */
+        private boolean explainSlowQueries = false;
+
+        public boolean isTelemetryEnabled() {
+            return telemetryEnabled;
+        }
+
+        public void setTelemetryEnabled(boolean telemetryEnabled) {
+            this.telemetryEnabled = telemetryEnabled;
+        }
+
+        public long getSlowQueryThresholdMs() {
+            return slowQueryThresholdMs;
+        }
+
+        public void setSlowQueryThresholdMs(long slowQueryThresholdMs) {
+            this.slowQueryThresholdMs = slowQueryThresholdMs;
+        }
+
+        public int getSlowQueryBufferSize() {
+            return slowQueryBufferSize;
+        }
+
+        public void setSlowQueryBufferSize(int slowQueryBufferSize) {
+            this.slowQueryBufferSize = slowQueryBufferSize;
+        }
+
+        public boolean isExplainSlowQueries() {
+            return explainSlowQueries;
+        }
+
+        public void setExplainSlowQueries(boolean explainSlowQueries) {
+            this.explainSlowQueries = explainSlowQueries;
+        }
+    }
+
+    public static class EntityCache {
+
+        /**
+         * Sizing of the Hibernate second-level cache regions, by entity name in kebab case (such as
+         * {@code http-monitor}, also used for the entity's collections) or {@code assignments} for cached agent
+         * monitor queries. Unset values fall back to {@code jhipster.cache.ehcache}.
+         */
+        private final Map<String, Region> regions = new LinkedHashMap<>();
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public static class Region {
+
+            /**
+             * Entries kept on the heap, the least recently used are evicted first.
+             */
+            private Long maxEntries;
+
+            /**
+             * Bounds how long changes made by other instances take to show up when cluster events are disabled.
+             */
+            private Long timeToLiveSeconds;
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+    }
+
+    public static class Cluster {
+
+        /**
+         * Exchange cache invalidations and coalesced ingest events with the other instances through PostgreSQL
+         * {@code LISTEN}/{@code NOTIFY}.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Notification channel, shared by all the instances of a deployment.
+         */
+        private String channel = "uptime_cluster";
+
+        /**
+         * Events are coalesced and sent at this rate.
+         */
+        private long flushIntervalMs = 250;
+
+        /**
+         * Delay before listening again after the listening connection was lost, doubled on each failed attempt.
+         */
+        private long reconnectDelayMs = 1000;
+
+        /**
+         * Cap on the delay between attempts to listen again.
+         */
+        private long maxReconnectDelayMs = 30_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+
+        public long getReconnectDelayMs() {
+            return reconnectDelayMs;
+        }
+
+        public void setReconnectDelayMs(long reconnectDelayMs) {
+            this.reconnectDelayMs = reconnectDelayMs;
+        }
+
+        public long getMaxReconnectDelayMs() {
+            return maxReconnectDelayMs;
+        }
+
+        public void setMaxReconnectDelayMs(long maxReconnectDelayMs) {
+            this.maxReconnectDelayMs = maxReconnectDelayMs;
+        }
+    }
+
+    public static class ReadReplicas {
+
+        /**
+         * Route read-only transactions to the replica pools; see {@link ReadReplicaConfiguration}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Replicas further behind the primary than this are skipped; read-only transactions use the primary when
+         * all are.
+         */
+        private long maxLagMs = 2000;
+
+        /**
+         * Rate at which the replication lag of each replica is measured.
+         */
+        private long lagCheckIntervalMs = 1000;
+
+        private final List<Pool> pools = new ArrayList<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxLagMs() {
+            return maxLagMs;
+        }
+
+        public void setMaxLagMs(long maxLagMs) {
+            this.maxLagMs = maxLagMs;
+        }
+
+        public long getLagCheckIntervalMs() {
+            return lagCheckIntervalMs;
+        }
+
+        public void setLagCheckIntervalMs(long lagCheckIntervalMs) {
+            this.lagCheckIntervalMs = lagCheckIntervalMs;
+        }
+
+        public List<Pool> getPools() {
+            return pools;
+        }
+
+        public static class Pool {
+
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            /**
+             * Size of the pool; unset uses the size of the primary pool.
+             */
+            private Integer maximumPoolSize;
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+
+            public Integer getMaximumPoolSize() {
+                return maximumPoolSize;
+            }
+
+            public void setMaximumPoolSize(Integer maximumPoolSize) {
+                this.maximumPoolSize = maximumPoolSize;
+            }
+        }
+    }
+
+    public static class Bulkheads {
+
+        /**
+         * Admit API requests and give them database connections separately per lane of traffic; see
+         * {@link BulkheadConfiguration}. Replaces the admission per connection of {@link Threads}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Heartbeats submitted by agents.
+         */
+        private final Lane ingestion = new Lane(5, 10_000);
+
+        /**
+         * Configuration polls, leases and replica registrations of agents.
+         */
+        private final Lane agentControl = new Lane(2, 5000);
+
+        /**
+         * Everything else; uses the {@code spring.datasource.hikari} pool, with the connections the other lanes
+         * leave of its size.
+         */
+        private final Lane interactive = new Lane(null, 250);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Lane getIngestion() {
+            return ingestion;
+        }
+
+        public Lane getAgentControl() {
+            return agentControl;
+        }
+
+        public Lane getInteractive() {
+            return interactive;
+        }
+
+        public static class Lane {
+
+            /**
+             * Connections of the pool of the lane, taken from {@code spring.datasource.hikari.maximum-pool-size}.
+             */
+            private Integer poolSize;
+
+            /**
+             * Requests admitted at once; unset admits {@code application.threads.requests-per-connection} per
+             * connection of the pool.
+             */
+            private Integer maxConcurrentRequests;
+
+            /**
+             * How long a request waits for a slot before it is answered with {@code 503}.
+             */
+            private long admissionTimeoutMs;
+
+            public Lane(Integer poolSize, long admissionTimeoutMs) {
+                this.poolSize = poolSize;
+                this.admissionTimeoutMs = admissionTimeoutMs;
+            }
+
+            public Integer getPoolSize() {
+                return poolSize;
+            }
+
+            public void setPoolSize(Integer poolSize) {
+                this.poolSize = poolSize;
+            }
+
+            public Integer getMaxConcurrentRequests() {
+                return maxConcurrentRequests;
+            }
+
+            public void setMaxConcurrentRequests(Integer maxConcurrentRequests) {
+                this.maxConcurrentRequests = maxConcurrentRequests;
+            }
+
+            public long getAdmissionTimeoutMs() {
+                return admissionTimeoutMs;
+            }
+
+            public void setAdmissionTimeoutMs(long admissionTimeoutMs) {
+                this.admissionTimeoutMs = admissionTimeoutMs;
+            }
+        }
+    }
+
+    public static class Incidents {
+
+        /**
+         * Open and close incidents from the ingested heartbeats of each monitor and agent.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Consecutive failed checks opening an incident.
+         */
+        private int failureThreshold = 3;
+
+        /**
+         * Consecutive checks at or above the critical threshold of their schedule opening an incident.
+         */
+        private int latencyThreshold = 3;
+
+        /**
+         * Consecutive healthy checks closing an incident, so that a flapping monitor does not open a new one on
+         * every other check.
+         */
+        private int recoveryThreshold = 2;
+
+        /**
+         * Incidents opened and closed are written at this rate.
+         */
+        private long flushIntervalMs = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public int getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(int latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public int getRecoveryThreshold() {
+            return recoveryThreshold;
+        }
+
+        public void setRecoveryThreshold(int recoveryThreshold) {
+            this.recoveryThreshold = recoveryThreshold;
+        }
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+    }
+
     // jhipster-needle-application-properties-property-class
 }
@@ -0,0 +1,194 @@
+package uptime.observability.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import uptime.observability.web.filter.RequestLane;
+import uptime.observability.web.filter.RequestLaneFilter;
+
+/**
+ * Bulkheads between ingestion, agent control and interactive API traffic, so that an expensive dashboard cannot
+ * starve heartbeat writes.
+ * <p>
+ * Ingestion and agent control requests get connection pools of their own, copying the settings of the primary
+ * pool with their own size; interactive requests and everything outside of requests keep the primary pool. Lane
+ * pools are carved out of {@code spring.datasource.hikari.maximum-pool-size}, which the primary pool is left with
+ * the rest of, so the database sees as many connections as with a single pool; the application does not start if
+ * nothing is left. The primary datasource is wrapped in a {@link LaneRoutingDataSource} before any other wrapping.
+ * Each lane admits {@code application.threads.requests-per-connection} requests per connection of its pool at
+ * once, unless set otherwise, through a {@link RequestLaneFilter}.
+ * <p>
+ * Opt-in with {@code application.bulkheads.enabled}: the primary pool also serves scheduled jobs, {@code @Async}
+ * tasks, cluster event and incident flushes and API key lookups, which then share what the lanes leave, and
+ * interactive requests are shed while any of them waits for a connection. The lane is kept in a thread local of
+ * the request thread, so work handed to other threads, such as {@code @Async} methods or the completion of a
+ * {@code DeferredResult}, uses the primary pool.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.bulkheads", name = "enabled", havingValue = "true")
+public class BulkheadConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkheadConfiguration.class);
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public static LanePostProcessor laneDataSourcePostProcessor(ObjectProvider<ApplicationProperties> applicationProperties) {
+        return new LanePostProcessor(applicationProperties);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestLaneFilter> requestLaneFilter(
+        LanePostProcessor laneDataSourcePostProcessor,
+        DataSource dataSource,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        LaneRoutingDataSource routing = laneDataSourcePostProcessor.routing;
+        ApplicationProperties.Bulkheads bulkheads = applicationProperties.getBulkheads();
+        int requestsPerConnection = applicationProperties.getThreads().getRequestsPerConnection();
+        Map<RequestLane, RequestLaneFilter.Bulkhead> lanes = new EnumMap<>(RequestLane.class);
+        for (RequestLane lane : RequestLane.values()) {
+            HikariDataSource pool = routing != null ? routing.getPool(lane) : null;
+            if (pool != null) {
+                HikariPools.bindMetrics(pool, registry);
+            }
+            ApplicationProperties.Bulkheads.Lane properties = lane(bulkheads, lane);
+            int maxConcurrentRequests = properties.getMaxConcurrentRequests() != null
+                ? properties.getMaxConcurrentRequests()
+                : (pool != null ? pool.getMaximumPoolSize() : poolSize(dataSource)) * requestsPerConnection;
+            LOG.info("Admitting {} {} requests at once", maxConcurrentRequests, lane.name().toLowerCase(Locale.ROOT).replace('_', ' '));
+            lanes.put(lane, new RequestLaneFilter.Bulkhead(maxConcurrentRequests, properties.getAdmissionTimeoutMs()));
+        }
+        HikariDataSource interactivePool = laneDataSourcePostProcessor.primaryPool;
+        // Registered after the security filter chain, so unauthenticated and throttled requests never take a slot
+        return new FilterRegistrationBean<>(
+            new RequestLaneFilter(
+                lanes,
+                () -> {
+                    HikariPoolMXBean pool = interactivePool != null ? interactivePool.getHikariPoolMXBean() : null;
+                    return pool != null && pool.getThreadsAwaitingConnection() > 0;
+                },
+                registry
+            )
+        );
+    }
+
+    private static ApplicationProperties.Bulkheads.Lane lane(ApplicationProperties.Bulkheads bulkheads, RequestLane lane) {
+        return switch (lane) {
+            case INGESTION -> bulkheads.getIngestion();
+            case AGENT_CONTROL -> bulkheads.getAgentControl();
+            case INTERACTIVE -> bulkheads.getInteractive();
+        };
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        HikariDataSource pool = hikari(dataSource);
+        return pool != null ? pool.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+    }
+
+    private static HikariDataSource hikari(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class);
+            }
+        } catch (SQLException e) {
+            LOG.warn("Could not read the connection pool settings: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    static final class LanePostProcessor implements DestructionAwareBeanPostProcessor, Ordered {
+
+        private final ObjectProvider<ApplicationProperties> applicationProperties;
+
+        private LaneRoutingDataSource routing;
+
+        private HikariDataSource primaryPool;
+
+        private LanePostProcessor(ObjectProvider<ApplicationProperties> applicationProperties) {
+            this.applicationProperties = applicationProperties;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource primary) || bean instanceof LaneRoutingDataSource || routing != null) {
+                return bean;
+            }
+            ApplicationProperties.Bulkheads bulkheads = applicationProperties.getObject().getBulkheads();
+            primaryPool = hikari(primary);
+            int budget = poolSize(primary);
+            int ingestionSize = size(bulkheads.getIngestion(), budget);
+            int agentControlSize = size(bulkheads.getAgentControl(), budget);
+            int primarySize = budget - ingestionSize - agentControlSize;
+            if (primarySize < 1) {
+                throw new IllegalStateException(
+                    String.format(
+                        "application.bulkheads pool sizes (ingestion %d, agent control %d) must leave at least one of the %d " +
+                        "connections of spring.datasource.hikari.maximum-pool-size to the primary pool",
+                        ingestionSize,
+                        agentControlSize,
+                        budget
+                    )
+                );
+            }
+            if (primaryPool != null) {
+                primaryPool.setMaximumPoolSize(primarySize);
+                primaryPool.setMinimumIdle(Math.min(primaryPool.getMinimumIdle(), primarySize));
+            }
+            Map<RequestLane, HikariDataSource> pools = new EnumMap<>(RequestLane.class);
+            pools.put(RequestLane.INGESTION, pool(primary, "ingestion", ingestionSize));
+            pools.put(RequestLane.AGENT_CONTROL, pool(primary, "agent-control", agentControlSize));
+            routing = new LaneRoutingDataSource(primary, pools);
+            LOG.info(
+                "Splitting {} connections between ingestion ({}), agent control ({}) and the primary pool ({})",
+                budget,
+                ingestionSize,
+                agentControlSize,
+                primarySize
+            );
+            return routing;
+        }
+
+        @Override
+        public void postProcessBeforeDestruction(Object bean, String beanName) {
+            if (bean instanceof DataSource && routing != null) {
+                routing.close();
+                routing = null;
+            }
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        private static int size(ApplicationProperties.Bulkheads.Lane properties, int budget) {
+            // Without a size of its own, a lane would take the whole budget
+            return properties.getPoolSize() != null ? properties.getPoolSize() : budget;
+        }
+
+        private static HikariDataSource pool(DataSource primary, String lane, int size) {
+            // Copied after the primary pool was resized, so only the size differs
+            HikariConfig config = HikariPools.copyOf(primary, lane);
+            config.setMaximumPoolSize(size);
+            config.setMinimumIdle(Math.min(config.getMinimumIdle(), size));
+            return new HikariDataSource(config);
+        }
+    }
+}
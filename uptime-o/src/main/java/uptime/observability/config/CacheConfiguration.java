@@ -1,10 +1,14 @@
 package uptime.observability.config;
 
 import java.time.Duration;
+import java.util.Map;
 import org.ehcache.config.builders.*;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
 import org.springframework.cache.annotation.EnableCaching;
@@ -20,54 +24,105 @@ public class CacheConfiguration {
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final javax.cache.configuration.Configuration<Object, Object> apiKeyCacheConfiguration;
+    private final javax.cache.configuration.Configuration<Object, Object> unknownApiKeyCacheConfiguration;
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final Map<String, ApplicationProperties.EntityCache.Region> entityCacheRegions;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+        ApplicationProperties.ApiKey apiKey = applicationProperties.getApiKey();
 
-        jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
-            CacheConfigurationBuilder.newCacheConfigurationBuilder(
-                Object.class,
-                Object.class,
-                ResourcePoolsBuilder.heap(ehcache.getMaxEntries())
-            )
-                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
+        jcacheConfiguration = cacheConfiguration(ehcache.getMaxEntries(), ehcache.getTimeToLiveSeconds());
+        apiKeyCacheConfiguration = cacheConfiguration(apiKey.getCacheMaxEntries(), apiKey.getCacheTtlSeconds());
+        unknownApiKeyCacheConfiguration = cacheConfiguration(apiKey.getNegativeCacheMaxEntries(), apiKey.getNegativeCacheTtlSeconds());
+        this.ehcache = ehcache;
+        this.entityCacheRegions = applicationProperties.getEntityCache().getRegions();
+    }
+
+    private static javax.cache.configuration.Configuration<Object, Object> timestampsCacheConfiguration() {
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(10_000))
+                .withExpiry(ExpiryPolicyBuilder.noExpiration())
+                .build()
+        );
+    }
+
+    private static javax.cache.configuration.Configuration<Object, Object> cacheConfiguration(long maxEntries, long timeToLiveSeconds) {
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLiveSeconds)))
                 .build()
         );
     }
 
+    /**
+     * Sizing of a second-level cache region, see {@link ApplicationProperties.EntityCache}.
+     */
+    private javax.cache.configuration.Configuration<Object, Object> region(String name) {
+        ApplicationProperties.EntityCache.Region region = entityCacheRegions.get(name);
+        if (region == null) {
+            return jcacheConfiguration;
+        }
+        return cacheConfiguration(
+            region.getMaxEntries() != null ? region.getMaxEntries() : ehcache.getMaxEntries(),
+            region.getTimeToLiveSeconds() != null ? region.getTimeToLiveSeconds() : ehcache.getTimeToLiveSeconds()
+        );
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+
     @Bean
     public JCacheManagerCustomizer cacheManagerCustomizer() {
         return cm -> {
             createCache(cm, uptime.observability.repository.UserRepository.USERS_BY_LOGIN_CACHE);
             createCache(cm, uptime.observability.repository.UserRepository.USERS_BY_EMAIL_CACHE);
             createCache(cm, uptime.observability.domain.Authority.class.getName());
-            createCache(cm, uptime.observability.domain.Schedule.class.getName());
-            createCache(cm, uptime.observability.domain.Schedule.class.getName() + ".apiMonitors");
-            createCache(cm, uptime.observability.domain.HttpMonitor.class.getName());
-            createCache(cm, uptime.observability.domain.HttpMonitor.class.getName() + ".apiHeartbeats");
-            createCache(cm, uptime.observability.domain.HttpMonitor.class.getName() + ".agentMonitors");
-            createCache(cm, uptime.observability.domain.Region.class.getName());
-            createCache(cm, uptime.observability.domain.Region.class.getName() + ".datacenters");
-            createCache(cm, uptime.observability.domain.Datacenter.class.getName());
-            createCache(cm, uptime.observability.domain.Datacenter.class.getName() + ".agents");
-            createCache(cm, uptime.observability.domain.Agent.class.getName());
-            createCache(cm, uptime.observability.domain.Agent.class.getName() + ".apiHeartbeats");
-            createCache(cm, uptime.observability.domain.Agent.class.getName() + ".agentMonitors");
-            createCache(cm, uptime.observability.domain.HttpHeartbeat.class.getName());
             createCache(cm, uptime.observability.domain.AuditLog.class.getName());
-            createCache(cm, uptime.observability.domain.AgentMonitor.class.getName());
+            // Read-mostly entities and their collections; heartbeats and their collections are written too often
+            createCache(cm, uptime.observability.domain.Schedule.class.getName(), region("schedule"));
+            createCache(cm, uptime.observability.domain.Schedule.class.getName() + ".apiMonitors", region("schedule"));
+            createCache(cm, uptime.observability.domain.HttpMonitor.class.getName(), region("http-monitor"));
+            createCache(cm, uptime.observability.domain.HttpMonitor.class.getName() + ".agentMonitors", region("http-monitor"));
+            createCache(cm, uptime.observability.domain.Region.class.getName(), region("region"));
+            createCache(cm, uptime.observability.domain.Region.class.getName() + ".datacenters", region("region"));
+            createCache(cm, uptime.observability.domain.Datacenter.class.getName(), region("datacenter"));
+            createCache(cm, uptime.observability.domain.Datacenter.class.getName() + ".agents", region("datacenter"));
+            createCache(cm, uptime.observability.domain.Agent.class.getName(), region("agent"));
+            createCache(cm, uptime.observability.domain.Agent.class.getName() + ".agentMonitors", region("agent"));
+            createCache(cm, uptime.observability.domain.AgentMonitor.class.getName(), region("agent-monitor"));
+            createCache(cm, uptime.observability.domain.Instance.class.getName(), region("instance"));
+            createCache(cm, uptime.observability.repository.AgentMonitorRepository.ASSIGNMENTS_CACHE, region("assignments"));
+            createCache(cm, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+            // Cached query results are only valid while the last update time of their tables is known
+            createCache(cm, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, timestampsCacheConfiguration());
             createCache(cm, "statusPage");
+            createCache(cm, uptime.observability.service.ApiKeyService.API_KEYS_BY_HASH_CACHE, apiKeyCacheConfiguration);
+            createCache(cm, uptime.observability.service.ApiKeyService.UNKNOWN_API_KEYS_CACHE, unknownApiKeyCacheConfiguration);
             // jhipster-needle-ehcache-add-entry
         };
     }
 
     private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        createCache(cm, cacheName, jcacheConfiguration);
+    }
+
+    private void createCache(
+        javax.cache.CacheManager cm,
+        String cacheName,
+        javax.cache.configuration.Configuration<Object, Object> configuration
+    ) {
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, configuration);
         }
+        // Feeds the cache.gets hit/miss meters
+        cm.enableStatistics(cacheName, true);
     }
 
     @Autowired(required = false)
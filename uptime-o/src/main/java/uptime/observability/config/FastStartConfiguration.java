@@ -0,0 +1,60 @@
+package uptime.observability.config;
+
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.type.MethodMetadata;
+
+/**
+ * Configuration of the {@code fast-start} profile, built into images by the {@code fast-start} Maven profile.
+ * <p>
+ * Mail and API documentation beans are only needed by account emails and the Swagger UI, so they are created
+ * on first use instead of on the critical path of a restart. With Spring AOT, this is decided at build time.
+ */
+@Configuration
+@Profile(FastStartConfiguration.SPRING_PROFILE_FAST_START)
+public class FastStartConfiguration {
+
+    public static final String SPRING_PROFILE_FAST_START = "fast-start";
+
+    private static final Logger LOG = LoggerFactory.getLogger(FastStartConfiguration.class);
+
+    private static final List<String> DEFERRED_PACKAGES = List.of(
+        "org.springframework.boot.autoconfigure.mail.",
+        "org.springframework.boot.autoconfigure.thymeleaf.",
+        "org.thymeleaf.",
+        "org.springdoc.",
+        "tech.jhipster.config.apidoc.",
+        "uptime.observability.service.MailService"
+    );
+
+    @Bean
+    public static BeanFactoryPostProcessor deferNonCriticalBeans() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                String className = declaringClassName(definition);
+                if (className != null && DEFERRED_PACKAGES.stream().anyMatch(className::startsWith)) {
+                    LOG.debug("Deferring bean {}", name);
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    private static String declaringClassName(BeanDefinition definition) {
+        if (definition instanceof AnnotatedBeanDefinition annotated) {
+            MethodMetadata factoryMethod = annotated.getFactoryMethodMetadata();
+            if (factoryMethod != null) {
+                return factoryMethod.getDeclaringClassName();
+            }
+        }
+        return definition.getBeanClassName();
+    }
+}
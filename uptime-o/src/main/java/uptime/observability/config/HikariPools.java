@@ -0,0 +1,54 @@
+package uptime.observability.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Connection pools created next to the auto-configured one, for read replicas and request lanes.
+ */
+final class HikariPools {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HikariPools.class);
+
+    private HikariPools() {}
+
+    /**
+     * Copy the settings of the pool behind a datasource, for a pool named after it.
+     *
+     * @param dataSource the datasource, usually the auto-configured Hikari pool.
+     * @param suffix appended to the pool name.
+     * @return the settings, to complete before creating the pool.
+     */
+    static HikariConfig copyOf(DataSource dataSource, String suffix) {
+        HikariConfig config = new HikariConfig();
+        String poolName = null;
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+                hikari.copyStateTo(config);
+                poolName = hikari.getPoolName();
+            }
+        } catch (SQLException e) {
+            LOG.warn("Could not read the connection pool settings: {}", e.getMessage());
+        }
+        config.setPoolName((poolName != null ? poolName : "Hikari") + "-" + suffix);
+        // Connections are opened on first use, so that an unreachable database does not hold up the start
+        config.setInitializationFailTimeout(-1);
+        return config;
+    }
+
+    /**
+     * Report the {@code hikaricp} meters of a pool that is not a bean, which Spring Boot does not bind.
+     */
+    static void bindMetrics(HikariDataSource pool, MeterRegistry registry) {
+        if (pool.getMetricsTrackerFactory() == null && pool.getMetricRegistry() == null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package uptime.observability.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import uptime.observability.web.filter.RequestLane;
+
+/**
+ * Datasource installed by {@link BulkheadConfiguration}: hands out connections of the pool of the
+ * {@link RequestLane} of the current request, and of the primary pool for interactive requests and outside of
+ * requests (scheduled jobs, asynchronous tasks).
+ */
+public class LaneRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final Map<RequestLane, HikariDataSource> pools;
+
+    LaneRoutingDataSource(DataSource primary, Map<RequestLane, HikariDataSource> pools) {
+        this.pools = pools;
+        setDefaultTargetDataSource(primary);
+        setTargetDataSources(new HashMap<>(pools));
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return RequestLane.current();
+    }
+
+    /**
+     * @return the pool of a lane, or {@code null} if it uses the primary pool.
+     */
+    HikariDataSource getPool(RequestLane lane) {
+        return pools.get(lane);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,118 @@
+package uptime.observability.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Sends read-only transactions, such as the monitor detail and metrics reads, to replicas of the database, so
+ * that they do not take connections of the primary pool from heartbeat ingestion.
+ * <p>
+ * The primary datasource is wrapped in a {@link LazyConnectionDataSourceProxy}: connections are only fetched on
+ * their first statement, once the transaction marked them read-only, and read-only ones are fetched from a
+ * {@link ReadReplicaDataSource}. Replica pools copy the settings of the primary pool. The wrapping happens after
+ * the {@link BulkheadConfiguration} one, so transactions falling back to the primary keep their lane, and before
+ * the SQL telemetry proxy is applied, so statements on replicas are measured too.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.read-replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadReplicaConfiguration.class);
+
+    @Bean
+    public static ReadReplicaPostProcessor readReplicaDataSourcePostProcessor(ObjectProvider<ApplicationProperties> applicationProperties) {
+        return new ReadReplicaPostProcessor(applicationProperties);
+    }
+
+    @Bean
+    public MeterBinder readReplicaMetrics(ReadReplicaPostProcessor readReplicaDataSourcePostProcessor) {
+        return registry -> {
+            if (readReplicaDataSourcePostProcessor.readReplicaDataSource != null) {
+                readReplicaDataSourcePostProcessor.readReplicaDataSource.bindMetrics(registry);
+            }
+        };
+    }
+
+    static final class ReadReplicaPostProcessor implements DestructionAwareBeanPostProcessor, Ordered {
+
+        private final ObjectProvider<ApplicationProperties> applicationProperties;
+
+        private ReadReplicaDataSource readReplicaDataSource;
+
+        private ReadReplicaPostProcessor(ObjectProvider<ApplicationProperties> applicationProperties) {
+            this.applicationProperties = applicationProperties;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource primary) || bean instanceof LazyConnectionDataSourceProxy || readReplicaDataSource != null) {
+                return bean;
+            }
+            ApplicationProperties.ReadReplicas properties = applicationProperties.getObject().getReadReplicas();
+            List<ApplicationProperties.ReadReplicas.Pool> pools = properties.getPools();
+            if (pools.isEmpty()) {
+                LOG.warn("Read replicas are enabled, but none is configured");
+                return bean;
+            }
+            Map<String, DataSource> replicas = new LinkedHashMap<>();
+            for (int i = 0; i < pools.size(); i++) {
+                HikariDataSource replica = replica(primary, pools.get(i), i);
+                replicas.put(replica.getPoolName(), replica);
+            }
+            readReplicaDataSource = new ReadReplicaDataSource(primary, replicas, properties.getMaxLagMs());
+            readReplicaDataSource.start(properties.getLagCheckIntervalMs());
+            LOG.info(
+                "Routing read-only transactions to {} replicas within {} ms of the primary",
+                replicas.size(),
+                properties.getMaxLagMs()
+            );
+
+            LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+            proxy.setReadOnlyDataSource(readReplicaDataSource);
+            return proxy;
+        }
+
+        @Override
+        public void postProcessBeforeDestruction(Object bean, String beanName) {
+            if (bean instanceof DataSource && readReplicaDataSource != null) {
+                readReplicaDataSource.close();
+                readReplicaDataSource = null;
+            }
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE + 1;
+        }
+
+        private static HikariDataSource replica(DataSource primary, ApplicationProperties.ReadReplicas.Pool pool, int index) {
+            if (pool.getUsername() == null || pool.getUsername().isBlank()) {
+                // Credentials are not copied from the primary pool, the replicas may grant fewer privileges
+                throw new IllegalStateException("application.read-replicas.pools[" + index + "].username is required");
+            }
+            HikariConfig config = HikariPools.copyOf(primary, "replica-" + index);
+            config.setJdbcUrl(pool.getUrl());
+            config.setUsername(pool.getUsername());
+            config.setPassword(pool.getPassword());
+            if (pool.getMaximumPoolSize() != null) {
+                config.setMaximumPoolSize(pool.getMaximumPoolSize());
+            }
+            config.setReadOnly(true);
+            return new HikariDataSource(config);
+        }
+    }
+}
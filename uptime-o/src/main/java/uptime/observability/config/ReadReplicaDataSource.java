@@ -0,0 +1,211 @@
+package uptime.observability.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * Read-only target of the datasource installed by {@link ReadReplicaConfiguration}: hands out connections of the
+ * replicas within {@code application.read-replicas.max-lag-ms} of the primary, in turn, and of the primary when
+ * none is.
+ * <p>
+ * Reads that must see what was just committed, such as fencing token checks and API key or login lookups, are
+ * annotated with {@link uptime.observability.repository.PrimaryRead}: they are not read-only, so never get here.
+ * <p>
+ * A replica is caught up when it replayed the WAL the primary had written when its lag was checked; otherwise,
+ * its lag is the age of its last replayed transaction. A replica that stopped receiving WAL thus falls behind as
+ * soon as the primary writes, while an idle primary does not make its replicas look behind.
+ */
+public class ReadReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    public static final String LAG_METER_NAME = "uptime.read-replica.lag";
+    public static final String LAG_METER_DESCRIPTION = "Replication lag of a read replica, infinite while unreachable.";
+    public static final String LAG_METER_REPLICA_DIMENSION = "replica";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadReplicaDataSource.class);
+
+    private static final String PRIMARY_LSN_QUERY = "SELECT pg_current_wal_lsn()::text";
+
+    // Null when the replica never replayed a transaction, and so cannot tell how far behind it is
+    private static final String LAG_QUERY =
+        "SELECT CASE WHEN pg_last_wal_replay_lsn() >= CAST(? AS pg_lsn) THEN 0 " +
+        "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final long maxLagMs;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private ScheduledExecutorService lagChecker;
+
+    ReadReplicaDataSource(DataSource primary, Map<String, DataSource> replicas, long maxLagMs) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.maxLagMs = maxLagMs;
+    }
+
+    /**
+     * Measure the lag of the replicas every interval, from now on; until first measured, they are not used.
+     */
+    void start(long lagCheckIntervalMs) {
+        lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(this::checkLag, 0, lagCheckIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Report the lag and the {@code hikaricp} meters of each replica.
+     */
+    void bindMetrics(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            Gauge.builder(LAG_METER_NAME, replica, r -> r.lagMs == Long.MAX_VALUE ? Double.POSITIVE_INFINITY : r.lagMs)
+                .description(LAG_METER_DESCRIPTION)
+                .baseUnit("milliseconds")
+                .tag(LAG_METER_REPLICA_DIMENSION, replica.name)
+                .register(registry);
+            if (replica.dataSource instanceof HikariDataSource pool) {
+                HikariPools.bindMetrics(pool, registry);
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection getConnection(ConnectionSource source) throws SQLException {
+        Replica replica = select();
+        if (replica != null) {
+            try {
+                return source.getConnection(replica.dataSource);
+            } catch (SQLException e) {
+                replica.update(Long.MAX_VALUE, maxLagMs, e.getMessage());
+            }
+        }
+        return source.getConnection(primary);
+    }
+
+    Replica select() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.lagMs <= maxLagMs) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    void checkLag() {
+        String primaryLsn;
+        try (
+            Connection connection = primary.getConnection();
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery(PRIMARY_LSN_QUERY)
+        ) {
+            resultSet.next();
+            primaryLsn = resultSet.getString(1);
+        } catch (SQLException e) {
+            LOG.warn("Could not read the WAL position of the primary, keeping the replica lags: {}", e.getMessage());
+            return;
+        }
+        for (Replica replica : replicas) {
+            try (
+                Connection connection = replica.dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(LAG_QUERY)
+            ) {
+                statement.setString(1, primaryLsn);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    long lagMs = resultSet.getLong(1);
+                    if (resultSet.wasNull()) {
+                        replica.update(Long.MAX_VALUE, maxLagMs, "no transaction replayed yet");
+                    } else {
+                        replica.update(lagMs, maxLagMs, null);
+                    }
+                }
+            } catch (SQLException e) {
+                replica.update(Long.MAX_VALUE, maxLagMs, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (lagChecker != null) {
+            lagChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    LOG.warn("Could not close replica {}: {}", replica.name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection getConnection(DataSource dataSource) throws SQLException;
+    }
+
+    static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long lagMs = Long.MAX_VALUE;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        void update(long lagMs, long maxLagMs, String error) {
+            boolean wasInUse = this.lagMs <= maxLagMs;
+            this.lagMs = lagMs;
+            if (wasInUse && lagMs > maxLagMs) {
+                if (error != null) {
+                    LOG.warn("Replica {} is unavailable, reading from the primary instead: {}", name, error);
+                } else {
+                    LOG.warn("Replica {} is {} ms behind the primary, reading from the primary instead", name, lagMs);
+                }
+            } else if (!wasInUse && lagMs <= maxLagMs) {
+                LOG.info("Reading from replica {}, {} ms behind the primary", name, lagMs);
+            }
+        }
+    }
+}
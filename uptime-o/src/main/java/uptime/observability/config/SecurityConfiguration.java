@@ -39,8 +39,8 @@ public class SecurityConfiguration {
     }
 
     @Bean
-    public ApiKeyAuthenticationFilter apiKeyAuthenticationFilter(ApiKeyService apiKeyService) {
-        return new ApiKeyAuthenticationFilter(apiKeyService);
+    public ApiKeyAuthenticationFilter apiKeyAuthenticationFilter(ApiKeyService apiKeyService, ApiKeyRateLimiter apiKeyRateLimiter) {
+        return new ApiKeyAuthenticationFilter(apiKeyService, apiKeyRateLimiter);
     }
 
     @Bean
@@ -81,6 +81,7 @@ public class SecurityConfiguration {
                     .requestMatchers(mvc.pattern("/api/agent/**")).hasAuthority(AuthoritiesConstants.API_AGENT)
                     .requestMatchers(mvc.pattern("/api/public/monitors/**")).hasAnyAuthority(AuthoritiesConstants.API_AGENT, AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN)
                     .requestMatchers(mvc.pattern("/api/public/agents/**")).hasAnyAuthority(AuthoritiesConstants.API_AGENT, AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN)
+                    .requestMatchers(mvc.pattern("/api/public/fleet/**")).hasAnyAuthority(AuthoritiesConstants.API_AGENT, AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN)
                     .requestMatchers(mvc.pattern("/api/admin/**")).hasAuthority(AuthoritiesConstants.ADMIN)
                     .requestMatchers(mvc.pattern("/api/**")).authenticated()
                     .requestMatchers(mvc.pattern("/websocket/**")).authenticated()
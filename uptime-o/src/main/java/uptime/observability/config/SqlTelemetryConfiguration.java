@@ -0,0 +1,72 @@
+package uptime.observability.config;
+
+import java.util.List;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import uptime.observability.aop.sql.RepositoryStatementAspect;
+import uptime.observability.management.SqlMetersService;
+
+/**
+ * Wraps the datasource in a proxy reporting every statement to the {@link SqlMetersService}, and attributes the
+ * statements of the heartbeat and agent monitor repositories to their methods.
+ * <p>
+ * The proxy delegates {@code unwrap}, so code reaching for the Hikari pool underneath keeps working.
+ */
+@Configuration
+@EnableAspectJAutoProxy
+@ConditionalOnProperty(prefix = "application.sql", name = "telemetry-enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTelemetryConfiguration {
+
+    @Bean
+    public static BeanPostProcessor sqlTelemetryDataSourcePostProcessor() {
+        DeferredListener listener = new DeferredListener();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource).listener(listener).build();
+                }
+                if (bean instanceof SqlMetersService sqlMetersService) {
+                    listener.delegate = sqlMetersService;
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public RepositoryStatementAspect repositoryStatementAspect(SqlMetersService sqlMetersService) {
+        return new RepositoryStatementAspect(sqlMetersService);
+    }
+
+    /**
+     * The datasource is created before the meter registry, so statements are only reported once the meters
+     * service exists; the ones run while the context starts, such as Liquibase's, are not measured.
+     */
+    private static final class DeferredListener implements QueryExecutionListener {
+
+        private volatile SqlMetersService delegate;
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            // Everything is measured after execution
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            SqlMetersService sqlMetersService = delegate;
+            if (sqlMetersService != null) {
+                sqlMetersService.afterQuery(execInfo, queryInfoList);
+            }
+        }
+    }
+}
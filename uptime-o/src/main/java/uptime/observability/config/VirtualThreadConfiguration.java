@@ -0,0 +1,83 @@
+package uptime.observability.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.task.TaskSchedulingProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.embedded.undertow.UndertowDeploymentInfoCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import uptime.observability.web.filter.ConnectionPoolAdmissionFilter;
+
+/**
+ * Runs request handling and scheduled jobs on virtual threads when {@code spring.threads.virtual.enabled} is set
+ * on a Java 21+ runtime ({@link AsyncConfiguration} does the same for {@code @Async} tasks).
+ * <p>
+ * Experimental: the project builds and is tested on Java 17, where this configuration never applies, and there are
+ * no recorded measurements against platform threads yet. Compare both modes with the {@code ThreadingBenchmark} of
+ * the {@code loadtest} profile before turning it on in production.
+ * <p>
+ * Virtual threads make blocking JPA calls cheap to wait on, but not the connections they wait for, so API
+ * requests are admitted per connection of the pool by a {@link ConnectionPoolAdmissionFilter}, or per lane of traffic
+ * with {@link BulkheadConfiguration}. The filter is only registered with bulkheads disabled: otherwise the
+ * {@link uptime.observability.web.filter.RequestLaneFilter} already admits requests per connection of the pool of
+ * each lane, and a single limit over all lanes would let one lane take the slots of the others. Bulkheads being
+ * opt-in, enabling virtual threads alone registers the filter.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadConfiguration.class);
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public UndertowDeploymentInfoCustomizer virtualThreadDeploymentInfoCustomizer() {
+        return deploymentInfo -> {
+            VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor("undertow-virtual-");
+            deploymentInfo.setExecutor(executor);
+            deploymentInfo.setAsyncExecutor(executor);
+        };
+    }
+
+    @Bean(name = "taskScheduler")
+    public SimpleAsyncTaskScheduler taskScheduler(TaskSchedulingProperties taskSchedulingProperties) {
+        SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+        scheduler.setThreadNamePrefix(taskSchedulingProperties.getThreadNamePrefix());
+        scheduler.setVirtualThreads(true);
+        return scheduler;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.bulkheads", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public FilterRegistrationBean<ConnectionPoolAdmissionFilter> connectionPoolAdmissionFilter(
+        DataSource dataSource,
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.Threads threads = applicationProperties.getThreads();
+        int maxConcurrentRequests = poolSize(dataSource) * threads.getRequestsPerConnection();
+        LOG.warn("Running on virtual threads (experimental), admitting {} API requests at once", maxConcurrentRequests);
+        // Registered after the security filter chain, so unauthenticated and throttled requests never take a slot
+        return new FilterRegistrationBean<>(new ConnectionPoolAdmissionFilter(maxConcurrentRequests, threads.getAdmissionTimeoutMs()));
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            LOG.warn("Could not read the connection pool size: {}", e.getMessage());
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+}
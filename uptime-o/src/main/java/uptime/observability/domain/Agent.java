@@ -6,12 +6,15 @@ import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A Agent.
  */
 @Entity
 @Table(name = "agents")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Agent implements Serializable {
 
@@ -34,6 +37,7 @@ public class Agent implements Serializable {
 
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "agent")
     @JsonIgnoreProperties(value = { "agent", "monitor" }, allowSetters = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<AgentMonitor> agentMonitors = new HashSet<>();
 
     @ManyToOne(fetch = FetchType.LAZY)
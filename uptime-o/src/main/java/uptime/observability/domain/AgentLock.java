@@ -23,6 +23,12 @@ public class AgentLock implements Serializable {
     @Column(name = "expires_at", nullable = false)
     private Instant expiresAt;
 
+    @Column(name = "holder_id", length = 100)
+    private String holderId;
+
+    @Column(name = "fencing_token", nullable = false)
+    private Long fencingToken = 0L;
+
     public Long getAgentId() {
         return agentId;
     }
@@ -46,4 +52,20 @@ public class AgentLock implements Serializable {
     public void setExpiresAt(Instant expiresAt) {
         this.expiresAt = expiresAt;
     }
+
+    public String getHolderId() {
+        return holderId;
+    }
+
+    public void setHolderId(String holderId) {
+        this.holderId = holderId;
+    }
+
+    public Long getFencingToken() {
+        return fencingToken;
+    }
+
+    public void setFencingToken(Long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
 }
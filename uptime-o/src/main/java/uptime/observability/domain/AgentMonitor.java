@@ -3,6 +3,8 @@ package uptime.observability.domain;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * AgentMonitor junction table.
@@ -14,6 +16,7 @@ import jakarta.validation.constraints.*;
     name = "agent_monitors",
     uniqueConstraints = { @UniqueConstraint(columnNames = { "agent_id", "monitor_id" }) }
 )
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class AgentMonitor extends AbstractAuditingEntity<Long> {
 
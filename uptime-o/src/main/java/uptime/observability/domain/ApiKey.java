@@ -46,6 +46,12 @@ public class ApiKey extends AbstractAuditingEntity<Long> implements Serializable
     @Column(name = "expires_at")
     private Instant expiresAt;
 
+    @Column(name = "rate_limit_per_second")
+    private Integer rateLimitPerSecond;
+
+    @Column(name = "rate_limit_burst")
+    private Integer rateLimitBurst;
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -103,6 +109,22 @@ public class ApiKey extends AbstractAuditingEntity<Long> implements Serializable
         this.expiresAt = expiresAt;
     }
 
+    public Integer getRateLimitPerSecond() {
+        return rateLimitPerSecond;
+    }
+
+    public void setRateLimitPerSecond(Integer rateLimitPerSecond) {
+        this.rateLimitPerSecond = rateLimitPerSecond;
+    }
+
+    public Integer getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    public void setRateLimitBurst(Integer rateLimitBurst) {
+        this.rateLimitBurst = rateLimitBurst;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -128,6 +150,8 @@ public class ApiKey extends AbstractAuditingEntity<Long> implements Serializable
             ", active='" + isActive() + "'" +
             ", lastUsedDate='" + getLastUsedDate() + "'" +
             ", expiresAt='" + getExpiresAt() + "'" +
+            ", rateLimitPerSecond=" + getRateLimitPerSecond() +
+            ", rateLimitBurst=" + getRateLimitBurst() +
             "}";
     }
 }
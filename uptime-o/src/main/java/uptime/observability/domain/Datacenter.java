@@ -6,12 +6,15 @@ import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A Datacenter.
  */
 @Entity
 @Table(name = "datacenters")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Datacenter implements Serializable {
 
@@ -35,6 +38,7 @@ public class Datacenter implements Serializable {
 
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "datacenter")
     @JsonIgnoreProperties(value = { "apiHeartbeats", "agentMonitors", "datacenter" }, allowSetters = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Agent> agents = new HashSet<>();
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,274 @@
+package uptime.observability.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Consecutive healthy checks of a monitor by an agent, folded into one record for schedules with change-only
+ * storage. The checks that open a run, and a sample of the ones within it, are kept as {@link HttpHeartbeat}s
+ * and not counted here. At most one run per monitor and agent is open, and receives the next healthy checks.
+ */
+@Entity
+@Table(name = "heartbeat_runs")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class HeartbeatRun implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "ended_at")
+    private Instant endedAt;
+
+    @NotNull
+    @Column(name = "check_count", nullable = false)
+    private Integer checkCount = 0;
+
+    @Column(name = "response_status_code")
+    private Integer responseStatusCode;
+
+    @Column(name = "latency_min_ms")
+    private Integer latencyMinMs;
+
+    @Column(name = "latency_max_ms")
+    private Integer latencyMaxMs;
+
+    @NotNull
+    @Column(name = "latency_sum_ms", nullable = false)
+    private Long latencySumMs = 0L;
+
+    @Column(name = "latency_histogram", columnDefinition = "text")
+    private String latencyHistogram;
+
+    @Column(name = "last_sampled_at")
+    private Instant lastSampledAt;
+
+    @NotNull
+    @Column(name = "is_open", nullable = false)
+    private Boolean open = true;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnoreProperties(value = { "apiHeartbeats", "agentMonitors", "schedule" }, allowSetters = true)
+    private HttpMonitor monitor;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnoreProperties(value = { "apiHeartbeats", "agentMonitors", "datacenter" }, allowSetters = true)
+    private Agent agent;
+
+    // jhipster-needle-entity-add-field - JHipster will add fields here
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public HeartbeatRun id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Instant getStartedAt() {
+        return this.startedAt;
+    }
+
+    public HeartbeatRun startedAt(Instant startedAt) {
+        this.setStartedAt(startedAt);
+        return this;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getEndedAt() {
+        return this.endedAt;
+    }
+
+    public HeartbeatRun endedAt(Instant endedAt) {
+        this.setEndedAt(endedAt);
+        return this;
+    }
+
+    public void setEndedAt(Instant endedAt) {
+        this.endedAt = endedAt;
+    }
+
+    public Integer getCheckCount() {
+        return this.checkCount;
+    }
+
+    public HeartbeatRun checkCount(Integer checkCount) {
+        this.setCheckCount(checkCount);
+        return this;
+    }
+
+    public void setCheckCount(Integer checkCount) {
+        this.checkCount = checkCount;
+    }
+
+    public Integer getResponseStatusCode() {
+        return this.responseStatusCode;
+    }
+
+    public HeartbeatRun responseStatusCode(Integer responseStatusCode) {
+        this.setResponseStatusCode(responseStatusCode);
+        return this;
+    }
+
+    public void setResponseStatusCode(Integer responseStatusCode) {
+        this.responseStatusCode = responseStatusCode;
+    }
+
+    public Integer getLatencyMinMs() {
+        return this.latencyMinMs;
+    }
+
+    public HeartbeatRun latencyMinMs(Integer latencyMinMs) {
+        this.setLatencyMinMs(latencyMinMs);
+        return this;
+    }
+
+    public void setLatencyMinMs(Integer latencyMinMs) {
+        this.latencyMinMs = latencyMinMs;
+    }
+
+    public Integer getLatencyMaxMs() {
+        return this.latencyMaxMs;
+    }
+
+    public HeartbeatRun latencyMaxMs(Integer latencyMaxMs) {
+        this.setLatencyMaxMs(latencyMaxMs);
+        return this;
+    }
+
+    public void setLatencyMaxMs(Integer latencyMaxMs) {
+        this.latencyMaxMs = latencyMaxMs;
+    }
+
+    public Long getLatencySumMs() {
+        return this.latencySumMs;
+    }
+
+    public HeartbeatRun latencySumMs(Long latencySumMs) {
+        this.setLatencySumMs(latencySumMs);
+        return this;
+    }
+
+    public void setLatencySumMs(Long latencySumMs) {
+        this.latencySumMs = latencySumMs;
+    }
+
+    public String getLatencyHistogram() {
+        return this.latencyHistogram;
+    }
+
+    public HeartbeatRun latencyHistogram(String latencyHistogram) {
+        this.setLatencyHistogram(latencyHistogram);
+        return this;
+    }
+
+    public void setLatencyHistogram(String latencyHistogram) {
+        this.latencyHistogram = latencyHistogram;
+    }
+
+    public Instant getLastSampledAt() {
+        return this.lastSampledAt;
+    }
+
+    public HeartbeatRun lastSampledAt(Instant lastSampledAt) {
+        this.setLastSampledAt(lastSampledAt);
+        return this;
+    }
+
+    public void setLastSampledAt(Instant lastSampledAt) {
+        this.lastSampledAt = lastSampledAt;
+    }
+
+    public Boolean getOpen() {
+        return this.open;
+    }
+
+    public HeartbeatRun open(Boolean open) {
+        this.setOpen(open);
+        return this;
+    }
+
+    public void setOpen(Boolean open) {
+        this.open = open;
+    }
+
+    public HttpMonitor getMonitor() {
+        return this.monitor;
+    }
+
+    public HeartbeatRun monitor(HttpMonitor monitor) {
+        this.setMonitor(monitor);
+        return this;
+    }
+
+    public void setMonitor(HttpMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    public Agent getAgent() {
+        return this.agent;
+    }
+
+    public HeartbeatRun agent(Agent agent) {
+        this.setAgent(agent);
+        return this;
+    }
+
+    public void setAgent(Agent agent) {
+        this.agent = agent;
+    }
+
+    // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HeartbeatRun)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((HeartbeatRun) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "HeartbeatRun{" +
+            "id=" + getId() +
+            ", startedAt='" + getStartedAt() + "'" +
+            ", endedAt='" + getEndedAt() + "'" +
+            ", checkCount=" + getCheckCount() +
+            ", responseStatusCode=" + getResponseStatusCode() +
+            ", latencyMinMs=" + getLatencyMinMs() +
+            ", latencyMaxMs=" + getLatencyMaxMs() +
+            ", latencySumMs=" + getLatencySumMs() +
+            ", lastSampledAt='" + getLastSampledAt() + "'" +
+            ", open='" + getOpen() + "'" +
+            "}";
+    }
+}
@@ -1,12 +1,10 @@
 package uptime.observability.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.time.Instant;
-import org.hibernate.annotations.Type;
 
 /**
  * A HttpHeartbeat.
@@ -77,18 +75,6 @@ public class HttpHeartbeat implements Serializable {
     @Column(name = "error_message", columnDefinition = "text")
     private String errorMessage;
 
-    @Column(name = "raw_request_headers", columnDefinition = "jsonb")
-    @Type(JsonNodeType.class)
-    private JsonNode rawRequestHeaders;
-
-    @Column(name = "raw_response_headers", columnDefinition = "jsonb")
-    @Type(JsonNodeType.class)
-    private JsonNode rawResponseHeaders;
-
-    @Column(name = "raw_response_body", columnDefinition = "jsonb")
-    @Type(JsonNodeType.class)
-    private JsonNode rawResponseBody;
-
     @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnoreProperties(value = { "apiHeartbeats", "agentMonitors", "schedule" }, allowSetters = true)
     private HttpMonitor monitor;
@@ -320,45 +306,6 @@ public class HttpHeartbeat implements Serializable {
         this.errorMessage = errorMessage;
     }
 
-    public JsonNode getRawRequestHeaders() {
-        return this.rawRequestHeaders;
-    }
-
-    public HttpHeartbeat rawRequestHeaders(JsonNode rawRequestHeaders) {
-        this.setRawRequestHeaders(rawRequestHeaders);
-        return this;
-    }
-
-    public void setRawRequestHeaders(JsonNode rawRequestHeaders) {
-        this.rawRequestHeaders = rawRequestHeaders;
-    }
-
-    public JsonNode getRawResponseHeaders() {
-        return this.rawResponseHeaders;
-    }
-
-    public HttpHeartbeat rawResponseHeaders(JsonNode rawResponseHeaders) {
-        this.setRawResponseHeaders(rawResponseHeaders);
-        return this;
-    }
-
-    public void setRawResponseHeaders(JsonNode rawResponseHeaders) {
-        this.rawResponseHeaders = rawResponseHeaders;
-    }
-
-    public JsonNode getRawResponseBody() {
-        return this.rawResponseBody;
-    }
-
-    public HttpHeartbeat rawResponseBody(JsonNode rawResponseBody) {
-        this.setRawResponseBody(rawResponseBody);
-        return this;
-    }
-
-    public void setRawResponseBody(JsonNode rawResponseBody) {
-        this.rawResponseBody = rawResponseBody;
-    }
-
     public HttpMonitor getMonitor() {
         return this.monitor;
     }
@@ -425,9 +372,6 @@ public class HttpHeartbeat implements Serializable {
             ", criticalThresholdMs=" + getCriticalThresholdMs() +
             ", errorType='" + getErrorType() + "'" +
             ", errorMessage='" + getErrorMessage() + "'" +
-            ", rawRequestHeaders='" + getRawRequestHeaders() + "'" +
-            ", rawResponseHeaders='" + getRawResponseHeaders() + "'" +
-            ", rawResponseBody='" + getRawResponseBody() + "'" +
             "}";
     }
 }
@@ -0,0 +1,178 @@
+package uptime.observability.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * The raw request and response captured with a {@link HttpHeartbeat}, kept apart from the heartbeat so that
+ * scans of {@code api_heartbeats} stay narrow. Loaded only for a single heartbeat.
+ * <p>
+ * Headers and body are {@link PayloadBlob}s, shared by all the payloads that carry the same bytes.
+ */
+@Entity
+@Table(name = "api_heartbeat_payloads")
+@JsonIgnoreProperties(value = { "new", "id" })
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class HttpHeartbeatPayload implements Serializable, Persistable<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "heartbeat_id")
+    private Long heartbeatId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "request_headers_hash")
+    private PayloadBlob requestHeaders;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "response_headers_hash")
+    private PayloadBlob responseHeaders;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "response_body_hash")
+    private PayloadBlob responseBody;
+
+    @Column(name = "original_bytes", nullable = false)
+    private Integer originalBytes;
+
+    @Column(name = "truncated", nullable = false)
+    private Boolean truncated = false;
+
+    @org.springframework.data.annotation.Transient
+    @Transient
+    private boolean isPersisted;
+
+    public Long getHeartbeatId() {
+        return this.heartbeatId;
+    }
+
+    public HttpHeartbeatPayload heartbeatId(Long heartbeatId) {
+        this.setHeartbeatId(heartbeatId);
+        return this;
+    }
+
+    public void setHeartbeatId(Long heartbeatId) {
+        this.heartbeatId = heartbeatId;
+    }
+
+    public PayloadBlob getRequestHeaders() {
+        return this.requestHeaders;
+    }
+
+    public HttpHeartbeatPayload requestHeaders(PayloadBlob requestHeaders) {
+        this.setRequestHeaders(requestHeaders);
+        return this;
+    }
+
+    public void setRequestHeaders(PayloadBlob requestHeaders) {
+        this.requestHeaders = requestHeaders;
+    }
+
+    public PayloadBlob getResponseHeaders() {
+        return this.responseHeaders;
+    }
+
+    public HttpHeartbeatPayload responseHeaders(PayloadBlob responseHeaders) {
+        this.setResponseHeaders(responseHeaders);
+        return this;
+    }
+
+    public void setResponseHeaders(PayloadBlob responseHeaders) {
+        this.responseHeaders = responseHeaders;
+    }
+
+    public PayloadBlob getResponseBody() {
+        return this.responseBody;
+    }
+
+    public HttpHeartbeatPayload responseBody(PayloadBlob responseBody) {
+        this.setResponseBody(responseBody);
+        return this;
+    }
+
+    public void setResponseBody(PayloadBlob responseBody) {
+        this.responseBody = responseBody;
+    }
+
+    public Integer getOriginalBytes() {
+        return this.originalBytes;
+    }
+
+    public HttpHeartbeatPayload originalBytes(Integer originalBytes) {
+        this.setOriginalBytes(originalBytes);
+        return this;
+    }
+
+    public void setOriginalBytes(Integer originalBytes) {
+        this.originalBytes = originalBytes;
+    }
+
+    public Boolean getTruncated() {
+        return this.truncated;
+    }
+
+    public HttpHeartbeatPayload truncated(Boolean truncated) {
+        this.setTruncated(truncated);
+        return this;
+    }
+
+    public void setTruncated(Boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    @PostLoad
+    @PostPersist
+    public void updateEntityState() {
+        this.setIsPersisted();
+    }
+
+    @Override
+    public Long getId() {
+        return this.heartbeatId;
+    }
+
+    /**
+     * Payloads are written once, with their heartbeat: saving a new one inserts it without looking it up first.
+     */
+    @org.springframework.data.annotation.Transient
+    @Transient
+    @Override
+    public boolean isNew() {
+        return !this.isPersisted;
+    }
+
+    public HttpHeartbeatPayload setIsPersisted() {
+        this.isPersisted = true;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HttpHeartbeatPayload)) {
+            return false;
+        }
+        return getHeartbeatId() != null && getHeartbeatId().equals(((HttpHeartbeatPayload) o).getHeartbeatId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "HttpHeartbeatPayload{" +
+            "heartbeatId=" + getHeartbeatId() +
+            ", originalBytes=" + getOriginalBytes() +
+            ", truncated='" + getTruncated() + "'" +
+            "}";
+    }
+}
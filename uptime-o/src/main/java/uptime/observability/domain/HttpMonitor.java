@@ -7,6 +7,8 @@ import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Type;
 
 /**
@@ -14,6 +16,7 @@ import org.hibernate.annotations.Type;
  */
 @Entity
 @Table(name = "api_monitors")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class HttpMonitor implements Serializable {
 
@@ -64,6 +67,7 @@ public class HttpMonitor implements Serializable {
 
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "monitor")
     @JsonIgnoreProperties(value = { "agent", "monitor" }, allowSetters = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<AgentMonitor> agentMonitors = new HashSet<>();
 
     @ManyToOne(fetch = FetchType.EAGER)
@@ -0,0 +1,190 @@
+package uptime.observability.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * An outage or degradation of a monitor as seen by an agent, opened and closed from its ingested heartbeats. At
+ * most one incident per monitor and agent is open.
+ */
+@Entity
+@Table(name = "incidents")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class Incident implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "cause", nullable = false)
+    private IncidentCause cause;
+
+    @NotNull
+    @Column(name = "opened_at", nullable = false)
+    private Instant openedAt;
+
+    @Column(name = "closed_at")
+    private Instant closedAt;
+
+    @Column(name = "response_status_code")
+    private Integer responseStatusCode;
+
+    @NotNull
+    @Column(name = "is_open", nullable = false)
+    private Boolean open = true;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnoreProperties(value = { "apiHeartbeats", "agentMonitors", "schedule" }, allowSetters = true)
+    private HttpMonitor monitor;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnoreProperties(value = { "apiHeartbeats", "agentMonitors", "datacenter" }, allowSetters = true)
+    private Agent agent;
+
+    // jhipster-needle-entity-add-field - JHipster will add fields here
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public Incident id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public IncidentCause getCause() {
+        return this.cause;
+    }
+
+    public Incident cause(IncidentCause cause) {
+        this.setCause(cause);
+        return this;
+    }
+
+    public void setCause(IncidentCause cause) {
+        this.cause = cause;
+    }
+
+    public Instant getOpenedAt() {
+        return this.openedAt;
+    }
+
+    public Incident openedAt(Instant openedAt) {
+        this.setOpenedAt(openedAt);
+        return this;
+    }
+
+    public void setOpenedAt(Instant openedAt) {
+        this.openedAt = openedAt;
+    }
+
+    public Instant getClosedAt() {
+        return this.closedAt;
+    }
+
+    public Incident closedAt(Instant closedAt) {
+        this.setClosedAt(closedAt);
+        return this;
+    }
+
+    public void setClosedAt(Instant closedAt) {
+        this.closedAt = closedAt;
+    }
+
+    public Integer getResponseStatusCode() {
+        return this.responseStatusCode;
+    }
+
+    public Incident responseStatusCode(Integer responseStatusCode) {
+        this.setResponseStatusCode(responseStatusCode);
+        return this;
+    }
+
+    public void setResponseStatusCode(Integer responseStatusCode) {
+        this.responseStatusCode = responseStatusCode;
+    }
+
+    public Boolean getOpen() {
+        return this.open;
+    }
+
+    public Incident open(Boolean open) {
+        this.setOpen(open);
+        return this;
+    }
+
+    public void setOpen(Boolean open) {
+        this.open = open;
+    }
+
+    public HttpMonitor getMonitor() {
+        return this.monitor;
+    }
+
+    public Incident monitor(HttpMonitor monitor) {
+        this.setMonitor(monitor);
+        return this;
+    }
+
+    public void setMonitor(HttpMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    public Agent getAgent() {
+        return this.agent;
+    }
+
+    public Incident agent(Agent agent) {
+        this.setAgent(agent);
+        return this;
+    }
+
+    public void setAgent(Agent agent) {
+        this.agent = agent;
+    }
+
+    // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Incident)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((Incident) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "Incident{" +
+            "id=" + getId() +
+            ", cause='" + getCause() + "'" +
+            ", openedAt='" + getOpenedAt() + "'" +
+            ", closedAt='" + getClosedAt() + "'" +
+            ", responseStatusCode=" + getResponseStatusCode() +
+            ", open='" + getOpen() + "'" +
+            "}";
+    }
+}
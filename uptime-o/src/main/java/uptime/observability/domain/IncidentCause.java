@@ -0,0 +1,16 @@
+package uptime.observability.domain;
+
+/**
+ * The rule that opened an {@link Incident}.
+ */
+public enum IncidentCause {
+    /**
+     * Consecutive failed checks.
+     */
+    FAILURES,
+
+    /**
+     * Consecutive checks at or above the critical threshold of their schedule.
+     */
+    LATENCY
+}
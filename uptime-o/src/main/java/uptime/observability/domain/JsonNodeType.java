@@ -1,5 +1,6 @@
 package uptime.observability.domain;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.hibernate.engine.spi.SharedSessionContractImplementor;
@@ -51,7 +52,7 @@ public class JsonNodeType implements UserType<JsonNode> {
             return null;
         }
         try {
-            return OBJECT_MAPPER.readTree(json);
+            return fromJson(json);
         } catch (Exception e) {
             throw new SQLException("Failed to parse JSON: " + json, e);
         }
@@ -63,7 +64,7 @@ public class JsonNodeType implements UserType<JsonNode> {
             st.setNull(index, SqlTypes.OTHER);
         } else {
             try {
-                String json = OBJECT_MAPPER.writeValueAsString(value);
+                String json = toJson(value);
                 st.setObject(index, json, SqlTypes.OTHER);
             } catch (Exception e) {
                 throw new SQLException("Failed to serialize JSON: " + value, e);
@@ -83,6 +84,14 @@ public class JsonNodeType implements UserType<JsonNode> {
         }
     }
 
+    static JsonNode fromJson(String json) throws JsonProcessingException {
+        return OBJECT_MAPPER.readTree(json);
+    }
+
+    static String toJson(JsonNode value) throws JsonProcessingException {
+        return OBJECT_MAPPER.writeValueAsString(value);
+    }
+
     @Override
     public boolean isMutable() {
         return true;
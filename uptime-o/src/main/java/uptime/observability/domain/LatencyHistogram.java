@@ -0,0 +1,125 @@
+package uptime.observability.domain;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The exact response times of the checks folded into a {@link HeartbeatRun}, as counts per millisecond.
+ * <p>
+ * Steady checks answer within a narrow band, so a run of thousands of checks keeps a few dozen entries, and
+ * averages, percentiles and threshold counts computed from it are the ones the raw heartbeats would give.
+ * Stored as {@code ms:count} pairs, comma separated, in ascending order.
+ */
+public final class LatencyHistogram {
+
+    private final TreeMap<Integer, Integer> counts;
+
+    private LatencyHistogram(TreeMap<Integer, Integer> counts) {
+        this.counts = counts;
+    }
+
+    /**
+     * A response time and the number of checks that took it.
+     */
+    @FunctionalInterface
+    public interface CountConsumer {
+        void accept(int responseTimeMs, int count);
+    }
+
+    /**
+     * @param value pairs as written by {@link #toString()}, or {@code null}.
+     * @return the histogram, empty for {@code null} or blank values.
+     */
+    public static LatencyHistogram parse(String value) {
+        TreeMap<Integer, Integer> counts = new TreeMap<>();
+        if (value != null && !value.isBlank()) {
+            for (String pair : value.split(",")) {
+                int separator = pair.indexOf(':');
+                counts.merge(Integer.parseInt(pair.substring(0, separator)), Integer.parseInt(pair.substring(separator + 1)), Integer::sum);
+            }
+        }
+        return new LatencyHistogram(counts);
+    }
+
+    /**
+     * Record a response time in stored pairs, without parsing them: only the pair of the response time is
+     * rewritten, or inserted in order.
+     *
+     * @param value pairs as written by {@link #toString()}, or {@code null}.
+     * @param responseTimeMs the response time to record.
+     * @return the pairs with the response time recorded.
+     */
+    public static String record(String value, int responseTimeMs) {
+        if (value == null || value.isBlank()) {
+            return responseTimeMs + ":1";
+        }
+        int length = value.length();
+        int start = 0;
+        while (start < length) {
+            int separator = value.indexOf(':', start);
+            int end = value.indexOf(',', separator);
+            if (end < 0) {
+                end = length;
+            }
+            int ms = Integer.parseInt(value, start, separator, 10);
+            if (ms == responseTimeMs) {
+                int count = Integer.parseInt(value, separator + 1, end, 10);
+                return new StringBuilder(length + 1)
+                    .append(value, 0, separator + 1)
+                    .append(count + 1)
+                    .append(value, end, length)
+                    .toString();
+            }
+            if (ms > responseTimeMs) {
+                return new StringBuilder(length + 12)
+                    .append(value, 0, start)
+                    .append(responseTimeMs)
+                    .append(":1,")
+                    .append(value, start, length)
+                    .toString();
+            }
+            start = end + 1;
+        }
+        return new StringBuilder(length + 12).append(value).append(',').append(responseTimeMs).append(":1").toString();
+    }
+
+    /**
+     * Record a response time a number of times.
+     *
+     * @param responseTimeMs the response time.
+     * @param count the number of checks that took it.
+     * @return this histogram.
+     */
+    public LatencyHistogram add(int responseTimeMs, int count) {
+        counts.merge(responseTimeMs, count, Integer::sum);
+        return this;
+    }
+
+    /**
+     * @return the number of recorded response times.
+     */
+    public int count() {
+        return counts.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Pass every recorded response time with its count, in ascending order.
+     */
+    public void forEach(CountConsumer action) {
+        for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+            action.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder value = new StringBuilder();
+        for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+            if (!value.isEmpty()) {
+                value.append(',');
+            }
+            value.append(entry.getKey()).append(':').append(entry.getValue());
+        }
+        return value.toString();
+    }
+}
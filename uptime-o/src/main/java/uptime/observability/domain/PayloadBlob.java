@@ -0,0 +1,87 @@
+package uptime.observability.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Type;
+
+/**
+ * A header or body document stored once for all the {@link HttpHeartbeatPayload}s that carry it, addressed by
+ * the SHA-256 of its bytes.
+ * <p>
+ * Rows are written and their references stamped by {@code PayloadBlobRepository} only, hence read-only here.
+ */
+@Entity
+@Immutable
+@Table(name = "payload_blobs")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class PayloadBlob implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @Column(name = "content", columnDefinition = "text", nullable = false)
+    @Type(RawJsonType.class)
+    private RawJson content;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Integer sizeBytes;
+
+    @Column(name = "referenced_at", nullable = false)
+    private Instant referencedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public String getHash() {
+        return this.hash;
+    }
+
+    public RawJson getContent() {
+        return this.content;
+    }
+
+    public Integer getSizeBytes() {
+        return this.sizeBytes;
+    }
+
+    public Instant getReferencedAt() {
+        return this.referencedAt;
+    }
+
+    public Instant getCreatedAt() {
+        return this.createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PayloadBlob)) {
+            return false;
+        }
+        return getHash() != null && getHash().equals(((PayloadBlob) o).getHash());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PayloadBlob{" +
+            "hash='" + getHash() + "'" +
+            ", sizeBytes=" + getSizeBytes() +
+            ", referencedAt='" + getReferencedAt() + "'" +
+            ", createdAt='" + getCreatedAt() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,267 @@
+package uptime.observability.domain;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * An immutable JSON document held as its UTF-8 bytes.
+ * <p>
+ * Unlike a {@link JsonNode}, it is not parsed when loaded from a JSONB column nor copied for dirty checking, and
+ * it is written as is, as a raw value, in API responses. It is parsed only when {@link #toTree()} is called.
+ * Two documents are equal when they hold the same bytes, compared by their cached {@link #sha256()}: documents
+ * that only differ in formatting or key order are not equal.
+ */
+@JsonSerialize(using = RawJson.Serializer.class)
+@JsonDeserialize(using = RawJson.Deserializer.class)
+public final class RawJson implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final byte[] utf8;
+
+    private transient String sha256;
+
+    private RawJson(byte[] utf8) {
+        this.utf8 = utf8;
+    }
+
+    /**
+     * @param json a JSON document.
+     * @return the document, or {@code null} for a {@code null} string.
+     */
+    public static RawJson of(String json) {
+        return json == null ? null : new RawJson(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param utf8 the UTF-8 bytes of a JSON document, which are copied.
+     * @return the document, or {@code null} for {@code null} bytes.
+     */
+    public static RawJson of(byte[] utf8) {
+        return utf8 == null ? null : new RawJson(utf8.clone());
+    }
+
+    /**
+     * @param node a JSON tree.
+     * @return the serialized tree, or {@code null} for a missing or {@code null} node.
+     */
+    public static RawJson of(JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return null;
+        }
+        try {
+            return new RawJson(OBJECT_MAPPER.writeValueAsBytes(node));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Take ownership of bytes nobody else holds, such as the ones just read from a result set.
+     */
+    static RawJson wrap(byte[] utf8) {
+        return new RawJson(utf8);
+    }
+
+    /**
+     * Parse the document. Every call returns a new tree, which the caller is free to modify.
+     *
+     * @return the tree of the document.
+     */
+    public JsonNode toTree() {
+        try {
+            return OBJECT_MAPPER.readTree(utf8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid JSON document", e);
+        }
+    }
+
+    /**
+     * @return the number of bytes of the document.
+     */
+    public int length() {
+        return utf8.length;
+    }
+
+    /**
+     * The hash of the bytes, not of the JSON value: documents that only differ in formatting get different hashes.
+     *
+     * @return the hex SHA-256 of the document's bytes.
+     */
+    public String sha256() {
+        String h = sha256;
+        if (h == null) {
+            try {
+                h = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(utf8));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            sha256 = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RawJson other)) {
+            return false;
+        }
+        return utf8.length == other.utf8.length && sha256().equals(other.sha256());
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.parseUnsignedInt(sha256(), 0, 8, 16);
+    }
+
+    @Override
+    public String toString() {
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the bytes as a raw value; UTF-8 generators, which serve the REST API, copy them without decoding.
+     */
+    static class Serializer extends StdSerializer<RawJson> {
+
+        Serializer() {
+            super(RawJson.class);
+        }
+
+        @Override
+        public void serialize(RawJson value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeRawValue(new Utf8Value(value.utf8));
+        }
+    }
+
+    /**
+     * Copies the value's tokens to bytes, without building a tree.
+     */
+    static class Deserializer extends StdDeserializer<RawJson> {
+
+        Deserializer() {
+            super(RawJson.class);
+        }
+
+        @Override
+        public RawJson deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            try (ByteArrayBuilder bytes = new ByteArrayBuilder(); JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(bytes)) {
+                generator.copyCurrentStructure(p);
+                generator.flush();
+                return new RawJson(bytes.toByteArray());
+            }
+        }
+    }
+
+    /**
+     * The bytes as a {@link SerializableString}, only meant to be written unquoted.
+     */
+    private static final class Utf8Value implements SerializableString {
+
+        private final byte[] utf8;
+
+        private Utf8Value(byte[] utf8) {
+            this.utf8 = utf8;
+        }
+
+        @Override
+        public String getValue() {
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int charLength() {
+            return getValue().length();
+        }
+
+        @Override
+        public char[] asQuotedChars() {
+            return new SerializedString(getValue()).asQuotedChars();
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            return utf8;
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            return new SerializedString(getValue()).asQuotedUTF8();
+        }
+
+        @Override
+        public int appendQuotedUTF8(byte[] buffer, int offset) {
+            return new SerializedString(getValue()).appendQuotedUTF8(buffer, offset);
+        }
+
+        @Override
+        public int appendQuoted(char[] buffer, int offset) {
+            return new SerializedString(getValue()).appendQuoted(buffer, offset);
+        }
+
+        @Override
+        public int appendUnquotedUTF8(byte[] buffer, int offset) {
+            if (offset + utf8.length > buffer.length) {
+                return -1;
+            }
+            System.arraycopy(utf8, 0, buffer, offset, utf8.length);
+            return utf8.length;
+        }
+
+        @Override
+        public int appendUnquoted(char[] buffer, int offset) {
+            // Chars need decoding, the generator falls back to getValue()
+            return -1;
+        }
+
+        @Override
+        public int writeQuotedUTF8(OutputStream out) throws IOException {
+            return new SerializedString(getValue()).writeQuotedUTF8(out);
+        }
+
+        @Override
+        public int writeUnquotedUTF8(OutputStream out) throws IOException {
+            out.write(utf8);
+            return utf8.length;
+        }
+
+        @Override
+        public int putQuotedUTF8(ByteBuffer buffer) {
+            return new SerializedString(getValue()).putQuotedUTF8(buffer);
+        }
+
+        @Override
+        public int putUnquotedUTF8(ByteBuffer buffer) {
+            if (utf8.length > buffer.remaining()) {
+                return -1;
+            }
+            buffer.put(utf8);
+            return utf8.length;
+        }
+    }
+}
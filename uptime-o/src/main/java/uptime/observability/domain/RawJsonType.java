@@ -0,0 +1,87 @@
+package uptime.observability.domain;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Objects;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.type.SqlTypes;
+import org.hibernate.usertype.UserType;
+
+/**
+ * Custom Hibernate type for JSONB columns using {@link RawJson}: the bytes the driver reads are kept as they are,
+ * and, the value being immutable, nothing is copied for dirty checking or the second level cache.
+ */
+public class RawJsonType implements UserType<RawJson> {
+
+    // Version header of the binary JSONB format, in case the driver is configured to receive JSONB in binary
+    private static final byte JSONB_BINARY_VERSION = 1;
+
+    @Override
+    public int getSqlType() {
+        return SqlTypes.OTHER;
+    }
+
+    @Override
+    public Class<RawJson> returnedClass() {
+        return RawJson.class;
+    }
+
+    @Override
+    public boolean equals(RawJson x, RawJson y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(RawJson x) {
+        return x.hashCode();
+    }
+
+    @Override
+    public RawJson nullSafeGet(ResultSet rs, int position, SharedSessionContractImplementor session, Object owner) throws SQLException {
+        byte[] bytes = rs.getBytes(position);
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length > 0 && bytes[0] == JSONB_BINARY_VERSION) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return RawJson.wrap(bytes);
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, RawJson value, int index, SharedSessionContractImplementor session) throws SQLException {
+        if (value == null) {
+            st.setNull(index, SqlTypes.OTHER);
+        } else {
+            st.setObject(index, value.toString(), SqlTypes.OTHER);
+        }
+    }
+
+    @Override
+    public RawJson deepCopy(RawJson value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(RawJson value) {
+        return value;
+    }
+
+    @Override
+    public RawJson assemble(Serializable cached, Object owner) {
+        return (RawJson) cached;
+    }
+
+    @Override
+    public RawJson replace(RawJson detached, RawJson managed, Object owner) {
+        return detached;
+    }
+}
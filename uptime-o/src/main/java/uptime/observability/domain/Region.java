@@ -6,12 +6,15 @@ import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A Region.
  */
 @Entity
 @Table(name = "regions")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Region implements Serializable {
 
@@ -38,6 +41,7 @@ public class Region implements Serializable {
 
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "region")
     @JsonIgnoreProperties(value = { "agents", "region" }, allowSetters = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Datacenter> datacenters = new HashSet<>();
 
     // jhipster-needle-entity-add-field - JHipster will add fields here
@@ -6,12 +6,15 @@ import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A Schedule.
  */
 @Entity
 @Table(name = "schedules")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Schedule implements Serializable {
 
@@ -42,8 +45,16 @@ public class Schedule implements Serializable {
     @Column(name = "thresholds_critical")
     private Integer thresholdsCritical;
 
+    @Min(value = 0)
+    @Column(name = "max_payload_bytes")
+    private Integer maxPayloadBytes;
+
+    @Column(name = "change_only_storage")
+    private Boolean changeOnlyStorage;
+
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "schedule")
     @JsonIgnoreProperties(value = { "apiHeartbeats", "agentMonitors", "schedule" }, allowSetters = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<HttpMonitor> apiMonitors = new HashSet<>();
 
     // jhipster-needle-entity-add-field - JHipster will add fields here
@@ -126,6 +137,32 @@ public class Schedule implements Serializable {
         this.thresholdsCritical = thresholdsCritical;
     }
 
+    public Integer getMaxPayloadBytes() {
+        return this.maxPayloadBytes;
+    }
+
+    public Schedule maxPayloadBytes(Integer maxPayloadBytes) {
+        this.setMaxPayloadBytes(maxPayloadBytes);
+        return this;
+    }
+
+    public void setMaxPayloadBytes(Integer maxPayloadBytes) {
+        this.maxPayloadBytes = maxPayloadBytes;
+    }
+
+    public Boolean getChangeOnlyStorage() {
+        return this.changeOnlyStorage;
+    }
+
+    public Schedule changeOnlyStorage(Boolean changeOnlyStorage) {
+        this.setChangeOnlyStorage(changeOnlyStorage);
+        return this;
+    }
+
+    public void setChangeOnlyStorage(Boolean changeOnlyStorage) {
+        this.changeOnlyStorage = changeOnlyStorage;
+    }
+
     public Set<HttpMonitor> getHttpMonitors() {
         return this.apiMonitors;
     }
@@ -186,6 +223,8 @@ public class Schedule implements Serializable {
             ", includeResponseBody='" + getIncludeResponseBody() + "'" +
             ", thresholdsWarning=" + getThresholdsWarning() +
             ", thresholdsCritical=" + getThresholdsCritical() +
+            ", maxPayloadBytes=" + getMaxPayloadBytes() +
+            ", changeOnlyStorage='" + getChangeOnlyStorage() + "'" +
             "}";
     }
 }
@@ -0,0 +1,156 @@
+package uptime.observability.management;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Statistic;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import uptime.observability.config.ApplicationProperties;
+import uptime.observability.domain.Agent;
+import uptime.observability.domain.Datacenter;
+import uptime.observability.domain.HttpMonitor;
+import uptime.observability.domain.Region;
+
+/**
+ * {@code GET /management/ingestion} : summary of the ingestion pipeline, to alert on the saturation of the
+ * monitoring system itself.
+ * <p>
+ * {@code status} is {@code LAGGING} when the p99 time from check execution to persistence exceeds
+ * {@code application.ingestion.lag-threshold-ms}, {@code BACKLOGGED} when more heartbeats than
+ * {@code application.ingestion.backlog-threshold} are in flight, and {@code OK} otherwise.
+ */
+@Component
+@Endpoint(id = "ingestion")
+public class IngestionEndpoint {
+
+    // Entity caches the monitor detail reads resolve heartbeats' monitor, agent and location through
+    static final List<String> READ_PATH_CACHES = List.of(
+        HttpMonitor.class.getName(),
+        Agent.class.getName(),
+        Datacenter.class.getName(),
+        Region.class.getName()
+    );
+
+    private static final String CACHE_GETS_METER_NAME = "cache.gets";
+
+    private final IngestionMetersService ingestionMetersService;
+
+    private final MeterRegistry registry;
+
+    private final ApplicationProperties.Ingestion properties;
+
+    public IngestionEndpoint(IngestionMetersService ingestionMetersService, MeterRegistry registry, ApplicationProperties applicationProperties) {
+        this.ingestionMetersService = ingestionMetersService;
+        this.registry = registry;
+        this.properties = applicationProperties.getIngestion();
+    }
+
+    @ReadOperation
+    public Map<String, Object> ingestion() {
+        Map<String, Object> result = new LinkedHashMap<>();
+
+        HistogramSnapshot lagSnapshot = ingestionMetersService.getLag().takeSnapshot();
+        double lagP99Ms = percentileMs(lagSnapshot, 0.99);
+        int inFlight = ingestionMetersService.getInFlight();
+        String status = "OK";
+        if (lagP99Ms > properties.getLagThresholdMs()) {
+            status = "LAGGING";
+        } else if (inFlight > properties.getBacklogThreshold()) {
+            status = "BACKLOGGED";
+        }
+        result.put("status", status);
+
+        Map<String, Object> heartbeats = new LinkedHashMap<>();
+        heartbeats.put("acceptedPerSecond", ingestionMetersService.getAcceptedPerSecond());
+        for (String outcome : List.of(
+            IngestionMetersService.OUTCOME_ACCEPTED,
+            IngestionMetersService.OUTCOME_STALE,
+            IngestionMetersService.OUTCOME_INVALID,
+            IngestionMetersService.OUTCOME_DUPLICATE
+        )) {
+            heartbeats.put(outcome, (long) ingestionMetersService.getCount(outcome));
+        }
+        result.put("heartbeats", heartbeats);
+
+        Map<String, Object> lag = new LinkedHashMap<>();
+        lag.put("p50Ms", percentileMs(lagSnapshot, 0.5));
+        lag.put("p99Ms", lagP99Ms);
+        lag.put("maxMs", lagSnapshot.max(TimeUnit.MILLISECONDS));
+        result.put("lag", lag);
+
+        Map<String, Object> backlog = new LinkedHashMap<>();
+        backlog.put("inFlight", inFlight);
+        backlog.put("queues", ingestionMetersService.getQueueDepths());
+        result.put("backlog", backlog);
+
+        DistributionSummary batchSize = ingestionMetersService.getBatchSize();
+        result.put("batchSize", summary(batchSize.count(), batchSize.mean(), batchSize.max()));
+
+        Map<String, Object> stages = new LinkedHashMap<>();
+        for (Map.Entry<String, Timer> stage : ingestionMetersService.getStageTimers().entrySet()) {
+            Timer timer = stage.getValue();
+            stages.put(stage.getKey(), summary(timer.count(), timer.mean(TimeUnit.MILLISECONDS), timer.max(TimeUnit.MILLISECONDS)));
+        }
+        result.put("stagesMs", stages);
+
+        Map<String, Object> reads = new LinkedHashMap<>();
+        Map<String, Object> rowsScanned = new LinkedHashMap<>();
+        for (Map.Entry<String, DistributionSummary> query : ingestionMetersService.getQueryRows().entrySet()) {
+            DistributionSummary rows = query.getValue();
+            rowsScanned.put(query.getKey(), summary(rows.count(), rows.mean(), rows.max()));
+        }
+        reads.put("rowsScanned", rowsScanned);
+        reads.put("cacheHitRatio", cacheHitRatio());
+        result.put("reads", reads);
+        return result;
+    }
+
+    private Double cacheHitRatio() {
+        double hits = 0;
+        double misses = 0;
+        for (String cache : READ_PATH_CACHES) {
+            hits += count(registry.find(CACHE_GETS_METER_NAME).tag("cache", cache).tag("result", "hit").meters());
+            misses += count(registry.find(CACHE_GETS_METER_NAME).tag("cache", cache).tag("result", "miss").meters());
+        }
+        return hits + misses > 0 ? hits / (hits + misses) : null;
+    }
+
+    private static double count(Iterable<Meter> meters) {
+        double count = 0;
+        for (Meter meter : meters) {
+            for (Measurement measurement : meter.measure()) {
+                if (measurement.getStatistic() == Statistic.COUNT) {
+                    count += measurement.getValue();
+                }
+            }
+        }
+        return count;
+    }
+
+    private static double percentileMs(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0;
+    }
+
+    private static Map<String, Object> summary(long count, double mean, double max) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", count);
+        summary.put("mean", mean);
+        summary.put("max", max);
+        return summary;
+    }
+}
@@ -0,0 +1,258 @@
+package uptime.observability.management;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Meters of the heartbeat ingestion pipeline and of the monitor detail read paths.
+ * <p>
+ * Ingestion is timed per stage ({@code parse}, {@code validate}, {@code map}, {@code persist}); heartbeats
+ * are counted by outcome, and the lag between a check's execution and its persistence is recorded, which
+ * is what grows first when the server falls behind its agents.
+ */
+@Service
+public class IngestionMetersService {
+
+    public static final String BATCH_SIZE_METER_NAME = "uptime.ingestion.batch.size";
+    public static final String BATCH_SIZE_METER_DESCRIPTION = "Number of heartbeats per ingestion request.";
+
+    public static final String STAGE_METER_NAME = "uptime.ingestion.stage";
+    public static final String STAGE_METER_DESCRIPTION = "Time spent per heartbeat ingestion stage.";
+    public static final String STAGE_METER_STAGE_DIMENSION = "stage";
+
+    public static final String HEARTBEATS_METER_NAME = "uptime.ingestion.heartbeats";
+    public static final String HEARTBEATS_METER_DESCRIPTION = "Heartbeats received, by outcome.";
+    public static final String HEARTBEATS_METER_BASE_UNIT = "heartbeats";
+    public static final String HEARTBEATS_METER_OUTCOME_DIMENSION = "outcome";
+
+    public static final String LAG_METER_NAME = "uptime.ingestion.lag";
+    public static final String LAG_METER_DESCRIPTION = "Time from the execution of a check to the persistence of its heartbeat.";
+
+    public static final String IN_FLIGHT_METER_NAME = "uptime.ingestion.in-flight";
+    public static final String IN_FLIGHT_METER_DESCRIPTION = "Heartbeats received and not yet persisted or rejected.";
+
+    public static final String QUEUE_METER_NAME = "uptime.ingestion.queue";
+    public static final String QUEUE_METER_DESCRIPTION = "Depth of the queues downstream of heartbeat persistence.";
+    public static final String QUEUE_METER_QUEUE_DIMENSION = "queue";
+
+    public static final String QUERY_ROWS_METER_NAME = "uptime.query.rows";
+    public static final String QUERY_ROWS_METER_DESCRIPTION = "Rows scanned per monitor detail read.";
+    public static final String QUERY_ROWS_METER_QUERY_DIMENSION = "query";
+
+    public static final String STAGE_PARSE = "parse";
+    public static final String STAGE_VALIDATE = "validate";
+    public static final String STAGE_MAP = "map";
+    public static final String STAGE_PERSIST = "persist";
+
+    public static final String OUTCOME_ACCEPTED = "accepted";
+    public static final String OUTCOME_STALE = "stale";
+    public static final String OUTCOME_INVALID = "invalid";
+    public static final String OUTCOME_DUPLICATE = "duplicate";
+
+    // Accepted heartbeats are sampled every 10 seconds; the rate is taken over the last minute
+    private static final int RATE_SAMPLES = 7;
+    private static final long RATE_SAMPLE_INTERVAL_MS = 10_000;
+
+    private final MeterRegistry registry;
+
+    private final DistributionSummary batchSize;
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> heartbeatCounters = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> queryRows = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<Number>> queues = new ConcurrentHashMap<>();
+    private final Timer lag;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Last executedAt per agent and monitor, to spot heartbeats submitted twice
+    private final Map<Long, Map<Long, Instant>> lastExecutedAt = new ConcurrentHashMap<>();
+
+    private final AtomicLongArray acceptedSamples = new AtomicLongArray(RATE_SAMPLES);
+    private final AtomicLongArray sampleTimes = new AtomicLongArray(RATE_SAMPLES);
+    private int nextSample;
+
+    public IngestionMetersService(MeterRegistry registry) {
+        this.registry = registry;
+        this.batchSize = DistributionSummary.builder(BATCH_SIZE_METER_NAME)
+            .description(BATCH_SIZE_METER_DESCRIPTION)
+            .baseUnit(HEARTBEATS_METER_BASE_UNIT)
+            .publishPercentiles(0.5, 0.99)
+            .register(registry);
+        this.lag = Timer.builder(LAG_METER_NAME)
+            .description(LAG_METER_DESCRIPTION)
+            .publishPercentiles(0.5, 0.99)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(10))
+            .maximumExpectedValue(Duration.ofMinutes(10))
+            .register(registry);
+        Gauge.builder(IN_FLIGHT_METER_NAME, inFlight, AtomicInteger::get).description(IN_FLIGHT_METER_DESCRIPTION).register(registry);
+        for (String stage : new String[] { STAGE_PARSE, STAGE_VALIDATE, STAGE_MAP, STAGE_PERSIST }) {
+            stageTimer(stage);
+        }
+        for (String outcome : new String[] { OUTCOME_ACCEPTED, OUTCOME_STALE, OUTCOME_INVALID, OUTCOME_DUPLICATE }) {
+            heartbeatCounter(outcome);
+        }
+    }
+
+    public void trackBatch(int heartbeats) {
+        batchSize.record(heartbeats);
+    }
+
+    public void trackStage(String stage, long nanos) {
+        stageTimer(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count heartbeats rejected before reaching the pipeline, such as ones sent with an id.
+     */
+    public void trackRejected(String outcome, int heartbeats) {
+        heartbeatCounter(outcome).increment(heartbeats);
+    }
+
+    /**
+     * Record a stage that started at {@code startNanos} and ends now.
+     *
+     * @param stage the stage.
+     * @param startNanos the {@link System#nanoTime()} at the start of the stage, or {@code null} if unknown.
+     */
+    public void trackStageSince(String stage, Long startNanos) {
+        if (startNanos != null) {
+            trackStage(stage, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Mark a heartbeat as entering the pipeline; every call is matched by {@link #trackCompleted}.
+     */
+    public void trackReceived() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Mark a heartbeat as having left the pipeline. Accepted heartbeats already seen with the same execution
+     * time for the same agent and monitor are also counted as {@code duplicate}: they are stored again.
+     *
+     * @param outcome the outcome of the heartbeat.
+     * @param agentId the agent that ran the check, or {@code null}.
+     * @param monitorId the monitor checked, or {@code null}.
+     * @param executedAt when the check ran, or {@code null}.
+     */
+    public void trackCompleted(String outcome, Long agentId, Long monitorId, Instant executedAt) {
+        inFlight.decrementAndGet();
+        heartbeatCounter(outcome).increment();
+        if (!OUTCOME_ACCEPTED.equals(outcome) || executedAt == null) {
+            return;
+        }
+        lag.record(Math.max(0, System.currentTimeMillis() - executedAt.toEpochMilli()), TimeUnit.MILLISECONDS);
+        if (agentId != null && monitorId != null) {
+            Instant previous = lastExecutedAt.computeIfAbsent(agentId, id -> new ConcurrentHashMap<>()).put(monitorId, executedAt);
+            if (executedAt.equals(previous)) {
+                heartbeatCounter(OUTCOME_DUPLICATE).increment();
+            }
+        }
+    }
+
+    public void trackQueryRows(String query, int rows) {
+        queryRows
+            .computeIfAbsent(query, q ->
+                DistributionSummary.builder(QUERY_ROWS_METER_NAME)
+                    .description(QUERY_ROWS_METER_DESCRIPTION)
+                    .tag(QUERY_ROWS_METER_QUERY_DIMENSION, q)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry)
+            )
+            .record(rows);
+    }
+
+    /**
+     * Publish the depth of a queue fed by ingestion.
+     *
+     * @param queue the queue name.
+     * @param depth the current depth of the queue.
+     */
+    public void registerQueue(String queue, Supplier<Number> depth) {
+        queues.put(queue, depth);
+        Gauge.builder(QUEUE_METER_NAME, depth).description(QUEUE_METER_DESCRIPTION).tag(QUEUE_METER_QUEUE_DIMENSION, queue).register(registry);
+    }
+
+    /**
+     * Sample the accepted count for {@link #getAcceptedPerSecond()}.
+     * <p>
+     * This is scheduled to get fired every 10 seconds.
+     */
+    @Scheduled(fixedRate = RATE_SAMPLE_INTERVAL_MS)
+    public synchronized void sampleRate() {
+        acceptedSamples.set(nextSample, (long) heartbeatCounter(OUTCOME_ACCEPTED).count());
+        sampleTimes.set(nextSample, System.currentTimeMillis());
+        nextSample = (nextSample + 1) % RATE_SAMPLES;
+    }
+
+    /**
+     * @return accepted heartbeats per second over the last minute, or {@code 0} before the first samples.
+     */
+    public synchronized double getAcceptedPerSecond() {
+        int newest = Math.floorMod(nextSample - 1, RATE_SAMPLES);
+        int oldest = sampleTimes.get(nextSample) != 0 ? nextSample : 0;
+        long elapsedMs = sampleTimes.get(newest) - sampleTimes.get(oldest);
+        return elapsedMs > 0 ? (acceptedSamples.get(newest) - acceptedSamples.get(oldest)) * 1000.0 / elapsedMs : 0;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public double getCount(String outcome) {
+        return heartbeatCounter(outcome).count();
+    }
+
+    public Timer getLag() {
+        return lag;
+    }
+
+    public Map<String, Timer> getStageTimers() {
+        return new TreeMap<>(stageTimers);
+    }
+
+    public Map<String, DistributionSummary> getQueryRows() {
+        return new TreeMap<>(queryRows);
+    }
+
+    public Map<String, Number> getQueueDepths() {
+        Map<String, Number> depths = new TreeMap<>();
+        queues.forEach((queue, depth) -> depths.put(queue, depth.get()));
+        return depths;
+    }
+
+    public DistributionSummary getBatchSize() {
+        return batchSize;
+    }
+
+    private Timer stageTimer(String stage) {
+        return stageTimers.computeIfAbsent(stage, s ->
+            Timer.builder(STAGE_METER_NAME).description(STAGE_METER_DESCRIPTION).tag(STAGE_METER_STAGE_DIMENSION, s).register(registry)
+        );
+    }
+
+    private Counter heartbeatCounter(String outcome) {
+        return heartbeatCounters.computeIfAbsent(outcome, o ->
+            Counter.builder(HEARTBEATS_METER_NAME)
+                .description(HEARTBEATS_METER_DESCRIPTION)
+                .baseUnit(HEARTBEATS_METER_BASE_UNIT)
+                .tag(HEARTBEATS_METER_OUTCOME_DIMENSION, o)
+                .register(registry)
+        );
+    }
+}
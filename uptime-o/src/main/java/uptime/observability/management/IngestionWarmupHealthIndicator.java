@@ -0,0 +1,25 @@
+package uptime.observability.management;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+import uptime.observability.service.IngestionWarmupService;
+
+/**
+ * {@code ingestionWarmup} health, part of the readiness group: {@code OUT_OF_SERVICE} until the ingestion
+ * path was warmed, so that a restarted instance only receives agents' heartbeats once it can take them.
+ */
+@Component
+public class IngestionWarmupHealthIndicator implements HealthIndicator {
+
+    private final IngestionWarmupService ingestionWarmupService;
+
+    public IngestionWarmupHealthIndicator(IngestionWarmupService ingestionWarmupService) {
+        this.ingestionWarmupService = ingestionWarmupService;
+    }
+
+    @Override
+    public Health health() {
+        return ingestionWarmupService.isWarm() ? Health.up().build() : Health.outOfService().build();
+    }
+}
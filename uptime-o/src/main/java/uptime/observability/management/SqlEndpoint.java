@@ -0,0 +1,117 @@
+package uptime.observability.management;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import uptime.observability.config.ApplicationProperties;
+
+/**
+ * {@code GET /management/sql} : statement timings, rows and batch sizes per repository method, the last slow
+ * statements with their plan but not their bind values, and the Hibernate session factory statistics.
+ */
+@Component
+@Endpoint(id = "sql")
+public class SqlEndpoint {
+
+    private static final int TOP_QUERIES = 10;
+
+    private final SqlMetersService sqlMetersService;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationProperties.Sql properties;
+
+    public SqlEndpoint(SqlMetersService sqlMetersService, EntityManagerFactory entityManagerFactory, ApplicationProperties applicationProperties) {
+        this.sqlMetersService = sqlMetersService;
+        this.entityManagerFactory = entityManagerFactory;
+        this.properties = applicationProperties.getSql();
+    }
+
+    @ReadOperation
+    public Map<String, Object> sql() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("slowQueryThresholdMs", properties.getSlowQueryThresholdMs());
+
+        Map<String, DistributionSummary> rows = sqlMetersService.getRowSummaries();
+        Map<String, DistributionSummary> batchSizes = sqlMetersService.getBatchSizeSummaries();
+        Map<String, Object> statements = new LinkedHashMap<>();
+        for (Map.Entry<String, Timer> statement : sqlMetersService.getStatementTimers().entrySet()) {
+            Timer timer = statement.getValue();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", timer.count());
+            summary.put("totalMs", timer.totalTime(TimeUnit.MILLISECONDS));
+            summary.put("meanMs", timer.mean(TimeUnit.MILLISECONDS));
+            summary.put("maxMs", timer.max(TimeUnit.MILLISECONDS));
+            DistributionSummary statementRows = rows.get(statement.getKey());
+            if (statementRows != null) {
+                summary.put("meanRows", statementRows.mean());
+                summary.put("maxRows", statementRows.max());
+            }
+            DistributionSummary batchSize = batchSizes.get(statement.getKey());
+            if (batchSize != null) {
+                summary.put("meanBatchSize", batchSize.mean());
+            }
+            statements.put(statement.getKey(), summary);
+        }
+        result.put("statements", statements);
+        result.put("slowQueries", sqlMetersService.getSlowQueries());
+        result.put("hibernate", hibernateStatistics());
+        return result;
+    }
+
+    private Map<String, Object> hibernateStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        if (!statistics.isStatisticsEnabled()) {
+            return result;
+        }
+        result.put("sessionsOpened", statistics.getSessionOpenCount());
+        result.put("transactions", statistics.getTransactionCount());
+        result.put("flushes", statistics.getFlushCount());
+        result.put("statementsPrepared", statistics.getPrepareStatementCount());
+        result.put("entitiesLoaded", statistics.getEntityLoadCount());
+        result.put("entitiesFetched", statistics.getEntityFetchCount());
+        result.put("entitiesInserted", statistics.getEntityInsertCount());
+        result.put("entitiesUpdated", statistics.getEntityUpdateCount());
+        result.put("entitiesDeleted", statistics.getEntityDeleteCount());
+        result.put("collectionsFetched", statistics.getCollectionFetchCount());
+        result.put("secondLevelCacheHits", statistics.getSecondLevelCacheHitCount());
+        result.put("secondLevelCacheMisses", statistics.getSecondLevelCacheMissCount());
+        result.put("queryExecutions", statistics.getQueryExecutionCount());
+        result.put("queryExecutionMaxMs", statistics.getQueryExecutionMaxTime());
+        result.put("slowestQuery", statistics.getQueryExecutionMaxTimeQueryString());
+
+        // Queries by total execution time, the first place to look when the dashboard is slow
+        List<Map<String, Object>> topQueries = Arrays.stream(statistics.getQueries())
+            .map(query -> Map.entry(query, statistics.getQueryStatistics(query)))
+            .sorted(Comparator.comparingLong((Map.Entry<String, QueryStatistics> entry) -> entry.getValue().getExecutionTotalTime()).reversed())
+            .limit(TOP_QUERIES)
+            .map(entry -> {
+                QueryStatistics query = entry.getValue();
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("query", entry.getKey());
+                summary.put("executions", query.getExecutionCount());
+                summary.put("totalMs", query.getExecutionTotalTime());
+                summary.put("meanMs", query.getExecutionAvgTime());
+                summary.put("maxMs", query.getExecutionMaxTime());
+                summary.put("rows", query.getExecutionRowCount());
+                return summary;
+            })
+            .toList();
+        result.put("topQueries", topQueries);
+        return result;
+    }
+}
@@ -0,0 +1,365 @@
+package uptime.observability.management;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.StatementType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import uptime.observability.config.ApplicationProperties;
+
+/**
+ * Statement level meters of the datasource, attributed to the repository method that issued them.
+ * <p>
+ * Repository methods are labeled by {@link #enterRepositoryMethod}; statements issued outside of one, such as the
+ * inserts Hibernate flushes at commit, are attributed to repository {@code none} and to their statement and table.
+ * Statements slower than {@code application.sql.slow-query-threshold-ms} are kept, with their {@code EXPLAIN} plan, in a
+ * ring buffer of the last {@code application.sql.slow-query-buffer-size} ones. Bind values, which carry API keys,
+ * URLs and headers, are never kept: only the statement text with its placeholders and the number of parameter sets.
+ */
+@Service
+public class SqlMetersService implements QueryExecutionListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SqlMetersService.class);
+
+    public static final String STATEMENTS_METER_NAME = "uptime.sql.statements";
+    public static final String STATEMENTS_METER_DESCRIPTION = "Time spent executing statements, per repository method.";
+
+    public static final String ROWS_METER_NAME = "uptime.sql.rows";
+    public static final String ROWS_METER_DESCRIPTION = "Rows returned or updated, per repository method.";
+    public static final String ROWS_METER_BASE_UNIT = "rows";
+
+    public static final String BATCH_SIZE_METER_NAME = "uptime.sql.batch.size";
+    public static final String BATCH_SIZE_METER_DESCRIPTION = "Statements per JDBC batch, per repository method.";
+
+    public static final String REPOSITORY_DIMENSION = "repository";
+    public static final String METHOD_DIMENSION = "method";
+
+    public static final String NO_REPOSITORY = "none";
+
+    private static final Pattern STATEMENT_PATTERN = Pattern.compile(
+        "^\\s*(select|insert\\s+into|update|delete\\s+from)\\b\\s*([\\w.\"]+)?",
+        Pattern.CASE_INSENSITIVE
+    );
+
+    // Quoted literals of a plan, where the planner folds in the values bound to the statement
+    private static final Pattern PLAN_LITERAL_PATTERN = Pattern.compile("'(?:[^']|'')*'");
+
+    // Repository method running on the current thread, to attribute its statements
+    private static final ThreadLocal<String[]> CURRENT_METHOD = new ThreadLocal<>();
+
+    // Marks the statements of the slow query plans themselves, which are not measured
+    private static final String[] EXPLAIN_METHOD = { NO_REPOSITORY, "explain" };
+
+    private final MeterRegistry registry;
+
+    private final ApplicationProperties.Sql properties;
+
+    private final ObjectProvider<DataSource> dataSource;
+
+    private final Map<String, Timer> statementTimers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> batchSizeSummaries = new ConcurrentHashMap<>();
+
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SqlMetersService(MeterRegistry registry, ApplicationProperties applicationProperties, ObjectProvider<DataSource> dataSource) {
+        this.registry = registry;
+        this.properties = applicationProperties.getSql();
+        this.dataSource = dataSource;
+        // One plan at a time, and at most a buffer's worth waiting: a burst of slow statements must not add load
+        this.explainExecutor = new ThreadPoolExecutor(
+            1,
+            1,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, properties.getSlowQueryBufferSize())),
+            runnable -> {
+                Thread thread = new Thread(runnable, "sql-explain");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy()
+        );
+    }
+
+    /**
+     * Attribute the statements of the current thread to a repository method, until {@link #exitRepositoryMethod}.
+     *
+     * @param repository the repository name.
+     * @param method the method name.
+     * @return the enclosing repository method, to restore on exit.
+     */
+    public String[] enterRepositoryMethod(String repository, String method) {
+        String[] previous = CURRENT_METHOD.get();
+        CURRENT_METHOD.set(new String[] { repository, method });
+        return previous;
+    }
+
+    public void exitRepositoryMethod(String[] previous) {
+        if (previous == null) {
+            CURRENT_METHOD.remove();
+        } else {
+            CURRENT_METHOD.set(previous);
+        }
+    }
+
+    public void trackRows(String repository, String method, int rows) {
+        rowSummary(repository, method).record(rows);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // Everything is measured after execution
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String[] current = CURRENT_METHOD.get();
+        if (current == EXPLAIN_METHOD) {
+            return;
+        }
+        String repository = current != null ? current[0] : NO_REPOSITORY;
+        String method = current != null ? current[1] : statementMethod(queryInfoList);
+
+        statementTimer(repository, method).record(execInfo.getElapsedTime(), TimeUnit.MILLISECONDS);
+        if (execInfo.isBatch()) {
+            batchSizeSummary(repository, method).record(execInfo.getBatchSize());
+        }
+        // Rows read by a repository method are counted from what it returns, see RepositoryStatementAspect
+        if (current == null) {
+            int updated = updateCount(execInfo.getResult());
+            if (updated >= 0) {
+                trackRows(repository, method, updated);
+            }
+        }
+        if (execInfo.getElapsedTime() >= properties.getSlowQueryThresholdMs()) {
+            for (QueryInfo queryInfo : queryInfoList) {
+                captureSlowQuery(execInfo, queryInfo, repository, method);
+            }
+        }
+    }
+
+    /**
+     * @return the captured slow statements, newest first.
+     */
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    public Map<String, Timer> getStatementTimers() {
+        return new TreeMap<>(statementTimers);
+    }
+
+    public Map<String, DistributionSummary> getRowSummaries() {
+        return new TreeMap<>(rowSummaries);
+    }
+
+    public Map<String, DistributionSummary> getBatchSizeSummaries() {
+        return new TreeMap<>(batchSizeSummaries);
+    }
+
+    private void captureSlowQuery(ExecutionInfo execInfo, QueryInfo queryInfo, String repository, String method) {
+        SlowQuery slowQuery = new SlowQuery(
+            Instant.now(),
+            repository,
+            method,
+            execInfo.getElapsedTime(),
+            queryInfo.getQuery(),
+            queryInfo.getParametersList().size(),
+            execInfo.isBatch() ? execInfo.getBatchSize() : 0
+        );
+        synchronized (slowQueries) {
+            slowQueries.addFirst(slowQuery);
+            while (slowQueries.size() > properties.getSlowQueryBufferSize()) {
+                slowQueries.removeLast();
+            }
+        }
+        LOG.debug("Slow statement in {}.{} took {} ms: {}", repository, method, execInfo.getElapsedTime(), queryInfo.getQuery());
+
+        if (properties.isExplainSlowQueries() && !execInfo.isBatch() && execInfo.getStatementType() != StatementType.CALLABLE) {
+            // The bind values only live as long as the queued plan
+            List<ParameterSetOperation> operations = queryInfo.getParametersList().isEmpty() ? List.of() : queryInfo.getParametersList().get(0);
+            explainExecutor.execute(() -> explain(slowQuery, operations));
+        }
+    }
+
+    private void explain(SlowQuery slowQuery, List<ParameterSetOperation> operations) {
+        DataSource source = dataSource.getIfAvailable();
+        if (source == null) {
+            return;
+        }
+        CURRENT_METHOD.set(EXPLAIN_METHOD);
+        try (Connection connection = source.getConnection(); PreparedStatement statement = connection.prepareStatement("EXPLAIN " + slowQuery.getSql())) {
+            for (ParameterSetOperation operation : operations) {
+                operation.getMethod().invoke(statement, operation.getArgs());
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            slowQuery.plan = redactLiterals(plan.toString().stripTrailing());
+        } catch (Exception e) {
+            // Driver messages may quote the bind values
+            LOG.debug("Could not explain slow statement in {}.{}: {}", slowQuery.getRepository(), slowQuery.getMethod(), e.getClass().getName());
+            slowQuery.plan = "EXPLAIN failed: " + e.getClass().getSimpleName();
+        } finally {
+            CURRENT_METHOD.remove();
+        }
+    }
+
+    /**
+     * Name the statements issued outside of a repository method after their kind and, for writes, their table.
+     */
+    static String statementMethod(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty()) {
+            return "other";
+        }
+        Matcher matcher = STATEMENT_PATTERN.matcher(queryInfoList.get(0).getQuery());
+        if (!matcher.find()) {
+            return "other";
+        }
+        String kind = matcher.group(1).toLowerCase(Locale.ROOT);
+        if (kind.startsWith("select") || matcher.group(2) == null) {
+            return kind.split("\\s+")[0];
+        }
+        return kind.split("\\s+")[0] + " " + matcher.group(2).replace("\"", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static int updateCount(Object result) {
+        if (result instanceof Integer count) {
+            return Math.max(0, count);
+        }
+        if (result instanceof int[] counts) {
+            int total = 0;
+            for (int count : counts) {
+                total += Math.max(0, count);
+            }
+            return total;
+        }
+        return -1;
+    }
+
+    static String redactLiterals(String plan) {
+        return PLAN_LITERAL_PATTERN.matcher(plan).replaceAll("'?'");
+    }
+
+    private Timer statementTimer(String repository, String method) {
+        return statementTimers.computeIfAbsent(repository + "." + method, key ->
+            Timer.builder(STATEMENTS_METER_NAME)
+                .description(STATEMENTS_METER_DESCRIPTION)
+                .tag(REPOSITORY_DIMENSION, repository)
+                .tag(METHOD_DIMENSION, method)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry)
+        );
+    }
+
+    private DistributionSummary rowSummary(String repository, String method) {
+        return rowSummaries.computeIfAbsent(repository + "." + method, key ->
+            DistributionSummary.builder(ROWS_METER_NAME)
+                .description(ROWS_METER_DESCRIPTION)
+                .baseUnit(ROWS_METER_BASE_UNIT)
+                .tag(REPOSITORY_DIMENSION, repository)
+                .tag(METHOD_DIMENSION, method)
+                .register(registry)
+        );
+    }
+
+    private DistributionSummary batchSizeSummary(String repository, String method) {
+        return batchSizeSummaries.computeIfAbsent(repository + "." + method, key ->
+            DistributionSummary.builder(BATCH_SIZE_METER_NAME)
+                .description(BATCH_SIZE_METER_DESCRIPTION)
+                .tag(REPOSITORY_DIMENSION, repository)
+                .tag(METHOD_DIMENSION, method)
+                .register(registry)
+        );
+    }
+
+    /**
+     * A statement slower than the threshold. Its plan is filled in asynchronously.
+     */
+    public static class SlowQuery {
+
+        private final Instant capturedAt;
+        private final String repository;
+        private final String method;
+        private final long elapsedMs;
+        private final String sql;
+        private final int parameterSets;
+        private final int batchSize;
+        private volatile String plan;
+
+        SlowQuery(Instant capturedAt, String repository, String method, long elapsedMs, String sql, int parameterSets, int batchSize) {
+            this.capturedAt = capturedAt;
+            this.repository = repository;
+            this.method = method;
+            this.elapsedMs = elapsedMs;
+            this.sql = sql;
+            this.parameterSets = parameterSets;
+            this.batchSize = batchSize;
+        }
+
+        public Instant getCapturedAt() {
+            return capturedAt;
+        }
+
+        public String getRepository() {
+            return repository;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public int getParameterSets() {
+            return parameterSets;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public String getPlan() {
+            return plan;
+        }
+    }
+}
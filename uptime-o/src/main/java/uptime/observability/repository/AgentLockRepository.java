@@ -1,11 +1,92 @@
 package uptime.observability.repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import uptime.observability.domain.AgentLock;
 
 /**
  * Spring Data JPA repository for the AgentLock entity.
+ * <p>
+ * Lease operations are single statements evaluated against the database clock, so concurrent replicas
+ * can never both win an expired lease.
  */
 @Repository
-public interface AgentLockRepository extends JpaRepository<AgentLock, Long> {}
+public interface AgentLockRepository extends JpaRepository<AgentLock, Long> {
+    /**
+     * Acquire the lease of an agent if it is free, expired, or already held by the same holder.
+     * A new holder gets the next fencing token; the current holder keeps its token and extends the lease.
+     *
+     * @param agentId the agent ID
+     * @param holderId the identifier of the acquiring agent instance
+     * @param ttlSeconds the lease duration
+     * @return the fencing token of the lease, or empty if it is held by another instance
+     */
+    // Not @Modifying: that runs the statement as an update count, losing the row of RETURNING. The query space
+    // hint still lets Hibernate flush and invalidate agent_locks around it like for the updates below
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "agent_locks"))
+    @Query(
+        value = "INSERT INTO agent_locks (agent_id, holder_id, acquired_at, expires_at, fencing_token) " +
+        "VALUES (:agentId, :holderId, now() AT TIME ZONE 'UTC', (now() AT TIME ZONE 'UTC') + :ttlSeconds * INTERVAL '1 second', 1) " +
+        "ON CONFLICT (agent_id) DO UPDATE SET " +
+        "fencing_token = CASE WHEN agent_locks.holder_id = EXCLUDED.holder_id AND agent_locks.expires_at > EXCLUDED.acquired_at " +
+        "THEN agent_locks.fencing_token ELSE agent_locks.fencing_token + 1 END, " +
+        "acquired_at = CASE WHEN agent_locks.holder_id = EXCLUDED.holder_id AND agent_locks.expires_at > EXCLUDED.acquired_at " +
+        "THEN agent_locks.acquired_at ELSE EXCLUDED.acquired_at END, " +
+        "holder_id = EXCLUDED.holder_id, " +
+        "expires_at = EXCLUDED.expires_at " +
+        "WHERE agent_locks.expires_at <= EXCLUDED.acquired_at OR agent_locks.holder_id = EXCLUDED.holder_id " +
+        "RETURNING fencing_token",
+        nativeQuery = true
+    )
+    Optional<Long> acquireLease(@Param("agentId") Long agentId, @Param("holderId") String holderId, @Param("ttlSeconds") int ttlSeconds);
+
+    /**
+     * Extend a lease that is still held with the given fencing token.
+     *
+     * @param agentId the agent ID
+     * @param fencingToken the fencing token returned on acquisition
+     * @param ttlSeconds the new lease duration, from now
+     * @return 1 if renewed, 0 if the lease expired or was taken over
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "agent_locks"))
+    @Query(
+        value = "UPDATE agent_locks SET expires_at = (now() AT TIME ZONE 'UTC') + :ttlSeconds * INTERVAL '1 second' " +
+        "WHERE agent_id = :agentId AND fencing_token = :fencingToken AND expires_at > now() AT TIME ZONE 'UTC'",
+        nativeQuery = true
+    )
+    int renewLease(@Param("agentId") Long agentId, @Param("fencingToken") long fencingToken, @Param("ttlSeconds") int ttlSeconds);
+
+    /**
+     * Expire a lease held with the given fencing token. The row is kept so fencing tokens keep increasing.
+     *
+     * @param agentId the agent ID
+     * @param fencingToken the fencing token returned on acquisition
+     * @return 1 if released, 0 if the lease was not held with this token
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "agent_locks"))
+    @Query(
+        value = "UPDATE agent_locks SET expires_at = now() AT TIME ZONE 'UTC' WHERE agent_id = :agentId AND fencing_token = :fencingToken",
+        nativeQuery = true
+    )
+    int releaseLease(@Param("agentId") Long agentId, @Param("fencingToken") long fencingToken);
+
+    /**
+     * Get the latest fencing token handed out for an agent.
+     *
+     * @param agentId the agent ID
+     * @return the fencing token, or empty if the agent never held a lease
+     */
+    @Query(value = "SELECT fencing_token FROM agent_locks WHERE agent_id = :agentId", nativeQuery = true)
+    Optional<Long> findFencingToken(@Param("agentId") Long agentId);
+}
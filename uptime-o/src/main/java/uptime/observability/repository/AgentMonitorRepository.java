@@ -1,6 +1,9 @@
 package uptime.observability.repository;
 
+import java.util.Collection;
+import jakarta.persistence.QueryHint;
 import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -8,16 +11,29 @@ import uptime.observability.domain.AgentMonitor;
 
 /**
  * Spring Data JPA repository for the AgentMonitor entity.
+ * <p>
+ * Assignment lookups by agent or monitor are kept in the {@link #ASSIGNMENTS_CACHE} query cache region, which
+ * any write to the agent monitors, monitors or schedules through Hibernate invalidates. The queries building
+ * agent configurations and fanning out configuration changes always read the database: their results are
+ * tied to a configuration version that other instances may have bumped.
  */
 @SuppressWarnings("unused")
 @Repository
 public interface AgentMonitorRepository extends JpaRepository<AgentMonitor, Long> {
+    String ASSIGNMENTS_CACHE = "agentMonitorAssignments";
+
     /**
      * Find all agent monitors by agent ID.
      *
      * @param agentId the agent ID
      * @return list of agent monitors
      */
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ASSIGNMENTS_CACHE),
+        }
+    )
     List<AgentMonitor> findByAgentId(Long agentId);
 
     /**
@@ -26,6 +42,12 @@ public interface AgentMonitorRepository extends JpaRepository<AgentMonitor, Long
      * @param monitorId the monitor ID
      * @return list of agent monitors
      */
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ASSIGNMENTS_CACHE),
+        }
+    )
     List<AgentMonitor> findByMonitorId(Long monitorId);
 
     /**
@@ -35,6 +57,12 @@ public interface AgentMonitorRepository extends JpaRepository<AgentMonitor, Long
      * @param active the active status
      * @return list of active agent monitors
      */
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ASSIGNMENTS_CACHE),
+        }
+    )
     List<AgentMonitor> findByMonitorIdAndActive(Long monitorId, Boolean active);
 
     /**
@@ -44,6 +72,12 @@ public interface AgentMonitorRepository extends JpaRepository<AgentMonitor, Long
      * @param active the active status
      * @return list of active agent monitors
      */
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ASSIGNMENTS_CACHE),
+        }
+    )
     List<AgentMonitor> findByAgentIdAndActive(Long agentId, Boolean active);
 
     /**
@@ -60,6 +94,54 @@ public interface AgentMonitorRepository extends JpaRepository<AgentMonitor, Long
            "WHERE am.agent.id = :agentId AND am.active = :active")
     List<AgentMonitor> findByAgentIdAndActiveWithMonitorAndSchedule(@Param("agentId") Long agentId, @Param("active") Boolean active);
 
+    /**
+     * Find the active agent monitors of an agent restricted to some monitors, with monitor and schedule eagerly loaded.
+     *
+     * @param agentId the agent ID
+     * @param monitorIds the monitor IDs
+     * @return list of active agent monitors with monitors and schedules loaded
+     */
+    @Query("SELECT DISTINCT am FROM AgentMonitor am " +
+           "JOIN FETCH am.monitor m " +
+           "LEFT JOIN FETCH m.schedule " +
+           "WHERE am.agent.id = :agentId AND am.active = true AND m.id IN :monitorIds")
+    List<AgentMonitor> findActiveByAgentIdAndMonitorIdInWithMonitorAndSchedule(
+        @Param("agentId") Long agentId,
+        @Param("monitorIds") Collection<Long> monitorIds
+    );
+
+    /**
+     * Find the agents a monitor is assigned to.
+     *
+     * @param monitorId the monitor ID
+     * @return the distinct agent IDs
+     */
+    @Query("SELECT DISTINCT am.agent.id FROM AgentMonitor am WHERE am.monitor.id = :monitorId")
+    List<Long> findAgentIdsByMonitorId(@Param("monitorId") Long monitorId);
+
+    /**
+     * Find the agents assigned to a monitor that uses a schedule.
+     *
+     * @param scheduleId the schedule ID
+     * @return the distinct agent IDs
+     */
+    @Query("SELECT DISTINCT am.agent.id FROM AgentMonitor am WHERE am.monitor.schedule.id = :scheduleId")
+    List<Long> findAgentIdsByScheduleId(@Param("scheduleId") Long scheduleId);
+
+    /**
+     * Find the agent, monitor and schedule interval of every active assignment, to predict heartbeat arrivals.
+     *
+     * @return rows of agent ID, monitor ID and interval in seconds
+     */
+    @Query("SELECT am.agent.id, am.monitor.id, am.monitor.schedule.interval FROM AgentMonitor am WHERE am.active = true")
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ASSIGNMENTS_CACHE),
+        }
+    )
+    List<Object[]> findActiveSchedules();
+
     /**
      * Check if an agent monitor exists for a specific agent and monitor combination.
      *
@@ -1,6 +1,11 @@
 package uptime.observability.repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uptime.observability.domain.Agent;
 
@@ -9,4 +14,171 @@ import uptime.observability.domain.Agent;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface AgentRepository extends JpaRepository<Agent, Long> {}
+public interface AgentRepository extends JpaRepository<Agent, Long> {
+    /**
+     * Get the configuration version of an agent.
+     *
+     * @param agentId the agent ID
+     * @return the current configuration version
+     */
+    @Query(value = "SELECT config_version FROM agents WHERE id = :agentId", nativeQuery = true)
+    Optional<Long> findConfigVersionById(@Param("agentId") Long agentId);
+
+    /**
+     * Find the monitors whose configuration changed for an agent within a version range.
+     *
+     * @param agentId the agent ID
+     * @param sinceVersion exclusive lower bound
+     * @param untilVersion inclusive upper bound
+     * @return the distinct changed monitor IDs
+     */
+    @Query(
+        value = "SELECT DISTINCT monitor_id FROM agent_config_changes " +
+        "WHERE agent_id = :agentId AND version > :sinceVersion AND version <= :untilVersion",
+        nativeQuery = true
+    )
+    List<Long> findChangedMonitorIds(
+        @Param("agentId") Long agentId,
+        @Param("sinceVersion") long sinceVersion,
+        @Param("untilVersion") long untilVersion
+    );
+
+    /**
+     * Find the lowest version still recorded for an agent after a given one.
+     *
+     * @param agentId the agent ID
+     * @param sinceVersion exclusive lower bound
+     * @return the version, empty if no later change is recorded
+     */
+    @Query(
+        value = "SELECT MIN(version) FROM agent_config_changes WHERE agent_id = :agentId AND version > :sinceVersion",
+        nativeQuery = true
+    )
+    Optional<Long> findFirstChangeVersionAfter(@Param("agentId") Long agentId, @Param("sinceVersion") long sinceVersion);
+
+    /**
+     * Delete configuration changes recorded before a retention period.
+     *
+     * @param retentionSeconds how long a change is kept
+     * @return the number of rows deleted
+     */
+    @Modifying
+    @Query(
+        value = "DELETE FROM agent_config_changes WHERE changed_at < LOCALTIMESTAMP - :retentionSeconds * INTERVAL '1 second'",
+        nativeQuery = true
+    )
+    int deleteConfigChangesOlderThan(@Param("retentionSeconds") long retentionSeconds);
+
+    /**
+     * Bump the configuration version of one agent and record the changed monitor.
+     * The agent row stays locked until commit, so versions of one agent are handed out in commit order.
+     *
+     * @param agentId the agent ID
+     * @param monitorId the changed monitor ID
+     * @return the number of change records written
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "agents"))
+    @Query(
+        value = "WITH bumped AS (UPDATE agents SET config_version = config_version + 1 WHERE id = :agentId RETURNING id, config_version) " +
+        "INSERT INTO agent_config_changes (agent_id, monitor_id, version) SELECT id, :monitorId, config_version FROM bumped",
+        nativeQuery = true
+    )
+    int bumpConfigVersionForAssignment(@Param("agentId") Long agentId, @Param("monitorId") Long monitorId);
+
+    /**
+     * Bump the configuration version of every agent assigned to a monitor.
+     * Agent rows are locked in id order to avoid deadlocks between concurrent fan-outs.
+     *
+     * @param monitorId the changed monitor ID
+     * @return the number of change records written
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "agents"))
+    @Query(
+        value = "WITH affected AS (SELECT agent_id, monitor_id FROM agent_monitors WHERE monitor_id = :monitorId), " +
+        "locked AS (SELECT id FROM agents WHERE id IN (SELECT agent_id FROM affected) ORDER BY id FOR UPDATE), " +
+        "bumped AS (UPDATE agents SET config_version = config_version + 1 WHERE id IN (SELECT id FROM locked) RETURNING id, config_version) " +
+        "INSERT INTO agent_config_changes (agent_id, monitor_id, version) " +
+        "SELECT f.agent_id, f.monitor_id, b.config_version FROM affected f JOIN bumped b ON b.id = f.agent_id",
+        nativeQuery = true
+    )
+    int bumpConfigVersionForMonitor(@Param("monitorId") Long monitorId);
+
+    /**
+     * Bump the configuration version of every agent assigned to a monitor using a schedule.
+     * Agent rows are locked in id order to avoid deadlocks between concurrent fan-outs.
+     *
+     * @param scheduleId the changed schedule ID
+     * @return the number of change records written
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "agents"))
+    @Query(
+        value = "WITH affected AS (SELECT am.agent_id, am.monitor_id FROM agent_monitors am " +
+        "JOIN api_monitors m ON m.id = am.monitor_id WHERE m.schedule_id = :scheduleId), " +
+        "locked AS (SELECT id FROM agents WHERE id IN (SELECT agent_id FROM affected) ORDER BY id FOR UPDATE), " +
+        "bumped AS (UPDATE agents SET config_version = config_version + 1 WHERE id IN (SELECT id FROM locked) RETURNING id, config_version) " +
+        "INSERT INTO agent_config_changes (agent_id, monitor_id, version) " +
+        "SELECT f.agent_id, f.monitor_id, b.config_version FROM affected f JOIN bumped b ON b.id = f.agent_id",
+        nativeQuery = true
+    )
+    int bumpConfigVersionForSchedule(@Param("scheduleId") Long scheduleId);
+
+    /**
+     * Register a replica of an agent, or refresh its liveness.
+     *
+     * @param agentId the agent ID
+     * @param replicaId the replica ID
+     * @return the number of rows written
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "agent_replicas"))
+    @Query(
+        value = "INSERT INTO agent_replicas (agent_id, replica_id, joined_at, last_seen_at) " +
+        "VALUES (:agentId, :replicaId, now() AT TIME ZONE 'UTC', now() AT TIME ZONE 'UTC') " +
+        "ON CONFLICT (agent_id, replica_id) DO UPDATE SET last_seen_at = EXCLUDED.last_seen_at",
+        nativeQuery = true
+    )
+    int upsertReplica(@Param("agentId") Long agentId, @Param("replicaId") String replicaId);
+
+    /**
+     * Remove a replica of an agent.
+     *
+     * @param agentId the agent ID
+     * @param replicaId the replica ID
+     * @return the number of rows deleted
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "agent_replicas"))
+    @Query(value = "DELETE FROM agent_replicas WHERE agent_id = :agentId AND replica_id = :replicaId", nativeQuery = true)
+    int deleteReplica(@Param("agentId") Long agentId, @Param("replicaId") String replicaId);
+
+    /**
+     * Find the replicas of an agent seen within the liveness window.
+     *
+     * @param agentId the agent ID
+     * @param ttlSeconds the liveness window
+     * @return the live replica IDs, sorted
+     */
+    @Query(
+        value = "SELECT replica_id FROM agent_replicas WHERE agent_id = :agentId " +
+        "AND last_seen_at > (now() AT TIME ZONE 'UTC') - :ttlSeconds * INTERVAL '1 second' ORDER BY replica_id",
+        nativeQuery = true
+    )
+    List<String> findLiveReplicaIds(@Param("agentId") Long agentId, @Param("ttlSeconds") int ttlSeconds);
+
+    /**
+     * Delete replicas that have not been seen for a while.
+     *
+     * @param retentionSeconds how long a silent replica is kept
+     * @return the number of rows deleted
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "agent_replicas"))
+    @Query(
+        value = "DELETE FROM agent_replicas WHERE last_seen_at < (now() AT TIME ZONE 'UTC') - :retentionSeconds * INTERVAL '1 second'",
+        nativeQuery = true
+    )
+    int deleteReplicasNotSeenFor(@Param("retentionSeconds") int retentionSeconds);
+}
@@ -1,9 +1,13 @@
 package uptime.observability.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uptime.observability.domain.ApiKey;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +19,19 @@ public interface ApiKeyRepository extends JpaRepository<ApiKey, Long> {
     List<ApiKey> findAllByActiveTrue();
     
     Optional<ApiKey> findByKeyHash(String keyHash);
+
+    /**
+     * Move the last used date of an API key forward.
+     * Bypasses auditing on purpose: using a key is not a modification of it.
+     *
+     * @param id the API key ID
+     * @param lastUsedDate the new last used date
+     * @return the number of keys updated
+     */
+    @Modifying
+    @Query(
+        "UPDATE ApiKey k SET k.lastUsedDate = :lastUsedDate " +
+        "WHERE k.id = :id AND (k.lastUsedDate IS NULL OR k.lastUsedDate < :lastUsedDate)"
+    )
+    int updateLastUsedDate(@Param("id") Long id, @Param("lastUsedDate") Instant lastUsedDate);
 }
@@ -0,0 +1,57 @@
+package uptime.observability.repository;
+
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import uptime.observability.domain.HeartbeatRun;
+
+/**
+ * Spring Data JPA repository for the HeartbeatRun entity.
+ */
+@Repository
+public interface HeartbeatRunRepository extends JpaRepository<HeartbeatRun, Long> {
+    /**
+     * Find and lock the open run of a monitor and agent, so that their checks are folded one at a time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM HeartbeatRun r WHERE r.monitor.id = :monitorId AND r.agent.id = :agentId AND r.open = true")
+    Optional<HeartbeatRun> findOpenForUpdate(@Param("monitorId") Long monitorId, @Param("agentId") Long agentId);
+
+    /**
+     * Find and lock runs, to write the checks folded into them.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM HeartbeatRun r WHERE r.id IN :ids ORDER BY r.id")
+    List<HeartbeatRun> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find the latest runs of a monitor; as many as the heartbeats read for the monitor detail, each holding at
+     * least one check.
+     */
+    @Query(
+        value = "SELECT r.* FROM heartbeat_runs r WHERE r.monitor_id = :monitorId AND r.check_count > 0 ORDER BY r.ended_at DESC LIMIT 1000",
+        nativeQuery = true
+    )
+    List<HeartbeatRun> findRecentByMonitorId(@Param("monitorId") Long monitorId);
+
+    /**
+     * Find the runs of a monitor with checks that started between two dates. Runs hold the checks of one bucket of
+     * {@code application.ingestion.run-bucket-seconds}, so a run that started before the window is left out whole.
+     */
+    @Query(
+        "SELECT r FROM HeartbeatRun r LEFT JOIN FETCH r.agent a LEFT JOIN FETCH a.datacenter d LEFT JOIN FETCH d.region " +
+        "WHERE r.monitor.id = :monitorId AND r.checkCount > 0 AND r.startedAt >= :startTime AND r.startedAt <= :endTime"
+    )
+    List<HeartbeatRun> findByMonitorIdBetween(
+        @Param("monitorId") Long monitorId,
+        @Param("startTime") Instant startTime,
+        @Param("endTime") Instant endTime
+    );
+}
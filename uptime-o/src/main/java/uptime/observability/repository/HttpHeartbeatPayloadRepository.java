@@ -0,0 +1,16 @@
+package uptime.observability.repository;
+
+import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import uptime.observability.domain.HttpHeartbeatPayload;
+
+/**
+ * Spring Data JPA repository for the HttpHeartbeatPayload entity, keyed by heartbeat id.
+ */
+@Repository
+public interface HttpHeartbeatPayloadRepository extends JpaRepository<HttpHeartbeatPayload, Long> {
+    @EntityGraph(attributePaths = { "requestHeaders", "responseHeaders", "responseBody" })
+    Optional<HttpHeartbeatPayload> findOneWithBlobsByHeartbeatId(Long heartbeatId);
+}
@@ -39,6 +39,21 @@ public interface HttpHeartbeatRepository extends JpaRepository<HttpHeartbeat, Lo
     @Query("SELECT COUNT(DISTINCT h.agent.id) FROM HttpHeartbeat h WHERE h.monitor.id = :monitorId")
     Integer countDistinctAgentsByMonitorId(Long monitorId);
 
+    /**
+     * The outcome of the latest heartbeat of each monitor that has one, as {@code [monitorId, success]}.
+     */
+    @Query(value = """
+        SELECT m.id, h.success
+        FROM api_monitors m
+        JOIN LATERAL (
+          SELECT success FROM api_heartbeats
+          WHERE monitor_id = m.id
+          ORDER BY executed_at DESC
+          LIMIT 1
+        ) h ON true
+        """, nativeQuery = true)
+    List<Object[]> findLatestSuccessPerMonitor();
+
 
 
     @Query(value = """
@@ -0,0 +1,48 @@
+package uptime.observability.repository;
+
+import jakarta.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import uptime.observability.domain.Incident;
+import uptime.observability.domain.IncidentCause;
+
+/**
+ * Spring Data JPA repository for the Incident entity.
+ */
+@Repository
+public interface IncidentRepository extends JpaRepository<Incident, Long> {
+    /**
+     * Find and lock the open incident of a monitor and agent, so that instances open and close it one at a time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Incident i WHERE i.monitor.id = :monitorId AND i.agent.id = :agentId AND i.open = true")
+    Optional<Incident> findOpenForUpdate(@Param("monitorId") Long monitorId, @Param("agentId") Long agentId);
+
+    /**
+     * Find the cause of the open incident of a monitor and agent.
+     */
+    @Query("SELECT i.cause FROM Incident i WHERE i.monitor.id = :monitorId AND i.agent.id = :agentId AND i.open = true")
+    Optional<IncidentCause> findOpenCause(@Param("monitorId") Long monitorId, @Param("agentId") Long agentId);
+
+    /**
+     * Find the open incidents, with the ids of their monitor and agent.
+     */
+    @Query("SELECT i.monitor.id, i.agent.id, i.cause FROM Incident i WHERE i.open = true")
+    List<Object[]> findOpenKeys();
+
+    /**
+     * Find the incidents of a monitor, or of all monitors, optionally only the open ones.
+     */
+    @Query(
+        "SELECT i FROM Incident i WHERE (:monitorId IS NULL OR i.monitor.id = :monitorId) AND (:open IS NULL OR i.open = :open) " +
+        "ORDER BY i.openedAt DESC"
+    )
+    Page<Incident> findByMonitorIdAndOpen(@Param("monitorId") Long monitorId, @Param("open") Boolean open, Pageable pageable);
+}
@@ -0,0 +1,68 @@
+package uptime.observability.repository;
+
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import uptime.observability.domain.PayloadBlob;
+
+/**
+ * Spring Data JPA repository for the PayloadBlob entity, keyed by content hash.
+ */
+@Repository
+public interface PayloadBlobRepository extends JpaRepository<PayloadBlob, String> {
+    /**
+     * Store a blob, or stamp it as referenced if it is already stored.
+     *
+     * @param hash the hex SHA-256 of the content
+     * @param content the content
+     * @param sizeBytes the size of the content in bytes
+     * @return the number of rows inserted or updated
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "payload_blobs"))
+    @Query(
+        value = "INSERT INTO payload_blobs (hash, content, size_bytes, referenced_at, created_at) " +
+        "VALUES (:hash, :content, :sizeBytes, now() AT TIME ZONE 'UTC', now() AT TIME ZONE 'UTC') " +
+        "ON CONFLICT (hash) DO UPDATE SET referenced_at = EXCLUDED.referenced_at",
+        nativeQuery = true
+    )
+    int upsertReference(@Param("hash") String hash, @Param("content") String content, @Param("sizeBytes") int sizeBytes);
+
+    /**
+     * Stamp a stored blob as referenced, without sending its content.
+     *
+     * @param hash the hex SHA-256 of the content
+     * @return 1, or 0 if the blob is not stored
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "payload_blobs"))
+    @Query(value = "UPDATE payload_blobs SET referenced_at = now() AT TIME ZONE 'UTC' WHERE hash = :hash", nativeQuery = true)
+    int addReference(@Param("hash") String hash);
+
+    /**
+     * Delete the blobs no payload references anymore, whatever removed the payloads, including cascades from
+     * deleted heartbeats.
+     * <p>
+     * Blobs referenced since {@code before} are kept: a transaction storing a payload stamps its blobs first, so the
+     * delete waits for it on the blob row and then skips it, instead of missing its uncommitted payload.
+     *
+     * @param before the time before which a blob must have last been referenced to be deleted
+     * @return the number of rows deleted
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "payload_blobs"))
+    @Query(
+        value = "DELETE FROM payload_blobs b WHERE b.referenced_at < :before " +
+        "AND NOT EXISTS (SELECT 1 FROM api_heartbeat_payloads p WHERE p.request_headers_hash = b.hash) " +
+        "AND NOT EXISTS (SELECT 1 FROM api_heartbeat_payloads p WHERE p.response_headers_hash = b.hash) " +
+        "AND NOT EXISTS (SELECT 1 FROM api_heartbeat_payloads p WHERE p.response_body_hash = b.hash)",
+        nativeQuery = true
+    )
+    int deleteUnreferenced(@Param("before") Instant before);
+}
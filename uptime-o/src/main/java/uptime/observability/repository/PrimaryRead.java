@@ -0,0 +1,22 @@
+package uptime.observability.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * A transaction that only reads, but must see what was just committed, such as a fencing token check or a
+ * credential lookup.
+ * <p>
+ * It is a read-write {@link Transactional}, as only read-only transactions are routed to read replicas, which may
+ * lag behind the primary.
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional
+public @interface PrimaryRead {
+}
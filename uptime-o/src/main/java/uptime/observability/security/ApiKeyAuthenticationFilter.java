@@ -6,29 +6,38 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 import uptime.observability.service.ApiKeyService;
+import uptime.observability.service.ApiKeyService.CachedApiKey;
 
 /**
  * Filter to authenticate requests using API keys.
  * Checks for X-API-Key header and validates it against active API keys in the database.
+ * Requests over the rate limit of their key are answered with 429 before reaching any controller.
  * Not marked as @Component to avoid circular dependency - manually registered in SecurityConfiguration.
  */
 public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger LOG = LoggerFactory.getLogger(ApiKeyAuthenticationFilter.class);
     private static final String API_KEY_HEADER = "X-API-Key";
+    private static final String AGENTS_PATH = "/api/public/agents/";
 
     private final ApiKeyService apiKeyService;
+    private final ApiKeyRateLimiter apiKeyRateLimiter;
 
-    public ApiKeyAuthenticationFilter(ApiKeyService apiKeyService) {
+    public ApiKeyAuthenticationFilter(ApiKeyService apiKeyService, ApiKeyRateLimiter apiKeyRateLimiter) {
         this.apiKeyService = apiKeyService;
+        this.apiKeyRateLimiter = apiKeyRateLimiter;
     }
 
     @Override
@@ -41,7 +50,23 @@ public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
 
         if (apiKey != null && !apiKey.isEmpty()) {
             try {
-                if (apiKeyService.validateApiKey(apiKey)) {
+                Optional<CachedApiKey> validKey = apiKeyService.authenticateApiKey(apiKey);
+                if (validKey.isPresent()) {
+                    CachedApiKey key = validKey.orElseThrow();
+                    long waitNanos = apiKeyRateLimiter.tryAcquire(
+                        key.getId(),
+                        key.getRateLimitPerSecond(),
+                        key.getRateLimitBurst(),
+                        agentId(request)
+                    );
+                    if (waitNanos > 0) {
+                        LOG.debug("API Key {} throttled for {}", key.getId(), request.getRequestURI());
+                        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L))));
+                        response.setContentType("application/json");
+                        response.getWriter().write("{\"error\":\"Rate limit exceeded\"}");
+                        return;
+                    }
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         "api-agent",
                         null,
@@ -68,10 +93,26 @@ public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private static Long agentId(HttpServletRequest request) {
+        String value = request.getParameter("agentId");
+        if (value == null) {
+            String path = request.getRequestURI();
+            if (path.startsWith(AGENTS_PATH)) {
+                int end = path.indexOf('/', AGENTS_PATH.length());
+                value = end > 0 ? path.substring(AGENTS_PATH.length(), end) : path.substring(AGENTS_PATH.length());
+            }
+        }
+        try {
+            return value != null ? Long.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     @Override
     protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
         String path = request.getRequestURI();
         // Apply this filter to agent API endpoints and public API endpoints that accept API key authentication
-        return !path.startsWith("/api/agent/") && !path.startsWith("/api/public/heartbeats") && !path.startsWith("/api/public/monitors") && !path.startsWith("/api/public/agents");
+        return !path.startsWith("/api/agent/") && !path.startsWith("/api/public/heartbeats") && !path.startsWith("/api/public/monitors") && !path.startsWith("/api/public/agents") && !path.startsWith("/api/public/fleet");
     }
 }
@@ -0,0 +1,139 @@
+package uptime.observability.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import uptime.observability.config.ApplicationProperties;
+
+/**
+ * Token bucket rate limiter for requests authenticated by API key, and optionally per agent of a key.
+ * <p>
+ * Buckets are kept as a single "theoretical arrival time" each (the generic cell rate algorithm), so taking
+ * a token is one compare-and-set without any lock, and throttled requests are rejected before any database
+ * work. Buckets are local to each instance.
+ */
+@Component
+public class ApiKeyRateLimiter {
+
+    public static final String REQUESTS_METER_NAME = "uptime.api-key.requests";
+    public static final String REQUESTS_METER_DESCRIPTION = "Requests authenticated by API key, accepted or throttled.";
+    public static final String REQUESTS_METER_KEY_DIMENSION = "key";
+    public static final String REQUESTS_METER_OUTCOME_DIMENSION = "outcome";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ApiKeyRateLimiter.class);
+
+    private static final long IDLE_BUCKET_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final ApplicationProperties.RateLimit properties;
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private final Map<Long, Counter[]> counters = new ConcurrentHashMap<>();
+
+    public ApiKeyRateLimiter(ApplicationProperties applicationProperties, MeterRegistry registry) {
+        this.properties = applicationProperties.getRateLimit();
+        this.registry = registry;
+    }
+
+    /**
+     * Take a token for a request of an API key.
+     *
+     * @param apiKeyId the API key id.
+     * @param rateLimitPerSecond the rate of the key, or {@code null} for the default.
+     * @param rateLimitBurst the burst of the key, or {@code null} for the default.
+     * @param agentId the agent the request is for, or {@code null} if unknown.
+     * @return {@code 0} if the request is accepted, otherwise how long to wait before retrying, in nanoseconds.
+     */
+    public long tryAcquire(Long apiKeyId, Integer rateLimitPerSecond, Integer rateLimitBurst, Long agentId) {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        int rate = rateLimitPerSecond != null ? rateLimitPerSecond : properties.getRequestsPerSecond();
+        int burst = rateLimitBurst != null ? rateLimitBurst : properties.getBurst();
+        long wait = bucket("key-" + apiKeyId, now).tryAcquire(now, rate, burst);
+        if (wait == 0 && agentId != null && properties.getAgentRequestsPerSecond() > 0) {
+            // The key-wide token is not given back on an agent refusal: a looping agent still counts against its key
+            wait = bucket("key-" + apiKeyId + "-agent-" + agentId, now).tryAcquire(
+                now,
+                properties.getAgentRequestsPerSecond(),
+                properties.getAgentBurst()
+            );
+        }
+        counters(apiKeyId)[wait == 0 ? 0 : 1].increment();
+        return wait;
+    }
+
+    /**
+     * Forget buckets that have been full for a while.
+     * <p>
+     * This is scheduled to get fired every 5 minutes.
+     */
+    @Scheduled(fixedDelay = 300_000)
+    public void removeIdleBuckets() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+        LOG.debug("Removed {} idle rate limit buckets", before - buckets.size());
+    }
+
+    private Bucket bucket(String key, long now) {
+        Bucket bucket = buckets.get(key);
+        return bucket != null ? bucket : buckets.computeIfAbsent(key, k -> new Bucket(now));
+    }
+
+    private Counter[] counters(Long apiKeyId) {
+        Counter[] pair = counters.get(apiKeyId);
+        return pair != null ? pair : counters.computeIfAbsent(apiKeyId, id -> new Counter[] { counter(id, "accepted"), counter(id, "throttled") });
+    }
+
+    private Counter counter(Long apiKeyId, String outcome) {
+        return Counter.builder(REQUESTS_METER_NAME)
+            .description(REQUESTS_METER_DESCRIPTION)
+            .tag(REQUESTS_METER_KEY_DIMENSION, String.valueOf(apiKeyId))
+            .tag(REQUESTS_METER_OUTCOME_DIMENSION, outcome)
+            .register(registry);
+    }
+
+    static final class Bucket {
+
+        // Time at which the bucket is full again; a request is allowed while it is at most one burst ahead of now
+        private final AtomicLong theoreticalArrival;
+
+        Bucket(long now) {
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+
+        long tryAcquire(long now, int ratePerSecond, int burst) {
+            if (ratePerSecond <= 0) {
+                return 0;
+            }
+            long interval = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+            long tolerance = interval * Math.max(burst - 1, 0);
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                long ahead = arrival - now;
+                if (ahead > tolerance) {
+                    return ahead - tolerance;
+                }
+                long next = Math.max(arrival, now) + interval;
+                if (theoreticalArrival.compareAndSet(arrival, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isIdle(long now) {
+            return now - theoreticalArrival.get() > IDLE_BUCKET_NANOS;
+        }
+    }
+}
@@ -10,9 +10,9 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 import uptime.observability.domain.Authority;
 import uptime.observability.domain.User;
+import uptime.observability.repository.PrimaryRead;
 import uptime.observability.repository.UserRepository;
 
 /**
@@ -30,7 +30,7 @@ public class DomainUserDetailsService implements UserDetailsService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @PrimaryRead
     public UserDetails loadUserByUsername(final String login) {
         LOG.debug("Authenticating {}", login);
 
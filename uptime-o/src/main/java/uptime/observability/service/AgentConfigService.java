@@ -0,0 +1,234 @@
+package uptime.observability.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uptime.observability.config.ApplicationProperties;
+import uptime.observability.domain.AgentMonitor;
+import uptime.observability.domain.HttpMonitor;
+import uptime.observability.domain.Schedule;
+import uptime.observability.repository.AgentMonitorRepository;
+import uptime.observability.repository.AgentRepository;
+import uptime.observability.repository.PrimaryRead;
+import uptime.observability.service.dto.AgentConfigDeltaDTO;
+import uptime.observability.service.dto.MonitorConfigDTO;
+import uptime.observability.service.dto.ScheduleConfigDTO;
+import uptime.observability.service.event.AgentConfigChangedEvent;
+
+/**
+ * Service building the monitor configuration handed out to agents, and tracking its version.
+ * <p>
+ * Every agent has a monotonically increasing configuration version, bumped in the same transaction as
+ * any change to one of its {@link AgentMonitor} assignments, an assigned {@link HttpMonitor} or that
+ * monitor's {@link Schedule}. Each bump records the changed monitor, so an agent that sends the version
+ * it already has only receives what changed since. An {@link AgentConfigChangedEvent} is published for
+ * every bump so cached snapshots can be rebuilt once the change is committed.
+ * <p>
+ * Changes are kept for {@code application.agent-config.change-retention-seconds}, and go with their agent when it
+ * is deleted; an agent further behind gets its full configuration.
+ */
+@Service
+@Transactional
+public class AgentConfigService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AgentConfigService.class);
+
+    private final AgentRepository agentRepository;
+
+    private final AgentMonitorRepository agentMonitorRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ApplicationProperties.AgentConfig properties;
+
+    public AgentConfigService(
+        AgentRepository agentRepository,
+        AgentMonitorRepository agentMonitorRepository,
+        ApplicationEventPublisher eventPublisher,
+        ApplicationProperties applicationProperties
+    ) {
+        this.agentRepository = agentRepository;
+        this.agentMonitorRepository = agentMonitorRepository;
+        this.eventPublisher = eventPublisher;
+        this.properties = applicationProperties.getAgentConfig();
+    }
+
+    /**
+     * Get the current configuration version of an agent.
+     *
+     * @param agentId the agent id.
+     * @return the version, {@code 0} for unknown agents.
+     */
+    @PrimaryRead
+    public long getConfigVersion(Long agentId) {
+        return agentRepository.findConfigVersionById(agentId).orElse(0L);
+    }
+
+    /**
+     * Get the full configuration of an agent.
+     *
+     * @param agentId the agent id.
+     * @return all active monitors of the agent, with the version they correspond to.
+     */
+    @PrimaryRead
+    public AgentConfigDeltaDTO getFullConfig(Long agentId) {
+        LOG.debug("Request to get full configuration of agent : {}", agentId);
+        // Read the version first: a concurrent change then at worst shows up again in the next delta
+        long version = getConfigVersion(agentId);
+        AgentConfigDeltaDTO config = new AgentConfigDeltaDTO();
+        config.setVersion(version);
+        config.setFull(true);
+        config.setMonitors(toConfig(agentId, agentMonitorRepository.findByAgentIdAndActiveWithMonitorAndSchedule(agentId, true)));
+        return config;
+    }
+
+    /**
+     * Get the configuration changes of an agent since a version it already has.
+     *
+     * @param agentId the agent id.
+     * @param sinceVersion the version the agent currently has.
+     * @return the delta, or the full configuration if {@code sinceVersion} is not a version of this agent, or the
+     *         changes since were purged.
+     */
+    @PrimaryRead
+    public AgentConfigDeltaDTO getConfigChanges(Long agentId, long sinceVersion) {
+        long version = getConfigVersion(agentId);
+        if (sinceVersion < 0 || sinceVersion > version) {
+            LOG.debug("Agent {} sent unknown configuration version {}, current is {}", agentId, sinceVersion, version);
+            return getFullConfig(agentId);
+        }
+        LOG.debug("Request to get configuration changes of agent {} from version {} to {}", agentId, sinceVersion, version);
+
+        AgentConfigDeltaDTO delta = new AgentConfigDeltaDTO();
+        delta.setVersion(version);
+        delta.setFull(false);
+        if (sinceVersion == version) {
+            return delta;
+        }
+        // Every bump records at least one change, so a gap means the changes right after sinceVersion were purged
+        if (agentRepository.findFirstChangeVersionAfter(agentId, sinceVersion).orElse(version + 1) != sinceVersion + 1) {
+            LOG.debug("Changes of agent {} after version {} were purged", agentId, sinceVersion);
+            return getFullConfig(agentId);
+        }
+        Set<Long> changedMonitorIds = new HashSet<>(agentRepository.findChangedMonitorIds(agentId, sinceVersion, version));
+        if (changedMonitorIds.isEmpty()) {
+            return delta;
+        }
+        List<MonitorConfigDTO> monitors = toConfig(
+            agentId,
+            agentMonitorRepository.findActiveByAgentIdAndMonitorIdInWithMonitorAndSchedule(agentId, changedMonitorIds)
+        );
+        Set<Long> removedMonitorIds = new HashSet<>(changedMonitorIds);
+        monitors.forEach(monitor -> removedMonitorIds.remove(monitor.getId()));
+        delta.setMonitors(monitors);
+        delta.setRemovedMonitorIds(new ArrayList<>(removedMonitorIds));
+        return delta;
+    }
+
+    /**
+     * Record a change of the assignment of a monitor to an agent.
+     *
+     * @param agentId the agent id.
+     * @param monitorId the monitor id.
+     */
+    public void assignmentChanged(Long agentId, Long monitorId) {
+        if (agentId == null || monitorId == null) {
+            return;
+        }
+        int changes = agentRepository.bumpConfigVersionForAssignment(agentId, monitorId);
+        LOG.debug("Configuration of agent {} bumped for monitor {} ({} changes)", agentId, monitorId, changes);
+        eventPublisher.publishEvent(new AgentConfigChangedEvent(Set.of(agentId)));
+    }
+
+    /**
+     * Record a change of a monitor, for every agent it is assigned to.
+     *
+     * @param monitorId the monitor id.
+     */
+    public void monitorChanged(Long monitorId) {
+        if (monitorId == null) {
+            return;
+        }
+        List<Long> agentIds = agentMonitorRepository.findAgentIdsByMonitorId(monitorId);
+        if (agentIds.isEmpty()) {
+            return;
+        }
+        int changes = agentRepository.bumpConfigVersionForMonitor(monitorId);
+        LOG.debug("Configuration of {} agents bumped for monitor {}", changes, monitorId);
+        eventPublisher.publishEvent(new AgentConfigChangedEvent(new HashSet<>(agentIds)));
+    }
+
+    /**
+     * Record a change of a schedule, for every agent assigned to a monitor using it.
+     *
+     * @param scheduleId the schedule id.
+     */
+    public void scheduleChanged(Long scheduleId) {
+        if (scheduleId == null) {
+            return;
+        }
+        List<Long> agentIds = agentMonitorRepository.findAgentIdsByScheduleId(scheduleId);
+        if (agentIds.isEmpty()) {
+            return;
+        }
+        int changes = agentRepository.bumpConfigVersionForSchedule(scheduleId);
+        LOG.debug("Configuration of {} agents bumped for schedule {} ({} changes)", agentIds.size(), scheduleId, changes);
+        eventPublisher.publishEvent(new AgentConfigChangedEvent(new HashSet<>(agentIds)));
+    }
+
+    /**
+     * Purge configuration changes past their retention.
+     * <p>
+     * This is scheduled to get fired every hour.
+     */
+    @Scheduled(cron = "0 50 * * * ?")
+    public void removeExpiredChanges() {
+        int removed = agentRepository.deleteConfigChangesOlderThan(properties.getChangeRetentionSeconds());
+        if (removed > 0) {
+            LOG.debug("Removed {} expired agent configuration changes", removed);
+        }
+    }
+
+    private List<MonitorConfigDTO> toConfig(Long agentId, List<AgentMonitor> agentMonitors) {
+        return agentMonitors.stream().map(am -> toConfig(agentId, am.getMonitor())).collect(Collectors.toList());
+    }
+
+    private MonitorConfigDTO toConfig(Long agentId, HttpMonitor monitor) {
+        Schedule schedule = monitor.getSchedule();
+
+        MonitorConfigDTO response = new MonitorConfigDTO();
+        response.setId(monitor.getId());
+        response.setName(monitor.getName());
+        response.setMethod(monitor.getMethod());
+        response.setType(monitor.getType());
+        response.setUrl(monitor.getUrl());
+        response.setAdditionalUrls(monitor.getAdditionalUrls());
+        response.setCallsPerInterval(monitor.getCallsPerInterval());
+        response.setHeaders(monitor.getHeaders());
+        response.setBody(monitor.getBody());
+
+        if (schedule != null) {
+            ScheduleConfigDTO scheduleResponse = new ScheduleConfigDTO();
+            scheduleResponse.setId(schedule.getId());
+            scheduleResponse.setName(schedule.getName());
+            scheduleResponse.setInterval(schedule.getInterval());
+            scheduleResponse.setIncludeResponseBody(schedule.getIncludeResponseBody());
+            scheduleResponse.setThresholdsWarning(schedule.getThresholdsWarning());
+            scheduleResponse.setThresholdsCritical(schedule.getThresholdsCritical());
+            response.setSchedule(scheduleResponse);
+            if (schedule.getInterval() != null) {
+                response.setPhaseOffsetMs(PhaseOffsets.offsetMs(agentId, monitor.getId(), schedule.getInterval()));
+            }
+        }
+
+        return response;
+    }
+}
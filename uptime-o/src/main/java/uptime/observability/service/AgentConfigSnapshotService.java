@@ -0,0 +1,214 @@
+package uptime.observability.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import uptime.observability.config.ApplicationProperties;
+import uptime.observability.service.dto.AgentConfigDeltaDTO;
+import uptime.observability.service.dto.MonitorConfigDTO;
+import uptime.observability.service.event.AgentConfigChangedEvent;
+import uptime.observability.service.event.AgentConfigSnapshotUpdatedEvent;
+import uptime.observability.service.event.ClusterResyncEvent;
+import uptime.observability.service.event.RemoteChangesEvent;
+
+/**
+ * In-memory snapshots of the full monitor configuration of each agent, kept as ready-to-write JSON bytes
+ * (plain and gzip-compressed).
+ * <p>
+ * A poll is served from the snapshot without touching the database. Snapshots are rebuilt asynchronously
+ * once a configuration change is committed; until then the previous snapshot keeps being served, and the
+ * agent picks the change up on its next poll. Snapshots older than
+ * {@code application.agent-config.snapshot-revalidate-ms} re-check their version with a single primary key
+ * lookup, which catches changes committed by other instances if their {@link ClusterEventBus} notification
+ * was missed. Every move to a newer version publishes an
+ * {@link AgentConfigSnapshotUpdatedEvent}, which releases agents parked on a watch request.
+ */
+@Service
+public class AgentConfigSnapshotService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AgentConfigSnapshotService.class);
+
+    private final AgentConfigService agentConfigService;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final long revalidateMs;
+
+    private final Map<Long, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final Set<Long> pendingRebuilds = ConcurrentHashMap.newKeySet();
+
+    public AgentConfigSnapshotService(
+        AgentConfigService agentConfigService,
+        ObjectMapper objectMapper,
+        ApplicationEventPublisher eventPublisher,
+        ApplicationProperties applicationProperties
+    ) {
+        this.agentConfigService = agentConfigService;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.revalidateMs = applicationProperties.getAgentConfig().getSnapshotRevalidateMs();
+    }
+
+    /**
+     * Get the configuration snapshot of an agent, building it on first use.
+     *
+     * @param agentId the agent id.
+     * @return the snapshot.
+     */
+    public Snapshot getSnapshot(Long agentId) {
+        Snapshot snapshot = snapshots.get(agentId);
+        if (snapshot == null) {
+            return rebuild(agentId);
+        }
+        long now = System.currentTimeMillis();
+        if (now - snapshot.checkedAt > revalidateMs) {
+            if (agentConfigService.getConfigVersion(agentId) != snapshot.version) {
+                return rebuild(agentId);
+            }
+            snapshot.checkedAt = now;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Rebuild the snapshots of the changed agents once the change is committed.
+     *
+     * @param event the change.
+     */
+    @Async
+    @TransactionalEventListener
+    public void onAgentConfigChanged(AgentConfigChangedEvent event) {
+        refresh(event.getAgentIds());
+    }
+
+    /**
+     * Rebuild the snapshots of agents whose configuration was changed by another instance.
+     *
+     * @param event the changes of the other instance.
+     */
+    @Async
+    @EventListener
+    public void onRemoteChanges(RemoteChangesEvent event) {
+        if (!event.getChangedAgentIds().isEmpty()) {
+            refresh(event.getChangedAgentIds());
+        }
+    }
+
+    /**
+     * Rebuild the snapshots of agents whose configuration changed, on this instance or another one.
+     *
+     * @param agentIds the agent ids.
+     */
+    public void refresh(Set<Long> agentIds) {
+        for (Long agentId : agentIds) {
+            // Only agents that are actually polling have a snapshot worth refreshing
+            if (snapshots.containsKey(agentId) && pendingRebuilds.add(agentId)) {
+                try {
+                    rebuild(agentId);
+                } catch (RuntimeException e) {
+                    LOG.warn("Could not rebuild configuration snapshot of agent {}, dropping it: {}", agentId, e.getMessage());
+                    snapshots.remove(agentId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Have every snapshot re-check its version on its next use, for changes this instance may have missed.
+     */
+    @EventListener(ClusterResyncEvent.class)
+    public void expireAll() {
+        snapshots.values().forEach(snapshot -> snapshot.checkedAt = 0);
+    }
+
+    private Snapshot rebuild(Long agentId) {
+        // Cleared before reading so that a change committed during the rebuild schedules another one
+        pendingRebuilds.remove(agentId);
+        AgentConfigDeltaDTO config = agentConfigService.getFullConfig(agentId);
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(config.getMonitors());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        Snapshot fresh = new Snapshot(config.getVersion(), List.copyOf(config.getMonitors()), json, gzip(json));
+        Snapshot previous = snapshots.get(agentId);
+        Snapshot current = snapshots.merge(agentId, fresh, (existing, candidate) -> candidate.version >= existing.version ? candidate : existing);
+        LOG.debug("Configuration snapshot of agent {} at version {}: {} monitors, {} bytes", agentId, current.version, current.monitors.size(), json.length);
+        if (current == fresh && previous != null && previous.version < fresh.version) {
+            eventPublisher.publishEvent(new AgentConfigSnapshotUpdatedEvent(agentId, fresh.version));
+        }
+        return current;
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Serialized monitor list of one agent at one configuration version.
+     */
+    public static final class Snapshot {
+
+        private final long version;
+        private final List<MonitorConfigDTO> monitors;
+        private final byte[] json;
+        private final byte[] gzippedJson;
+        private volatile long checkedAt = System.currentTimeMillis();
+
+        Snapshot(long version, List<MonitorConfigDTO> monitors, byte[] json, byte[] gzippedJson) {
+            this.version = version;
+            this.monitors = monitors;
+            this.json = json;
+            this.gzippedJson = gzippedJson;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return the monitors; shared, must not be modified.
+         */
+        public List<MonitorConfigDTO> getMonitors() {
+            return monitors;
+        }
+
+        /**
+         * @return the JSON array of monitors; shared, must not be modified.
+         */
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * @return the gzip-compressed JSON array of monitors; shared, must not be modified.
+         */
+        public byte[] getGzippedJson() {
+            return gzippedJson;
+        }
+    }
+}
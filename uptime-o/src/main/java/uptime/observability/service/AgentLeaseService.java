@@ -0,0 +1,142 @@
+package uptime.observability.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uptime.observability.repository.AgentLockRepository;
+import uptime.observability.repository.PrimaryRead;
+import uptime.observability.service.dto.AgentLeaseDTO;
+import uptime.observability.service.event.AgentLeaseAcquiredEvent;
+import uptime.observability.service.event.ClusterResyncEvent;
+import uptime.observability.service.event.RemoteChangesEvent;
+
+/**
+ * Service for agent leader election leases and their fencing tokens.
+ * <p>
+ * Acquisition, renewal and release are each one conditional statement in the database. Fencing tokens only
+ * ever increase, so the highest token this instance has seen for an agent is a safe lower bound: a heartbeat
+ * carrying a smaller token comes from a former leader and is dropped, and one carrying that token is accepted,
+ * both without a database round trip. Leases handed out by other instances arrive through the
+ * {@link ClusterEventBus}; a token higher than any seen here is checked against the lock row, and after a resync
+ * every token is checked once more.
+ */
+@Service
+@Transactional
+public class AgentLeaseService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AgentLeaseService.class);
+
+    public static final int LEASE_TTL_SECONDS = 60;
+
+    private final AgentLockRepository agentLockRepository;
+
+    private final Map<Long, Long> highestTokens = new ConcurrentHashMap<>();
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AgentLeaseService(AgentLockRepository agentLockRepository, ApplicationEventPublisher eventPublisher) {
+        this.agentLockRepository = agentLockRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Acquire the lease of an agent.
+     *
+     * @param agentId the agent id.
+     * @param holderId the identifier of the acquiring instance; without one the lease can only be taken when free.
+     * @return the lease, or empty if it is held by another instance.
+     */
+    public Optional<AgentLeaseDTO> acquire(Long agentId, String holderId) {
+        String holder = holderId != null && !holderId.isBlank() ? holderId : UUID.randomUUID().toString();
+        Optional<AgentLeaseDTO> lease = agentLockRepository
+            .acquireLease(agentId, holder, LEASE_TTL_SECONDS)
+            .map(token -> new AgentLeaseDTO(agentId, holder, token, LEASE_TTL_SECONDS));
+        lease.ifPresent(l -> {
+            recordToken(agentId, l.getFencingToken());
+            eventPublisher.publishEvent(new AgentLeaseAcquiredEvent(agentId, l.getFencingToken()));
+        });
+        LOG.debug("Lease of agent {} for holder {}: {}", agentId, holder, lease.isPresent() ? "acquired" : "held by another instance");
+        return lease;
+    }
+
+    /**
+     * Extend a lease still held with the given fencing token.
+     *
+     * @param agentId the agent id.
+     * @param fencingToken the token returned on acquisition.
+     * @return the renewed lease, or empty if it expired or was taken over.
+     */
+    public Optional<AgentLeaseDTO> renew(Long agentId, long fencingToken) {
+        if (agentLockRepository.renewLease(agentId, fencingToken, LEASE_TTL_SECONDS) == 0) {
+            LOG.debug("Lease of agent {} with token {} could not be renewed", agentId, fencingToken);
+            return Optional.empty();
+        }
+        recordToken(agentId, fencingToken);
+        return Optional.of(new AgentLeaseDTO(agentId, null, fencingToken, LEASE_TTL_SECONDS));
+    }
+
+    /**
+     * Release a lease still held with the given fencing token. The lock row is kept (expired) so that fencing
+     * tokens keep increasing.
+     *
+     * @param agentId the agent id.
+     * @param fencingToken the token returned on acquisition.
+     * @return {@code true} if a lease was released.
+     */
+    public boolean release(Long agentId, long fencingToken) {
+        int released = agentLockRepository.releaseLease(agentId, fencingToken);
+        LOG.debug("Lease of agent {} released: {}", agentId, released > 0);
+        return released > 0;
+    }
+
+    /**
+     * Check whether a fencing token is older than the latest one handed out for an agent, by any instance.
+     *
+     * @param agentId the agent id.
+     * @param fencingToken the token sent with a heartbeat; {@code null} is never stale.
+     * @return {@code true} if the token belongs to a former leader.
+     */
+    @PrimaryRead
+    public boolean isStale(Long agentId, Long fencingToken) {
+        if (agentId == null || fencingToken == null) {
+            return false;
+        }
+        Long highest = highestTokens.get(agentId);
+        if (highest != null && fencingToken <= highest) {
+            return fencingToken < highest;
+        }
+        // A token not seen here yet, if another instance handed it out before its event arrived
+        long current = agentLockRepository.findFencingToken(agentId).orElse(0L);
+        recordToken(agentId, current);
+        return fencingToken < current;
+    }
+
+    /**
+     * Raise the bounds to the fencing tokens handed out by another instance.
+     *
+     * @param event the changes of the other instance.
+     */
+    @EventListener
+    public void onRemoteChanges(RemoteChangesEvent event) {
+        event.getFencingTokens().forEach(this::recordToken);
+    }
+
+    /**
+     * Check every token against the lock rows once more, as leases handed out meanwhile may have been missed.
+     */
+    @EventListener(ClusterResyncEvent.class)
+    public void onClusterResync() {
+        highestTokens.clear();
+    }
+
+    private void recordToken(Long agentId, long fencingToken) {
+        highestTokens.merge(agentId, fencingToken, Math::max);
+    }
+}
@@ -30,17 +30,20 @@ public class AgentMonitorService {
     private final AgentMonitorMapper agentMonitorMapper;
     private final AgentRepository agentRepository;
     private final HttpMonitorRepository httpMonitorRepository;
+    private final AgentConfigService agentConfigService;
 
     public AgentMonitorService(
         AgentMonitorRepository agentMonitorRepository,
         AgentMonitorMapper agentMonitorMapper,
         AgentRepository agentRepository,
-        HttpMonitorRepository httpMonitorRepository
+        HttpMonitorRepository httpMonitorRepository,
+        AgentConfigService agentConfigService
     ) {
         this.agentMonitorRepository = agentMonitorRepository;
         this.agentMonitorMapper = agentMonitorMapper;
         this.agentRepository = agentRepository;
         this.httpMonitorRepository = httpMonitorRepository;
+        this.agentConfigService = agentConfigService;
     }
 
     /**
@@ -72,6 +75,7 @@ public class AgentMonitorService {
         agentMonitor.setMonitor(monitor);
         
         agentMonitor = agentMonitorRepository.save(agentMonitor);
+        agentConfigService.assignmentChanged(agent.getId(), monitor.getId());
         return agentMonitorMapper.toDto(agentMonitor);
     }
 
@@ -92,6 +96,7 @@ public class AgentMonitorService {
         agentMonitor.setActive(agentMonitorDTO.getActive());
         
         agentMonitor = agentMonitorRepository.save(agentMonitor);
+        agentConfigService.assignmentChanged(agentMonitor.getAgent().getId(), agentMonitor.getMonitor().getId());
         return agentMonitorMapper.toDto(agentMonitor);
     }
 
@@ -113,6 +118,10 @@ public class AgentMonitorService {
                 return existingAgentMonitor;
             })
             .map(agentMonitorRepository::save)
+            .map(saved -> {
+                agentConfigService.assignmentChanged(saved.getAgent().getId(), saved.getMonitor().getId());
+                return saved;
+            })
             .map(agentMonitorMapper::toDto);
     }
 
@@ -176,6 +185,9 @@ public class AgentMonitorService {
      */
     public void delete(Long id) {
         log.debug("Request to delete AgentMonitor : {}", id);
+        agentMonitorRepository
+            .findById(id)
+            .ifPresent(agentMonitor -> agentConfigService.assignmentChanged(agentMonitor.getAgent().getId(), agentMonitor.getMonitor().getId()));
         agentMonitorRepository.deleteById(id);
     }
 }
@@ -0,0 +1,118 @@
+package uptime.observability.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uptime.observability.repository.AgentRepository;
+import uptime.observability.service.dto.AgentReplicaSetDTO;
+
+/**
+ * Service tracking the live replicas of each agent, so that the monitors of an agent can be sharded
+ * across all of its replicas with {@link RendezvousHashing} instead of being run by a single leader.
+ * <p>
+ * A replica is live while it renews its membership within {@link AgentLeaseService#LEASE_TTL_SECONDS}.
+ * The live set is cached for a few seconds per agent, so monitor polls do not query it every time.
+ */
+@Service
+@Transactional
+public class AgentReplicaService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AgentReplicaService.class);
+
+    private static final long MEMBERSHIP_CACHE_MS = 5000;
+
+    private static final int RETENTION_SECONDS = 24 * 60 * 60;
+
+    private final AgentRepository agentRepository;
+
+    private final Map<Long, Membership> memberships = new ConcurrentHashMap<>();
+
+    public AgentReplicaService(AgentRepository agentRepository) {
+        this.agentRepository = agentRepository;
+    }
+
+    /**
+     * Join the replica set of an agent, or renew membership.
+     *
+     * @param agentId the agent id.
+     * @param replicaId the replica id.
+     * @return the live replica set after the renewal.
+     */
+    public AgentReplicaSetDTO renew(Long agentId, String replicaId) {
+        agentRepository.upsertReplica(agentId, replicaId);
+        List<String> replicas = loadLiveReplicas(agentId);
+        AgentReplicaSetDTO replicaSet = new AgentReplicaSetDTO();
+        replicaSet.setAgentId(agentId);
+        replicaSet.setReplicaId(replicaId);
+        replicaSet.setReplicas(replicas);
+        replicaSet.setTtlSeconds(AgentLeaseService.LEASE_TTL_SECONDS);
+        return replicaSet;
+    }
+
+    /**
+     * Leave the replica set of an agent; its monitors move to the remaining replicas.
+     *
+     * @param agentId the agent id.
+     * @param replicaId the replica id.
+     */
+    public void leave(Long agentId, String replicaId) {
+        agentRepository.deleteReplica(agentId, replicaId);
+        memberships.remove(agentId);
+        LOG.debug("Replica {} left agent {}", replicaId, agentId);
+    }
+
+    /**
+     * Get the live replicas of an agent, making sure the asking replica is one of them.
+     *
+     * @param agentId the agent id.
+     * @param replicaId the asking replica.
+     * @return the live replica ids, sorted.
+     */
+    public List<String> getLiveReplicas(Long agentId, String replicaId) {
+        Membership membership = memberships.get(agentId);
+        if (membership == null || System.currentTimeMillis() - membership.loadedAt > MEMBERSHIP_CACHE_MS) {
+            membership = new Membership(agentRepository.findLiveReplicaIds(agentId, AgentLeaseService.LEASE_TTL_SECONDS));
+            memberships.put(agentId, membership);
+        }
+        if (!membership.replicaIds.contains(replicaId)) {
+            // A replica polling before it joined (or after it lapsed) joins implicitly
+            return renew(agentId, replicaId).getReplicas();
+        }
+        return membership.replicaIds;
+    }
+
+    /**
+     * Forget replicas that have been silent for a day.
+     * <p>
+     * This is scheduled to get fired every hour.
+     */
+    @Scheduled(cron = "0 20 * * * ?")
+    public void removeSilentReplicas() {
+        int removed = agentRepository.deleteReplicasNotSeenFor(RETENTION_SECONDS);
+        if (removed > 0) {
+            LOG.debug("Removed {} silent agent replicas", removed);
+        }
+    }
+
+    private List<String> loadLiveReplicas(Long agentId) {
+        Membership membership = new Membership(agentRepository.findLiveReplicaIds(agentId, AgentLeaseService.LEASE_TTL_SECONDS));
+        memberships.put(agentId, membership);
+        LOG.debug("Agent {} has {} live replicas", agentId, membership.replicaIds.size());
+        return membership.replicaIds;
+    }
+
+    private static final class Membership {
+
+        private final List<String> replicaIds;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private Membership(List<String> replicaIds) {
+            this.replicaIds = List.copyOf(replicaIds);
+        }
+    }
+}
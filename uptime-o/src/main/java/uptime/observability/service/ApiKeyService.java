@@ -2,38 +2,72 @@ package uptime.observability.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 import uptime.observability.domain.ApiKey;
 import uptime.observability.repository.ApiKeyRepository;
+import uptime.observability.repository.PrimaryRead;
 import uptime.observability.service.dto.ApiKeyDTO;
+import uptime.observability.service.event.CacheEvictedEvent;
 
+import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.time.Instant;
 import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
  * Service class for managing API Keys.
+ * <p>
+ * Validated keys are cached by hash (and unknown hashes in a separate cache), so authenticating an agent
+ * request does not reach the database. Creating, deactivating or deleting a key evicts it once committed, on this
+ * instance and, through the cluster event bus, on the others: evicting earlier would let a concurrent lookup cache
+ * the row as it was before the commit. Last used dates are kept in memory and written back in one transaction
+ * every {@code application.api-key.last-used-flush-interval-ms}.
  */
 @Service
 @Transactional
 public class ApiKeyService {
 
+    public static final String API_KEYS_BY_HASH_CACHE = "apiKeysByHash";
+
+    public static final String UNKNOWN_API_KEYS_CACHE = "unknownApiKeys";
+
     private final Logger log = LoggerFactory.getLogger(ApiKeyService.class);
 
     private final ApiKeyRepository apiKeyRepository;
     private final PasswordEncoder passwordEncoder;
+    private final Cache apiKeysByHash;
+    private final Cache unknownApiKeys;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, Instant> pendingLastUsedDates = new ConcurrentHashMap<>();
 
-    public ApiKeyService(ApiKeyRepository apiKeyRepository, PasswordEncoder passwordEncoder) {
+    public ApiKeyService(
+        ApiKeyRepository apiKeyRepository,
+        PasswordEncoder passwordEncoder,
+        CacheManager cacheManager,
+        ApplicationEventPublisher eventPublisher
+    ) {
         this.apiKeyRepository = apiKeyRepository;
         this.passwordEncoder = passwordEncoder;
+        this.apiKeysByHash = cacheManager.getCache(API_KEYS_BY_HASH_CACHE);
+        this.unknownApiKeys = cacheManager.getCache(UNKNOWN_API_KEYS_CACHE);
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -49,7 +83,7 @@ public class ApiKeyService {
     /**
      * Create SHA-256 hash of API key for fast lookup
      */
-    private String hashApiKey(String plainTextKey) {
+    String hashApiKey(String plainTextKey) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] hash = digest.digest(plainTextKey.getBytes(StandardCharsets.UTF_8));
@@ -75,8 +109,11 @@ public class ApiKeyService {
         apiKey.setKeyHash(lookupHash);
         apiKey.setActive(true);
         apiKey.setExpiresAt(apiKeyDTO.getExpiresAt());
+        apiKey.setRateLimitPerSecond(apiKeyDTO.getRateLimitPerSecond());
+        apiKey.setRateLimitBurst(apiKeyDTO.getRateLimitBurst());
 
         apiKey = apiKeyRepository.save(apiKey);
+        evict(unknownApiKeys, lookupHash);
 
         ApiKeyDTO result = toDto(apiKey);
         result.setPlainTextKey(plainTextKey); // Only time this is shown
@@ -86,7 +123,7 @@ public class ApiKeyService {
     /**
      * Get all API keys
      */
-    @Transactional(readOnly = true)
+    @PrimaryRead
     public List<ApiKeyDTO> getAllApiKeys() {
         log.debug("Request to get all API Keys");
         return apiKeyRepository.findAll().stream()
@@ -97,7 +134,7 @@ public class ApiKeyService {
     /**
      * Get one API key by ID
      */
-    @Transactional(readOnly = true)
+    @PrimaryRead
     public Optional<ApiKeyDTO> getApiKey(Long id) {
         log.debug("Request to get API Key : {}", id);
         return apiKeyRepository.findById(id).map(this::toDto);
@@ -111,6 +148,7 @@ public class ApiKeyService {
         apiKeyRepository.findById(id).ifPresent(apiKey -> {
             apiKey.setActive(false);
             apiKeyRepository.save(apiKey);
+            evict(apiKeysByHash, apiKey.getKeyHash());
         });
     }
 
@@ -119,64 +157,123 @@ public class ApiKeyService {
      */
     public void deleteApiKey(Long id) {
         log.debug("Request to delete API Key : {}", id);
+        apiKeyRepository.findById(id).ifPresent(apiKey -> evict(apiKeysByHash, apiKey.getKeyHash()));
         apiKeyRepository.deleteById(id);
+        pendingLastUsedDates.remove(id);
     }
 
     /**
-     * Validate an API key - O(1) lookup using SHA-256 hash
+     * Validate an API key - O(1) lookup using SHA-256 hash, served from the cache when possible
      */
-    @Transactional(readOnly = true)
+    @PrimaryRead
     public boolean validateApiKey(String plainTextKey) {
+        return authenticateApiKey(plainTextKey).isPresent();
+    }
+
+    /**
+     * Validate an API key like {@link #validateApiKey(String)}, and return what callers need to know of it
+     * (its id and rate limits) without going back to the database.
+     */
+    @PrimaryRead
+    public Optional<CachedApiKey> authenticateApiKey(String plainTextKey) {
         if (plainTextKey == null || plainTextKey.isEmpty()) {
             log.debug("Empty API Key provided");
-            return false;
+            return Optional.empty();
         }
         
         try {
             String lookupHash = hashApiKey(plainTextKey);
-            Optional<ApiKey> apiKeyOpt = apiKeyRepository.findByKeyHash(lookupHash);
-            
-            if (apiKeyOpt.isEmpty()) {
-                log.debug("API Key not found in database");
-                return false;
+            CachedApiKey apiKey = apiKeysByHash.get(lookupHash, CachedApiKey.class);
+
+            if (apiKey == null) {
+                if (unknownApiKeys.get(lookupHash) != null) {
+                    log.debug("API Key known not to exist");
+                    return Optional.empty();
+                }
+
+                Optional<ApiKey> apiKeyOpt = apiKeyRepository.findByKeyHash(lookupHash);
+
+                if (apiKeyOpt.isEmpty()) {
+                    log.debug("API Key not found in database");
+                    unknownApiKeys.put(lookupHash, Boolean.TRUE);
+                    return Optional.empty();
+                }
+
+                apiKey = new CachedApiKey(apiKeyOpt.orElseThrow());
+                apiKeysByHash.put(lookupHash, apiKey);
             }
             
-            ApiKey apiKey = apiKeyOpt.orElseThrow();
-            
             if (!apiKey.isActive()) {
                 log.debug("API Key {} is inactive", apiKey.getId());
-                return false;
+                return Optional.empty();
             }
             
             if (apiKey.getExpiresAt() != null && apiKey.getExpiresAt().isBefore(Instant.now())) {
                 log.debug("API Key {} has expired", apiKey.getId());
-                return false;
+                return Optional.empty();
             }
             
             updateLastUsedDate(apiKey.getId());
             log.debug("API Key validation successful for key ID: {}", apiKey.getId());
-            return true;
+            return Optional.of(apiKey);
         } catch (Exception e) {
             log.warn("Error validating API Key: {}", e.getMessage());
-            return false;
+            return Optional.empty();
         }
     }
 
 
     /**
-     * Update last used date asynchronously
+     * Record the use of an API key; written back by {@link #flushLastUsedDates()}
      */
     private void updateLastUsedDate(Long apiKeyId) {
+        pendingLastUsedDates.put(apiKeyId, Instant.now());
+    }
+
+    /**
+     * Write the last used dates recorded since the previous flush in one transaction, each key with its own date.
+     * <p>
+     * This is scheduled to get fired every {@code application.api-key.last-used-flush-interval-ms}.
+     */
+    @Scheduled(fixedDelayString = "${application.api-key.last-used-flush-interval-ms:30000}")
+    public void flushLastUsedDates() {
+        Map<Long, Instant> lastUsedDates = new HashMap<>();
+        for (Long apiKeyId : pendingLastUsedDates.keySet()) {
+            Instant usedAt = pendingLastUsedDates.remove(apiKeyId);
+            if (usedAt != null) {
+                lastUsedDates.put(apiKeyId, usedAt);
+            }
+        }
+        if (lastUsedDates.isEmpty()) {
+            return;
+        }
         try {
-            apiKeyRepository.findById(apiKeyId).ifPresent(apiKey -> {
-                apiKey.setLastUsedDate(Instant.now());
-                apiKeyRepository.save(apiKey);
-            });
+            int updated = 0;
+            for (Map.Entry<Long, Instant> entry : lastUsedDates.entrySet()) {
+                updated += apiKeyRepository.updateLastUsedDate(entry.getKey(), entry.getValue());
+            }
+            log.debug("Updated last used date of {} API keys", updated);
         } catch (Exception e) {
-            log.warn("Failed to update last used date for API key {}: {}", apiKeyId, e.getMessage());
+            log.warn("Failed to update last used date for {} API keys: {}", lastUsedDates.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Evict an entry of the API key caches, on this instance once the transaction that published the event committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCacheEvicted(CacheEvictedEvent event) {
+        if (API_KEYS_BY_HASH_CACHE.equals(event.getCacheName())) {
+            apiKeysByHash.evict(event.getKey());
+        } else if (UNKNOWN_API_KEYS_CACHE.equals(event.getCacheName())) {
+            unknownApiKeys.evict(event.getKey());
         }
     }
 
+    private void evict(Cache cache, String keyHash) {
+        eventPublisher.publishEvent(new CacheEvictedEvent(cache.getName(), keyHash));
+    }
+
     private ApiKeyDTO toDto(ApiKey apiKey) {
         ApiKeyDTO dto = new ApiKeyDTO();
         dto.setId(apiKey.getId());
@@ -185,8 +282,52 @@ public class ApiKeyService {
         dto.setActive(apiKey.isActive());
         dto.setLastUsedDate(apiKey.getLastUsedDate());
         dto.setExpiresAt(apiKey.getExpiresAt());
+        dto.setRateLimitPerSecond(apiKey.getRateLimitPerSecond());
+        dto.setRateLimitBurst(apiKey.getRateLimitBurst());
         dto.setCreatedBy(apiKey.getCreatedBy());
         dto.setCreatedDate(apiKey.getCreatedDate());
         return dto;
     }
+
+    /**
+     * What authentication needs to know of an API key, detached from the persistence context so it can be cached.
+     */
+    public static final class CachedApiKey implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Long id;
+        private final boolean active;
+        private final Instant expiresAt;
+        private final Integer rateLimitPerSecond;
+        private final Integer rateLimitBurst;
+
+        CachedApiKey(ApiKey apiKey) {
+            this.id = apiKey.getId();
+            this.active = apiKey.isActive();
+            this.expiresAt = apiKey.getExpiresAt();
+            this.rateLimitPerSecond = apiKey.getRateLimitPerSecond();
+            this.rateLimitBurst = apiKey.getRateLimitBurst();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+
+        public Integer getRateLimitPerSecond() {
+            return rateLimitPerSecond;
+        }
+
+        public Integer getRateLimitBurst() {
+            return rateLimitBurst;
+        }
+    }
 }
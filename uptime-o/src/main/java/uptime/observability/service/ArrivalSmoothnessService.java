@@ -0,0 +1,135 @@
+package uptime.observability.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import uptime.observability.repository.AgentMonitorRepository;
+import uptime.observability.service.event.HeartbeatIngestedEvent;
+
+/**
+ * Service comparing the heartbeat arrival rate predicted from the {@link PhaseOffsets} handed out to agents
+ * with the arrival rate actually observed.
+ * <p>
+ * Both are reported as the peak-to-mean ratio of arrivals per second over a minute: {@code 1} is perfectly
+ * flat, and {@code 60} means a whole minute of heartbeats arrived within the same second.
+ */
+@Service
+public class ArrivalSmoothnessService {
+
+    public static final String PEAK_TO_MEAN_METER_NAME = "uptime.ingestion.arrival.peak-to-mean";
+    public static final String PEAK_TO_MEAN_METER_DESCRIPTION = "Peak-to-mean ratio of heartbeat arrivals per second over a minute.";
+    public static final String PEAK_TO_MEAN_METER_SOURCE_DIMENSION = "source";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ArrivalSmoothnessService.class);
+
+    static final int WINDOW_SECONDS = 60;
+
+    // Predictions cover an hour, so that every interval up to an hour fires at least once
+    static final int HORIZON_SECONDS = 3600;
+
+    private static final int SLOTS = 2 * WINDOW_SECONDS;
+
+    private final AgentMonitorRepository agentMonitorRepository;
+
+    private final AtomicLongArray slotSeconds = new AtomicLongArray(SLOTS);
+
+    private final AtomicLongArray slotArrivals = new AtomicLongArray(SLOTS);
+
+    private volatile double predictedPeakToMean = Double.NaN;
+
+    public ArrivalSmoothnessService(AgentMonitorRepository agentMonitorRepository, MeterRegistry registry) {
+        this.agentMonitorRepository = agentMonitorRepository;
+        Gauge.builder(PEAK_TO_MEAN_METER_NAME, this, ArrivalSmoothnessService::getPredictedPeakToMean)
+            .description(PEAK_TO_MEAN_METER_DESCRIPTION)
+            .tag(PEAK_TO_MEAN_METER_SOURCE_DIMENSION, "predicted")
+            .register(registry);
+        Gauge.builder(PEAK_TO_MEAN_METER_NAME, this, ArrivalSmoothnessService::getObservedPeakToMean)
+            .description(PEAK_TO_MEAN_METER_DESCRIPTION)
+            .tag(PEAK_TO_MEAN_METER_SOURCE_DIMENSION, "observed")
+            .register(registry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHeartbeatIngested(HeartbeatIngestedEvent event) {
+        recordArrival(System.currentTimeMillis() / 1000);
+    }
+
+    void recordArrival(long epochSecond) {
+        int slot = (int) (epochSecond % SLOTS);
+        long slotSecond = slotSeconds.get(slot);
+        if (slotSecond != epochSecond && slotSeconds.compareAndSet(slot, slotSecond, epochSecond)) {
+            // An arrival racing with the reset may be lost, which is fine for a gauge
+            slotArrivals.set(slot, 0);
+        }
+        slotArrivals.incrementAndGet(slot);
+    }
+
+    /**
+     * Recompute the predicted arrivals from the active assignments.
+     * <p>
+     * This is scheduled to get fired every 5 minutes.
+     */
+    @Scheduled(initialDelay = 60_000, fixedDelay = 300_000)
+    public void updatePrediction() {
+        long[] arrivals = new long[HORIZON_SECONDS];
+        for (Object[] row : agentMonitorRepository.findActiveSchedules()) {
+            Integer interval = (Integer) row[2];
+            if (interval == null || interval <= 0) {
+                continue;
+            }
+            long offsetMs = PhaseOffsets.offsetMs((Long) row[0], (Long) row[1], interval);
+            for (long second = offsetMs / 1000; second < HORIZON_SECONDS; second += interval) {
+                arrivals[(int) second]++;
+            }
+        }
+        predictedPeakToMean = averagePeakToMean(arrivals);
+        LOG.debug("Predicted heartbeat arrival peak-to-mean ratio: {}", predictedPeakToMean);
+    }
+
+    public double getPredictedPeakToMean() {
+        return predictedPeakToMean;
+    }
+
+    public double getObservedPeakToMean() {
+        return observedPeakToMean(System.currentTimeMillis() / 1000);
+    }
+
+    double observedPeakToMean(long nowEpochSecond) {
+        long[] arrivals = new long[WINDOW_SECONDS];
+        // Only complete seconds count, the current one is still filling up
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            long second = nowEpochSecond - WINDOW_SECONDS + i;
+            int slot = (int) (second % SLOTS);
+            arrivals[i] = slotSeconds.get(slot) == second ? slotArrivals.get(slot) : 0;
+        }
+        return peakToMean(arrivals, 0);
+    }
+
+    static double averagePeakToMean(long[] arrivals) {
+        double sum = 0;
+        int windows = 0;
+        for (int from = 0; from + WINDOW_SECONDS <= arrivals.length; from += WINDOW_SECONDS) {
+            double ratio = peakToMean(arrivals, from);
+            if (!Double.isNaN(ratio)) {
+                sum += ratio;
+                windows++;
+            }
+        }
+        return windows == 0 ? Double.NaN : sum / windows;
+    }
+
+    private static double peakToMean(long[] arrivals, int from) {
+        long total = 0;
+        long peak = 0;
+        for (int i = from; i < from + WINDOW_SECONDS; i++) {
+            total += arrivals[i];
+            peak = Math.max(peak, arrivals[i]);
+        }
+        return total == 0 ? Double.NaN : (double) peak * WINDOW_SECONDS / total;
+    }
+}
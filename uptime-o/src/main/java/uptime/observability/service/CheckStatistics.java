@@ -0,0 +1,143 @@
+package uptime.observability.service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import uptime.observability.domain.HeartbeatRun;
+import uptime.observability.domain.HttpHeartbeat;
+import uptime.observability.domain.LatencyHistogram;
+
+/**
+ * Statistics of checks, accumulated from stored heartbeats one by one and from {@link HeartbeatRun}s as a whole:
+ * a run adds its count, response time sum and histogram, so its folded checks are never expanded.
+ * <p>
+ * Response times are kept as counts per millisecond, which gives exact percentiles and threshold counts.
+ */
+final class CheckStatistics {
+
+    private long totalChecks;
+
+    private long successfulChecks;
+
+    private long responseTimeCount;
+
+    private long responseTimeSumMs;
+
+    private final TreeMap<Integer, Long> responseTimes = new TreeMap<>();
+
+    private Instant lastCheckedAt;
+
+    private Boolean lastSuccess;
+
+    private Integer lastResponseTime;
+
+    void add(HttpHeartbeat heartbeat) {
+        totalChecks++;
+        if (Boolean.TRUE.equals(heartbeat.getSuccess())) {
+            successfulChecks++;
+        }
+        Integer responseTimeMs = heartbeat.getResponseTimeMs();
+        if (responseTimeMs != null) {
+            responseTimeCount++;
+            responseTimeSumMs += responseTimeMs;
+            responseTimes.merge(responseTimeMs, 1L, Long::sum);
+        }
+        latest(heartbeat.getExecutedAt(), heartbeat.getSuccess(), responseTimeMs);
+    }
+
+    void add(HeartbeatRun run) {
+        int count = run.getCheckCount() != null ? run.getCheckCount() : 0;
+        if (count == 0) {
+            return;
+        }
+        totalChecks += count;
+        successfulChecks += count;
+        responseTimeCount += count;
+        responseTimeSumMs += run.getLatencySumMs();
+        LatencyHistogram.parse(run.getLatencyHistogram()).forEach((responseTimeMs, checks) ->
+            responseTimes.merge(responseTimeMs, (long) checks, Long::sum)
+        );
+        // The response time of the last folded check is not kept, the average of the run stands for it
+        latest(run.getEndedAt(), true, averageResponseTime(run));
+    }
+
+    /**
+     * @return the average response time of the checks folded into the run, rounded to the millisecond.
+     */
+    static Integer averageResponseTime(HeartbeatRun run) {
+        int count = run.getCheckCount() != null ? run.getCheckCount() : 0;
+        return count > 0 ? (int) Math.round((double) run.getLatencySumMs() / count) : null;
+    }
+
+    private void latest(Instant executedAt, Boolean success, Integer responseTimeMs) {
+        if (executedAt != null && (lastCheckedAt == null || executedAt.isAfter(lastCheckedAt))) {
+            lastCheckedAt = executedAt;
+            lastSuccess = success;
+            lastResponseTime = responseTimeMs;
+        }
+    }
+
+    long getTotalChecks() {
+        return totalChecks;
+    }
+
+    long getSuccessfulChecks() {
+        return successfulChecks;
+    }
+
+    long getFailedChecks() {
+        return totalChecks - successfulChecks;
+    }
+
+    double getAverageResponseTime() {
+        return responseTimeCount > 0 ? (double) responseTimeSumMs / responseTimeCount : 0.0;
+    }
+
+    double getUptimePercentage() {
+        return totalChecks > 0 ? (successfulChecks * 100.0) / totalChecks : 0.0;
+    }
+
+    Instant getLastCheckedAt() {
+        return lastCheckedAt;
+    }
+
+    Boolean getLastSuccess() {
+        return lastSuccess;
+    }
+
+    Integer getLastResponseTime() {
+        return lastResponseTime;
+    }
+
+    /**
+     * @param percentile the percentile, between 1 and 100.
+     * @return the nearest-rank percentile of the response times, or {@code null} without any.
+     */
+    Integer percentile(int percentile) {
+        if (responseTimeCount == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil((percentile / 100.0) * responseTimeCount));
+        long seen = 0;
+        for (Map.Entry<Integer, Long> entry : responseTimes.entrySet()) {
+            seen += entry.getValue();
+            if (seen >= rank) {
+                return entry.getKey();
+            }
+        }
+        return responseTimes.lastKey();
+    }
+
+    /**
+     * @param fromMs the lowest response time counted.
+     * @param toMs the response time from which checks are not counted anymore, or {@code null} for none.
+     * @return the number of checks with a response time in the range.
+     */
+    long countResponseTimes(int fromMs, Integer toMs) {
+        if (toMs != null && toMs <= fromMs) {
+            return 0;
+        }
+        Map<Integer, Long> range = toMs != null ? responseTimes.subMap(fromMs, true, toMs, false) : responseTimes.tailMap(fromMs, true);
+        return range.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
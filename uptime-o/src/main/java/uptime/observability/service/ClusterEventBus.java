@@ -0,0 +1,672 @@
+package uptime.observability.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.metamodel.spi.MappingMetamodelImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import uptime.observability.config.ApplicationProperties;
+import uptime.observability.domain.Agent;
+import uptime.observability.domain.IncidentCause;
+import uptime.observability.management.IngestionMetersService;
+import uptime.observability.service.LiveStatusService.StatusWindow;
+import uptime.observability.service.event.AgentConfigChangedEvent;
+import uptime.observability.service.event.AgentDeletedEvent;
+import uptime.observability.service.event.AgentLeaseAcquiredEvent;
+import uptime.observability.service.event.CacheEvictedEvent;
+import uptime.observability.service.event.ClusterResyncEvent;
+import uptime.observability.service.event.HeartbeatIngestedEvent;
+import uptime.observability.service.event.IncidentChangedEvent;
+import uptime.observability.service.event.MonitorDeletedEvent;
+import uptime.observability.service.event.RemoteChangesEvent;
+
+/**
+ * Event bus between the instances of a deployment, over PostgreSQL {@code LISTEN}/{@code NOTIFY}.
+ * <p>
+ * Once their transaction committed, local changes are coalesced and sent every
+ * {@code application.cluster.flush-interval-ms} as one notification (split if it would exceed the size limit
+ * of PostgreSQL): evicted Spring cache entries, such as API keys, changed second-level cached entities, agents
+ * whose configuration changed, one {@link StatusWindow} per monitor for the heartbeats ingested here, incidents
+ * opened or closed here, deleted monitors and agents, and the fencing tokens of agent leases handed out here. Other instances evict the same cache entries, with the
+ * collections holding the changed entities and the cached queries over their tables, and publish the rest as a
+ * {@link RemoteChangesEvent}, from which services rebuild configuration snapshots, merge live status windows and
+ * take incidents over.
+ * <p>
+ * Notifications are only delivered to connected listeners, on a connection of its own outside the application
+ * pools: after it was lost, the instance clears its caches and publishes a {@link ClusterResyncEvent}, on which
+ * services revalidate what they derived from changes they may have missed.
+ * Live status windows missed meanwhile are not recovered; the next heartbeats of each monitor catch up.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.cluster", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ClusterEventBus {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClusterEventBus.class);
+
+    /**
+     * PostgreSQL rejects payloads of 8000 bytes or more.
+     */
+    static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private static final int POLL_TIMEOUT_MS = 1000;
+
+    // A connection dropped without a reset only shows up when used; idle listeners check theirs at this rate
+    private static final long VALIDATION_INTERVAL_MS = 30_000;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ObjectMapper objectMapper;
+
+    private final DataSource dataSource;
+
+    private final HikariDataSource listenerDataSource;
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    private final CacheManager cacheManager;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ApplicationProperties.Cluster properties;
+
+    private final Map<String, Set<String>> pendingCacheKeys = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<Long>> pendingEntities = new ConcurrentHashMap<>();
+
+    private final Set<Long> pendingAgentIds = ConcurrentHashMap.newKeySet();
+
+    private final Map<Long, StatusWindow> pendingWindows = new ConcurrentHashMap<>();
+
+    private final Map<Long, Map<Long, IncidentCause>> pendingIncidents = new ConcurrentHashMap<>();
+
+    private final Set<Long> pendingDeletedMonitorIds = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> pendingDeletedAgentIds = ConcurrentHashMap.newKeySet();
+
+    private final Map<Long, Long> pendingFencingTokens = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    private volatile Thread listener;
+
+    public ClusterEventBus(
+        ObjectMapper objectMapper,
+        DataSource dataSource,
+        DataSourceProperties dataSourceProperties,
+        EntityManagerFactory entityManagerFactory,
+        CacheManager cacheManager,
+        ApplicationEventPublisher eventPublisher,
+        IngestionMetersService ingestionMetersService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.objectMapper = objectMapper;
+        this.dataSource = dataSource;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.properties = applicationProperties.getCluster();
+        // The listening connection is held for good, so it must not count against the application pools
+        this.listenerDataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        listenerDataSource.setPoolName("cluster-events");
+        listenerDataSource.setMaximumPoolSize(1);
+        listenerDataSource.setMinimumIdle(0);
+        ingestionMetersService.registerQueue("cluster", pendingWindows::size);
+
+        EntityChangeListener entityChangeListener = new EntityChangeListener();
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, entityChangeListener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, entityChangeListener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, entityChangeListener);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::listen, "cluster-events");
+        thread.setDaemon(true);
+        thread.start();
+        listener = thread;
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread thread = listener;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        listenerDataSource.close();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCacheEvicted(CacheEvictedEvent event) {
+        pendingCacheKeys.compute(event.getCacheName(), (cacheName, keys) -> add(keys, event.getKey()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAgentConfigChanged(AgentConfigChangedEvent event) {
+        pendingAgentIds.addAll(event.getAgentIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHeartbeatIngested(HeartbeatIngestedEvent event) {
+        if (event.getMonitorId() == null) {
+            return;
+        }
+        pendingWindows.compute(event.getMonitorId(), (monitorId, window) -> {
+            StatusWindow target = window != null ? window : new StatusWindow();
+            target.add(event);
+            return target;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIncidentChanged(IncidentChangedEvent event) {
+        // Only the latest state of an incident is sent, with a null cause once closed
+        pendingIncidents.compute(event.getMonitorId(), (monitorId, agents) -> {
+            Map<Long, IncidentCause> target = agents != null ? agents : new HashMap<>();
+            target.put(event.getAgentId(), event.getCause());
+            return target;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMonitorDeleted(MonitorDeletedEvent event) {
+        pendingDeletedMonitorIds.add(event.getMonitorId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAgentDeleted(AgentDeletedEvent event) {
+        pendingDeletedAgentIds.add(event.getAgentId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAgentLeaseAcquired(AgentLeaseAcquiredEvent event) {
+        pendingFencingTokens.merge(event.getAgentId(), event.getFencingToken(), Math::max);
+    }
+
+    /**
+     * Send the events coalesced since the previous flush.
+     */
+    @Scheduled(fixedDelayString = "${application.cluster.flush-interval-ms:250}")
+    public void flush() {
+        Message message = drain();
+        if (message.isEmpty()) {
+            return;
+        }
+        try (
+            Connection connection = dataSource.getConnection();
+            PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")
+        ) {
+            for (String payload : encode(objectMapper, message, MAX_PAYLOAD_BYTES)) {
+                statement.setString(1, properties.getChannel());
+                statement.setString(2, payload);
+                statement.execute();
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (SQLException | JsonProcessingException e) {
+            // Invalidations are idempotent and kept for the next flush; live status windows are dropped rather than
+            // counted twice
+            LOG.warn("Could not send cluster events: {}", e.getMessage());
+            message.caches.forEach((cacheName, keys) ->
+                keys.forEach(key -> pendingCacheKeys.compute(cacheName, (name, pending) -> add(pending, key)))
+            );
+            message.entities.forEach((entityName, ids) ->
+                ids.forEach(id -> pendingEntities.compute(entityName, (name, pending) -> add(pending, id)))
+            );
+            pendingAgentIds.addAll(message.agentIds);
+            pendingDeletedMonitorIds.addAll(message.deletedMonitorIds);
+            pendingDeletedAgentIds.addAll(message.deletedAgentIds);
+            message.fencingTokens.forEach((agentId, token) -> pendingFencingTokens.merge(agentId, token, Math::max));
+            // Unless changed again meanwhile
+            message.incidents.forEach((monitorId, agents) ->
+                pendingIncidents.compute(monitorId, (id, pending) -> {
+                    Map<Long, IncidentCause> target = pending != null ? pending : new HashMap<>();
+                    agents.forEach(target::putIfAbsent);
+                    return target;
+                })
+            );
+        }
+    }
+
+    private Message drain() {
+        Message message = new Message(nodeId);
+        for (String cacheName : pendingCacheKeys.keySet()) {
+            Set<String> keys = pendingCacheKeys.remove(cacheName);
+            if (keys != null) {
+                message.caches.put(cacheName, keys);
+            }
+        }
+        for (String entityName : pendingEntities.keySet()) {
+            Set<Long> ids = pendingEntities.remove(entityName);
+            if (ids != null) {
+                message.entities.put(entityName, ids);
+            }
+        }
+        for (Long agentId : pendingAgentIds) {
+            if (pendingAgentIds.remove(agentId)) {
+                message.agentIds.add(agentId);
+            }
+        }
+        for (Long monitorId : pendingDeletedMonitorIds) {
+            if (pendingDeletedMonitorIds.remove(monitorId)) {
+                message.deletedMonitorIds.add(monitorId);
+            }
+        }
+        for (Long agentId : pendingDeletedAgentIds) {
+            if (pendingDeletedAgentIds.remove(agentId)) {
+                message.deletedAgentIds.add(agentId);
+            }
+        }
+        for (Long agentId : pendingFencingTokens.keySet()) {
+            Long token = pendingFencingTokens.remove(agentId);
+            if (token != null) {
+                message.fencingTokens.put(agentId, token);
+            }
+        }
+        for (Long monitorId : pendingWindows.keySet()) {
+            StatusWindow window = pendingWindows.remove(monitorId);
+            if (window != null) {
+                message.windows.put(monitorId, window);
+            }
+        }
+        for (Long monitorId : pendingIncidents.keySet()) {
+            Map<Long, IncidentCause> agents = pendingIncidents.remove(monitorId);
+            if (agents != null) {
+                message.incidents.put(monitorId, agents);
+            }
+        }
+        return message;
+    }
+
+    private void listen() {
+        long delay = properties.getReconnectDelayMs();
+        boolean missed = false;
+        while (running) {
+            try (Connection connection = listenerDataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN \"" + properties.getChannel().replace("\"", "\"\"") + "\"");
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                LOG.info("Listening to cluster events on channel {} as node {}", properties.getChannel(), nodeId);
+                if (missed) {
+                    resync();
+                    missed = false;
+                }
+                delay = properties.getReconnectDelayMs();
+                long validatedAt = System.currentTimeMillis();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null && notifications.length > 0) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    } else if (System.currentTimeMillis() - validatedAt > VALIDATION_INTERVAL_MS) {
+                        if (!connection.isValid(5)) {
+                            throw new SQLException("Listening connection is no longer valid");
+                        }
+                        validatedAt = System.currentTimeMillis();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                missed = true;
+                LOG.warn("Lost the cluster events connection, listening again in {} ms: {}", delay, e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                delay = Math.min(delay * 2, properties.getMaxReconnectDelayMs());
+            }
+        }
+    }
+
+    void receive(String payload) {
+        Message message;
+        try {
+            message = objectMapper.readValue(payload, Message.class);
+        } catch (JsonProcessingException e) {
+            LOG.warn("Ignoring unreadable cluster event: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(message.node)) {
+            return;
+        }
+        if (Boolean.TRUE.equals(message.resync)) {
+            resync();
+            return;
+        }
+        LOG.trace("Received cluster event of {} items from node {}", message.size(), message.node);
+        message.caches.forEach((cacheName, keys) -> {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                keys.forEach(cache::evict);
+            }
+        });
+        Map<String, Set<Long>> entities = new HashMap<>(message.entities);
+        if (!message.agentIds.isEmpty()) {
+            // Configuration versions are bumped by native updates, which other instances do not see as entity changes
+            entities.computeIfAbsent(Agent.class.getName(), entityName -> new HashSet<>()).addAll(message.agentIds);
+        }
+        if (!entities.isEmpty()) {
+            evictEntities(entities);
+        }
+        eventPublisher.publishEvent(
+            new RemoteChangesEvent(
+                message.agentIds,
+                message.windows,
+                message.incidents,
+                message.deletedMonitorIds,
+                message.deletedAgentIds,
+                message.fencingTokens
+            )
+        );
+    }
+
+    /**
+     * Evict changed entities from the second-level cache, with the cached collections holding them, and mark the
+     * cached query results over their tables as stale, as Hibernate does for local changes.
+     *
+     * @param entities the ids of the changed entities, by entity name.
+     */
+    private void evictEntities(Map<String, Set<Long>> entities) {
+        CacheImplementor secondLevelCache = sessionFactory.getCache();
+        MappingMetamodelImplementor metamodel = sessionFactory.getMappingMetamodel();
+        Set<String> spaces = new HashSet<>();
+        entities.forEach((entityName, ids) -> {
+            EntityPersister persister = metamodel.findEntityDescriptor(entityName);
+            if (persister != null) {
+                ids.forEach(id -> secondLevelCache.evictEntityData(entityName, id));
+                Collections.addAll(spaces, persister.getSynchronizationSpaces());
+            }
+        });
+        metamodel.forEachCollectionDescriptor(collection -> {
+            if (!collection.hasCache()) {
+                return;
+            }
+            if (Arrays.stream(collection.getCollectionSpaces()).anyMatch(spaces::contains)) {
+                // Which owners hold the changed elements is unknown
+                secondLevelCache.evictCollectionData(collection.getRole());
+            } else {
+                Set<Long> ownerIds = entities.get(collection.getOwnerEntityPersister().getEntityName());
+                if (ownerIds != null) {
+                    ownerIds.forEach(ownerId -> secondLevelCache.evictCollectionData(collection.getRole(), ownerId));
+                }
+            }
+        });
+        try (SessionImplementor session = sessionFactory.openTemporarySession()) {
+            secondLevelCache.getTimestampsCache().invalidate(spaces.toArray(String[]::new), session);
+        }
+    }
+
+    private void resync() {
+        LOG.info("Clearing caches, as cluster events may have been missed");
+        sessionFactory.getCache().evictAllRegions();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        eventPublisher.publishEvent(new ClusterResyncEvent());
+    }
+
+    /**
+     * Encode a message as JSON payloads, splitting it until each one fits.
+     *
+     * @return the payloads; a resync request if a single item does not fit.
+     */
+    static List<String> encode(ObjectMapper objectMapper, Message message, int maxBytes) throws JsonProcessingException {
+        String payload = objectMapper.writeValueAsString(message);
+        if (payload.getBytes(StandardCharsets.UTF_8).length <= maxBytes) {
+            return List.of(payload);
+        }
+        if (message.size() < 2) {
+            LOG.warn("Cluster event over {} bytes, requesting a resync instead", maxBytes);
+            Message resync = new Message(message.node);
+            resync.resync = true;
+            return List.of(objectMapper.writeValueAsString(resync));
+        }
+        List<String> payloads = new ArrayList<>();
+        for (Message half : message.split()) {
+            payloads.addAll(encode(objectMapper, half, maxBytes));
+        }
+        return payloads;
+    }
+
+    private static <T> Set<T> add(Set<T> pending, T item) {
+        Set<T> target = pending != null ? pending : new HashSet<>();
+        target.add(item);
+        return target;
+    }
+
+    /**
+     * Events of one instance since its previous flush, with short property names to fit more per notification.
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    static final class Message {
+
+        @JsonProperty("n")
+        private String node;
+
+        @JsonProperty("r")
+        private Boolean resync;
+
+        @JsonProperty("c")
+        private final Map<String, Set<String>> caches = new HashMap<>();
+
+        @JsonProperty("e")
+        private final Map<String, Set<Long>> entities = new HashMap<>();
+
+        @JsonProperty("a")
+        private final Set<Long> agentIds = new HashSet<>();
+
+        @JsonProperty("h")
+        private final Map<Long, StatusWindow> windows = new HashMap<>();
+
+        @JsonProperty("i")
+        private final Map<Long, Map<Long, IncidentCause>> incidents = new HashMap<>();
+
+        @JsonProperty("dm")
+        private final Set<Long> deletedMonitorIds = new HashSet<>();
+
+        @JsonProperty("da")
+        private final Set<Long> deletedAgentIds = new HashSet<>();
+
+        @JsonProperty("l")
+        private final Map<Long, Long> fencingTokens = new HashMap<>();
+
+        Message() {}
+
+        Message(String node) {
+            this.node = node;
+        }
+
+        Map<String, Set<String>> getCaches() {
+            return caches;
+        }
+
+        Map<String, Set<Long>> getEntities() {
+            return entities;
+        }
+
+        Set<Long> getAgentIds() {
+            return agentIds;
+        }
+
+        Map<Long, StatusWindow> getWindows() {
+            return windows;
+        }
+
+        Map<Long, Map<Long, IncidentCause>> getIncidents() {
+            return incidents;
+        }
+
+        Set<Long> getDeletedMonitorIds() {
+            return deletedMonitorIds;
+        }
+
+        Set<Long> getDeletedAgentIds() {
+            return deletedAgentIds;
+        }
+
+        Map<Long, Long> getFencingTokens() {
+            return fencingTokens;
+        }
+
+        int size() {
+            int size = agentIds.size() + windows.size() + deletedMonitorIds.size() + deletedAgentIds.size() + fencingTokens.size();
+            for (Set<String> keys : caches.values()) {
+                size += keys.size();
+            }
+            for (Set<Long> ids : entities.values()) {
+                size += ids.size();
+            }
+            for (Map<Long, IncidentCause> agents : incidents.values()) {
+                size += agents.size();
+            }
+            return size;
+        }
+
+        boolean isEmpty() {
+            return !Boolean.TRUE.equals(resync) && size() == 0;
+        }
+
+        /**
+         * @return two messages with half of the items each.
+         */
+        List<Message> split() {
+            Message first = new Message(node);
+            Message second = new Message(node);
+            int half = size() / 2;
+            int index = 0;
+            for (Map.Entry<String, Set<String>> entry : caches.entrySet()) {
+                for (String key : entry.getValue()) {
+                    Message target = index++ < half ? first : second;
+                    target.caches.computeIfAbsent(entry.getKey(), cacheName -> new HashSet<>()).add(key);
+                }
+            }
+            for (Map.Entry<String, Set<Long>> entry : entities.entrySet()) {
+                for (Long id : entry.getValue()) {
+                    Message target = index++ < half ? first : second;
+                    target.entities.computeIfAbsent(entry.getKey(), entityName -> new HashSet<>()).add(id);
+                }
+            }
+            for (Long agentId : agentIds) {
+                (index++ < half ? first : second).agentIds.add(agentId);
+            }
+            for (Long monitorId : deletedMonitorIds) {
+                (index++ < half ? first : second).deletedMonitorIds.add(monitorId);
+            }
+            for (Long agentId : deletedAgentIds) {
+                (index++ < half ? first : second).deletedAgentIds.add(agentId);
+            }
+            for (Map.Entry<Long, Long> entry : fencingTokens.entrySet()) {
+                (index++ < half ? first : second).fencingTokens.put(entry.getKey(), entry.getValue());
+            }
+            for (Map.Entry<Long, StatusWindow> entry : windows.entrySet()) {
+                (index++ < half ? first : second).windows.put(entry.getKey(), entry.getValue());
+            }
+            for (Map.Entry<Long, Map<Long, IncidentCause>> entry : incidents.entrySet()) {
+                for (Map.Entry<Long, IncidentCause> agent : entry.getValue().entrySet()) {
+                    Message target = index++ < half ? first : second;
+                    target.incidents.computeIfAbsent(entry.getKey(), monitorId -> new HashMap<>()).put(agent.getKey(), agent.getValue());
+                }
+            }
+            return List.of(first, second);
+        }
+    }
+
+    /**
+     * Records committed changes of entities held in the second-level cache.
+     */
+    private final class EntityChangeListener
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return persister.canWriteToCache();
+        }
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            record(event.getPersister(), event.getId());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            record(event.getPersister(), event.getId());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            record(event.getPersister(), event.getId());
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {}
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {}
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {}
+
+        private void record(EntityPersister persister, Object id) {
+            if (id instanceof Long entityId) {
+                pendingEntities.compute(persister.getEntityName(), (entityName, ids) -> add(ids, entityId));
+            }
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package uptime.observability.service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uptime.observability.config.ApplicationProperties;
+import uptime.observability.domain.HeartbeatRun;
+import uptime.observability.domain.HttpHeartbeat;
+import uptime.observability.domain.HttpMonitor;
+import uptime.observability.domain.LatencyHistogram;
+import uptime.observability.domain.Schedule;
+import uptime.observability.repository.AgentRepository;
+import uptime.observability.repository.HeartbeatRunRepository;
+import uptime.observability.repository.HttpMonitorRepository;
+import uptime.observability.service.dto.HttpHeartbeatDTO;
+import uptime.observability.service.event.AgentConfigChangedEvent;
+import uptime.observability.service.event.ClusterResyncEvent;
+import uptime.observability.service.event.MonitorDeletedEvent;
+import uptime.observability.service.event.RemoteChangesEvent;
+
+/**
+ * Service for change-only storage: on schedules that enable it, consecutive healthy checks of a monitor by an
+ * agent are folded into a {@link HeartbeatRun} instead of being stored as heartbeats.
+ * <p>
+ * A check is healthy when it succeeded, with a response time and below the warning and critical thresholds.
+ * Failures, threshold breaches and changes of status code are stored raw and close the open run; the next
+ * healthy check is stored raw too and opens a new one. Within a run, one check per
+ * {@code application.ingestion.run-sample-interval-ms} is still stored raw, with its timings and payload.
+ * <p>
+ * Runs are rolled over at every {@code run-bucket-seconds} boundary, so that a run never holds checks of two
+ * buckets and statistics over a window count whole runs. They keep the count, sum, bounds and exact histogram of
+ * their response times, which {@link CheckStatistics} adds to the monitor detail statistics as they are, without
+ * expanding them back into checks.
+ * <p>
+ * The first check of a run is written in the ingest transaction, the next ones are accumulated once it committed
+ * and written every {@code run-flush-interval-ms}, with one update per run. The storage settings of monitors are
+ * kept until the configuration of an agent changes.
+ */
+@Service
+public class HeartbeatRunService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HeartbeatRunService.class);
+
+    private final HeartbeatRunRepository heartbeatRunRepository;
+
+    private final HttpMonitorRepository httpMonitorRepository;
+
+    private final AgentRepository agentRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long sampleIntervalMs;
+
+    private final long bucketSeconds;
+
+    private final Map<Long, Storage> storageByMonitor = new ConcurrentHashMap<>();
+
+    private final AtomicLong storageGeneration = new AtomicLong();
+
+    private final Map<Long, FoldedChecks> pendingChecks = new ConcurrentHashMap<>();
+
+    public HeartbeatRunService(
+        HeartbeatRunRepository heartbeatRunRepository,
+        HttpMonitorRepository httpMonitorRepository,
+        AgentRepository agentRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.heartbeatRunRepository = heartbeatRunRepository;
+        this.httpMonitorRepository = httpMonitorRepository;
+        this.agentRepository = agentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sampleIntervalMs = applicationProperties.getIngestion().getRunSampleIntervalMs();
+        this.bucketSeconds = applicationProperties.getIngestion().getRunBucketSeconds();
+    }
+
+    /**
+     * Fold a heartbeat into the open run of its monitor and agent, if its schedule stores changes only and it
+     * continues the run. Otherwise, update the runs for the heartbeat to be stored raw.
+     * <p>
+     * Runs only in the caller's transaction, which must also store the heartbeat when it is not folded: if the
+     * heartbeat cannot be stored, the run it closed or opened is rolled back with it.
+     *
+     * @param heartbeat the heartbeat submitted by an agent.
+     * @return whether the heartbeat was folded, and must not be stored.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean fold(HttpHeartbeatDTO heartbeat) {
+        Long monitorId = heartbeat.getMonitor() != null ? heartbeat.getMonitor().getId() : null;
+        Long agentId = heartbeat.getAgent() != null ? heartbeat.getAgent().getId() : null;
+        if (monitorId == null || agentId == null || heartbeat.getExecutedAt() == null) {
+            return false;
+        }
+        Storage storage = storageOf(monitorId);
+        if (!storage.changeOnly) {
+            return false;
+        }
+
+        Optional<HeartbeatRun> openRun = heartbeatRunRepository.findOpenForUpdate(monitorId, agentId);
+        if (!storage.isHealthy(heartbeat)) {
+            openRun.ifPresent(this::close);
+            return false;
+        }
+        if (openRun.isEmpty() || !Objects.equals(openRun.orElseThrow().getResponseStatusCode(), heartbeat.getResponseStatusCode())) {
+            // A change of state: stored raw, the checks after it are folded. The previous run is closed first, as
+            // only one may be open
+            openRun.ifPresent(this::close);
+            heartbeatRunRepository.flush();
+            heartbeatRunRepository.save(
+                new HeartbeatRun()
+                    .monitor(httpMonitorRepository.getReferenceById(monitorId))
+                    .agent(agentRepository.getReferenceById(agentId))
+                    .responseStatusCode(heartbeat.getResponseStatusCode())
+                    .lastSampledAt(heartbeat.getExecutedAt())
+            );
+            return false;
+        }
+
+        HeartbeatRun run = openRun.orElseThrow();
+        Instant executedAt = heartbeat.getExecutedAt();
+        int responseTimeMs = heartbeat.getResponseTimeMs();
+        if (run.getLastSampledAt() == null || Duration.between(run.getLastSampledAt(), executedAt).toMillis() >= sampleIntervalMs) {
+            run.setLastSampledAt(executedAt);
+            return false;
+        }
+        if (run.getStartedAt() == null) {
+            // The first check sets the bucket of the run, so that every instance sees it
+            add(run, executedAt, responseTimeMs);
+            return true;
+        }
+        if (bucketOf(run.getStartedAt()) != bucketOf(executedAt)) {
+            close(run);
+            heartbeatRunRepository.flush();
+            HeartbeatRun next = new HeartbeatRun()
+                .monitor(run.getMonitor())
+                .agent(run.getAgent())
+                .responseStatusCode(run.getResponseStatusCode())
+                .lastSampledAt(run.getLastSampledAt());
+            add(next, executedAt, responseTimeMs);
+            heartbeatRunRepository.save(next);
+            return true;
+        }
+        Long runId = run.getId();
+        afterCommit(() -> pendingChecks.computeIfAbsent(runId, id -> new FoldedChecks()).add(executedAt, responseTimeMs));
+        return true;
+    }
+
+    /**
+     * Write the checks folded since the previous flush to their runs, in one transaction. If it fails, they are
+     * written on the next flush.
+     */
+    @Scheduled(fixedDelayString = "${application.ingestion.run-flush-interval-ms:5000}")
+    @PreDestroy
+    public void flushFoldedChecks() {
+        if (pendingChecks.isEmpty()) {
+            return;
+        }
+        Map<Long, FoldedChecks> checks = new HashMap<>();
+        for (Long runId : new ArrayList<>(pendingChecks.keySet())) {
+            FoldedChecks folded = pendingChecks.remove(runId);
+            if (folded != null) {
+                checks.put(runId, folded);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                heartbeatRunRepository.findAllByIdForUpdate(checks.keySet()).forEach(run -> checks.get(run.getId()).addTo(run))
+            );
+            LOG.debug("Wrote the folded checks of {} runs", checks.size());
+        } catch (DataAccessException | TransactionException e) {
+            LOG.warn("Could not write the folded checks of {} runs, retrying on the next flush: {}", checks.size(), e.getMessage());
+            checks.forEach((runId, folded) -> pendingChecks.merge(runId, folded, FoldedChecks::merge));
+        }
+    }
+
+    /**
+     * Forget the storage settings of monitors once a change of their schedule, or of their assignment, committed.
+     *
+     * @param event the agents whose configuration changed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAgentConfigChanged(AgentConfigChangedEvent event) {
+        forgetStorage();
+    }
+
+    /**
+     * Forget the storage settings of monitors changed or deleted by another instance.
+     *
+     * @param event the changes of the other instance.
+     */
+    @EventListener
+    public void onRemoteChanges(RemoteChangesEvent event) {
+        if (!event.getChangedAgentIds().isEmpty() || !event.getDeletedMonitorIds().isEmpty()) {
+            forgetStorage();
+        }
+    }
+
+    @EventListener(ClusterResyncEvent.class)
+    public void onClusterResync() {
+        forgetStorage();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMonitorDeleted(MonitorDeletedEvent event) {
+        storageByMonitor.remove(event.getMonitorId());
+    }
+
+    /**
+     * Keep the runs that overlap the window of stored heartbeats.
+     *
+     * @param heartbeats stored heartbeats, newest first.
+     * @param heartbeatLimit the limit the heartbeats were read with; if they reached it, runs that ended before
+     *                       the oldest are left out, as the heartbeats stored among them are.
+     * @param runs the runs read for the same window.
+     * @return the runs to count with the heartbeats.
+     */
+    static List<HeartbeatRun> within(List<HttpHeartbeat> heartbeats, int heartbeatLimit, List<HeartbeatRun> runs) {
+        Instant cutoff = heartbeats.size() >= heartbeatLimit ? heartbeats.get(heartbeats.size() - 1).getExecutedAt() : null;
+        if (cutoff == null) {
+            return runs;
+        }
+        return runs.stream().filter(run -> run.getEndedAt() != null && !run.getEndedAt().isBefore(cutoff)).toList();
+    }
+
+    static void add(HeartbeatRun run, Instant executedAt, int responseTimeMs) {
+        run
+            .startedAt(run.getStartedAt() == null || executedAt.isBefore(run.getStartedAt()) ? executedAt : run.getStartedAt())
+            .endedAt(run.getEndedAt() == null || executedAt.isAfter(run.getEndedAt()) ? executedAt : run.getEndedAt())
+            .checkCount(run.getCheckCount() + 1)
+            .latencyMinMs(run.getLatencyMinMs() == null ? responseTimeMs : Math.min(run.getLatencyMinMs(), responseTimeMs))
+            .latencyMaxMs(run.getLatencyMaxMs() == null ? responseTimeMs : Math.max(run.getLatencyMaxMs(), responseTimeMs))
+            .latencySumMs(run.getLatencySumMs() + responseTimeMs)
+            .latencyHistogram(LatencyHistogram.record(run.getLatencyHistogram(), responseTimeMs));
+    }
+
+    /**
+     * @return the start of the bucket of a check, as seconds since the epoch.
+     */
+    long bucketOf(Instant executedAt) {
+        return Math.floorDiv(executedAt.getEpochSecond(), bucketSeconds) * bucketSeconds;
+    }
+
+    private Storage storageOf(Long monitorId) {
+        Storage storage = storageByMonitor.get(monitorId);
+        if (storage == null) {
+            long generation = storageGeneration.get();
+            storage = httpMonitorRepository.findById(monitorId).map(HttpMonitor::getSchedule).map(Storage::of).orElse(Storage.NONE);
+            // Settings read before a change committed are not kept past it
+            if (storageGeneration.get() == generation) {
+                storageByMonitor.put(monitorId, storage);
+            }
+        }
+        return storage;
+    }
+
+    private void forgetStorage() {
+        storageGeneration.incrementAndGet();
+        storageByMonitor.clear();
+    }
+
+    private void close(HeartbeatRun run) {
+        // The first check of a run is written with it, so a run without any has none pending either
+        if (run.getCheckCount() == 0) {
+            heartbeatRunRepository.delete(run);
+        } else {
+            LOG.debug("Closing run {} of {} checks", run.getId(), run.getCheckCount());
+            run.setOpen(false);
+        }
+    }
+
+    /**
+     * Run a callback once the current transaction committed, or right away outside of a transaction.
+     */
+    private static void afterCommit(Runnable callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    callback.run();
+                }
+            }
+        );
+    }
+
+    /**
+     * The settings of the schedule of a monitor that folding depends on.
+     */
+    private static final class Storage {
+
+        static final Storage NONE = new Storage(false, null, null);
+
+        final boolean changeOnly;
+
+        final Integer warningThresholdMs;
+
+        final Integer criticalThresholdMs;
+
+        private Storage(boolean changeOnly, Integer warningThresholdMs, Integer criticalThresholdMs) {
+            this.changeOnly = changeOnly;
+            this.warningThresholdMs = warningThresholdMs;
+            this.criticalThresholdMs = criticalThresholdMs;
+        }
+
+        static Storage of(Schedule schedule) {
+            return new Storage(Boolean.TRUE.equals(schedule.getChangeOnlyStorage()), schedule.getThresholdsWarning(), schedule.getThresholdsCritical());
+        }
+
+        boolean isHealthy(HttpHeartbeatDTO heartbeat) {
+            Integer responseTimeMs = heartbeat.getResponseTimeMs();
+            if (!Boolean.TRUE.equals(heartbeat.getSuccess()) || responseTimeMs == null) {
+                return false;
+            }
+            Integer warning = heartbeat.getWarningThresholdMs() != null ? heartbeat.getWarningThresholdMs() : warningThresholdMs;
+            Integer critical = heartbeat.getCriticalThresholdMs() != null ? heartbeat.getCriticalThresholdMs() : criticalThresholdMs;
+            return !breaches(responseTimeMs, warning) && !breaches(responseTimeMs, critical);
+        }
+
+        private static boolean breaches(int responseTimeMs, Integer threshold) {
+            // Schedules created from the UI default their thresholds to 0, which means none
+            return threshold != null && threshold > 0 && responseTimeMs >= threshold;
+        }
+    }
+
+    /**
+     * Checks folded into a run and not written to it yet.
+     */
+    static final class FoldedChecks {
+
+        private Instant startedAt;
+
+        private Instant endedAt;
+
+        private int count;
+
+        private long latencySumMs;
+
+        private int latencyMinMs = Integer.MAX_VALUE;
+
+        private int latencyMaxMs = Integer.MIN_VALUE;
+
+        private final LatencyHistogram histogram = LatencyHistogram.parse(null);
+
+        synchronized void add(Instant executedAt, int responseTimeMs) {
+            startedAt = startedAt == null || executedAt.isBefore(startedAt) ? executedAt : startedAt;
+            endedAt = endedAt == null || executedAt.isAfter(endedAt) ? executedAt : endedAt;
+            count++;
+            latencySumMs += responseTimeMs;
+            latencyMinMs = Math.min(latencyMinMs, responseTimeMs);
+            latencyMaxMs = Math.max(latencyMaxMs, responseTimeMs);
+            histogram.add(responseTimeMs, 1);
+        }
+
+        synchronized FoldedChecks merge(FoldedChecks other) {
+            synchronized (other) {
+                startedAt = startedAt == null || other.startedAt.isBefore(startedAt) ? other.startedAt : startedAt;
+                endedAt = endedAt == null || other.endedAt.isAfter(endedAt) ? other.endedAt : endedAt;
+                count += other.count;
+                latencySumMs += other.latencySumMs;
+                latencyMinMs = Math.min(latencyMinMs, other.latencyMinMs);
+                latencyMaxMs = Math.max(latencyMaxMs, other.latencyMaxMs);
+                other.histogram.forEach(histogram::add);
+            }
+            return this;
+        }
+
+        /**
+         * Add the checks to their run, rewriting its histogram once.
+         */
+        synchronized void addTo(HeartbeatRun run) {
+            LatencyHistogram runHistogram = LatencyHistogram.parse(run.getLatencyHistogram());
+            histogram.forEach(runHistogram::add);
+            run
+                .startedAt(run.getStartedAt() == null || startedAt.isBefore(run.getStartedAt()) ? startedAt : run.getStartedAt())
+                .endedAt(run.getEndedAt() == null || endedAt.isAfter(run.getEndedAt()) ? endedAt : run.getEndedAt())
+                .checkCount(run.getCheckCount() + count)
+                .latencyMinMs(run.getLatencyMinMs() == null ? latencyMinMs : Math.min(run.getLatencyMinMs(), latencyMinMs))
+                .latencyMaxMs(run.getLatencyMaxMs() == null ? latencyMaxMs : Math.max(run.getLatencyMaxMs(), latencyMaxMs))
+                .latencySumMs(run.getLatencySumMs() + latencySumMs)
+                .latencyHistogram(runHistogram.toString());
+        }
+    }
+}
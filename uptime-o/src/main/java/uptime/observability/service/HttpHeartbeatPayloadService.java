@@ -0,0 +1,161 @@
+package uptime.observability.service;
+
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uptime.observability.config.ApplicationProperties;
+import uptime.observability.domain.HttpHeartbeatPayload;
+import uptime.observability.domain.HttpMonitor;
+import uptime.observability.domain.PayloadBlob;
+import uptime.observability.domain.RawJson;
+import uptime.observability.domain.Schedule;
+import uptime.observability.repository.HttpHeartbeatPayloadRepository;
+import uptime.observability.repository.HttpMonitorRepository;
+import uptime.observability.service.dto.HttpHeartbeatDTO;
+import uptime.observability.service.dto.HttpHeartbeatPayloadDTO;
+import uptime.observability.service.dto.HttpMonitorDTO;
+import uptime.observability.service.mapper.HttpHeartbeatPayloadMapper;
+
+/**
+ * Service Implementation for managing {@link HttpHeartbeatPayload}: the raw headers and body of heartbeats,
+ * stored apart from them.
+ * <p>
+ * Payloads are capped at ingest by the {@code maxPayloadBytes} of the monitor's schedule, or
+ * {@code application.ingestion.max-payload-bytes}. JSON cannot be cut in the middle, so whole parts are dropped,
+ * the response body first, and the payload is flagged as truncated. What remains is stored through
+ * {@link PayloadBlobService}, once for all the heartbeats that carry the same bytes.
+ */
+@Service
+@Transactional
+public class HttpHeartbeatPayloadService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpHeartbeatPayloadService.class);
+
+    private final HttpHeartbeatPayloadRepository payloadRepository;
+
+    private final PayloadBlobService payloadBlobService;
+
+    private final HttpMonitorRepository httpMonitorRepository;
+
+    private final HttpHeartbeatPayloadMapper payloadMapper;
+
+    private final ApplicationProperties.Ingestion properties;
+
+    public HttpHeartbeatPayloadService(
+        HttpHeartbeatPayloadRepository payloadRepository,
+        PayloadBlobService payloadBlobService,
+        HttpMonitorRepository httpMonitorRepository,
+        HttpHeartbeatPayloadMapper payloadMapper,
+        ApplicationProperties applicationProperties
+    ) {
+        this.payloadRepository = payloadRepository;
+        this.payloadBlobService = payloadBlobService;
+        this.httpMonitorRepository = httpMonitorRepository;
+        this.payloadMapper = payloadMapper;
+        this.properties = applicationProperties.getIngestion();
+    }
+
+    /**
+     * Store the payload carried by a heartbeat, if any.
+     *
+     * @param heartbeatId the id of the saved heartbeat.
+     * @param heartbeat the heartbeat as submitted.
+     * @param newHeartbeat whether the heartbeat was just created, so that it cannot have a payload yet.
+     */
+    public void save(Long heartbeatId, HttpHeartbeatDTO heartbeat, boolean newHeartbeat) {
+        if (heartbeat.getRawRequestHeaders() == null && heartbeat.getRawResponseHeaders() == null && heartbeat.getRawResponseBody() == null) {
+            return;
+        }
+        HttpHeartbeatPayloadDTO parts = new HttpHeartbeatPayloadDTO();
+        parts.setRawRequestHeaders(heartbeat.getRawRequestHeaders());
+        parts.setRawResponseHeaders(heartbeat.getRawResponseHeaders());
+        parts.setRawResponseBody(heartbeat.getRawResponseBody());
+
+        Schedule schedule = Optional.ofNullable(heartbeat.getMonitor())
+            .map(HttpMonitorDTO::getId)
+            .flatMap(httpMonitorRepository::findById)
+            .map(HttpMonitor::getSchedule)
+            .orElse(null);
+        boolean includeResponseBody = schedule != null && Boolean.TRUE.equals(schedule.getIncludeResponseBody());
+        int maxBytes = schedule != null && schedule.getMaxPayloadBytes() != null ? schedule.getMaxPayloadBytes() : properties.getMaxPayloadBytes();
+        cap(parts, includeResponseBody, maxBytes);
+        if (Boolean.TRUE.equals(parts.getTruncated())) {
+            LOG.debug("Truncated payload of heartbeat {} from {} bytes", heartbeatId, parts.getOriginalBytes());
+        }
+
+        HttpHeartbeatPayload payload = newHeartbeat ? null : payloadRepository.findById(heartbeatId).orElse(null);
+        if (payload == null) {
+            payload = new HttpHeartbeatPayload().heartbeatId(heartbeatId);
+        }
+        payload
+            .requestHeaders(store(parts.getRawRequestHeaders()))
+            .responseHeaders(store(parts.getRawResponseHeaders()))
+            .responseBody(store(parts.getRawResponseBody()))
+            .originalBytes(parts.getOriginalBytes())
+            .truncated(parts.getTruncated());
+        payloadRepository.save(payload);
+    }
+
+    /**
+     * Delete the payload of a heartbeat. Its blobs are deleted by {@link PayloadBlobService} once unreferenced.
+     *
+     * @param heartbeatId the id of the heartbeat.
+     */
+    public void delete(Long heartbeatId) {
+        payloadRepository
+            .findById(heartbeatId)
+            .ifPresent(payloadRepository::delete);
+    }
+
+    /**
+     * Get the payload of a heartbeat.
+     *
+     * @param heartbeatId the id of the heartbeat.
+     * @return the payload, or empty if the heartbeat has none.
+     */
+    @Transactional(readOnly = true)
+    public Optional<HttpHeartbeatPayloadDTO> findByHeartbeatId(Long heartbeatId) {
+        LOG.debug("Request to get the payload of HttpHeartbeat : {}", heartbeatId);
+        return payloadRepository.findOneWithBlobsByHeartbeatId(heartbeatId).map(payloadMapper::toDto);
+    }
+
+    /**
+     * Drop the parts of a payload its schedule does not allow, and then the largest optional ones until it fits.
+     */
+    static void cap(HttpHeartbeatPayloadDTO payload, boolean includeResponseBody, int maxBytes) {
+        int originalBytes = size(payload);
+        boolean truncated = false;
+        if (!includeResponseBody && payload.getRawResponseBody() != null) {
+            payload.setRawResponseBody(null);
+            truncated = true;
+        }
+        if (size(payload) > maxBytes && payload.getRawResponseBody() != null) {
+            payload.setRawResponseBody(null);
+            truncated = true;
+        }
+        if (size(payload) > maxBytes && payload.getRawResponseHeaders() != null) {
+            payload.setRawResponseHeaders(null);
+            truncated = true;
+        }
+        if (size(payload) > maxBytes && payload.getRawRequestHeaders() != null) {
+            payload.setRawRequestHeaders(null);
+            truncated = true;
+        }
+        payload.setOriginalBytes(originalBytes);
+        payload.setTruncated(truncated);
+    }
+
+    private PayloadBlob store(RawJson content) {
+        return content != null ? payloadBlobService.store(content) : null;
+    }
+
+    private static int size(HttpHeartbeatPayloadDTO payload) {
+        return length(payload.getRawRequestHeaders()) + length(payload.getRawResponseHeaders()) + length(payload.getRawResponseBody());
+    }
+
+    private static int length(RawJson json) {
+        return json != null ? json.length() : 0;
+    }
+}
@@ -4,17 +4,21 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import uptime.observability.domain.HttpHeartbeat;
-
+import uptime.observability.management.IngestionMetersService;
 import uptime.observability.repository.HttpHeartbeatRepository;
 import uptime.observability.service.dto.HttpHeartbeatDTO;
-
+import uptime.observability.service.event.HeartbeatIngestedEvent;
 import uptime.observability.service.mapper.HttpHeartbeatMapper;
 
 /**
@@ -30,22 +34,87 @@ public class HttpHeartbeatService {
 
     private final HttpHeartbeatMapper apiHeartbeatMapper;
 
-    public HttpHeartbeatService(HttpHeartbeatRepository apiHeartbeatRepository, HttpHeartbeatMapper apiHeartbeatMapper) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AgentLeaseService agentLeaseService;
+
+    private final IngestionMetersService ingestionMetersService;
+
+    private final HttpHeartbeatPayloadService payloadService;
+
+    private final HeartbeatRunService heartbeatRunService;
+
+    public HttpHeartbeatService(
+        HttpHeartbeatRepository apiHeartbeatRepository,
+        HttpHeartbeatMapper apiHeartbeatMapper,
+        ApplicationEventPublisher eventPublisher,
+        AgentLeaseService agentLeaseService,
+        IngestionMetersService ingestionMetersService,
+        HttpHeartbeatPayloadService payloadService,
+        HeartbeatRunService heartbeatRunService
+    ) {
         this.apiHeartbeatRepository = apiHeartbeatRepository;
         this.apiHeartbeatMapper = apiHeartbeatMapper;
+        this.eventPublisher = eventPublisher;
+        this.agentLeaseService = agentLeaseService;
+        this.ingestionMetersService = ingestionMetersService;
+        this.payloadService = payloadService;
+        this.heartbeatRunService = heartbeatRunService;
     }
 
     /**
-     * Save a apiHeartbeat.
+     * Save a heartbeat submitted by an agent, unless it carries the fencing token of a lease that has
+     * since been handed to another instance of the agent. On schedules with change-only storage, healthy
+     * heartbeats may be folded into a run instead, see {@link HeartbeatRunService}.
+     *
+     * @param apiHeartbeatDTO the heartbeat to save.
+     * @return the persisted heartbeat, without an id if it was folded into a run, or empty if it was dropped.
+     */
+    public Optional<HttpHeartbeatDTO> saveFromAgent(HttpHeartbeatDTO apiHeartbeatDTO) {
+        Long agentId = apiHeartbeatDTO.getAgent() != null ? apiHeartbeatDTO.getAgent().getId() : null;
+        Long monitorId = apiHeartbeatDTO.getMonitor() != null ? apiHeartbeatDTO.getMonitor().getId() : null;
+        ingestionMetersService.trackReceived();
+        if (agentLeaseService.isStale(agentId, apiHeartbeatDTO.getFencingToken())) {
+            LOG.debug("Dropping heartbeat of agent {} with stale fencing token {}", agentId, apiHeartbeatDTO.getFencingToken());
+            ingestionMetersService.trackCompleted(IngestionMetersService.OUTCOME_STALE, agentId, monitorId, apiHeartbeatDTO.getExecutedAt());
+            return Optional.empty();
+        }
+        afterCompletion(committed ->
+            ingestionMetersService.trackCompleted(
+                committed ? IngestionMetersService.OUTCOME_ACCEPTED : IngestionMetersService.OUTCOME_INVALID,
+                agentId,
+                monitorId,
+                apiHeartbeatDTO.getExecutedAt()
+            )
+        );
+        if (heartbeatRunService.fold(apiHeartbeatDTO)) {
+            eventPublisher.publishEvent(HeartbeatIngestedEvent.of(apiHeartbeatDTO));
+            return Optional.of(apiHeartbeatDTO);
+        }
+        return Optional.of(save(apiHeartbeatDTO));
+    }
+
+    /**
+     * Save a apiHeartbeat, with its raw headers and body apart, and publish a {@link HeartbeatIngestedEvent} for
+     * live consumers.
      *
      * @param apiHeartbeatDTO the entity to save.
      * @return the persisted entity.
      */
     public HttpHeartbeatDTO save(HttpHeartbeatDTO apiHeartbeatDTO) {
         LOG.debug("Request to save HttpHeartbeat : {}", apiHeartbeatDTO);
+        long start = System.nanoTime();
         HttpHeartbeat apiHeartbeat = apiHeartbeatMapper.toEntity(apiHeartbeatDTO);
+        long persistStart = System.nanoTime();
+        // The insert itself is flushed on commit, which the persist stage includes
+        afterCompletion(committed -> ingestionMetersService.trackStageSince(IngestionMetersService.STAGE_PERSIST, persistStart));
         apiHeartbeat = apiHeartbeatRepository.save(apiHeartbeat);
-        return apiHeartbeatMapper.toDto(apiHeartbeat);
+        payloadService.save(apiHeartbeat.getId(), apiHeartbeatDTO, true);
+        long mapStart = System.nanoTime();
+        HttpHeartbeatDTO result = apiHeartbeatMapper.toDto(apiHeartbeat);
+        ingestionMetersService.trackStage(IngestionMetersService.STAGE_MAP, (persistStart - start) + (System.nanoTime() - mapStart));
+        eventPublisher.publishEvent(HeartbeatIngestedEvent.of(result));
+        return result;
     }
 
     /**
@@ -58,6 +127,7 @@ public class HttpHeartbeatService {
         LOG.debug("Request to update HttpHeartbeat : {}", apiHeartbeatDTO);
         HttpHeartbeat apiHeartbeat = apiHeartbeatMapper.toEntity(apiHeartbeatDTO);
         apiHeartbeat = apiHeartbeatRepository.save(apiHeartbeat);
+        payloadService.save(apiHeartbeat.getId(), apiHeartbeatDTO, false);
         return apiHeartbeatMapper.toDto(apiHeartbeat);
     }
 
@@ -74,6 +144,7 @@ public class HttpHeartbeatService {
             .findById(apiHeartbeatDTO.getId())
             .map(existingHttpHeartbeat -> {
                 apiHeartbeatMapper.partialUpdate(existingHttpHeartbeat, apiHeartbeatDTO);
+                payloadService.save(existingHttpHeartbeat.getId(), apiHeartbeatDTO, false);
 
                 return existingHttpHeartbeat;
             })
@@ -112,8 +183,25 @@ public class HttpHeartbeatService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete HttpHeartbeat : {}", id);
+        payloadService.delete(id);
         apiHeartbeatRepository.deleteById(id);
     }
 
-
+    /**
+     * Run a callback once the current transaction completed, or right away outside of a transaction.
+     */
+    private static void afterCompletion(Consumer<Boolean> callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    callback.accept(status == STATUS_COMMITTED);
+                }
+            }
+        );
+    }
 }
@@ -3,6 +3,7 @@ package uptime.observability.service;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -10,6 +11,7 @@ import org.springframework.transaction.annotation.Transactional;
 import uptime.observability.domain.HttpMonitor;
 import uptime.observability.repository.HttpMonitorRepository;
 import uptime.observability.service.dto.HttpMonitorDTO;
+import uptime.observability.service.event.MonitorDeletedEvent;
 import uptime.observability.service.mapper.HttpMonitorMapper;
 
 /**
@@ -25,9 +27,20 @@ public class HttpMonitorService {
 
     private final HttpMonitorMapper apiMonitorMapper;
 
-    public HttpMonitorService(HttpMonitorRepository apiMonitorRepository, HttpMonitorMapper apiMonitorMapper) {
+    private final AgentConfigService agentConfigService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public HttpMonitorService(
+        HttpMonitorRepository apiMonitorRepository,
+        HttpMonitorMapper apiMonitorMapper,
+        AgentConfigService agentConfigService,
+        ApplicationEventPublisher eventPublisher
+    ) {
         this.apiMonitorRepository = apiMonitorRepository;
         this.apiMonitorMapper = apiMonitorMapper;
+        this.agentConfigService = agentConfigService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -53,6 +66,7 @@ public class HttpMonitorService {
         LOG.debug("Request to update HttpMonitor : {}", apiMonitorDTO);
         HttpMonitor apiMonitor = apiMonitorMapper.toEntity(apiMonitorDTO);
         apiMonitor = apiMonitorRepository.save(apiMonitor);
+        agentConfigService.monitorChanged(apiMonitor.getId());
         return apiMonitorMapper.toDto(apiMonitor);
     }
 
@@ -73,6 +87,10 @@ public class HttpMonitorService {
                 return existingHttpMonitor;
             })
             .map(apiMonitorRepository::save)
+            .map(saved -> {
+                agentConfigService.monitorChanged(saved.getId());
+                return saved;
+            })
             .map(apiMonitorMapper::toDto);
     }
 
@@ -107,6 +125,8 @@ public class HttpMonitorService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete HttpMonitor : {}", id);
+        agentConfigService.monitorChanged(id);
         apiMonitorRepository.deleteById(id);
+        eventPublisher.publishEvent(new MonitorDeletedEvent(id));
     }
 }
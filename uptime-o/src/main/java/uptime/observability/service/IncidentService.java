@@ -0,0 +1,486 @@
+package uptime.observability.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+import uptime.observability.config.ApplicationProperties;
+import uptime.observability.domain.HttpMonitor;
+import uptime.observability.domain.Incident;
+import uptime.observability.domain.IncidentCause;
+import uptime.observability.domain.Schedule;
+import uptime.observability.management.IngestionMetersService;
+import uptime.observability.repository.AgentRepository;
+import uptime.observability.repository.HttpMonitorRepository;
+import uptime.observability.repository.IncidentRepository;
+import uptime.observability.service.dto.IncidentDTO;
+import uptime.observability.service.event.AgentDeletedEvent;
+import uptime.observability.service.event.ClusterResyncEvent;
+import uptime.observability.service.event.HeartbeatIngestedEvent;
+import uptime.observability.service.event.IncidentChangedEvent;
+import uptime.observability.service.event.MonitorDeletedEvent;
+import uptime.observability.service.event.RemoteChangesEvent;
+import uptime.observability.service.mapper.IncidentMapper;
+
+/**
+ * Service detecting {@link Incident}s from ingested heartbeats, without reading heartbeat history.
+ * <p>
+ * Each monitor and agent has a {@link Streak} in memory, updated in constant time on every ingested heartbeat. An
+ * incident opens after {@code application.incidents.failure-threshold} failed checks in a row, or
+ * {@code latency-threshold} checks in a row at or above the critical threshold of the heartbeat, or else of its
+ * schedule. It escalates from latency to failures, and closes after {@code recovery-threshold} healthy checks in a
+ * row. Checks executed before the latest one counted are late in their batch and ignored.
+ * <p>
+ * Only the changes touch the database: they are queued and written every {@code flush-interval-ms}, then sent to
+ * the other instances through the {@link ClusterEventBus}. Each instance counts the checks it ingests itself, and
+ * takes the open incidents of the others over, so that whichever instance ingests the recovery closes them.
+ * <p>
+ * Streaks are dropped once their monitor or agent is deleted.
+ */
+@Service
+public class IncidentService {
+
+    public static final String OPEN_METER_NAME = "uptime.incidents.open";
+    public static final String OPEN_METER_DESCRIPTION = "Incidents open, per monitor and agent.";
+
+    private static final Logger LOG = LoggerFactory.getLogger(IncidentService.class);
+
+    private static final int MAX_ATTEMPTS = 2;
+
+    private final IncidentRepository incidentRepository;
+
+    private final IncidentMapper incidentMapper;
+
+    private final HttpMonitorRepository httpMonitorRepository;
+
+    private final AgentRepository agentRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.Incidents properties;
+
+    private final Map<Long, Map<Long, Streak>> streaks = new ConcurrentHashMap<>();
+
+    private final Queue<Transition> pendingTransitions = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger openCount = new AtomicInteger();
+
+    public IncidentService(
+        IncidentRepository incidentRepository,
+        IncidentMapper incidentMapper,
+        HttpMonitorRepository httpMonitorRepository,
+        AgentRepository agentRepository,
+        ApplicationEventPublisher eventPublisher,
+        PlatformTransactionManager transactionManager,
+        IngestionMetersService ingestionMetersService,
+        MeterRegistry registry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.incidentRepository = incidentRepository;
+        this.incidentMapper = incidentMapper;
+        this.httpMonitorRepository = httpMonitorRepository;
+        this.agentRepository = agentRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getIncidents();
+        ingestionMetersService.registerQueue("incidents", pendingTransitions::size);
+        Gauge.builder(OPEN_METER_NAME, openCount, AtomicInteger::get).description(OPEN_METER_DESCRIPTION).register(registry);
+    }
+
+    /**
+     * Count a heartbeat in the streak of its monitor and agent, once the ingest transaction committed.
+     *
+     * @param event the ingested heartbeat.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHeartbeatIngested(HeartbeatIngestedEvent event) {
+        if (!properties.isEnabled() || event.getMonitorId() == null || event.getAgentId() == null || event.getExecutedAt() == null) {
+            return;
+        }
+        boolean success = Boolean.TRUE.equals(event.getSuccess());
+        Integer criticalThresholdMs = success && event.getResponseTimeMs() != null ? criticalThresholdMs(event) : null;
+        streaks
+            .computeIfAbsent(event.getMonitorId(), monitorId -> new ConcurrentHashMap<>())
+            .compute(event.getAgentId(), (agentId, streak) -> {
+                Streak target = streak != null ? streak : new Streak(event.getMonitorId(), agentId);
+                IncidentCause previous = target.cause;
+                Transition transition = target.add(
+                    event.getExecutedAt(),
+                    success,
+                    event.getResponseTimeMs(),
+                    criticalThresholdMs,
+                    event.getResponseStatusCode(),
+                    properties
+                );
+                if (transition != null) {
+                    count(previous, transition.cause);
+                    pendingTransitions.add(transition);
+                }
+                return target;
+            });
+    }
+
+    /**
+     * Take over the incidents opened, escalated or closed by another instance, and forget the streaks of the
+     * monitors and agents it deleted.
+     *
+     * @param event the changes of the other instance.
+     */
+    @EventListener
+    public void onRemoteChanges(RemoteChangesEvent event) {
+        adoptAll(event.getIncidents());
+        event.getDeletedMonitorIds().forEach(this::forgetMonitor);
+        event.getDeletedAgentIds().forEach(this::forgetAgent);
+    }
+
+    /**
+     * Forget the streaks of a monitor once its deletion committed.
+     *
+     * @param event the deleted monitor.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMonitorDeleted(MonitorDeletedEvent event) {
+        forgetMonitor(event.getMonitorId());
+    }
+
+    /**
+     * Forget the streaks of an agent once its deletion committed.
+     *
+     * @param event the deleted agent.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAgentDeleted(AgentDeletedEvent event) {
+        forgetAgent(event.getAgentId());
+    }
+
+    /**
+     * Take the open incidents over from the database, at startup and whenever changes of other instances may have
+     * been missed.
+     */
+    @EventListener({ ApplicationReadyEvent.class, ClusterResyncEvent.class })
+    public void restore() {
+        Map<Long, Map<Long, IncidentCause>> open = new HashMap<>();
+        for (Object[] row : incidentRepository.findOpenKeys()) {
+            open.computeIfAbsent((Long) row[0], monitorId -> new HashMap<>()).put((Long) row[1], (IncidentCause) row[2]);
+        }
+        streaks.forEach((monitorId, agents) ->
+            agents.keySet().forEach(agentId -> adopt(monitorId, agentId, open.getOrDefault(monitorId, Map.of()).get(agentId)))
+        );
+        adoptAll(open);
+        LOG.debug("Restored {} open incidents", openCount.get());
+    }
+
+    /**
+     * Write the incidents opened, escalated and closed since the previous flush, each in its own transaction. A
+     * change that fails, for instance because another instance opened the same incident at the same time, is tried
+     * again on the next flush. After {@value #MAX_ATTEMPTS} attempts it is given up, and the streak takes the state of
+     * the incident over from the database, unless a later change of the same incident is on its way; until that
+     * state could be read, the change stays queued.
+     */
+    @Scheduled(fixedDelayString = "${application.incidents.flush-interval-ms:1000}")
+    public void flush() {
+        List<Transition> retries = new ArrayList<>();
+        for (Transition transition = pendingTransitions.poll(); transition != null; transition = pendingTransitions.poll()) {
+            Transition current = transition;
+            if (retries.stream().anyMatch(current::sameIncident)) {
+                // Kept in order behind the failed change of the same incident
+                retries.add(current);
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> persist(current));
+            } catch (DataAccessException | TransactionException e) {
+                if (++current.attempts < MAX_ATTEMPTS || !giveUp(current, e)) {
+                    retries.add(current);
+                }
+            }
+        }
+        pendingTransitions.addAll(retries);
+    }
+
+    /**
+     * Get the incidents of a monitor, or of all monitors, newest first.
+     *
+     * @param monitorId the monitor, or {@code null} for all.
+     * @param open whether to get only open or only closed incidents, or {@code null} for both.
+     * @param pageable the pagination information.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<IncidentDTO> findAll(Long monitorId, Boolean open, Pageable pageable) {
+        LOG.debug("Request to get Incidents of monitor {}, open {}", monitorId, open);
+        return incidentRepository.findByMonitorIdAndOpen(monitorId, open, pageable).map(incidentMapper::toDto);
+    }
+
+    /**
+     * Get one incident by id.
+     *
+     * @param id the id of the entity.
+     * @return the entity.
+     */
+    @Transactional(readOnly = true)
+    public Optional<IncidentDTO> findOne(Long id) {
+        LOG.debug("Request to get Incident : {}", id);
+        return incidentRepository.findById(id).map(incidentMapper::toDto);
+    }
+
+    int countOpen() {
+        return openCount.get();
+    }
+
+    private Integer criticalThresholdMs(HeartbeatIngestedEvent event) {
+        if (event.getCriticalThresholdMs() != null) {
+            return event.getCriticalThresholdMs();
+        }
+        // Monitors and schedules are in the second-level cache
+        return httpMonitorRepository
+            .findById(event.getMonitorId())
+            .map(HttpMonitor::getSchedule)
+            .map(Schedule::getThresholdsCritical)
+            .orElse(null);
+    }
+
+    private void adoptAll(Map<Long, Map<Long, IncidentCause>> incidents) {
+        incidents.forEach((monitorId, agents) -> agents.forEach((agentId, cause) -> adopt(monitorId, agentId, cause)));
+    }
+
+    private void forgetMonitor(Long monitorId) {
+        Map<Long, Streak> agents = streaks.remove(monitorId);
+        if (agents != null) {
+            agents.values().forEach(streak -> count(streak.cause, null));
+        }
+        pendingTransitions.removeIf(transition -> transition.monitorId.equals(monitorId));
+    }
+
+    private void forgetAgent(Long agentId) {
+        streaks.values().forEach(agents -> {
+            Streak streak = agents.remove(agentId);
+            if (streak != null) {
+                count(streak.cause, null);
+            }
+        });
+        pendingTransitions.removeIf(transition -> transition.agentId.equals(agentId));
+    }
+
+    private void adopt(Long monitorId, Long agentId, IncidentCause cause) {
+        streaks
+            .computeIfAbsent(monitorId, id -> new ConcurrentHashMap<>())
+            .compute(agentId, (id, streak) -> {
+                Streak target = streak != null ? streak : new Streak(monitorId, agentId);
+                count(target.cause, cause);
+                target.cause = cause;
+                return target;
+            });
+    }
+
+    private boolean giveUp(Transition transition, RuntimeException cause) {
+        IncidentCause recorded;
+        try {
+            recorded = incidentRepository.findOpenCause(transition.monitorId, transition.agentId).orElse(null);
+        } catch (DataAccessException | TransactionException e) {
+            LOG.warn("Could not record {}, nor read the incident back: {}", transition, e.getMessage());
+            return false;
+        }
+        LOG.warn(
+            "Could not record {}, keeping the incident {}: {}",
+            transition,
+            recorded != null ? recorded : "closed",
+            cause.getMessage()
+        );
+        Map<Long, Streak> agents = streaks.get(transition.monitorId);
+        if (agents != null) {
+            agents.computeIfPresent(transition.agentId, (agentId, streak) -> {
+                if (streak.transitions == transition.sequence) {
+                    count(streak.cause, recorded);
+                    streak.cause = recorded;
+                }
+                return streak;
+            });
+        }
+        return true;
+    }
+
+    private void count(IncidentCause before, IncidentCause after) {
+        if (before == null && after != null) {
+            openCount.incrementAndGet();
+        } else if (before != null && after == null) {
+            openCount.decrementAndGet();
+        }
+    }
+
+    private void persist(Transition transition) {
+        Optional<Incident> open = incidentRepository.findOpenForUpdate(transition.monitorId, transition.agentId);
+        if (transition.cause == null) {
+            open.ifPresent(incident -> incident.open(false).closedAt(transition.at));
+        } else if (open.isPresent()) {
+            // Opened by another instance meanwhile, or escalated
+            if (transition.cause == IncidentCause.FAILURES) {
+                open.orElseThrow().setCause(IncidentCause.FAILURES);
+            }
+        } else {
+            incidentRepository.save(
+                new Incident()
+                    .cause(transition.cause)
+                    .openedAt(transition.at)
+                    .responseStatusCode(transition.responseStatusCode)
+                    .monitor(httpMonitorRepository.getReferenceById(transition.monitorId))
+                    .agent(agentRepository.getReferenceById(transition.agentId))
+            );
+        }
+        LOG.debug("Recorded {}", transition);
+        eventPublisher.publishEvent(new IncidentChangedEvent(transition.monitorId, transition.agentId, transition.cause));
+    }
+
+    /**
+     * Consecutive outcomes of the checks of a monitor by an agent; only touched inside
+     * {@link ConcurrentHashMap#compute}.
+     */
+    static final class Streak {
+
+        private final Long monitorId;
+        private final Long agentId;
+        private Instant lastExecutedAt;
+        private int failures;
+        private int slowChecks;
+        private int healthyChecks;
+        private Instant failingSince;
+        private Instant slowSince;
+        private Instant healthySince;
+        private IncidentCause cause;
+        // Transitions returned so far, to tell whether a given one is the latest
+        private int transitions;
+
+        Streak(Long monitorId, Long agentId) {
+            this.monitorId = monitorId;
+            this.agentId = agentId;
+        }
+
+        /**
+         * Count a check.
+         *
+         * @return the incident opened, escalated or closed by the check, or {@code null}.
+         */
+        Transition add(
+            Instant executedAt,
+            boolean success,
+            Integer responseTimeMs,
+            Integer criticalThresholdMs,
+            Integer responseStatusCode,
+            ApplicationProperties.Incidents rules
+        ) {
+            if (lastExecutedAt != null && executedAt.isBefore(lastExecutedAt)) {
+                return null;
+            }
+            lastExecutedAt = executedAt;
+            // Schedules created from the UI default their thresholds to 0, which means none
+            boolean slow =
+                success &&
+                responseTimeMs != null &&
+                criticalThresholdMs != null &&
+                criticalThresholdMs > 0 &&
+                responseTimeMs >= criticalThresholdMs;
+            if (!success) {
+                failingSince = failures++ == 0 ? executedAt : failingSince;
+                slowChecks = 0;
+                healthyChecks = 0;
+            } else if (slow) {
+                slowSince = slowChecks++ == 0 ? executedAt : slowSince;
+                failures = 0;
+                healthyChecks = 0;
+            } else {
+                healthySince = healthyChecks++ == 0 ? executedAt : healthySince;
+                failures = 0;
+                slowChecks = 0;
+            }
+
+            if (cause != IncidentCause.FAILURES && failures >= rules.getFailureThreshold()) {
+                cause = IncidentCause.FAILURES;
+                return new Transition(monitorId, agentId, cause, failingSince, responseStatusCode, ++transitions);
+            }
+            if (cause == null && rules.getLatencyThreshold() > 0 && slowChecks >= rules.getLatencyThreshold()) {
+                cause = IncidentCause.LATENCY;
+                return new Transition(monitorId, agentId, cause, slowSince, responseStatusCode, ++transitions);
+            }
+            if (cause != null && healthyChecks >= rules.getRecoveryThreshold()) {
+                cause = null;
+                return new Transition(monitorId, agentId, null, healthySince, responseStatusCode, ++transitions);
+            }
+            return null;
+        }
+
+        IncidentCause getCause() {
+            return cause;
+        }
+    }
+
+    /**
+     * An incident opened, escalated or closed, to be written.
+     */
+    static final class Transition {
+
+        private final Long monitorId;
+        private final Long agentId;
+        private final IncidentCause cause;
+        private final Instant at;
+        private final Integer responseStatusCode;
+        private final int sequence;
+        private int attempts;
+
+        Transition(Long monitorId, Long agentId, IncidentCause cause, Instant at, Integer responseStatusCode, int sequence) {
+            this.monitorId = monitorId;
+            this.agentId = agentId;
+            this.cause = cause;
+            this.at = at;
+            this.responseStatusCode = responseStatusCode;
+            this.sequence = sequence;
+        }
+
+        boolean sameIncident(Transition other) {
+            return monitorId.equals(other.monitorId) && agentId.equals(other.agentId);
+        }
+
+        IncidentCause getCause() {
+            return cause;
+        }
+
+        Instant getAt() {
+            return at;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "Transition{" +
+                "monitorId=" + monitorId +
+                ", agentId=" + agentId +
+                ", cause=" + cause +
+                ", at=" + at +
+                "}";
+        }
+    }
+}
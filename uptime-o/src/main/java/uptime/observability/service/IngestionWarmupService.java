@@ -0,0 +1,115 @@
+package uptime.observability.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uptime.observability.domain.RawJson;
+import uptime.observability.repository.HeartbeatRunRepository;
+import uptime.observability.service.dto.AgentDTO;
+import uptime.observability.service.dto.HttpHeartbeatDTO;
+import uptime.observability.service.dto.HttpMonitorDTO;
+import uptime.observability.service.mapper.HttpHeartbeatMapper;
+
+/**
+ * Warms the heartbeat ingestion path once the application is started, before it is reported ready.
+ * <p>
+ * A sample heartbeat, for a monitor and agent that do not exist, goes through JSON binding, validation,
+ * mapping, the fencing token check and the run lookup, in a transaction rolled back at the end. The
+ * first agents submitting after a restart then find the serializers, validator metadata, query plans and
+ * pooled connections ready, instead of paying for them while their retries pile up.
+ */
+@Service
+public class IngestionWarmupService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngestionWarmupService.class);
+
+    private static final long SAMPLE_ID = -1L;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final HttpHeartbeatMapper httpHeartbeatMapper;
+
+    private final AgentLeaseService agentLeaseService;
+
+    private final HeartbeatRunService heartbeatRunService;
+
+    private final HeartbeatRunRepository heartbeatRunRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean warm;
+
+    public IngestionWarmupService(
+        ObjectMapper objectMapper,
+        Validator validator,
+        HttpHeartbeatMapper httpHeartbeatMapper,
+        AgentLeaseService agentLeaseService,
+        HeartbeatRunService heartbeatRunService,
+        HeartbeatRunRepository heartbeatRunRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.httpHeartbeatMapper = httpHeartbeatMapper;
+        this.agentLeaseService = agentLeaseService;
+        this.heartbeatRunService = heartbeatRunService;
+        this.heartbeatRunRepository = heartbeatRunRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return whether the ingestion path was warmed, or the attempt to warm it is over.
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        try {
+            HttpHeartbeatDTO heartbeat = objectMapper.readValue(objectMapper.writeValueAsBytes(sample()), HttpHeartbeatDTO.class);
+            validator.validate(heartbeat);
+            httpHeartbeatMapper.toEntity(heartbeat);
+            transactionTemplate.executeWithoutResult(status -> {
+                agentLeaseService.isStale(SAMPLE_ID, SAMPLE_ID);
+                heartbeatRunService.fold(heartbeat);
+                heartbeatRunRepository.findOpenForUpdate(SAMPLE_ID, SAMPLE_ID);
+                status.setRollbackOnly();
+            });
+            LOG.info("Warmed the ingestion path in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            // Readiness still depends on the database health, the first heartbeats will only be slower
+            LOG.warn("Could not warm the ingestion path: {}", e.getMessage());
+        } finally {
+            warm = true;
+        }
+    }
+
+    private static HttpHeartbeatDTO sample() {
+        HttpMonitorDTO monitor = new HttpMonitorDTO();
+        monitor.setId(SAMPLE_ID);
+        AgentDTO agent = new AgentDTO();
+        agent.setId(SAMPLE_ID);
+        HttpHeartbeatDTO heartbeat = new HttpHeartbeatDTO();
+        heartbeat.setExecutedAt(Instant.now());
+        heartbeat.setSuccess(true);
+        heartbeat.setResponseTimeMs(1);
+        heartbeat.setResponseStatusCode(200);
+        heartbeat.setRawResponseHeaders(RawJson.of("{\"content-type\":\"application/json\"}"));
+        heartbeat.setRawResponseBody(RawJson.of("{\"status\":\"UP\"}"));
+        heartbeat.setMonitor(monitor);
+        heartbeat.setAgent(agent);
+        heartbeat.setFencingToken(SAMPLE_ID);
+        return heartbeat;
+    }
+}
@@ -0,0 +1,273 @@
+package uptime.observability.service;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import uptime.observability.management.IngestionMetersService;
+import uptime.observability.repository.HttpHeartbeatRepository;
+import uptime.observability.service.dto.FleetStatusSummaryDTO;
+import uptime.observability.service.dto.MonitorLiveStatusDTO;
+import uptime.observability.service.event.ClusterResyncEvent;
+import uptime.observability.service.event.HeartbeatIngestedEvent;
+import uptime.observability.service.event.LiveStatusUpdateEvent;
+import uptime.observability.service.event.MonitorDeletedEvent;
+import uptime.observability.service.event.RemoteChangesEvent;
+
+/**
+ * Coalesces ingested heartbeats into one status update per monitor per flush interval.
+ * <p>
+ * Heartbeats are folded into a small per-monitor window on the ingest thread; the scheduled
+ * {@link #flush()} drains the windows and publishes a single {@link LiveStatusUpdateEvent},
+ * so push consumers see at most one frame per monitor per interval regardless of check volume.
+ * <p>
+ * Heartbeats ingested by other instances arrive already coalesced through the {@link ClusterEventBus}, and
+ * are merged into the same windows, so that every instance pushes the status of the whole fleet. The fleet totals
+ * start from the latest stored heartbeat of each monitor, so monitors that have not reported since startup count too.
+ */
+@Service
+public class LiveStatusService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LiveStatusService.class);
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final HttpHeartbeatRepository httpHeartbeatRepository;
+
+    private final Map<Long, StatusWindow> pendingWindows = new ConcurrentHashMap<>();
+
+    private final Map<Long, Boolean> lastKnownStatus = new ConcurrentHashMap<>();
+
+    public LiveStatusService(
+        ApplicationEventPublisher eventPublisher,
+        IngestionMetersService ingestionMetersService,
+        HttpHeartbeatRepository httpHeartbeatRepository
+    ) {
+        this.eventPublisher = eventPublisher;
+        this.httpHeartbeatRepository = httpHeartbeatRepository;
+        ingestionMetersService.registerQueue("live-status", pendingWindows::size);
+    }
+
+    /**
+     * Fold a heartbeat into the pending window of its monitor, once the ingest transaction committed.
+     *
+     * @param event the ingested heartbeat.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHeartbeatIngested(HeartbeatIngestedEvent event) {
+        if (event.getMonitorId() == null) {
+            return;
+        }
+        pendingWindows.compute(event.getMonitorId(), (monitorId, window) -> {
+            StatusWindow target = window != null ? window : new StatusWindow();
+            target.add(event);
+            return target;
+        });
+    }
+
+    /**
+     * Merge the windows coalesced by another instance into the pending windows, and leave the monitors it deleted
+     * out of the fleet status.
+     *
+     * @param event the changes of the other instance.
+     */
+    @EventListener
+    public void onRemoteChanges(RemoteChangesEvent event) {
+        onRemoteWindows(event.getWindows());
+        event.getDeletedMonitorIds().forEach(this::forget);
+    }
+
+    /**
+     * Leave a monitor out of the fleet status once its deletion committed.
+     *
+     * @param event the deleted monitor.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMonitorDeleted(MonitorDeletedEvent event) {
+        forget(event.getMonitorId());
+    }
+
+    /**
+     * Take the status of every monitor from its latest stored heartbeat, at startup and whenever changes of other
+     * instances may have been missed. Windows still pending overwrite it on the next flush.
+     */
+    @EventListener({ ApplicationReadyEvent.class, ClusterResyncEvent.class })
+    public void restore() {
+        Map<Long, Boolean> latest = new HashMap<>();
+        for (Object[] row : httpHeartbeatRepository.findLatestSuccessPerMonitor()) {
+            if (row[1] != null) {
+                latest.put(((Number) row[0]).longValue(), (Boolean) row[1]);
+            }
+        }
+        // Monitors deleted while changes were missed have no row left
+        lastKnownStatus.keySet().retainAll(latest.keySet());
+        lastKnownStatus.putAll(latest);
+        LOG.debug("Restored the status of {} monitors", latest.size());
+    }
+
+    void onRemoteWindows(Map<Long, StatusWindow> windows) {
+        windows.forEach((monitorId, remote) ->
+            pendingWindows.compute(monitorId, (id, window) -> {
+                if (window == null) {
+                    return remote;
+                }
+                window.merge(remote);
+                return window;
+            })
+        );
+    }
+
+    private void forget(Long monitorId) {
+        pendingWindows.remove(monitorId);
+        lastKnownStatus.remove(monitorId);
+    }
+
+    /**
+     * Drain all pending windows and publish the coalesced update.
+     */
+    @Scheduled(fixedDelayString = "${application.live-status.flush-interval-ms:1000}")
+    public void flush() {
+        if (pendingWindows.isEmpty()) {
+            return;
+        }
+        List<MonitorLiveStatusDTO> updates = new ArrayList<>(pendingWindows.size());
+        long checks = 0;
+        long failures = 0;
+        long latencySum = 0;
+        long latencyCount = 0;
+        for (Long monitorId : pendingWindows.keySet()) {
+            StatusWindow window = pendingWindows.remove(monitorId);
+            if (window == null) {
+                continue;
+            }
+            updates.add(window.toDto(monitorId));
+            if (window.lastSuccess != null) {
+                lastKnownStatus.put(monitorId, window.lastSuccess);
+            }
+            checks += window.checks;
+            failures += window.failures;
+            latencySum += window.latencySum;
+            latencyCount += window.latencyCount;
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        FleetStatusSummaryDTO fleet = new FleetStatusSummaryDTO();
+        fleet.setGeneratedAt(Instant.now());
+        int up = 0;
+        int down = 0;
+        for (Boolean status : lastKnownStatus.values()) {
+            if (Boolean.TRUE.equals(status)) {
+                up++;
+            } else {
+                down++;
+            }
+        }
+        fleet.setTotalMonitors(up + down);
+        fleet.setMonitorsUp(up);
+        fleet.setMonitorsDown(down);
+        fleet.setChecks(checks);
+        fleet.setFailures(failures);
+        fleet.setAvgResponseTimeMs(latencyCount > 0 ? (double) latencySum / latencyCount : null);
+
+        LOG.trace("Publishing live status for {} monitors", updates.size());
+        eventPublisher.publishEvent(new LiveStatusUpdateEvent(updates, fleet));
+    }
+
+    /**
+     * Mutable accumulator for one monitor; only touched inside {@link ConcurrentHashMap#compute}
+     * or after it has been atomically removed from the map. Sent to other instances as a JSON array.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY, getterVisibility = JsonAutoDetect.Visibility.NONE)
+    @JsonPropertyOrder(
+        {
+            "checks", "failures", "latencySum", "latencyCount", "minLatency", "maxLatency",
+            "lastCheckedAt", "lastAgentId", "lastSuccess", "lastStatusCode", "lastResponseTimeMs"
+        }
+    )
+    public static final class StatusWindow {
+
+        private long checks;
+        private long failures;
+        private long latencySum;
+        private long latencyCount;
+        private int minLatency = Integer.MAX_VALUE;
+        private int maxLatency = Integer.MIN_VALUE;
+        private Instant lastCheckedAt;
+        private Long lastAgentId;
+        private Boolean lastSuccess;
+        private Integer lastStatusCode;
+        private Integer lastResponseTimeMs;
+
+        void add(HeartbeatIngestedEvent event) {
+            checks++;
+            if (!Boolean.TRUE.equals(event.getSuccess())) {
+                failures++;
+            }
+            Integer latency = event.getResponseTimeMs();
+            if (latency != null) {
+                latencySum += latency;
+                latencyCount++;
+                minLatency = Math.min(minLatency, latency);
+                maxLatency = Math.max(maxLatency, latency);
+            }
+            // Batches may arrive out of order; the newest execution wins the "last" fields
+            if (lastCheckedAt == null || (event.getExecutedAt() != null && !event.getExecutedAt().isBefore(lastCheckedAt))) {
+                lastCheckedAt = event.getExecutedAt();
+                lastAgentId = event.getAgentId();
+                lastSuccess = event.getSuccess();
+                lastStatusCode = event.getResponseStatusCode();
+                lastResponseTimeMs = latency;
+            }
+        }
+
+        void merge(StatusWindow other) {
+            checks += other.checks;
+            failures += other.failures;
+            latencySum += other.latencySum;
+            latencyCount += other.latencyCount;
+            minLatency = Math.min(minLatency, other.minLatency);
+            maxLatency = Math.max(maxLatency, other.maxLatency);
+            if (lastCheckedAt == null || (other.lastCheckedAt != null && !other.lastCheckedAt.isBefore(lastCheckedAt))) {
+                lastCheckedAt = other.lastCheckedAt;
+                lastAgentId = other.lastAgentId;
+                lastSuccess = other.lastSuccess;
+                lastStatusCode = other.lastStatusCode;
+                lastResponseTimeMs = other.lastResponseTimeMs;
+            }
+        }
+
+        MonitorLiveStatusDTO toDto(Long monitorId) {
+            MonitorLiveStatusDTO dto = new MonitorLiveStatusDTO();
+            dto.setMonitorId(monitorId);
+            dto.setLastAgentId(lastAgentId);
+            dto.setLastCheckedAt(lastCheckedAt);
+            dto.setLastSuccess(lastSuccess);
+            dto.setLastStatusCode(lastStatusCode);
+            dto.setLastResponseTimeMs(lastResponseTimeMs);
+            dto.setChecks(checks);
+            dto.setFailures(failures);
+            if (latencyCount > 0) {
+                dto.setMinResponseTimeMs(minLatency);
+                dto.setMaxResponseTimeMs(maxLatency);
+                dto.setAvgResponseTimeMs((double) latencySum / latencyCount);
+            }
+            return dto;
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import uptime.observability.domain.*;
+import uptime.observability.management.IngestionMetersService;
 import uptime.observability.repository.*;
 import uptime.observability.service.dto.*;
 
@@ -27,6 +28,12 @@ public class MonitorDetailService {
     @Autowired
     private HttpHeartbeatRepository httpHeartbeatRepository;
 
+    @Autowired
+    private HeartbeatRunRepository heartbeatRunRepository;
+
+    @Autowired
+    private IngestionMetersService ingestionMetersService;
+
     /**
      * Get detailed monitor information with statistics
      */
@@ -36,28 +43,20 @@ public class MonitorDetailService {
 
         // Get recent heartbeats with LIMIT in query
         List<HttpHeartbeat> heartbeats = httpHeartbeatRepository.findByMonitorIdOrderByExecutedAtDesc(monitorId);
-        heartbeats = heartbeats.stream().limit(1000).collect(Collectors.toList());
+        ingestionMetersService.trackQueryRows("monitor-detail", heartbeats.size());
+        // Healthy checks folded into runs, on schedules with change-only storage, count through the runs' aggregates
+        List<HeartbeatRun> runs = HeartbeatRunService.within(heartbeats, 1000, heartbeatRunRepository.findRecentByMonitorId(monitorId));
 
         // Calculate statistics
-        Long totalChecks = (long) heartbeats.size();
-        Long successfulChecks = heartbeats.stream().filter(h -> Boolean.TRUE.equals(h.getSuccess())).count();
-        Long failedChecks = totalChecks - successfulChecks;
-        
-        Double averageResponseTime = heartbeats.stream()
-            .filter(h -> h.getResponseTimeMs() != null)
-            .mapToInt(HttpHeartbeat::getResponseTimeMs)
-            .average()
-            .orElse(0.0);
-
-        Double uptimePercentage = totalChecks > 0 ? (successfulChecks * 100.0) / totalChecks : 0.0;
-
-        // Get last check info
-        Instant lastCheckedAt = heartbeats.isEmpty() ? null : heartbeats.get(0).getExecutedAt();
-        Boolean lastSuccess = heartbeats.isEmpty() ? null : heartbeats.get(0).getSuccess();
+        CheckStatistics statistics = new CheckStatistics();
+        heartbeats.forEach(statistics::add);
+        runs.forEach(statistics::add);
 
         // Get unique regions and agents
-        List<String> regions = heartbeats.stream()
-            .map(h -> h.getAgent())
+        List<Agent> checkAgents = new ArrayList<>();
+        heartbeats.forEach(h -> checkAgents.add(h.getAgent()));
+        runs.forEach(r -> checkAgents.add(r.getAgent()));
+        List<String> regions = checkAgents.stream()
             .filter(Objects::nonNull)
             .map(Agent::getDatacenter)
             .filter(Objects::nonNull)
@@ -68,8 +67,7 @@ public class MonitorDetailService {
             .sorted()
             .collect(Collectors.toList());
 
-        List<String> agents = heartbeats.stream()
-            .map(h -> h.getAgent())
+        List<String> agents = checkAgents.stream()
             .filter(Objects::nonNull)
             .map(Agent::getName)
             .distinct()
@@ -88,13 +86,13 @@ public class MonitorDetailService {
             monitor.getSchedule() != null ? monitor.getSchedule().getThresholdsCritical() : null,
             null, // createdAt - no field for this in entity
             null, // updatedAt - no field for this in entity
-            totalChecks,
-            successfulChecks,
-            failedChecks,
-            averageResponseTime,
-            uptimePercentage,
-            lastCheckedAt,
-            lastSuccess
+            statistics.getTotalChecks(),
+            statistics.getSuccessfulChecks(),
+            statistics.getFailedChecks(),
+            statistics.getAverageResponseTime(),
+            statistics.getUptimePercentage(),
+            statistics.getLastCheckedAt(),
+            statistics.getLastSuccess()
         );
         
         dto.setRegions(regions);
@@ -113,95 +111,91 @@ public class MonitorDetailService {
         Integer criticalThreshold = monitor != null && monitor.getSchedule() != null ? monitor.getSchedule().getThresholdsCritical() : null;
 
         // Get heartbeats with LIMIT
+        Instant from = startTime != null ? startTime : Instant.EPOCH;
+        Instant to = endTime != null ? endTime : Instant.now();
         List<HttpHeartbeat> heartbeats = httpHeartbeatRepository
-            .findByMonitorIdAndExecutedAtBetweenOrderByExecutedAtDesc(
-                monitorId, 
-                startTime != null ? startTime : Instant.EPOCH, 
-                endTime != null ? endTime : Instant.now()
-            )
-            .stream()
-            .limit(5000) // Hard limit to prevent OOM
-            .collect(Collectors.toList());
+            .findByMonitorIdAndExecutedAtBetweenOrderByExecutedAtDesc(monitorId, from, to);
+        ingestionMetersService.trackQueryRows("agent-metrics", heartbeats.size());
+        List<HeartbeatRun> runs = HeartbeatRunService.within(
+            heartbeats,
+            5000,
+            heartbeatRunRepository.findByMonitorIdBetween(monitorId, from, to)
+        );
 
         // Filter by region if specified
         if (agentRegion != null && !agentRegion.isEmpty() && !agentRegion.equalsIgnoreCase("all")) {
             heartbeats = heartbeats.stream()
-                .filter(h -> h.getAgent() != null && 
-                           h.getAgent().getDatacenter() != null && 
-                           h.getAgent().getDatacenter().getRegion() != null && 
-                           agentRegion.equals(h.getAgent().getDatacenter().getRegion().getName()))
+                .filter(h -> isInRegion(h.getAgent(), agentRegion))
+                .collect(Collectors.toList());
+            runs = runs.stream()
+                .filter(r -> isInRegion(r.getAgent(), agentRegion))
                 .collect(Collectors.toList());
         }
 
+        return aggregateAgentMetrics(heartbeats, runs, warningThreshold, criticalThreshold);
+    }
+
+    private static boolean isInRegion(Agent agent, String region) {
+        return agent != null &&
+            agent.getDatacenter() != null &&
+            agent.getDatacenter().getRegion() != null &&
+            region.equals(agent.getDatacenter().getRegion().getName());
+    }
+
+    /**
+     * Aggregate heartbeats and runs into per-agent metrics, sorted by region then agent name
+     */
+    static List<AgentMetricsDTO> aggregateAgentMetrics(
+        List<HttpHeartbeat> heartbeats,
+        List<HeartbeatRun> runs,
+        Integer warningThreshold,
+        Integer criticalThreshold
+    ) {
         // Group by agent
-        Map<String, List<HttpHeartbeat>> heartbeatsByAgent = heartbeats.stream()
-            .filter(h -> h.getAgent() != null)
-            .collect(Collectors.groupingBy(h -> h.getAgent().getName()));
+        Map<String, Agent> agentsByName = new HashMap<>();
+        Map<String, CheckStatistics> statisticsByAgent = new HashMap<>();
+        for (HttpHeartbeat heartbeat : heartbeats) {
+            if (heartbeat.getAgent() != null) {
+                agentsByName.putIfAbsent(heartbeat.getAgent().getName(), heartbeat.getAgent());
+                statisticsByAgent.computeIfAbsent(heartbeat.getAgent().getName(), name -> new CheckStatistics()).add(heartbeat);
+            }
+        }
+        for (HeartbeatRun run : runs) {
+            if (run.getAgent() != null) {
+                agentsByName.putIfAbsent(run.getAgent().getName(), run.getAgent());
+                statisticsByAgent.computeIfAbsent(run.getAgent().getName(), name -> new CheckStatistics()).add(run);
+            }
+        }
 
         // Build agent metrics
         List<AgentMetricsDTO> agentMetrics = new ArrayList<>();
         
-        for (Map.Entry<String, List<HttpHeartbeat>> entry : heartbeatsByAgent.entrySet()) {
-            List<HttpHeartbeat> agentHeartbeats = entry.getValue();
-            if (agentHeartbeats.isEmpty()) continue;
-
-            Agent agent = agentHeartbeats.get(0).getAgent();
+        for (Map.Entry<String, CheckStatistics> entry : statisticsByAgent.entrySet()) {
+            CheckStatistics statistics = entry.getValue();
+            Agent agent = agentsByName.get(entry.getKey());
             Datacenter datacenter = agent.getDatacenter();
             Region region = datacenter != null ? datacenter.getRegion() : null;
 
-            Long totalChecks = (long) agentHeartbeats.size();
-            Long successfulChecks = agentHeartbeats.stream().filter(h -> Boolean.TRUE.equals(h.getSuccess())).count();
-            Long failedChecks = totalChecks - successfulChecks;
-
             // Calculate warning and critical counts
-            Long warningChecks = warningThreshold != null ? agentHeartbeats.stream()
-                .filter(h -> h.getResponseTimeMs() != null && h.getResponseTimeMs() >= warningThreshold && 
-                           (criticalThreshold == null || h.getResponseTimeMs() < criticalThreshold))
-                .count() : 0L;
-
-            Long criticalChecks = criticalThreshold != null ? agentHeartbeats.stream()
-                .filter(h -> h.getResponseTimeMs() != null && h.getResponseTimeMs() >= criticalThreshold)
-                .count() : 0L;
-
-            Double averageResponseTime = agentHeartbeats.stream()
-                .filter(h -> h.getResponseTimeMs() != null)
-                .mapToInt(HttpHeartbeat::getResponseTimeMs)
-                .average()
-                .orElse(0.0);
-
-            Double uptimePercentage = totalChecks > 0 ? (successfulChecks * 100.0) / totalChecks : 0.0;
-
-            // Calculate percentiles
-            List<Integer> responseTimes = agentHeartbeats.stream()
-                .filter(h -> h.getResponseTimeMs() != null)
-                .map(HttpHeartbeat::getResponseTimeMs)
-                .sorted()
-                .collect(Collectors.toList());
-
-            Integer p95 = calculatePercentile(responseTimes, 95);
-            Integer p99 = calculatePercentile(responseTimes, 99);
-
-            // Get latest check
-            Instant lastCheckedAt = agentHeartbeats.get(0).getExecutedAt();
-            Boolean lastSuccess = agentHeartbeats.get(0).getSuccess();
-            Integer lastResponseTime = agentHeartbeats.get(0).getResponseTimeMs();
+            Long warningChecks = warningThreshold != null ? statistics.countResponseTimes(warningThreshold, criticalThreshold) : 0L;
+            Long criticalChecks = criticalThreshold != null ? statistics.countResponseTimes(criticalThreshold, null) : 0L;
 
             AgentMetricsDTO dto = new AgentMetricsDTO(
                 agent.getName(),
                 region != null ? region.getName() : null,
                 datacenter != null ? datacenter.getName() : null,
-                totalChecks,
-                successfulChecks,
-                failedChecks,
+                statistics.getTotalChecks(),
+                statistics.getSuccessfulChecks(),
+                statistics.getFailedChecks(),
                 warningChecks,
                 criticalChecks,
-                averageResponseTime,
-                uptimePercentage,
-                p95,
-                p99,
-                lastCheckedAt,
-                lastSuccess,
-                lastResponseTime
+                statistics.getAverageResponseTime(),
+                statistics.getUptimePercentage(),
+                statistics.percentile(95),
+                statistics.percentile(99),
+                statistics.getLastCheckedAt(),
+                statistics.getLastSuccess(),
+                statistics.getLastResponseTime()
             );
 
             agentMetrics.add(dto);
@@ -220,64 +214,76 @@ public class MonitorDetailService {
      */
     public List<TimeSeriesDataDTO> getTimeSeriesData(Long monitorId, Instant startTime, Instant endTime, String agentRegion) {
 
+        Instant from = startTime != null ? startTime : Instant.EPOCH;
+        Instant to = endTime != null ? endTime : Instant.now();
         List<HttpHeartbeat> heartbeats = httpHeartbeatRepository
-            .findByMonitorIdAndExecutedAtBetweenOrderByExecutedAtDesc(
-                monitorId, 
-                startTime != null ? startTime : Instant.EPOCH, 
-                endTime != null ? endTime : Instant.now()
-            );
+            .findByMonitorIdAndExecutedAtBetweenOrderByExecutedAtDesc(monitorId, from, to);
+        ingestionMetersService.trackQueryRows("time-series", heartbeats.size());
+        List<HeartbeatRun> runs = HeartbeatRunService.within(
+            heartbeats,
+            5000,
+            heartbeatRunRepository.findByMonitorIdBetween(monitorId, from, to)
+        );
 
         // Filter by region if specified
         if (agentRegion != null && !agentRegion.isEmpty() && !agentRegion.equalsIgnoreCase("all")) {
             heartbeats = heartbeats.stream()
-                .filter(h -> h.getAgent() != null && 
-                           h.getAgent().getDatacenter() != null && 
-                           h.getAgent().getDatacenter().getRegion() != null && 
-                           agentRegion.equals(h.getAgent().getDatacenter().getRegion().getName()))
+                .filter(h -> isInRegion(h.getAgent(), agentRegion))
+                .collect(Collectors.toList());
+            runs = runs.stream()
+                .filter(r -> isInRegion(r.getAgent(), agentRegion))
                 .collect(Collectors.toList());
         }
 
+        // One point per stored heartbeat, and one per run, at its end, with its average response time
+        List<TimeSeriesDataDTO> points = new ArrayList<>(heartbeats.size() + runs.size());
+        heartbeats.forEach(h -> points.add(toTimeSeriesData(h)));
+        runs.forEach(r -> points.add(toTimeSeriesData(r)));
+        points.sort(Comparator.comparing(TimeSeriesDataDTO::getTimestamp, Comparator.nullsLast(Comparator.reverseOrder())));
+
         // Limit to 500 records for performance
-        return heartbeats.stream()
+        return points.stream()
             .limit(500)
-            .map(h -> {
-                Agent agent = h.getAgent();
-                Region region = agent != null && agent.getDatacenter() != null ? 
-                    agent.getDatacenter().getRegion() : null;
-
-                return new TimeSeriesDataDTO(
-                    h.getExecutedAt(),
-                    agent != null ? agent.getName() : null,
-                    region != null ? region.getName() : null,
-                    h.getSuccess(),
-                    h.getResponseTimeMs(),
-                    h.getResponseStatusCode(),
-                    h.getErrorType(),
-                    h.getErrorMessage(),
-                    h.getResponseSizeBytes(),
-                    h.getResponseServer(),
-                    h.getResponseCacheStatus(),
-                    h.getDnsLookupMs(),
-                    h.getTcpConnectMs(),
-                    h.getTlsHandshakeMs(),
-                    h.getTimeToFirstByteMs(),
-                    h.getRawResponseHeaders(),
-                    h.getRawResponseBody()
-                );
-            })
             .collect(Collectors.toList());
     }
 
-    /**
-     * Calculate percentile from sorted list of integers
-     */
-    private Integer calculatePercentile(List<Integer> sortedValues, int percentile) {
-        if (sortedValues == null || sortedValues.isEmpty()) {
-            return null;
-        }
-        
-        int index = (int) Math.ceil((percentile / 100.0) * sortedValues.size()) - 1;
-        index = Math.max(0, Math.min(index, sortedValues.size() - 1));
-        return sortedValues.get(index);
+    private static TimeSeriesDataDTO toTimeSeriesData(HeartbeatRun run) {
+        Agent agent = run.getAgent();
+        Region region = agent != null && agent.getDatacenter() != null ? agent.getDatacenter().getRegion() : null;
+        return new TimeSeriesDataDTO(
+            run.getEndedAt(),
+            agent != null ? agent.getName() : null,
+            region != null ? region.getName() : null,
+            true,
+            CheckStatistics.averageResponseTime(run),
+            run.getResponseStatusCode(),
+            null,
+            null
+        );
+    }
+
+    private static TimeSeriesDataDTO toTimeSeriesData(HttpHeartbeat h) {
+        Agent agent = h.getAgent();
+        Region region = agent != null && agent.getDatacenter() != null ? 
+            agent.getDatacenter().getRegion() : null;
+
+        return new TimeSeriesDataDTO(
+            h.getExecutedAt(),
+            agent != null ? agent.getName() : null,
+            region != null ? region.getName() : null,
+            h.getSuccess(),
+            h.getResponseTimeMs(),
+            h.getResponseStatusCode(),
+            h.getErrorType(),
+            h.getErrorMessage(),
+            h.getResponseSizeBytes(),
+            h.getResponseServer(),
+            h.getResponseCacheStatus(),
+            h.getDnsLookupMs(),
+            h.getTcpConnectMs(),
+            h.getTlsHandshakeMs(),
+            h.getTimeToFirstByteMs(),
+            h.getId()
+        );
     }
 }
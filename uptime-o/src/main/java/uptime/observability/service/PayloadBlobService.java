@@ -0,0 +1,117 @@
+package uptime.observability.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uptime.observability.config.ApplicationProperties;
+import uptime.observability.domain.PayloadBlob;
+import uptime.observability.domain.RawJson;
+import uptime.observability.repository.PayloadBlobRepository;
+
+/**
+ * Service storing heartbeat headers and bodies as content-addressed {@link PayloadBlob}s: most checks get
+ * byte-identical responses run after run, which are then stored once and referenced by hash.
+ * <p>
+ * Each instance remembers the hashes it stored or stamped recently, once committed. A repeat within
+ * {@link #STAMP_INTERVAL} of the stamp makes no database call at all; a later one stamps the blob again, without
+ * sending the content, or stores it again if it is gone meanwhile.
+ * <p>
+ * References are not counted: payloads also go away with their heartbeats through cascades that never reach this
+ * service. Blobs no payload points to are found by the hourly sweep instead.
+ */
+@Service
+@Transactional
+public class PayloadBlobService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PayloadBlobService.class);
+
+    /**
+     * How long a blob is kept after it was last referenced, even if no committed payload points to it.
+     */
+    private static final Duration UNREFERENCED_GRACE = Duration.ofHours(1);
+
+    /**
+     * How long a stamp covers the repeats of a blob. Well below {@link #UNREFERENCED_GRACE}, so that the sweep
+     * spares a blob for as long as repeats skip the database, and until their transactions committed.
+     */
+    static final Duration STAMP_INTERVAL = Duration.ofMinutes(10);
+
+    private final PayloadBlobRepository payloadBlobRepository;
+
+    private final Map<String, Instant> recentHashes;
+
+    public PayloadBlobService(PayloadBlobRepository payloadBlobRepository, ApplicationProperties applicationProperties) {
+        this.payloadBlobRepository = payloadBlobRepository;
+        int cacheSize = applicationProperties.getIngestion().getBlobHashCacheSize();
+        this.recentHashes = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Instant> eldest) {
+                    return size() > cacheSize;
+                }
+            }
+        );
+    }
+
+    /**
+     * Add a reference to a document, storing it if needed.
+     *
+     * @param content the document.
+     * @return a reference to the blob holding the document.
+     */
+    public PayloadBlob store(RawJson content) {
+        String hash = content.sha256();
+        Instant now = Instant.now();
+        Instant stampedAt = recentHashes.get(hash);
+        if (stampedAt != null && stampedAt.isAfter(now.minus(STAMP_INTERVAL))) {
+            return payloadBlobRepository.getReferenceById(hash);
+        }
+        if (stampedAt == null || payloadBlobRepository.addReference(hash) == 0) {
+            payloadBlobRepository.upsertReference(hash, content.toString(), content.length());
+        }
+        // Remembered once committed, so that repeats never skip a blob that was rolled back
+        afterCommit(() -> recentHashes.put(hash, now));
+        return payloadBlobRepository.getReferenceById(hash);
+    }
+
+    /**
+     * Delete the documents no heartbeat references anymore, once they have not been stamped for
+     * {@link #UNREFERENCED_GRACE}.
+     * <p>
+     * This is scheduled to get fired every hour.
+     */
+    @Scheduled(cron = "0 40 * * * ?")
+    public void removeUnreferencedBlobs() {
+        int removed = payloadBlobRepository.deleteUnreferenced(Instant.now().minus(UNREFERENCED_GRACE));
+        if (removed > 0) {
+            LOG.debug("Removed {} unreferenced payload blobs", removed);
+        }
+    }
+
+    /**
+     * Run a callback once the current transaction committed, or right away outside of a transaction.
+     */
+    private static void afterCommit(Runnable callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    callback.run();
+                }
+            }
+        );
+    }
+}
@@ -0,0 +1,42 @@
+package uptime.observability.service;
+
+/**
+ * Deterministic phase offsets of monitor checks within their schedule interval.
+ * <p>
+ * Without an offset, every monitor on the same interval fires on the same wall-clock instants and the
+ * heartbeats of the whole fleet arrive in bursts. Agents instead run a check at the instants {@code t}
+ * (epoch millis) where {@code (t - phaseOffsetMs) % (interval * 1000) == 0}, so the offset alone decides
+ * the arrival slot, across agent restarts and across server instances.
+ * <p>
+ * Offsets follow an additive recurrence on the (sequential) monitor and agent ids with irrational steps,
+ * which spreads them more evenly over the interval than a random hash would.
+ */
+public final class PhaseOffsets {
+
+    // Fractional parts of the golden ratio and of sqrt(2)
+    private static final double MONITOR_STEP = 0.6180339887498949;
+    private static final double AGENT_STEP = 0.4142135623730951;
+
+    private PhaseOffsets() {}
+
+    /**
+     * Compute the phase offset of a monitor checked by an agent.
+     *
+     * @param agentId the agent id.
+     * @param monitorId the monitor id.
+     * @param intervalSeconds the schedule interval, in seconds.
+     * @return the offset in milliseconds, within {@code [0, intervalSeconds * 1000)}, or {@code 0} without interval.
+     */
+    public static long offsetMs(long agentId, long monitorId, int intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            return 0;
+        }
+        double phase = fraction(monitorId * MONITOR_STEP + agentId * AGENT_STEP);
+        long intervalMs = intervalSeconds * 1000L;
+        return Math.min((long) (phase * intervalMs), intervalMs - 1);
+    }
+
+    private static double fraction(double value) {
+        return value - Math.floor(value);
+    }
+}
@@ -0,0 +1,54 @@
+package uptime.observability.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * Rendezvous (highest random weight) hashing of monitors onto agent replicas.
+ * <p>
+ * Every replica scores every monitor and the highest score wins. When a replica joins, it only takes over
+ * the monitors it now scores highest on (about {@code 1/n} of them); when it leaves, only its own monitors
+ * move. All other assignments stay where they are, and every server instance computes the same result.
+ */
+public final class RendezvousHashing {
+
+    private RendezvousHashing() {}
+
+    /**
+     * Pick the replica owning a monitor.
+     *
+     * @param monitorId the monitor id.
+     * @param replicaIds the live replicas.
+     * @return the owner, or {@code null} if there is no replica.
+     */
+    public static String owner(long monitorId, Collection<String> replicaIds) {
+        String owner = null;
+        long best = 0;
+        for (String replicaId : replicaIds) {
+            long score = score(monitorId, replicaId);
+            // Ties (practically impossible) are broken by replica id so every instance agrees
+            if (owner == null || Long.compareUnsigned(score, best) > 0 || (score == best && replicaId.compareTo(owner) < 0)) {
+                owner = replicaId;
+                best = score;
+            }
+        }
+        return owner;
+    }
+
+    static long score(long monitorId, String replicaId) {
+        // FNV-1a over the replica id, then mixed with the monitor id; String.hashCode is too weak here
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : replicaId.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash ^ mix(monitorId));
+    }
+
+    private static long mix(long z) {
+        // SplitMix64 finalizer
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -18,6 +18,7 @@ import uptime.observability.config.Constants;
 import uptime.observability.domain.Authority;
 import uptime.observability.domain.User;
 import uptime.observability.repository.AuthorityRepository;
+import uptime.observability.repository.PrimaryRead;
 import uptime.observability.repository.UserRepository;
 import uptime.observability.security.AuthoritiesConstants;
 import uptime.observability.security.SecurityUtils;
@@ -270,22 +271,22 @@ public class UserService {
             });
     }
 
-    @Transactional(readOnly = true)
+    @PrimaryRead
     public Page<AdminUserDTO> getAllManagedUsers(Pageable pageable) {
         return userRepository.findAll(pageable).map(AdminUserDTO::new);
     }
 
-    @Transactional(readOnly = true)
+    @PrimaryRead
     public Page<UserDTO> getAllPublicUsers(Pageable pageable) {
         return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
     }
 
-    @Transactional(readOnly = true)
+    @PrimaryRead
     public Optional<User> getUserWithAuthoritiesByLogin(String login) {
         return userRepository.findOneWithAuthoritiesByLogin(login);
     }
 
-    @Transactional(readOnly = true)
+    @PrimaryRead
     public Optional<User> getUserWithAuthorities() {
         return SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findOneWithAuthoritiesByLogin);
     }
@@ -310,7 +311,7 @@ public class UserService {
      * Gets a list of all the authorities.
      * @return a list of all the authorities.
      */
-    @Transactional(readOnly = true)
+    @PrimaryRead
     public List<String> getAuthorities() {
         return authorityRepository.findAll().stream().map(Authority::getName).toList();
     }
@@ -0,0 +1,67 @@
+package uptime.observability.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Monitor configuration of an agent at a given configuration version.
+ * <p>
+ * When {@code full} is {@code false}, {@code monitors} only holds the monitors added or changed since the
+ * version the agent asked for, and {@code removedMonitorIds} those that are no longer assigned.
+ */
+public class AgentConfigDeltaDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long version;
+
+    private boolean full;
+
+    private List<MonitorConfigDTO> monitors = new ArrayList<>();
+
+    private List<Long> removedMonitorIds = new ArrayList<>();
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public void setFull(boolean full) {
+        this.full = full;
+    }
+
+    public List<MonitorConfigDTO> getMonitors() {
+        return monitors;
+    }
+
+    public void setMonitors(List<MonitorConfigDTO> monitors) {
+        this.monitors = monitors;
+    }
+
+    public List<Long> getRemovedMonitorIds() {
+        return removedMonitorIds;
+    }
+
+    public void setRemovedMonitorIds(List<Long> removedMonitorIds) {
+        this.removedMonitorIds = removedMonitorIds;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AgentConfigDeltaDTO{" +
+            "version=" + getVersion() +
+            ", full=" + isFull() +
+            ", monitors=" + getMonitors().size() +
+            ", removedMonitorIds=" + getRemovedMonitorIds() +
+            "}";
+    }
+}
@@ -0,0 +1,74 @@
+package uptime.observability.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A leadership lease held by one instance of an agent.
+ * <p>
+ * The fencing token increases every time the lease changes hands; agents send it with their heartbeats
+ * so that heartbeats from a former leader can be told apart and dropped.
+ */
+public class AgentLeaseDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long agentId;
+
+    private String holderId;
+
+    private long fencingToken;
+
+    private int ttlSeconds;
+
+    public AgentLeaseDTO() {}
+
+    public AgentLeaseDTO(Long agentId, String holderId, long fencingToken, int ttlSeconds) {
+        this.agentId = agentId;
+        this.holderId = holderId;
+        this.fencingToken = fencingToken;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public Long getAgentId() {
+        return agentId;
+    }
+
+    public void setAgentId(Long agentId) {
+        this.agentId = agentId;
+    }
+
+    public String getHolderId() {
+        return holderId;
+    }
+
+    public void setHolderId(String holderId) {
+        this.holderId = holderId;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    public void setFencingToken(long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
+
+    public int getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(int ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AgentLeaseDTO{" +
+            "agentId=" + getAgentId() +
+            ", holderId='" + getHolderId() + "'" +
+            ", fencingToken=" + getFencingToken() +
+            ", ttlSeconds=" + getTtlSeconds() +
+            "}";
+    }
+}
@@ -0,0 +1,64 @@
+package uptime.observability.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The live replicas of an agent, as seen by one of them after renewing its membership.
+ */
+public class AgentReplicaSetDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long agentId;
+
+    private String replicaId;
+
+    private List<String> replicas = new ArrayList<>();
+
+    private int ttlSeconds;
+
+    public Long getAgentId() {
+        return agentId;
+    }
+
+    public void setAgentId(Long agentId) {
+        this.agentId = agentId;
+    }
+
+    public String getReplicaId() {
+        return replicaId;
+    }
+
+    public void setReplicaId(String replicaId) {
+        this.replicaId = replicaId;
+    }
+
+    public List<String> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<String> replicas) {
+        this.replicas = replicas;
+    }
+
+    public int getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(int ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AgentReplicaSetDTO{" +
+            "agentId=" + getAgentId() +
+            ", replicaId='" + getReplicaId() + "'" +
+            ", replicas=" + getReplicas() +
+            ", ttlSeconds=" + getTtlSeconds() +
+            "}";
+    }
+}
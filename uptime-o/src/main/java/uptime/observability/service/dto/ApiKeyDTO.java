@@ -1,5 +1,6 @@
 package uptime.observability.service.dto;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import java.io.Serializable;
@@ -25,6 +26,13 @@ public class ApiKeyDTO implements Serializable {
 
     private Instant expiresAt;
 
+    // Overrides of the application.rate-limit defaults, null to use them
+    @Min(1)
+    private Integer rateLimitPerSecond;
+
+    @Min(1)
+    private Integer rateLimitBurst;
+
     private String createdBy;
 
     private Instant createdDate;
@@ -96,6 +104,22 @@ public class ApiKeyDTO implements Serializable {
         this.createdDate = createdDate;
     }
 
+    public Integer getRateLimitPerSecond() {
+        return rateLimitPerSecond;
+    }
+
+    public void setRateLimitPerSecond(Integer rateLimitPerSecond) {
+        this.rateLimitPerSecond = rateLimitPerSecond;
+    }
+
+    public Integer getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    public void setRateLimitBurst(Integer rateLimitBurst) {
+        this.rateLimitBurst = rateLimitBurst;
+    }
+
     public String getPlainTextKey() {
         return plainTextKey;
     }
@@ -113,6 +137,8 @@ public class ApiKeyDTO implements Serializable {
             ", active=" + active +
             ", lastUsedDate=" + lastUsedDate +
             ", expiresAt=" + expiresAt +
+            ", rateLimitPerSecond=" + rateLimitPerSecond +
+            ", rateLimitBurst=" + rateLimitBurst +
             ", createdBy='" + createdBy + '\'' +
             ", createdDate=" + createdDate +
             '}';
@@ -0,0 +1,89 @@
+package uptime.observability.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * DTO for the fleet-wide status summary pushed alongside per-monitor live updates.
+ */
+public class FleetStatusSummaryDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Instant generatedAt;
+    private Integer totalMonitors;
+    private Integer monitorsUp;
+    private Integer monitorsDown;
+    private Long checks;
+    private Long failures;
+    private Double avgResponseTimeMs;
+
+    public Instant getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public void setGeneratedAt(Instant generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+
+    public Integer getTotalMonitors() {
+        return totalMonitors;
+    }
+
+    public void setTotalMonitors(Integer totalMonitors) {
+        this.totalMonitors = totalMonitors;
+    }
+
+    public Integer getMonitorsUp() {
+        return monitorsUp;
+    }
+
+    public void setMonitorsUp(Integer monitorsUp) {
+        this.monitorsUp = monitorsUp;
+    }
+
+    public Integer getMonitorsDown() {
+        return monitorsDown;
+    }
+
+    public void setMonitorsDown(Integer monitorsDown) {
+        this.monitorsDown = monitorsDown;
+    }
+
+    public Long getChecks() {
+        return checks;
+    }
+
+    public void setChecks(Long checks) {
+        this.checks = checks;
+    }
+
+    public Long getFailures() {
+        return failures;
+    }
+
+    public void setFailures(Long failures) {
+        this.failures = failures;
+    }
+
+    public Double getAvgResponseTimeMs() {
+        return avgResponseTimeMs;
+    }
+
+    public void setAvgResponseTimeMs(Double avgResponseTimeMs) {
+        this.avgResponseTimeMs = avgResponseTimeMs;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FleetStatusSummaryDTO{" +
+            "generatedAt=" + generatedAt +
+            ", totalMonitors=" + totalMonitors +
+            ", monitorsUp=" + monitorsUp +
+            ", monitorsDown=" + monitorsDown +
+            ", checks=" + checks +
+            ", failures=" + failures +
+            "}";
+    }
+}
@@ -1,10 +1,10 @@
 package uptime.observability.service.dto;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.time.Instant;
 import java.util.Objects;
+import uptime.observability.domain.RawJson;
 
 /**
  * A DTO for the {@link uptime.observability.domain.HttpHeartbeat} entity.
@@ -51,16 +51,21 @@ public class HttpHeartbeatDTO implements Serializable {
 
     private String errorMessage;
 
-    private JsonNode rawRequestHeaders;
+    private RawJson rawRequestHeaders;
 
-    private JsonNode rawResponseHeaders;
+    private RawJson rawResponseHeaders;
 
-    private JsonNode rawResponseBody;
+    private RawJson rawResponseBody;
 
     private HttpMonitorDTO monitor;
 
     private AgentDTO agent;
 
+    /**
+     * Fencing token of the lease held by the submitting agent instance; not persisted.
+     */
+    private Long fencingToken;
+
     public Long getId() {
         return id;
     }
@@ -197,27 +202,27 @@ public class HttpHeartbeatDTO implements Serializable {
         this.errorMessage = errorMessage;
     }
 
-    public JsonNode getRawRequestHeaders() {
+    public RawJson getRawRequestHeaders() {
         return rawRequestHeaders;
     }
 
-    public void setRawRequestHeaders(JsonNode rawRequestHeaders) {
+    public void setRawRequestHeaders(RawJson rawRequestHeaders) {
         this.rawRequestHeaders = rawRequestHeaders;
     }
 
-    public JsonNode getRawResponseHeaders() {
+    public RawJson getRawResponseHeaders() {
         return rawResponseHeaders;
     }
 
-    public void setRawResponseHeaders(JsonNode rawResponseHeaders) {
+    public void setRawResponseHeaders(RawJson rawResponseHeaders) {
         this.rawResponseHeaders = rawResponseHeaders;
     }
 
-    public JsonNode getRawResponseBody() {
+    public RawJson getRawResponseBody() {
         return rawResponseBody;
     }
 
-    public void setRawResponseBody(JsonNode rawResponseBody) {
+    public void setRawResponseBody(RawJson rawResponseBody) {
         this.rawResponseBody = rawResponseBody;
     }
 
@@ -237,6 +242,14 @@ public class HttpHeartbeatDTO implements Serializable {
         this.agent = agent;
     }
 
+    public Long getFencingToken() {
+        return fencingToken;
+    }
+
+    public void setFencingToken(Long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,103 @@
+package uptime.observability.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+import uptime.observability.domain.RawJson;
+
+/**
+ * A DTO for the {@link uptime.observability.domain.HttpHeartbeatPayload} entity.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class HttpHeartbeatPayloadDTO implements Serializable {
+
+    private Long heartbeatId;
+
+    private RawJson rawRequestHeaders;
+
+    private RawJson rawResponseHeaders;
+
+    private RawJson rawResponseBody;
+
+    private Integer originalBytes;
+
+    private Boolean truncated;
+
+    public Long getHeartbeatId() {
+        return heartbeatId;
+    }
+
+    public void setHeartbeatId(Long heartbeatId) {
+        this.heartbeatId = heartbeatId;
+    }
+
+    public RawJson getRawRequestHeaders() {
+        return rawRequestHeaders;
+    }
+
+    public void setRawRequestHeaders(RawJson rawRequestHeaders) {
+        this.rawRequestHeaders = rawRequestHeaders;
+    }
+
+    public RawJson getRawResponseHeaders() {
+        return rawResponseHeaders;
+    }
+
+    public void setRawResponseHeaders(RawJson rawResponseHeaders) {
+        this.rawResponseHeaders = rawResponseHeaders;
+    }
+
+    public RawJson getRawResponseBody() {
+        return rawResponseBody;
+    }
+
+    public void setRawResponseBody(RawJson rawResponseBody) {
+        this.rawResponseBody = rawResponseBody;
+    }
+
+    public Integer getOriginalBytes() {
+        return originalBytes;
+    }
+
+    public void setOriginalBytes(Integer originalBytes) {
+        this.originalBytes = originalBytes;
+    }
+
+    public Boolean getTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(Boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HttpHeartbeatPayloadDTO)) {
+            return false;
+        }
+
+        HttpHeartbeatPayloadDTO payloadDTO = (HttpHeartbeatPayloadDTO) o;
+        if (this.heartbeatId == null) {
+            return false;
+        }
+        return Objects.equals(this.heartbeatId, payloadDTO.heartbeatId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.heartbeatId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "HttpHeartbeatPayloadDTO{" +
+            "heartbeatId=" + getHeartbeatId() +
+            ", originalBytes=" + getOriginalBytes() +
+            ", truncated='" + getTruncated() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,133 @@
+package uptime.observability.service.dto;
+
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import uptime.observability.domain.IncidentCause;
+
+/**
+ * A DTO for the {@link uptime.observability.domain.Incident} entity.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class IncidentDTO implements Serializable {
+
+    private Long id;
+
+    @NotNull
+    private IncidentCause cause;
+
+    @NotNull
+    private Instant openedAt;
+
+    private Instant closedAt;
+
+    private Integer responseStatusCode;
+
+    @NotNull
+    private Boolean open;
+
+    private HttpMonitorDTO monitor;
+
+    private AgentDTO agent;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public IncidentCause getCause() {
+        return cause;
+    }
+
+    public void setCause(IncidentCause cause) {
+        this.cause = cause;
+    }
+
+    public Instant getOpenedAt() {
+        return openedAt;
+    }
+
+    public void setOpenedAt(Instant openedAt) {
+        this.openedAt = openedAt;
+    }
+
+    public Instant getClosedAt() {
+        return closedAt;
+    }
+
+    public void setClosedAt(Instant closedAt) {
+        this.closedAt = closedAt;
+    }
+
+    public Integer getResponseStatusCode() {
+        return responseStatusCode;
+    }
+
+    public void setResponseStatusCode(Integer responseStatusCode) {
+        this.responseStatusCode = responseStatusCode;
+    }
+
+    public Boolean getOpen() {
+        return open;
+    }
+
+    public void setOpen(Boolean open) {
+        this.open = open;
+    }
+
+    public HttpMonitorDTO getMonitor() {
+        return monitor;
+    }
+
+    public void setMonitor(HttpMonitorDTO monitor) {
+        this.monitor = monitor;
+    }
+
+    public AgentDTO getAgent() {
+        return agent;
+    }
+
+    public void setAgent(AgentDTO agent) {
+        this.agent = agent;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IncidentDTO)) {
+            return false;
+        }
+
+        IncidentDTO incidentDTO = (IncidentDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, incidentDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "IncidentDTO{" +
+            "id=" + getId() +
+            ", cause='" + getCause() + "'" +
+            ", openedAt='" + getOpenedAt() + "'" +
+            ", closedAt='" + getClosedAt() + "'" +
+            ", responseStatusCode=" + getResponseStatusCode() +
+            ", open='" + getOpen() + "'" +
+            ", monitor=" + getMonitor() +
+            ", agent=" + getAgent() +
+            "}";
+    }
+}
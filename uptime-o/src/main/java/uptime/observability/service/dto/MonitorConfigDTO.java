@@ -0,0 +1,115 @@
+package uptime.observability.service.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.Serializable;
+
+/**
+ * Monitor configuration as handed out to agents.
+ */
+public class MonitorConfigDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+    private String name;
+    private String method;
+    private String type;
+    private String url;
+    private JsonNode additionalUrls;
+    private Integer callsPerInterval;
+    private JsonNode headers;
+    private JsonNode body;
+    private ScheduleConfigDTO schedule;
+    private Long phaseOffsetMs;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public JsonNode getAdditionalUrls() {
+        return additionalUrls;
+    }
+
+    public void setAdditionalUrls(JsonNode additionalUrls) {
+        this.additionalUrls = additionalUrls;
+    }
+
+    public Integer getCallsPerInterval() {
+        return callsPerInterval;
+    }
+
+    public void setCallsPerInterval(Integer callsPerInterval) {
+        this.callsPerInterval = callsPerInterval;
+    }
+
+    public JsonNode getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(JsonNode headers) {
+        this.headers = headers;
+    }
+
+    public JsonNode getBody() {
+        return body;
+    }
+
+    public void setBody(JsonNode body) {
+        this.body = body;
+    }
+
+    public ScheduleConfigDTO getSchedule() {
+        return schedule;
+    }
+
+    public void setSchedule(ScheduleConfigDTO schedule) {
+        this.schedule = schedule;
+    }
+
+    /**
+     * Offset within the schedule interval at which the agent runs the check, see {@link uptime.observability.service.PhaseOffsets}.
+     */
+    public Long getPhaseOffsetMs() {
+        return phaseOffsetMs;
+    }
+
+    public void setPhaseOffsetMs(Long phaseOffsetMs) {
+        this.phaseOffsetMs = phaseOffsetMs;
+    }
+}
@@ -0,0 +1,125 @@
+package uptime.observability.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * DTO for the coalesced live status of a single monitor over one flush interval.
+ */
+public class MonitorLiveStatusDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long monitorId;
+    private Long lastAgentId;
+    private Instant lastCheckedAt;
+    private Boolean lastSuccess;
+    private Integer lastStatusCode;
+    private Integer lastResponseTimeMs;
+    private Long checks;
+    private Long failures;
+    private Integer minResponseTimeMs;
+    private Integer maxResponseTimeMs;
+    private Double avgResponseTimeMs;
+
+    public Long getMonitorId() {
+        return monitorId;
+    }
+
+    public void setMonitorId(Long monitorId) {
+        this.monitorId = monitorId;
+    }
+
+    public Long getLastAgentId() {
+        return lastAgentId;
+    }
+
+    public void setLastAgentId(Long lastAgentId) {
+        this.lastAgentId = lastAgentId;
+    }
+
+    public Instant getLastCheckedAt() {
+        return lastCheckedAt;
+    }
+
+    public void setLastCheckedAt(Instant lastCheckedAt) {
+        this.lastCheckedAt = lastCheckedAt;
+    }
+
+    public Boolean getLastSuccess() {
+        return lastSuccess;
+    }
+
+    public void setLastSuccess(Boolean lastSuccess) {
+        this.lastSuccess = lastSuccess;
+    }
+
+    public Integer getLastStatusCode() {
+        return lastStatusCode;
+    }
+
+    public void setLastStatusCode(Integer lastStatusCode) {
+        this.lastStatusCode = lastStatusCode;
+    }
+
+    public Integer getLastResponseTimeMs() {
+        return lastResponseTimeMs;
+    }
+
+    public void setLastResponseTimeMs(Integer lastResponseTimeMs) {
+        this.lastResponseTimeMs = lastResponseTimeMs;
+    }
+
+    public Long getChecks() {
+        return checks;
+    }
+
+    public void setChecks(Long checks) {
+        this.checks = checks;
+    }
+
+    public Long getFailures() {
+        return failures;
+    }
+
+    public void setFailures(Long failures) {
+        this.failures = failures;
+    }
+
+    public Integer getMinResponseTimeMs() {
+        return minResponseTimeMs;
+    }
+
+    public void setMinResponseTimeMs(Integer minResponseTimeMs) {
+        this.minResponseTimeMs = minResponseTimeMs;
+    }
+
+    public Integer getMaxResponseTimeMs() {
+        return maxResponseTimeMs;
+    }
+
+    public void setMaxResponseTimeMs(Integer maxResponseTimeMs) {
+        this.maxResponseTimeMs = maxResponseTimeMs;
+    }
+
+    public Double getAvgResponseTimeMs() {
+        return avgResponseTimeMs;
+    }
+
+    public void setAvgResponseTimeMs(Double avgResponseTimeMs) {
+        this.avgResponseTimeMs = avgResponseTimeMs;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MonitorLiveStatusDTO{" +
+            "monitorId=" + monitorId +
+            ", lastCheckedAt=" + lastCheckedAt +
+            ", lastSuccess=" + lastSuccess +
+            ", checks=" + checks +
+            ", failures=" + failures +
+            ", avgResponseTimeMs=" + avgResponseTimeMs +
+            "}";
+    }
+}
@@ -0,0 +1,75 @@
+package uptime.observability.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * Schedule configuration as handed out to agents, embedded in {@link MonitorConfigDTO}.
+ */
+public class ScheduleConfigDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+    private String name;
+    private Integer interval;
+    private Integer callsPerInterval;
+    private Boolean includeResponseBody;
+    private Integer thresholdsWarning;
+    private Integer thresholdsCritical;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Integer interval) {
+        this.interval = interval;
+    }
+
+    public Integer getCallsPerInterval() {
+        return callsPerInterval;
+    }
+
+    public void setCallsPerInterval(Integer callsPerInterval) {
+        this.callsPerInterval = callsPerInterval;
+    }
+
+    public Boolean getIncludeResponseBody() {
+        return includeResponseBody;
+    }
+
+    public void setIncludeResponseBody(Boolean includeResponseBody) {
+        this.includeResponseBody = includeResponseBody;
+    }
+
+    public Integer getThresholdsWarning() {
+        return thresholdsWarning;
+    }
+
+    public void setThresholdsWarning(Integer thresholdsWarning) {
+        this.thresholdsWarning = thresholdsWarning;
+    }
+
+    public Integer getThresholdsCritical() {
+        return thresholdsCritical;
+    }
+
+    public void setThresholdsCritical(Integer thresholdsCritical) {
+        this.thresholdsCritical = thresholdsCritical;
+    }
+}
@@ -26,6 +26,11 @@ public class ScheduleDTO implements Serializable {
 
     private Integer thresholdsCritical;
 
+    @Min(value = 0)
+    private Integer maxPayloadBytes;
+
+    private Boolean changeOnlyStorage;
+
     public Long getId() {
         return id;
     }
@@ -74,6 +79,22 @@ public class ScheduleDTO implements Serializable {
         this.thresholdsCritical = thresholdsCritical;
     }
 
+    public Integer getMaxPayloadBytes() {
+        return maxPayloadBytes;
+    }
+
+    public void setMaxPayloadBytes(Integer maxPayloadBytes) {
+        this.maxPayloadBytes = maxPayloadBytes;
+    }
+
+    public Boolean getChangeOnlyStorage() {
+        return changeOnlyStorage;
+    }
+
+    public void setChangeOnlyStorage(Boolean changeOnlyStorage) {
+        this.changeOnlyStorage = changeOnlyStorage;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -105,6 +126,8 @@ public class ScheduleDTO implements Serializable {
             ", includeResponseBody='" + getIncludeResponseBody() + "'" +
             ", thresholdsWarning=" + getThresholdsWarning() +
             ", thresholdsCritical=" + getThresholdsCritical() +
+            ", maxPayloadBytes=" + getMaxPayloadBytes() +
+            ", changeOnlyStorage='" + getChangeOnlyStorage() + "'" +
             "}";
     }
 }
@@ -1,6 +1,5 @@
 package uptime.observability.service.dto;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import java.io.Serializable;
 import java.time.Instant;
 
@@ -28,8 +27,8 @@ public class TimeSeriesDataDTO implements Serializable {
     private Integer tcpConnectMs;
     private Integer tlsHandshakeMs;
     private Integer timeToFirstByteMs;
-    private JsonNode rawResponseHeaders;
-    private JsonNode rawResponseBody;
+    // Raw headers and body are fetched on demand from /api/http-heartbeats/{id}/payload
+    private Long heartbeatId;
 
     public TimeSeriesDataDTO() {}
 
@@ -55,7 +54,7 @@ public class TimeSeriesDataDTO implements Serializable {
         String errorType, String errorMessage,
         Integer responseSizeBytes, String responseServer, String responseCacheStatus,
         Integer dnsLookupMs, Integer tcpConnectMs, Integer tlsHandshakeMs,
-        Integer timeToFirstByteMs, JsonNode rawResponseHeaders, JsonNode rawResponseBody
+        Integer timeToFirstByteMs, Long heartbeatId
     ) {
         this(timestamp, agentName, agentRegion, success, responseTimeMs, 
              responseStatusCode, errorType, errorMessage);
@@ -66,8 +65,7 @@ public class TimeSeriesDataDTO implements Serializable {
         this.tcpConnectMs = tcpConnectMs;
         this.tlsHandshakeMs = tlsHandshakeMs;
         this.timeToFirstByteMs = timeToFirstByteMs;
-        this.rawResponseHeaders = rawResponseHeaders;
-        this.rawResponseBody = rawResponseBody;
+        this.heartbeatId = heartbeatId;
     }
 
     // Getters and Setters
@@ -117,11 +115,8 @@ public class TimeSeriesDataDTO implements Serializable {
     public Integer getTimeToFirstByteMs() { return timeToFirstByteMs; }
     public void setTimeToFirstByteMs(Integer timeToFirstByteMs) { this.timeToFirstByteMs = timeToFirstByteMs; }
 
-    public JsonNode getRawResponseHeaders() { return rawResponseHeaders; }
-    public void setRawResponseHeaders(JsonNode rawResponseHeaders) { this.rawResponseHeaders = rawResponseHeaders; }
-
-    public JsonNode getRawResponseBody() { return rawResponseBody; }
-    public void setRawResponseBody(JsonNode rawResponseBody) { this.rawResponseBody = rawResponseBody; }
+    public Long getHeartbeatId() { return heartbeatId; }
+    public void setHeartbeatId(Long heartbeatId) { this.heartbeatId = heartbeatId; }
 
     @Override
     public String toString() {
@@ -0,0 +1,20 @@
+package uptime.observability.service.event;
+
+import java.util.Set;
+
+/**
+ * Published by {@link uptime.observability.service.AgentConfigService} in the transaction that bumped
+ * the configuration version of some agents.
+ */
+public class AgentConfigChangedEvent {
+
+    private final Set<Long> agentIds;
+
+    public AgentConfigChangedEvent(Set<Long> agentIds) {
+        this.agentIds = agentIds;
+    }
+
+    public Set<Long> getAgentIds() {
+        return agentIds;
+    }
+}
@@ -0,0 +1,24 @@
+package uptime.observability.service.event;
+
+/**
+ * Published by {@link uptime.observability.service.AgentConfigSnapshotService} when the cached configuration
+ * snapshot of an agent moved to a newer version.
+ */
+public class AgentConfigSnapshotUpdatedEvent {
+
+    private final Long agentId;
+    private final long version;
+
+    public AgentConfigSnapshotUpdatedEvent(Long agentId, long version) {
+        this.agentId = agentId;
+        this.version = version;
+    }
+
+    public Long getAgentId() {
+        return agentId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
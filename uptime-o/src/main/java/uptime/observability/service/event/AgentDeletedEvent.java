@@ -0,0 +1,17 @@
+package uptime.observability.service.event;
+
+/**
+ * Published by {@link uptime.observability.service.AgentService} in the transaction that deleted an agent.
+ */
+public class AgentDeletedEvent {
+
+    private final Long agentId;
+
+    public AgentDeletedEvent(Long agentId) {
+        this.agentId = agentId;
+    }
+
+    public Long getAgentId() {
+        return agentId;
+    }
+}
@@ -0,0 +1,25 @@
+package uptime.observability.service.event;
+
+/**
+ * Published by {@link uptime.observability.service.AgentLeaseService} in the transaction that handed out or
+ * extended the lease of an agent.
+ */
+public class AgentLeaseAcquiredEvent {
+
+    private final Long agentId;
+
+    private final long fencingToken;
+
+    public AgentLeaseAcquiredEvent(Long agentId, long fencingToken) {
+        this.agentId = agentId;
+        this.fencingToken = fencingToken;
+    }
+
+    public Long getAgentId() {
+        return agentId;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+}
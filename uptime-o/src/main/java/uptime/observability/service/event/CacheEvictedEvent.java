@@ -0,0 +1,24 @@
+package uptime.observability.service.event;
+
+/**
+ * Published in the transaction that evicted an entry of a local Spring cache, so that the other instances
+ * evict it too once the transaction committed.
+ */
+public class CacheEvictedEvent {
+
+    private final String cacheName;
+    private final String key;
+
+    public CacheEvictedEvent(String cacheName, String key) {
+        this.cacheName = cacheName;
+        this.key = key;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
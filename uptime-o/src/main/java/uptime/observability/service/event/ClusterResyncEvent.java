@@ -0,0 +1,7 @@
+package uptime.observability.service.event;
+
+/**
+ * Published by {@link uptime.observability.service.ClusterEventBus} once it cleared the caches, as changes of other
+ * instances may have been missed.
+ */
+public class ClusterResyncEvent {}
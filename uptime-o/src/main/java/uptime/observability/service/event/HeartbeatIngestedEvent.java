@@ -0,0 +1,107 @@
+package uptime.observability.service.event;
+
+import java.time.Instant;
+import uptime.observability.service.dto.HttpHeartbeatDTO;
+
+/**
+ * Published once per persisted heartbeat so in-memory consumers (live status, streams)
+ * can react to ingestion without re-querying the heartbeat table. Heartbeats folded into a run
+ * are published too, without an id.
+ */
+public class HeartbeatIngestedEvent {
+
+    private final Long heartbeatId;
+    private final Long monitorId;
+    private final Long agentId;
+    private final Instant executedAt;
+    private final Boolean success;
+    private final Integer responseTimeMs;
+    private final Integer responseStatusCode;
+    private final Integer warningThresholdMs;
+    private final Integer criticalThresholdMs;
+
+    public HeartbeatIngestedEvent(
+        Long heartbeatId,
+        Long monitorId,
+        Long agentId,
+        Instant executedAt,
+        Boolean success,
+        Integer responseTimeMs,
+        Integer responseStatusCode,
+        Integer warningThresholdMs,
+        Integer criticalThresholdMs
+    ) {
+        this.heartbeatId = heartbeatId;
+        this.monitorId = monitorId;
+        this.agentId = agentId;
+        this.executedAt = executedAt;
+        this.success = success;
+        this.responseTimeMs = responseTimeMs;
+        this.responseStatusCode = responseStatusCode;
+        this.warningThresholdMs = warningThresholdMs;
+        this.criticalThresholdMs = criticalThresholdMs;
+    }
+
+    public static HeartbeatIngestedEvent of(HttpHeartbeatDTO heartbeat) {
+        return new HeartbeatIngestedEvent(
+            heartbeat.getId(),
+            heartbeat.getMonitor() != null ? heartbeat.getMonitor().getId() : null,
+            heartbeat.getAgent() != null ? heartbeat.getAgent().getId() : null,
+            heartbeat.getExecutedAt(),
+            heartbeat.getSuccess(),
+            heartbeat.getResponseTimeMs(),
+            heartbeat.getResponseStatusCode(),
+            heartbeat.getWarningThresholdMs(),
+            heartbeat.getCriticalThresholdMs()
+        );
+    }
+
+    public Long getHeartbeatId() {
+        return heartbeatId;
+    }
+
+    public Long getMonitorId() {
+        return monitorId;
+    }
+
+    public Long getAgentId() {
+        return agentId;
+    }
+
+    public Instant getExecutedAt() {
+        return executedAt;
+    }
+
+    public Boolean getSuccess() {
+        return success;
+    }
+
+    public Integer getResponseTimeMs() {
+        return responseTimeMs;
+    }
+
+    public Integer getResponseStatusCode() {
+        return responseStatusCode;
+    }
+
+    public Integer getWarningThresholdMs() {
+        return warningThresholdMs;
+    }
+
+    public Integer getCriticalThresholdMs() {
+        return criticalThresholdMs;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "HeartbeatIngestedEvent{" +
+            "heartbeatId=" + heartbeatId +
+            ", monitorId=" + monitorId +
+            ", agentId=" + agentId +
+            ", executedAt=" + executedAt +
+            ", success=" + success +
+            ", responseTimeMs=" + responseTimeMs +
+            "}";
+    }
+}
@@ -0,0 +1,45 @@
+package uptime.observability.service.event;
+
+import uptime.observability.domain.IncidentCause;
+
+/**
+ * Published by {@link uptime.observability.service.IncidentService} in the transaction that opened, escalated or
+ * closed the incident of a monitor and agent.
+ */
+public class IncidentChangedEvent {
+
+    private final Long monitorId;
+    private final Long agentId;
+    private final IncidentCause cause;
+
+    public IncidentChangedEvent(Long monitorId, Long agentId, IncidentCause cause) {
+        this.monitorId = monitorId;
+        this.agentId = agentId;
+        this.cause = cause;
+    }
+
+    public Long getMonitorId() {
+        return monitorId;
+    }
+
+    public Long getAgentId() {
+        return agentId;
+    }
+
+    /**
+     * @return the cause of the open incident, or {@code null} once closed.
+     */
+    public IncidentCause getCause() {
+        return cause;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "IncidentChangedEvent{" +
+            "monitorId=" + monitorId +
+            ", agentId=" + agentId +
+            ", cause=" + cause +
+            "}";
+    }
+}
@@ -0,0 +1,28 @@
+package uptime.observability.service.event;
+
+import java.util.List;
+import uptime.observability.service.dto.FleetStatusSummaryDTO;
+import uptime.observability.service.dto.MonitorLiveStatusDTO;
+
+/**
+ * Published by {@link uptime.observability.service.LiveStatusService} once per flush interval
+ * with the coalesced status of every monitor that received heartbeats during the interval.
+ */
+public class LiveStatusUpdateEvent {
+
+    private final List<MonitorLiveStatusDTO> monitors;
+    private final FleetStatusSummaryDTO fleet;
+
+    public LiveStatusUpdateEvent(List<MonitorLiveStatusDTO> monitors, FleetStatusSummaryDTO fleet) {
+        this.monitors = monitors;
+        this.fleet = fleet;
+    }
+
+    public List<MonitorLiveStatusDTO> getMonitors() {
+        return monitors;
+    }
+
+    public FleetStatusSummaryDTO getFleet() {
+        return fleet;
+    }
+}
@@ -0,0 +1,17 @@
+package uptime.observability.service.event;
+
+/**
+ * Published by {@link uptime.observability.service.HttpMonitorService} in the transaction that deleted a monitor.
+ */
+public class MonitorDeletedEvent {
+
+    private final Long monitorId;
+
+    public MonitorDeletedEvent(Long monitorId) {
+        this.monitorId = monitorId;
+    }
+
+    public Long getMonitorId() {
+        return monitorId;
+    }
+}
@@ -0,0 +1,77 @@
+package uptime.observability.service.event;
+
+import java.util.Map;
+import java.util.Set;
+import uptime.observability.domain.IncidentCause;
+import uptime.observability.service.LiveStatusService.StatusWindow;
+
+/**
+ * Published by {@link uptime.observability.service.ClusterEventBus} with the changes committed by another
+ * instance, on its listening thread and outside of any transaction.
+ */
+public class RemoteChangesEvent {
+
+    private final Set<Long> changedAgentIds;
+
+    private final Map<Long, StatusWindow> windows;
+
+    private final Map<Long, Map<Long, IncidentCause>> incidents;
+
+    private final Set<Long> deletedMonitorIds;
+
+    private final Set<Long> deletedAgentIds;
+
+    private final Map<Long, Long> fencingTokens;
+
+    public RemoteChangesEvent(
+        Set<Long> changedAgentIds,
+        Map<Long, StatusWindow> windows,
+        Map<Long, Map<Long, IncidentCause>> incidents,
+        Set<Long> deletedMonitorIds,
+        Set<Long> deletedAgentIds,
+        Map<Long, Long> fencingTokens
+    ) {
+        this.changedAgentIds = changedAgentIds;
+        this.windows = windows;
+        this.incidents = incidents;
+        this.deletedMonitorIds = deletedMonitorIds;
+        this.deletedAgentIds = deletedAgentIds;
+        this.fencingTokens = fencingTokens;
+    }
+
+    /**
+     * @return the agents whose configuration version was bumped.
+     */
+    public Set<Long> getChangedAgentIds() {
+        return changedAgentIds;
+    }
+
+    /**
+     * @return the live status windows of the heartbeats ingested, by monitor id.
+     */
+    public Map<Long, StatusWindow> getWindows() {
+        return windows;
+    }
+
+    /**
+     * @return the cause of the open incident, or {@code null} once closed, by agent id by monitor id.
+     */
+    public Map<Long, Map<Long, IncidentCause>> getIncidents() {
+        return incidents;
+    }
+
+    public Set<Long> getDeletedMonitorIds() {
+        return deletedMonitorIds;
+    }
+
+    public Set<Long> getDeletedAgentIds() {
+        return deletedAgentIds;
+    }
+
+    /**
+     * @return the fencing token of the leases handed out, by agent id.
+     */
+    public Map<Long, Long> getFencingTokens() {
+        return fencingTokens;
+    }
+}
@@ -3,6 +3,7 @@ package uptime.observability.service.impl;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -11,6 +12,7 @@ import uptime.observability.domain.Agent;
 import uptime.observability.repository.AgentRepository;
 import uptime.observability.service.AgentService;
 import uptime.observability.service.dto.AgentDTO;
+import uptime.observability.service.event.AgentDeletedEvent;
 import uptime.observability.service.mapper.AgentMapper;
 
 /**
@@ -26,9 +28,12 @@ public class AgentServiceImpl implements AgentService {
 
     private final AgentMapper agentMapper;
 
-    public AgentServiceImpl(AgentRepository agentRepository, AgentMapper agentMapper) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AgentServiceImpl(AgentRepository agentRepository, AgentMapper agentMapper, ApplicationEventPublisher eventPublisher) {
         this.agentRepository = agentRepository;
         this.agentMapper = agentMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -80,5 +85,6 @@ public class AgentServiceImpl implements AgentService {
     public void delete(Long id) {
         LOG.debug("Request to delete Agent : {}", id);
         agentRepository.deleteById(id);
+        eventPublisher.publishEvent(new AgentDeletedEvent(id));
     }
 }
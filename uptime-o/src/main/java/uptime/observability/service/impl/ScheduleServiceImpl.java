@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import uptime.observability.domain.Schedule;
 import uptime.observability.repository.ScheduleRepository;
+import uptime.observability.service.AgentConfigService;
 import uptime.observability.service.ScheduleService;
 import uptime.observability.service.dto.ScheduleDTO;
 import uptime.observability.service.mapper.ScheduleMapper;
@@ -26,9 +27,12 @@ public class ScheduleServiceImpl implements ScheduleService {
 
     private final ScheduleMapper scheduleMapper;
 
-    public ScheduleServiceImpl(ScheduleRepository scheduleRepository, ScheduleMapper scheduleMapper) {
+    private final AgentConfigService agentConfigService;
+
+    public ScheduleServiceImpl(ScheduleRepository scheduleRepository, ScheduleMapper scheduleMapper, AgentConfigService agentConfigService) {
         this.scheduleRepository = scheduleRepository;
         this.scheduleMapper = scheduleMapper;
+        this.agentConfigService = agentConfigService;
     }
 
     @Override
@@ -44,6 +48,7 @@ public class ScheduleServiceImpl implements ScheduleService {
         LOG.debug("Request to update Schedule : {}", scheduleDTO);
         Schedule schedule = scheduleMapper.toEntity(scheduleDTO);
         schedule = scheduleRepository.save(schedule);
+        agentConfigService.scheduleChanged(schedule.getId());
         return scheduleMapper.toDto(schedule);
     }
 
@@ -59,6 +64,10 @@ public class ScheduleServiceImpl implements ScheduleService {
                 return existingSchedule;
             })
             .map(scheduleRepository::save)
+            .map(saved -> {
+                agentConfigService.scheduleChanged(saved.getId());
+                return saved;
+            })
             .map(scheduleMapper::toDto);
     }
 
@@ -79,6 +88,7 @@ public class ScheduleServiceImpl implements ScheduleService {
     @Override
     public void delete(Long id) {
         LOG.debug("Request to delete Schedule : {}", id);
+        agentConfigService.scheduleChanged(id);
         scheduleRepository.deleteById(id);
     }
 }
@@ -15,6 +15,10 @@ import uptime.observability.service.dto.HttpMonitorDTO;
 public interface HttpHeartbeatMapper extends EntityMapper<HttpHeartbeatDTO, HttpHeartbeat> {
     @Mapping(target = "monitor", source = "monitor", qualifiedByName = "apiMonitorId")
     @Mapping(target = "agent", source = "agent", qualifiedByName = "agentId")
+    @Mapping(target = "fencingToken", ignore = true)
+    @Mapping(target = "rawRequestHeaders", ignore = true)
+    @Mapping(target = "rawResponseHeaders", ignore = true)
+    @Mapping(target = "rawResponseBody", ignore = true)
     HttpHeartbeatDTO toDto(HttpHeartbeat s);
 
     HttpHeartbeat toEntity(HttpHeartbeatDTO s);
@@ -0,0 +1,17 @@
+package uptime.observability.service.mapper;
+
+import org.mapstruct.*;
+import uptime.observability.domain.HttpHeartbeatPayload;
+import uptime.observability.service.dto.HttpHeartbeatPayloadDTO;
+
+/**
+ * Mapper for the entity {@link HttpHeartbeatPayload} and its DTO {@link HttpHeartbeatPayloadDTO}. Payloads are
+ * only written from the heartbeats they belong to, so there is no mapping back to the entity.
+ */
+@Mapper(componentModel = "spring")
+public interface HttpHeartbeatPayloadMapper {
+    @Mapping(target = "rawRequestHeaders", source = "requestHeaders.content")
+    @Mapping(target = "rawResponseHeaders", source = "responseHeaders.content")
+    @Mapping(target = "rawResponseBody", source = "responseBody.content")
+    HttpHeartbeatPayloadDTO toDto(HttpHeartbeatPayload s);
+}
@@ -0,0 +1,31 @@
+package uptime.observability.service.mapper;
+
+import org.mapstruct.*;
+import uptime.observability.domain.Agent;
+import uptime.observability.domain.HttpMonitor;
+import uptime.observability.domain.Incident;
+import uptime.observability.service.dto.AgentDTO;
+import uptime.observability.service.dto.HttpMonitorDTO;
+import uptime.observability.service.dto.IncidentDTO;
+
+/**
+ * Mapper for the entity {@link Incident} and its DTO {@link IncidentDTO}.
+ */
+@Mapper(componentModel = "spring")
+public interface IncidentMapper extends EntityMapper<IncidentDTO, Incident> {
+    @Mapping(target = "monitor", source = "monitor", qualifiedByName = "httpMonitorId")
+    @Mapping(target = "agent", source = "agent", qualifiedByName = "agentId")
+    IncidentDTO toDto(Incident s);
+
+    @Named("httpMonitorId")
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "id", source = "id")
+    @Mapping(target = "name", source = "name")
+    HttpMonitorDTO toDtoHttpMonitorId(HttpMonitor httpMonitor);
+
+    @Named("agentId")
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "id", source = "id")
+    @Mapping(target = "name", source = "name")
+    AgentDTO toDtoAgentId(Agent agent);
+}
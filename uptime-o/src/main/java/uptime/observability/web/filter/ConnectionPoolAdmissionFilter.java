@@ -0,0 +1,71 @@
+package uptime.observability.web.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Admits a bounded number of API requests at once, sized on the database connection pool.
+ * <p>
+ * With virtual threads there is no worker pool left to bound concurrency: a burst would start thousands of
+ * threads that all queue on a handful of connections until Hikari times them out. Requests instead wait
+ * here for a slot, and are answered with {@code 503} if none frees up in time. Long-lived responses (watch
+ * requests, event streams) only hold their slot until they go asynchronous.
+ * <p>
+ * Only used with the experimental virtual thread mode, and only while bulkheads are off, their default; with
+ * bulkheads on, {@link RequestLaneFilter} does the same per lane and this filter is not registered, so a request is
+ * never admitted twice.
+ */
+public class ConnectionPoolAdmissionFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionPoolAdmissionFilter.class);
+
+    private final Semaphore slots;
+
+    private final long admissionTimeoutMs;
+
+    public ConnectionPoolAdmissionFilter(int maxConcurrentRequests, long admissionTimeoutMs) {
+        this.slots = new Semaphore(maxConcurrentRequests);
+        this.admissionTimeoutMs = admissionTimeoutMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        boolean admitted;
+        try {
+            admitted = slots.tryAcquire(admissionTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            LOG.debug("No admission slot for {} within {} ms", request.getRequestURI(), admissionTimeoutMs);
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            slots.release();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    public int getAvailableSlots() {
+        return slots.availablePermits();
+    }
+}
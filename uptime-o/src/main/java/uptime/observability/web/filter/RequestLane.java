@@ -0,0 +1,52 @@
+package uptime.observability.web.filter;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Kinds of API traffic, each admitted and given database connections separately by the {@link RequestLaneFilter}.
+ */
+public enum RequestLane {
+    /**
+     * Heartbeats submitted by agents.
+     */
+    INGESTION,
+
+    /**
+     * Configuration polls, leases and replica registrations of agents.
+     */
+    AGENT_CONTROL,
+
+    /**
+     * Everything else: the UI, dashboards, administration and public status pages.
+     */
+    INTERACTIVE;
+
+    private static final ThreadLocal<RequestLane> CURRENT = new ThreadLocal<>();
+
+    /**
+     * @return the lane of the request handled by the current thread, or {@code null} outside of API requests,
+     *         including in {@code @Async} methods and {@code DeferredResult} completions started by one.
+     */
+    public static RequestLane current() {
+        return CURRENT.get();
+    }
+
+    static void setCurrent(RequestLane lane) {
+        if (lane == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(lane);
+        }
+    }
+
+    static RequestLane of(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (uri.startsWith("/api/agent/heartbeats") || uri.startsWith("/api/public/heartbeats")) {
+            return INGESTION;
+        }
+        if (uri.startsWith("/api/agent/") || uri.startsWith("/api/public/agents/") || uri.startsWith("/api/public/monitors")) {
+            return AGENT_CONTROL;
+        }
+        return INTERACTIVE;
+    }
+}
@@ -0,0 +1,165 @@
+package uptime.observability.web.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Bulkheads between the {@link RequestLane}s of API traffic: each lane admits a bounded number of requests at
+ * once, and the lane of the current request picks its connection pool.
+ * <p>
+ * Requests wait up to the admission timeout of their lane for a slot, and are answered with {@code 503}
+ * otherwise. Interactive requests are refused at once while requests already wait for a connection of their
+ * pool, which they share with scheduled jobs, rather than queueing up behind them. Long-lived
+ * responses (watch requests, event streams) only hold their slot until they go asynchronous.
+ */
+public class RequestLaneFilter extends OncePerRequestFilter {
+
+    public static final String REQUESTS_METER_NAME = "uptime.lane.requests";
+    public static final String REQUESTS_METER_DESCRIPTION = "API requests per lane, by admission outcome.";
+    public static final String ACTIVE_METER_NAME = "uptime.lane.requests.active";
+    public static final String ACTIVE_METER_DESCRIPTION = "API requests being handled per lane.";
+    public static final String WAITING_METER_NAME = "uptime.lane.requests.waiting";
+    public static final String WAITING_METER_DESCRIPTION = "API requests waiting for admission per lane.";
+    public static final String LIMIT_METER_NAME = "uptime.lane.requests.limit";
+    public static final String LIMIT_METER_DESCRIPTION = "API requests admitted at once per lane.";
+    public static final String LANE_DIMENSION = "lane";
+    public static final String OUTCOME_DIMENSION = "outcome";
+
+    public static final String OUTCOME_ADMITTED = "admitted";
+    public static final String OUTCOME_REJECTED = "rejected";
+    public static final String OUTCOME_SHED = "shed";
+
+    private static final Logger LOG = LoggerFactory.getLogger(RequestLaneFilter.class);
+
+    private final Map<RequestLane, Bulkhead> bulkheads;
+
+    private final BooleanSupplier interactivePoolSaturated;
+
+    public RequestLaneFilter(Map<RequestLane, Bulkhead> bulkheads, BooleanSupplier interactivePoolSaturated, MeterRegistry registry) {
+        this.bulkheads = new EnumMap<>(bulkheads);
+        this.interactivePoolSaturated = interactivePoolSaturated;
+        this.bulkheads.forEach((lane, bulkhead) -> bulkhead.register(lane, registry));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        RequestLane lane = RequestLane.of(request);
+        Bulkhead bulkhead = bulkheads.get(lane);
+        if (lane == RequestLane.INTERACTIVE && interactivePoolSaturated.getAsBoolean()) {
+            LOG.debug("Shedding {} while its pool has no connection left", request.getRequestURI());
+            bulkhead.shed.increment();
+            reject(response);
+            return;
+        }
+        if (!bulkhead.tryAcquire()) {
+            LOG.debug("No {} slot for {} within {} ms", lane, request.getRequestURI(), bulkhead.admissionTimeoutMs);
+            bulkhead.rejected.increment();
+            reject(response);
+            return;
+        }
+        RequestLane.setCurrent(lane);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestLane.setCurrent(null);
+            bulkhead.slots.release();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    private static void reject(HttpServletResponse response) {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+    }
+
+    /**
+     * Admission of one lane.
+     */
+    public static final class Bulkhead {
+
+        private final int maxConcurrentRequests;
+        private final long admissionTimeoutMs;
+        private final Semaphore slots;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private Counter admitted;
+        private Counter rejected;
+        private Counter shed;
+
+        public Bulkhead(int maxConcurrentRequests, long admissionTimeoutMs) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            this.admissionTimeoutMs = admissionTimeoutMs;
+            this.slots = new Semaphore(maxConcurrentRequests);
+        }
+
+        private void register(RequestLane lane, MeterRegistry registry) {
+            String name = lane.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            admitted = counter(registry, name, OUTCOME_ADMITTED);
+            rejected = counter(registry, name, OUTCOME_REJECTED);
+            shed = counter(registry, name, OUTCOME_SHED);
+            Gauge.builder(ACTIVE_METER_NAME, () -> maxConcurrentRequests - slots.availablePermits())
+                .description(ACTIVE_METER_DESCRIPTION)
+                .tag(LANE_DIMENSION, name)
+                .register(registry);
+            Gauge.builder(WAITING_METER_NAME, waiting::get)
+                .description(WAITING_METER_DESCRIPTION)
+                .tag(LANE_DIMENSION, name)
+                .register(registry);
+            Gauge.builder(LIMIT_METER_NAME, () -> maxConcurrentRequests)
+                .description(LIMIT_METER_DESCRIPTION)
+                .tag(LANE_DIMENSION, name)
+                .register(registry);
+        }
+
+        private static Counter counter(MeterRegistry registry, String lane, String outcome) {
+            return Counter.builder(REQUESTS_METER_NAME)
+                .description(REQUESTS_METER_DESCRIPTION)
+                .tag(LANE_DIMENSION, lane)
+                .tag(OUTCOME_DIMENSION, outcome)
+                .register(registry);
+        }
+
+        private boolean tryAcquire() {
+            boolean acquired = slots.tryAcquire();
+            if (!acquired && admissionTimeoutMs > 0) {
+                waiting.incrementAndGet();
+                try {
+                    acquired = slots.tryAcquire(admissionTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    waiting.decrementAndGet();
+                }
+            }
+            if (acquired) {
+                admitted.increment();
+            }
+            return acquired;
+        }
+
+        public int getAvailableSlots() {
+            return slots.availablePermits();
+        }
+    }
+}
@@ -3,32 +3,26 @@ package uptime.observability.web.rest;
 import jakarta.validation.Valid;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import tech.jhipster.web.util.HeaderUtil;
+import uptime.observability.management.IngestionMetersService;
+import uptime.observability.service.AgentLeaseService;
+import uptime.observability.service.AgentReplicaService;
 import uptime.observability.service.HttpHeartbeatService;
+import uptime.observability.service.dto.AgentLeaseDTO;
+import uptime.observability.service.dto.AgentReplicaSetDTO;
 import uptime.observability.service.dto.HttpHeartbeatDTO;
 import uptime.observability.web.rest.errors.BadRequestAlertException;
-import uptime.observability.repository.AgentMonitorRepository;
-import uptime.observability.domain.AgentMonitor;
-import uptime.observability.domain.HttpMonitor;
-import uptime.observability.domain.Schedule;
-import uptime.observability.web.rest.PublicMonitorResource.MonitorResponse;
-import uptime.observability.web.rest.PublicMonitorResource.ScheduleResponse;
-import com.fasterxml.jackson.databind.JsonNode;
-import java.util.List;
-import java.util.stream.Collectors;
-import uptime.observability.repository.AgentLockRepository;
-import uptime.observability.domain.AgentLock;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.Optional;
-import org.springframework.http.HttpStatus;
 
 /**
  * Agent-only REST controller for agent operations.
@@ -40,39 +34,69 @@ public class AgentApiResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(AgentApiResource.class);
     private static final String ENTITY_NAME = "httpHeartbeat";
+    static final String HEARTBEATS_DROPPED_HEADER = "X-Heartbeats-Dropped";
 
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final HttpHeartbeatService httpHeartbeatService;
-    private final AgentMonitorRepository agentMonitorRepository;
-    private final AgentLockRepository agentLockRepository;
-    private static final int LOCK_TTL_SECONDS = 60;
-
-    public AgentApiResource(HttpHeartbeatService httpHeartbeatService, AgentMonitorRepository agentMonitorRepository, AgentLockRepository agentLockRepository) {
+    private final AgentConfigResponses agentConfigResponses;
+    private final AgentConfigWatchers agentConfigWatchers;
+    private final AgentLeaseService agentLeaseService;
+    private final AgentReplicaService agentReplicaService;
+    private final IngestionMetersService ingestionMetersService;
+
+    public AgentApiResource(
+        HttpHeartbeatService httpHeartbeatService,
+        AgentConfigResponses agentConfigResponses,
+        AgentConfigWatchers agentConfigWatchers,
+        AgentLeaseService agentLeaseService,
+        AgentReplicaService agentReplicaService,
+        IngestionMetersService ingestionMetersService
+    ) {
         this.httpHeartbeatService = httpHeartbeatService;
-        this.agentMonitorRepository = agentMonitorRepository;
-        this.agentLockRepository = agentLockRepository;
+        this.agentConfigResponses = agentConfigResponses;
+        this.agentConfigWatchers = agentConfigWatchers;
+        this.agentLeaseService = agentLeaseService;
+        this.agentReplicaService = agentReplicaService;
+        this.ingestionMetersService = ingestionMetersService;
     }
 
     /**
      * {@code POST /api/agent/heartbeats} : Submit a single heartbeat from agent.
+     * Answers {@code 409} if the heartbeat carries a stale fencing token, and {@code 202} if it was folded
+     * into a run of healthy checks.
      */
     @PostMapping("/heartbeats")
-    public ResponseEntity<HttpHeartbeatDTO> submitHeartbeat(@Valid @RequestBody HttpHeartbeatDTO heartbeatDTO)
-        throws URISyntaxException {
+    public ResponseEntity<HttpHeartbeatDTO> submitHeartbeat(
+        @Valid @RequestBody HttpHeartbeatDTO heartbeatDTO,
+        @RequestAttribute(name = IngestionRequestBodyAdvice.BODY_READ_NANOS_ATTRIBUTE, required = false) Long bodyReadNanos
+    ) throws URISyntaxException {
+        ingestionMetersService.trackStageSince(IngestionMetersService.STAGE_VALIDATE, bodyReadNanos);
+        ingestionMetersService.trackBatch(1);
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String agentName = authentication != null ? authentication.getName() : "unknown-agent";
 
         LOG.debug("Agent heartbeat submission from: {}", agentName);
 
         if (heartbeatDTO.getId() != null) {
+            ingestionMetersService.trackRejected(IngestionMetersService.OUTCOME_INVALID, 1);
             throw new BadRequestAlertException("A new heartbeat cannot already have an ID", ENTITY_NAME, "idexists");
         }
 
-        HttpHeartbeatDTO result = httpHeartbeatService.save(heartbeatDTO);
+        Optional<HttpHeartbeatDTO> saved = httpHeartbeatService.saveFromAgent(heartbeatDTO);
+        if (saved.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .headers(HeaderUtil.createFailureAlert(applicationName, false, ENTITY_NAME, "stalefencingtoken", "Lease is held by another agent instance"))
+                .build();
+        }
+        HttpHeartbeatDTO result = saved.orElseThrow();
         LOG.info("Agent heartbeat submitted successfully from: {}, ID: {}", agentName, result.getId());
 
+        if (result.getId() == null) {
+            // Folded into a run of healthy checks, there is no heartbeat to point to
+            return ResponseEntity.accepted().body(result);
+        }
         return ResponseEntity.created(new URI("/api/agent/heartbeats/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
             .body(result);
@@ -80,128 +104,167 @@ public class AgentApiResource {
 
     /**
      * {@code POST /api/agent/heartbeats/batch} : Submit multiple heartbeats in batch from agent.
+     * Heartbeats carrying a stale fencing token are dropped and counted in {@code X-Heartbeats-Dropped}.
      */
     @PostMapping("/heartbeats/batch")
-    public ResponseEntity<Void> submitHeartbeatBatch(@Valid @RequestBody java.util.List<HttpHeartbeatDTO> heartbeats) {
+    public ResponseEntity<Void> submitHeartbeatBatch(
+        @Valid @RequestBody java.util.List<HttpHeartbeatDTO> heartbeats,
+        @RequestAttribute(name = IngestionRequestBodyAdvice.BODY_READ_NANOS_ATTRIBUTE, required = false) Long bodyReadNanos
+    ) {
+        ingestionMetersService.trackStageSince(IngestionMetersService.STAGE_VALIDATE, bodyReadNanos);
+        ingestionMetersService.trackBatch(heartbeats.size());
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String agentName = authentication != null ? authentication.getName() : "unknown-agent";
 
         LOG.debug("Agent batch heartbeat submission from: {}, count: {}", agentName, heartbeats.size());
 
-        for (HttpHeartbeatDTO heartbeatDTO : heartbeats) {
+        int dropped = 0;
+        for (int i = 0; i < heartbeats.size(); i++) {
+            HttpHeartbeatDTO heartbeatDTO = heartbeats.get(i);
             if (heartbeatDTO.getId() != null) {
+                // The heartbeats before it were saved already, the rest of the batch is rejected with it
+                ingestionMetersService.trackRejected(IngestionMetersService.OUTCOME_INVALID, heartbeats.size() - i);
                 throw new BadRequestAlertException("Heartbeat in batch cannot have an ID", ENTITY_NAME, "idexists");
             }
-            httpHeartbeatService.save(heartbeatDTO);
+            if (httpHeartbeatService.saveFromAgent(heartbeatDTO).isEmpty()) {
+                dropped++;
+            }
         }
 
-        LOG.info("Agent batch heartbeats submitted successfully from: {}, count: {}", agentName, heartbeats.size());
+        LOG.info("Agent batch heartbeats submitted successfully from: {}, count: {}, dropped: {}", agentName, heartbeats.size(), dropped);
 
         return ResponseEntity.ok()
-            .headers(HeaderUtil.createAlert(applicationName, "Agent batch heartbeat submission successful", String.valueOf(heartbeats.size())))
+            .headers(HeaderUtil.createAlert(applicationName, "Agent batch heartbeat submission successful", String.valueOf(heartbeats.size() - dropped)))
+            .header(HEARTBEATS_DROPPED_HEADER, String.valueOf(dropped))
             .build();
     }
 
     /**
      * {@code GET /api/agent/monitors} : Get monitors assigned to agent.
+     * Answers {@code 304} when the agent's configuration version (sent as {@code If-None-Match} or
+     * {@code sinceVersion}) is current, and only the changes when {@code sinceVersion} is older.
+     * With {@code replicaId}, only the monitors sharded to that replica are returned.
      */
     @GetMapping("/monitors")
-    public ResponseEntity<List<MonitorResponse>> getAgentMonitors(@RequestParam Long agentId) {
+    public ResponseEntity<?> getAgentMonitors(
+        @RequestParam Long agentId,
+        @RequestParam(required = false) String replicaId,
+        @RequestParam(required = false) Long sinceVersion,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String agentName = authentication != null ? authentication.getName() : "unknown-agent";
 
-        LOG.debug("Agent monitors request from: {}, agentId: {}", agentName, agentId);
-
-        List<AgentMonitor> agentMonitors = agentMonitorRepository.findByAgentIdAndActiveWithMonitorAndSchedule(agentId, true);
-
-        List<MonitorResponse> monitors = agentMonitors
-            .stream()
-            .map(am -> {
-                HttpMonitor monitor = am.getMonitor();
-                Schedule schedule = monitor.getSchedule();
-
-                MonitorResponse response = new MonitorResponse();
-                response.setId(monitor.getId());
-                response.setName(monitor.getName());
-                response.setMethod(monitor.getMethod());
-                response.setType(monitor.getType());
-                response.setUrl(monitor.getUrl());
-                response.setAdditionalUrls(monitor.getAdditionalUrls());
-                response.setCallsPerInterval(monitor.getCallsPerInterval());
-                response.setHeaders(monitor.getHeaders());
-                response.setBody(monitor.getBody());
-
-                if (schedule != null) {
-                    ScheduleResponse scheduleResponse = new ScheduleResponse();
-                    scheduleResponse.setId(schedule.getId());
-                    scheduleResponse.setName(schedule.getName());
-                    scheduleResponse.setInterval(schedule.getInterval());
-                    scheduleResponse.setIncludeResponseBody(schedule.getIncludeResponseBody());
-                    scheduleResponse.setThresholdsWarning(schedule.getThresholdsWarning());
-                    scheduleResponse.setThresholdsCritical(schedule.getThresholdsCritical());
-                    response.setSchedule(scheduleResponse);
-                }
-
-                return response;
-            })
-            .collect(Collectors.toList());
-
-        LOG.info("Found {} monitors for agent: {} from: {}", monitors.size(), agentId, agentName);
-        return ResponseEntity.ok(monitors);
+        LOG.debug("Agent monitors request from: {}, agentId: {}, sinceVersion: {}", agentName, agentId, sinceVersion);
+
+        return agentConfigResponses.build(agentId, replicaId, sinceVersion, ifNoneMatch, acceptEncoding);
     }
 
     /**
-     * {@code POST /api/agent/lock} : Acquire leadership lock for agent.
+     * {@code GET /api/agent/monitors/watch} : Long-poll variant of {@code GET /api/agent/monitors}.
+     * Parked until the agent's configuration moves past the version it sent (as {@code sinceVersion} or
+     * {@code If-None-Match}) or {@code timeoutMs} expires, then answered like a regular poll.
+     */
+    @GetMapping("/monitors/watch")
+    public DeferredResult<ResponseEntity<?>> watchAgentMonitors(
+        @RequestParam Long agentId,
+        @RequestParam(required = false) String replicaId,
+        @RequestParam(required = false) Long sinceVersion,
+        @RequestParam(required = false) Long timeoutMs,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        LOG.debug("Agent monitors watch request, agentId: {}, sinceVersion: {}, timeoutMs: {}", agentId, sinceVersion, timeoutMs);
+
+        return agentConfigWatchers.watch(agentId, replicaId, sinceVersion, ifNoneMatch, acceptEncoding, timeoutMs);
+    }
+
+    /**
+     * {@code POST /api/agent/lock} : Acquire leadership lease for agent.
+     * The same holder re-acquiring an unexpired lease keeps its fencing token and extends the lease.
+     *
+     * @param agentId the agent ID.
+     * @param holderId identifier of the agent instance; without it the lease can only be taken when free.
+     * @return 200 OK with the lease and its fencing token, 409 CONFLICT if held by another instance.
      */
     @PostMapping("/lock")
-    public ResponseEntity<Void> acquireLock(@RequestParam Long agentId) {
+    public ResponseEntity<AgentLeaseDTO> acquireLock(@RequestParam Long agentId, @RequestParam(required = false) String holderId) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String agentName = authentication != null ? authentication.getName() : "unknown-agent";
 
-        LOG.debug("Agent lock acquisition request from: {}, agentId: {}", agentName, agentId);
-
-        Optional<AgentLock> existingLock = agentLockRepository.findById(agentId);
-        Instant now = Instant.now();
-
-        if (existingLock.isPresent()) {
-            AgentLock lock = existingLock.orElseThrow();
-            // Check if lock is expired
-            if (lock.getExpiresAt().isAfter(now)) {
-                LOG.debug("Lock for agent {} is held by another instance", agentId);
-                return ResponseEntity.status(HttpStatus.CONFLICT).build();
-            }
-            // Lock expired, update it
-            lock.setAcquiredAt(now);
-            lock.setExpiresAt(now.plus(LOCK_TTL_SECONDS, ChronoUnit.SECONDS));
-            agentLockRepository.save(lock);
-            LOG.info("Agent {} acquired expired lock from: {}", agentId, agentName);
-            return ResponseEntity.ok().build();
-        }
+        LOG.debug("Agent lock acquisition request from: {}, agentId: {}, holderId: {}", agentName, agentId, holderId);
 
-        // Create new lock
-        AgentLock newLock = new AgentLock();
-        newLock.setAgentId(agentId);
-        newLock.setAcquiredAt(now);
-        newLock.setExpiresAt(now.plus(LOCK_TTL_SECONDS, ChronoUnit.SECONDS));
-        agentLockRepository.save(newLock);
+        return agentLeaseService
+            .acquire(agentId, holderId)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
 
-        LOG.info("Agent {} acquired new lock from: {}", agentId, agentName);
-        return ResponseEntity.ok().build();
+    /**
+     * {@code POST /api/agent/lock/renew} : Extend a leadership lease still held with the given fencing token.
+     *
+     * @param agentId the agent ID.
+     * @param fencingToken the fencing token returned on acquisition.
+     * @return 200 OK with the renewed lease, 409 CONFLICT if the lease expired or was taken over.
+     */
+    @PostMapping("/lock/renew")
+    public ResponseEntity<AgentLeaseDTO> renewLock(@RequestParam Long agentId, @RequestParam Long fencingToken) {
+        LOG.debug("Agent lock renewal request, agentId: {}, fencingToken: {}", agentId, fencingToken);
+
+        return agentLeaseService
+            .renew(agentId, fencingToken)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
     }
 
     /**
-     * {@code DELETE /api/agent/lock} : Release leadership lock for agent.
+     * {@code DELETE /api/agent/lock} : Release leadership lease for agent.
+     *
+     * @param agentId the agent ID.
+     * @param fencingToken the fencing token of the lease to release.
+     * @return 200 OK.
      */
     @DeleteMapping("/lock")
-    public ResponseEntity<Void> releaseLock(@RequestParam Long agentId) {
+    public ResponseEntity<Void> releaseLock(@RequestParam Long agentId, @RequestParam Long fencingToken) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String agentName = authentication != null ? authentication.getName() : "unknown-agent";
 
         LOG.debug("Agent lock release request from: {}, agentId: {}", agentName, agentId);
-        
-        agentLockRepository.deleteById(agentId);
-        
+
+        agentLeaseService.release(agentId, fencingToken);
+
         LOG.info("Agent lock released for agent: {} from: {}", agentId, agentName);
         return ResponseEntity.ok().build();
     }
-}
\ No newline at end of file
+
+    /**
+     * {@code POST /api/agent/replicas} : Join the replica set of an agent, or renew membership.
+     * Replicas renew well within {@code ttlSeconds}; the monitors of a lapsed replica move to the others.
+     *
+     * @param agentId the agent ID.
+     * @param replicaId the replica ID.
+     * @return 200 OK with the live replica set.
+     */
+    @PostMapping("/replicas")
+    public ResponseEntity<AgentReplicaSetDTO> renewReplica(@RequestParam Long agentId, @RequestParam String replicaId) {
+        LOG.debug("Agent replica renewal request, agentId: {}, replicaId: {}", agentId, replicaId);
+
+        return ResponseEntity.ok(agentReplicaService.renew(agentId, replicaId));
+    }
+
+    /**
+     * {@code DELETE /api/agent/replicas} : Leave the replica set of an agent.
+     *
+     * @param agentId the agent ID.
+     * @param replicaId the replica ID.
+     * @return 200 OK.
+     */
+    @DeleteMapping("/replicas")
+    public ResponseEntity<Void> leaveReplica(@RequestParam Long agentId, @RequestParam String replicaId) {
+        LOG.debug("Agent replica leave request, agentId: {}, replicaId: {}", agentId, replicaId);
+
+        agentReplicaService.leave(agentId, replicaId);
+        return ResponseEntity.ok().build();
+    }
+}
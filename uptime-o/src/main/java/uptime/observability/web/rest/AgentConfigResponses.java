@@ -0,0 +1,171 @@
+package uptime.observability.web.rest;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import uptime.observability.service.AgentConfigService;
+import uptime.observability.service.AgentConfigSnapshotService;
+import uptime.observability.service.AgentConfigSnapshotService.Snapshot;
+import uptime.observability.service.AgentReplicaService;
+import uptime.observability.service.RendezvousHashing;
+import uptime.observability.service.dto.AgentConfigDeltaDTO;
+import uptime.observability.service.dto.MonitorConfigDTO;
+
+/**
+ * Conditional and delta responses shared by the agent monitor configuration endpoints.
+ * <ul>
+ *     <li>every response carries the agent's configuration version as {@code ETag} and {@code X-Config-Version};</li>
+ *     <li>a matching {@code If-None-Match} (or a current {@code sinceVersion}) is answered with {@code 304};</li>
+ *     <li>without {@code sinceVersion} the body is the full list of monitors, written straight from the
+ *     in-memory snapshot (gzip-compressed when the client accepts it);</li>
+ *     <li>with {@code sinceVersion} the body is an {@link AgentConfigDeltaDTO};</li>
+ *     <li>with {@code replicaId} the body is only the share of the monitors assigned to that replica by
+ *     {@link RendezvousHashing} over the live replicas of the agent, and the {@code ETag} also covers the
+ *     replica set, so that a rebalance invalidates it ({@code sinceVersion} deltas do not apply to shards).</li>
+ * </ul>
+ */
+@Component
+class AgentConfigResponses {
+
+    static final String CONFIG_VERSION_HEADER = "X-Config-Version";
+
+    static final String SHARD_REPLICAS_HEADER = "X-Shard-Replicas";
+
+    private static final String GZIP = "gzip";
+
+    private final AgentConfigService agentConfigService;
+
+    private final AgentConfigSnapshotService agentConfigSnapshotService;
+
+    private final AgentReplicaService agentReplicaService;
+
+    AgentConfigResponses(
+        AgentConfigService agentConfigService,
+        AgentConfigSnapshotService agentConfigSnapshotService,
+        AgentReplicaService agentReplicaService
+    ) {
+        this.agentConfigService = agentConfigService;
+        this.agentConfigSnapshotService = agentConfigSnapshotService;
+        this.agentReplicaService = agentReplicaService;
+    }
+
+    ResponseEntity<?> build(Long agentId, String replicaId, Long sinceVersion, String ifNoneMatch, String acceptEncoding) {
+        Snapshot snapshot = agentConfigSnapshotService.getSnapshot(agentId);
+        if (replicaId != null && !replicaId.isBlank()) {
+            return buildShard(agentId, replicaId, snapshot, ifNoneMatch);
+        }
+        long currentVersion = snapshot.getVersion();
+        if (matches(ifNoneMatch, etag(agentId, currentVersion)) || (sinceVersion != null && sinceVersion == currentVersion)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(versionHeaders(agentId, currentVersion)).build();
+        }
+
+        if (sinceVersion != null) {
+            AgentConfigDeltaDTO delta = agentConfigService.getConfigChanges(agentId, sinceVersion);
+            return ResponseEntity.ok().headers(versionHeaders(agentId, delta.getVersion())).body(delta);
+        }
+
+        HttpHeaders headers = versionHeaders(agentId, currentVersion);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+            return ResponseEntity.ok().headers(headers).body(snapshot.getGzippedJson());
+        }
+        return ResponseEntity.ok().headers(headers).body(snapshot.getJson());
+    }
+
+    private ResponseEntity<?> buildShard(Long agentId, String replicaId, Snapshot snapshot, String ifNoneMatch) {
+        List<String> replicas = agentReplicaService.getLiveReplicas(agentId, replicaId);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag(agentId, snapshot.getVersion(), replicaId, replicas));
+        headers.set(CONFIG_VERSION_HEADER, String.valueOf(snapshot.getVersion()));
+        headers.set(SHARD_REPLICAS_HEADER, String.valueOf(replicas.size()));
+        if (matches(ifNoneMatch, headers.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+        List<MonitorConfigDTO> shard = snapshot
+            .getMonitors()
+            .stream()
+            .filter(monitor -> replicaId.equals(RendezvousHashing.owner(monitor.getId(), replicas)))
+            .collect(Collectors.toList());
+        return ResponseEntity.ok().headers(headers).body(shard);
+    }
+
+    /**
+     * Extract the configuration version from an {@code If-None-Match} value produced by {@link #build}.
+     *
+     * @return the version, or {@code null} if the value holds no ETag of this agent.
+     */
+    static Long versionFromEtag(Long agentId, String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        String prefix = "\"" + agentId + "-";
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.startsWith(prefix) && value.endsWith("\"") && value.length() > prefix.length() + 1) {
+                String version = value.substring(prefix.length(), value.length() - 1);
+                int membership = version.indexOf('-');
+                try {
+                    return Long.parseLong(membership >= 0 ? version.substring(0, membership) : version);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static HttpHeaders versionHeaders(Long agentId, long version) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag(agentId, version));
+        headers.set(CONFIG_VERSION_HEADER, String.valueOf(version));
+        return headers;
+    }
+
+    private static String etag(Long agentId, long version) {
+        return "\"" + agentId + "-" + version + "\"";
+    }
+
+    private static String etag(Long agentId, long version, String replicaId, List<String> replicas) {
+        String membership = Integer.toHexString(Objects.hash(replicaId, replicas));
+        return "\"" + agentId + "-" + version + "-" + membership + "\"";
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.trim().split(";");
+            if (GZIP.equalsIgnoreCase(parts[0].trim())) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
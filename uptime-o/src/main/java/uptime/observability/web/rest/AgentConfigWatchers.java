@@ -0,0 +1,126 @@
+package uptime.observability.web.rest;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import uptime.observability.config.ApplicationProperties;
+import uptime.observability.service.AgentConfigSnapshotService;
+import uptime.observability.service.event.AgentConfigSnapshotUpdatedEvent;
+
+/**
+ * Long-poll support for the agent monitor configuration endpoints.
+ * <p>
+ * A watch request that already has the current configuration is parked as an async servlet request, so it
+ * holds no worker thread while waiting. It is released as soon as the agent's configuration snapshot moves
+ * to a newer version, or answered like a regular poll when the timeout expires (which also revalidates the
+ * snapshot and so catches changes made on other instances).
+ */
+@Component
+class AgentConfigWatchers {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AgentConfigWatchers.class);
+
+    private final AgentConfigResponses agentConfigResponses;
+
+    private final AgentConfigSnapshotService agentConfigSnapshotService;
+
+    private final long defaultTimeoutMs;
+
+    private final long maxTimeoutMs;
+
+    private final Map<Long, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+
+    AgentConfigWatchers(
+        AgentConfigResponses agentConfigResponses,
+        AgentConfigSnapshotService agentConfigSnapshotService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.agentConfigResponses = agentConfigResponses;
+        this.agentConfigSnapshotService = agentConfigSnapshotService;
+        this.defaultTimeoutMs = applicationProperties.getAgentConfig().getWatchTimeoutMs();
+        this.maxTimeoutMs = applicationProperties.getAgentConfig().getWatchMaxTimeoutMs();
+    }
+
+    DeferredResult<ResponseEntity<?>> watch(
+        Long agentId,
+        String replicaId,
+        Long sinceVersion,
+        String ifNoneMatch,
+        String acceptEncoding,
+        Long timeoutMs
+    ) {
+        long timeout = timeoutMs != null && timeoutMs > 0 ? Math.min(timeoutMs, maxTimeoutMs) : defaultTimeoutMs;
+        Supplier<ResponseEntity<?>> response = () -> agentConfigResponses.build(agentId, replicaId, sinceVersion, ifNoneMatch, acceptEncoding);
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(timeout, response);
+
+        Long knownVersion = sinceVersion != null ? sinceVersion : AgentConfigResponses.versionFromEtag(agentId, ifNoneMatch);
+        if (knownVersion == null) {
+            // Nothing to compare with: behave like a regular poll
+            result.setResult(response.get());
+            return result;
+        }
+
+        Waiter waiter = new Waiter(knownVersion, result, response);
+        waiters.computeIfAbsent(agentId, id -> ConcurrentHashMap.newKeySet()).add(waiter);
+        result.onCompletion(() -> remove(agentId, waiter));
+
+        // Checked after registering, so an update between the check and the registration is not missed
+        if (agentConfigSnapshotService.getSnapshot(agentId).getVersion() != knownVersion) {
+            waiter.release();
+        }
+        return result;
+    }
+
+    @EventListener
+    public void onSnapshotUpdated(AgentConfigSnapshotUpdatedEvent event) {
+        Set<Waiter> parked = waiters.get(event.getAgentId());
+        if (parked == null) {
+            return;
+        }
+        int released = 0;
+        for (Waiter waiter : parked) {
+            if (waiter.knownVersion != event.getVersion()) {
+                waiter.release();
+                released++;
+            }
+        }
+        LOG.debug("Released {} watch requests of agent {} for configuration version {}", released, event.getAgentId(), event.getVersion());
+    }
+
+    private void remove(Long agentId, Waiter waiter) {
+        waiters.computeIfPresent(agentId, (id, set) -> {
+            set.remove(waiter);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static final class Waiter {
+
+        private final long knownVersion;
+        private final DeferredResult<ResponseEntity<?>> result;
+        private final Supplier<ResponseEntity<?>> response;
+
+        private Waiter(long knownVersion, DeferredResult<ResponseEntity<?>> result, Supplier<ResponseEntity<?>> response) {
+            this.knownVersion = knownVersion;
+            this.result = result;
+            this.response = response;
+        }
+
+        void release() {
+            if (!result.isSetOrExpired()) {
+                try {
+                    result.setResult(response.get());
+                } catch (RuntimeException e) {
+                    result.setErrorResult(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package uptime.observability.web.rest;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import uptime.observability.web.sse.FleetStatusStream;
+
+/**
+ * Server-Sent Events stream of live fleet status, for consumers that do not speak STOMP
+ * (wall displays, scripts). Supports API key authentication via the X-API-Key header.
+ */
+@RestController
+@RequestMapping("/api/public/fleet")
+public class FleetStatusStreamResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FleetStatusStreamResource.class);
+
+    private final FleetStatusStream fleetStatusStream;
+
+    public FleetStatusStreamResource(FleetStatusStream fleetStatusStream) {
+        this.fleetStatusStream = fleetStatusStream;
+    }
+
+    /**
+     * {@code GET /api/public/fleet/stream} : Stream live status deltas.
+     * <p>
+     * Emits {@code monitor} events with one coalesced update per changed monitor per flush interval and, for
+     * unfiltered streams, a {@code fleet} summary event. Reconnecting clients resume from {@code Last-Event-ID}
+     * as long as the missed frames are still in the replay buffer.
+     *
+     * @param monitorIds optional monitor ids to restrict the stream to.
+     * @param agentId optional agent id; only monitors last checked by this agent are streamed.
+     * @param lastEventId the id of the last event received before reconnecting.
+     * @return the event stream.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamFleetStatus(
+        @RequestParam(value = "monitorId", required = false) List<Long> monitorIds,
+        @RequestParam(value = "agentId", required = false) Long agentId,
+        @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId
+    ) {
+        LOG.debug("REST request to stream fleet status, monitors: {}, agent: {}, resume after: {}", monitorIds, agentId, lastEventId);
+        Set<Long> filter = monitorIds != null ? new HashSet<>(monitorIds) : Set.of();
+        return fleetStatusStream.subscribe(filter, agentId, lastEventId);
+    }
+}
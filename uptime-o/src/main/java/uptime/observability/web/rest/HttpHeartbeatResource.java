@@ -20,8 +20,10 @@ import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 import uptime.observability.repository.HttpHeartbeatRepository;
+import uptime.observability.service.HttpHeartbeatPayloadService;
 import uptime.observability.service.HttpHeartbeatService;
 import uptime.observability.service.dto.HttpHeartbeatDTO;
+import uptime.observability.service.dto.HttpHeartbeatPayloadDTO;
 
 import uptime.observability.web.rest.errors.BadRequestAlertException;
 
@@ -43,9 +45,16 @@ public class HttpHeartbeatResource {
 
     private final HttpHeartbeatRepository apiHeartbeatRepository;
 
-    public HttpHeartbeatResource(HttpHeartbeatService apiHeartbeatService, HttpHeartbeatRepository apiHeartbeatRepository) {
+    private final HttpHeartbeatPayloadService payloadService;
+
+    public HttpHeartbeatResource(
+        HttpHeartbeatService apiHeartbeatService,
+        HttpHeartbeatRepository apiHeartbeatRepository,
+        HttpHeartbeatPayloadService payloadService
+    ) {
         this.apiHeartbeatService = apiHeartbeatService;
         this.apiHeartbeatRepository = apiHeartbeatRepository;
+        this.payloadService = payloadService;
     }
 
     /**
@@ -166,6 +175,18 @@ public class HttpHeartbeatResource {
         return ResponseUtil.wrapOrNotFound(apiHeartbeatDTO);
     }
 
+    /**
+     * {@code GET  /http-heartbeats/:id/payload} : get the raw headers and body of the "id" apiHeartbeat.
+     *
+     * @param id the id of the apiHeartbeat.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the payload, or with status {@code 404 (Not Found)} if the apiHeartbeat has none.
+     */
+    @GetMapping("/{id}/payload")
+    public ResponseEntity<HttpHeartbeatPayloadDTO> getHttpHeartbeatPayload(@PathVariable("id") Long id) {
+        LOG.debug("REST request to get the payload of HttpHeartbeat : {}", id);
+        return ResponseUtil.wrapOrNotFound(payloadService.findByHeartbeatId(id));
+    }
+
     /**
      * {@code DELETE  /http-heartbeats/:id} : delete the "id" apiHeartbeat.
      *
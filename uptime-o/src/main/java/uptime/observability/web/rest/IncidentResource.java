@@ -0,0 +1,66 @@
+package uptime.observability.web.rest;
+
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+import tech.jhipster.web.util.ResponseUtil;
+import uptime.observability.service.IncidentService;
+import uptime.observability.service.dto.IncidentDTO;
+
+/**
+ * REST controller for reading {@link uptime.observability.domain.Incident}s, which are only opened and closed by
+ * the {@link IncidentService}.
+ */
+@RestController
+@RequestMapping("/api/incidents")
+public class IncidentResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IncidentResource.class);
+
+    private final IncidentService incidentService;
+
+    public IncidentResource(IncidentService incidentService) {
+        this.incidentService = incidentService;
+    }
+
+    /**
+     * {@code GET  /incidents} : get the incidents, newest first.
+     *
+     * @param monitorId the monitor to get the incidents of, or all if absent.
+     * @param open whether to get only open or only closed incidents, or both if absent.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of incidents in body.
+     */
+    @GetMapping("")
+    public ResponseEntity<List<IncidentDTO>> getAllIncidents(
+        @RequestParam(name = "monitorId", required = false) Long monitorId,
+        @RequestParam(name = "open", required = false) Boolean open,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to get a page of Incidents");
+        Page<IncidentDTO> page = incidentService.findAll(monitorId, open, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /incidents/:id} : get the "id" incident.
+     *
+     * @param id the id of the incidentDTO to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the incidentDTO, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<IncidentDTO> getIncident(@PathVariable("id") Long id) {
+        LOG.debug("REST request to get Incident : {}", id);
+        Optional<IncidentDTO> incidentDTO = incidentService.findOne(id);
+        return ResponseUtil.wrapOrNotFound(incidentDTO);
+    }
+}
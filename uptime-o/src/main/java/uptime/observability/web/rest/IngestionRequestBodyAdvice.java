@@ -0,0 +1,68 @@
+package uptime.observability.web.rest;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+import uptime.observability.management.IngestionMetersService;
+import uptime.observability.service.dto.HttpHeartbeatDTO;
+
+/**
+ * Times the {@code parse} stage of heartbeat ingestion: reading and deserializing the request body.
+ * <p>
+ * The end of parsing is left in the {@link #BODY_READ_NANOS_ATTRIBUTE} request attribute. Bean validation of the
+ * body runs right after, so the ingestion endpoints time the {@code validate} stage from it.
+ */
+@ControllerAdvice(assignableTypes = { AgentApiResource.class, PublicHeartbeatResource.class })
+public class IngestionRequestBodyAdvice extends RequestBodyAdviceAdapter {
+
+    static final String BODY_READ_NANOS_ATTRIBUTE = "uptime.observability.ingestion.bodyReadNanos";
+
+    private static final String BODY_READ_START_ATTRIBUTE = "uptime.observability.ingestion.bodyReadStart";
+
+    private final IngestionMetersService ingestionMetersService;
+
+    public IngestionRequestBodyAdvice(IngestionMetersService ingestionMetersService) {
+        this.ingestionMetersService = ingestionMetersService;
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        Class<?> type = methodParameter.getParameterType();
+        return type == HttpHeartbeatDTO.class || List.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(
+        HttpInputMessage inputMessage,
+        MethodParameter parameter,
+        Type targetType,
+        Class<? extends HttpMessageConverter<?>> converterType
+    ) throws IOException {
+        RequestContextHolder.currentRequestAttributes().setAttribute(BODY_READ_START_ATTRIBUTE, System.nanoTime(), RequestAttributes.SCOPE_REQUEST);
+        return inputMessage;
+    }
+
+    @Override
+    public Object afterBodyRead(
+        Object body,
+        HttpInputMessage inputMessage,
+        MethodParameter parameter,
+        Type targetType,
+        Class<? extends HttpMessageConverter<?>> converterType
+    ) {
+        RequestAttributes attributes = RequestContextHolder.currentRequestAttributes();
+        ingestionMetersService.trackStageSince(
+            IngestionMetersService.STAGE_PARSE,
+            (Long) attributes.getAttribute(BODY_READ_START_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+        );
+        attributes.setAttribute(BODY_READ_NANOS_ATTRIBUTE, System.nanoTime(), RequestAttributes.SCOPE_REQUEST);
+        return body;
+    }
+}
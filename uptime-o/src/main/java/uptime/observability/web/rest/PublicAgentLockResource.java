@@ -1,82 +1,108 @@
 package uptime.observability.web.rest;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import uptime.observability.domain.AgentLock;
-import uptime.observability.repository.AgentLockRepository;
+import uptime.observability.service.AgentLeaseService;
+import uptime.observability.service.AgentReplicaService;
+import uptime.observability.service.dto.AgentLeaseDTO;
+import uptime.observability.service.dto.AgentReplicaSetDTO;
 
 /**
- * Public REST controller for agent leader election via distributed locking.
+ * Public REST controller for agent leader election via distributed locking, and for the replica
+ * membership used to shard monitors across all replicas of an agent.
  */
 @RestController
 @RequestMapping("/api/public/agents")
 public class PublicAgentLockResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(PublicAgentLockResource.class);
-    private static final int LOCK_TTL_SECONDS = 60;
 
-    private final AgentLockRepository agentLockRepository;
+    private final AgentLeaseService agentLeaseService;
 
-    public PublicAgentLockResource(AgentLockRepository agentLockRepository) {
-        this.agentLockRepository = agentLockRepository;
+    private final AgentReplicaService agentReplicaService;
+
+    public PublicAgentLockResource(AgentLeaseService agentLeaseService, AgentReplicaService agentReplicaService) {
+        this.agentLeaseService = agentLeaseService;
+        this.agentReplicaService = agentReplicaService;
     }
 
     /**
-     * {@code POST  /api/public/agents/:id/lock} : Acquire leadership lock for agent.
+     * {@code POST  /api/public/agents/:id/lock} : Acquire leadership lease for agent.
+     * The same holder re-acquiring an unexpired lease keeps its fencing token and extends the lease.
      *
      * @param id the agent ID.
-     * @return 200 OK if lock acquired, 409 CONFLICT if lock held by another instance.
+     * @param holderId identifier of the agent instance; without it the lease can only be taken when free.
+     * @return 200 OK with the lease and its fencing token, 409 CONFLICT if lock held by another instance.
      */
     @PostMapping("/{id}/lock")
-    public ResponseEntity<Void> acquireLock(@PathVariable Long id) {
-        LOG.debug("Agent {} attempting to acquire lock", id);
-
-        Optional<AgentLock> existingLock = agentLockRepository.findById(id);
-        Instant now = Instant.now();
+    public ResponseEntity<AgentLeaseDTO> acquireLock(@PathVariable Long id, @RequestParam(required = false) String holderId) {
+        LOG.debug("Agent {} attempting to acquire lock, holder: {}", id, holderId);
 
-        if (existingLock.isPresent()) {
-            AgentLock lock = existingLock.orElseThrow();
-            // Check if lock is expired
-            if (lock.getExpiresAt().isAfter(now)) {
-                LOG.debug("Lock for agent {} is held by another instance", id);
-                return ResponseEntity.status(HttpStatus.CONFLICT).build();
-            }
-            // Lock expired, update it
-            lock.setAcquiredAt(now);
-            lock.setExpiresAt(now.plus(LOCK_TTL_SECONDS, ChronoUnit.SECONDS));
-            agentLockRepository.save(lock);
-            LOG.info("Agent {} acquired expired lock", id);
-            return ResponseEntity.ok().build();
-        }
+        return agentLeaseService
+            .acquire(id, holderId)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
 
-        // Create new lock
-        AgentLock newLock = new AgentLock();
-        newLock.setAgentId(id);
-        newLock.setAcquiredAt(now);
-        newLock.setExpiresAt(now.plus(LOCK_TTL_SECONDS, ChronoUnit.SECONDS));
-        agentLockRepository.save(newLock);
+    /**
+     * {@code POST  /api/public/agents/:id/lock/renew} : Extend a leadership lease still held with the given fencing token.
+     *
+     * @param id the agent ID.
+     * @param fencingToken the fencing token returned on acquisition.
+     * @return 200 OK with the renewed lease, 409 CONFLICT if the lease expired or was taken over.
+     */
+    @PostMapping("/{id}/lock/renew")
+    public ResponseEntity<AgentLeaseDTO> renewLock(@PathVariable Long id, @RequestParam Long fencingToken) {
+        LOG.debug("Agent {} renewing lock with token {}", id, fencingToken);
 
-        LOG.info("Agent {} acquired new lock", id);
-        return ResponseEntity.ok().build();
+        return agentLeaseService
+            .renew(id, fencingToken)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
     }
 
     /**
-     * {@code DELETE  /api/public/agents/:id/lock} : Release leadership lock for agent.
+     * {@code DELETE  /api/public/agents/:id/lock} : Release leadership lease for agent.
      *
      * @param id the agent ID.
+     * @param fencingToken the fencing token of the lease to release.
      * @return 200 OK.
      */
     @DeleteMapping("/{id}/lock")
-    public ResponseEntity<Void> releaseLock(@PathVariable Long id) {
+    public ResponseEntity<Void> releaseLock(@PathVariable Long id, @RequestParam Long fencingToken) {
         LOG.debug("Agent {} releasing lock", id);
-        agentLockRepository.deleteById(id);
+        agentLeaseService.release(id, fencingToken);
         LOG.info("Agent {} released lock", id);
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * {@code POST  /api/public/agents/:id/replicas/:replicaId} : Join the replica set of an agent, or renew membership.
+     *
+     * @param id the agent ID.
+     * @param replicaId the replica ID.
+     * @return 200 OK with the live replica set.
+     */
+    @PostMapping("/{id}/replicas/{replicaId}")
+    public ResponseEntity<AgentReplicaSetDTO> renewReplica(@PathVariable Long id, @PathVariable String replicaId) {
+        LOG.debug("Agent {} renewing replica {}", id, replicaId);
+        return ResponseEntity.ok(agentReplicaService.renew(id, replicaId));
+    }
+
+    /**
+     * {@code DELETE  /api/public/agents/:id/replicas/:replicaId} : Leave the replica set of an agent.
+     *
+     * @param id the agent ID.
+     * @param replicaId the replica ID.
+     * @return 200 OK.
+     */
+    @DeleteMapping("/{id}/replicas/{replicaId}")
+    public ResponseEntity<Void> leaveReplica(@PathVariable Long id, @PathVariable String replicaId) {
+        LOG.debug("Agent {} replica {} leaving", id, replicaId);
+        agentReplicaService.leave(id, replicaId);
+        return ResponseEntity.ok().build();
+    }
 }
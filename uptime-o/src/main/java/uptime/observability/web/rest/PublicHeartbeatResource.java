@@ -3,14 +3,17 @@ package uptime.observability.web.rest;
 import jakarta.validation.Valid;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import tech.jhipster.web.util.HeaderUtil;
+import uptime.observability.management.IngestionMetersService;
 import uptime.observability.service.HttpHeartbeatService;
 import uptime.observability.service.dto.HttpHeartbeatDTO;
 import uptime.observability.web.rest.errors.BadRequestAlertException;
@@ -32,8 +35,11 @@ public class PublicHeartbeatResource {
 
     private final HttpHeartbeatService httpHeartbeatService;
 
-    public PublicHeartbeatResource(HttpHeartbeatService httpHeartbeatService) {
+    private final IngestionMetersService ingestionMetersService;
+
+    public PublicHeartbeatResource(HttpHeartbeatService httpHeartbeatService, IngestionMetersService ingestionMetersService) {
         this.httpHeartbeatService = httpHeartbeatService;
+        this.ingestionMetersService = ingestionMetersService;
     }
 
     /**
@@ -43,25 +49,42 @@ public class PublicHeartbeatResource {
      * 2. Internal services with proper authentication
      *
      * @param heartbeatDTO the heartbeat data to save.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new heartbeatDTO.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new heartbeatDTO,
+     * with status {@code 202 (Accepted)} if it was folded into a run of healthy checks,
+     * or with status {@code 409 (Conflict)} if the heartbeat carries a stale fencing token.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("")
-    public ResponseEntity<HttpHeartbeatDTO> submitHeartbeat(@Valid @RequestBody HttpHeartbeatDTO heartbeatDTO)
-        throws URISyntaxException {
+    public ResponseEntity<HttpHeartbeatDTO> submitHeartbeat(
+        @Valid @RequestBody HttpHeartbeatDTO heartbeatDTO,
+        @RequestAttribute(name = IngestionRequestBodyAdvice.BODY_READ_NANOS_ATTRIBUTE, required = false) Long bodyReadNanos
+    ) throws URISyntaxException {
+        ingestionMetersService.trackStageSince(IngestionMetersService.STAGE_VALIDATE, bodyReadNanos);
+        ingestionMetersService.trackBatch(1);
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String authenticationType = authentication != null ? authentication.getName() : "anonymous";
 
         LOG.debug("REST request to submit HTTP Heartbeat from: {}, data: {}", authenticationType, heartbeatDTO);
 
         if (heartbeatDTO.getId() != null) {
+            ingestionMetersService.trackRejected(IngestionMetersService.OUTCOME_INVALID, 1);
             throw new BadRequestAlertException("A new heartbeat cannot already have an ID", ENTITY_NAME, "idexists");
         }
 
-        HttpHeartbeatDTO result = httpHeartbeatService.save(heartbeatDTO);
+        Optional<HttpHeartbeatDTO> saved = httpHeartbeatService.saveFromAgent(heartbeatDTO);
+        if (saved.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .headers(HeaderUtil.createFailureAlert(applicationName, false, ENTITY_NAME, "stalefencingtoken", "Lease is held by another agent instance"))
+                .build();
+        }
+        HttpHeartbeatDTO result = saved.orElseThrow();
 
         LOG.info("HTTP Heartbeat submitted successfully from: {}, ID: {}", authenticationType, result.getId());
 
+        if (result.getId() == null) {
+            // Folded into a run of healthy checks, there is no heartbeat to point to
+            return ResponseEntity.accepted().body(result);
+        }
         return ResponseEntity.created(new URI("/api/public/heartbeats/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
             .body(result);
@@ -75,23 +98,35 @@ public class PublicHeartbeatResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)}.
      */
     @PostMapping("/batch")
-    public ResponseEntity<Void> submitHeartbeatBatch(@Valid @RequestBody java.util.List<HttpHeartbeatDTO> heartbeats) {
+    public ResponseEntity<Void> submitHeartbeatBatch(
+        @Valid @RequestBody java.util.List<HttpHeartbeatDTO> heartbeats,
+        @RequestAttribute(name = IngestionRequestBodyAdvice.BODY_READ_NANOS_ATTRIBUTE, required = false) Long bodyReadNanos
+    ) {
+        ingestionMetersService.trackStageSince(IngestionMetersService.STAGE_VALIDATE, bodyReadNanos);
+        ingestionMetersService.trackBatch(heartbeats.size());
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String authenticationType = authentication != null ? authentication.getName() : "anonymous";
 
         LOG.debug("REST request to submit {} HTTP Heartbeats in batch from: {}", heartbeats.size(), authenticationType);
 
-        for (HttpHeartbeatDTO heartbeatDTO : heartbeats) {
+        int dropped = 0;
+        for (int i = 0; i < heartbeats.size(); i++) {
+            HttpHeartbeatDTO heartbeatDTO = heartbeats.get(i);
             if (heartbeatDTO.getId() != null) {
+                // The heartbeats before it were saved already, the rest of the batch is rejected with it
+                ingestionMetersService.trackRejected(IngestionMetersService.OUTCOME_INVALID, heartbeats.size() - i);
                 throw new BadRequestAlertException("Heartbeat in batch cannot have an ID", ENTITY_NAME, "idexists");
             }
-            httpHeartbeatService.save(heartbeatDTO);
+            if (httpHeartbeatService.saveFromAgent(heartbeatDTO).isEmpty()) {
+                dropped++;
+            }
         }
 
-        LOG.info("Batch of {} HTTP Heartbeats submitted successfully from: {}", heartbeats.size(), authenticationType);
+        LOG.info("Batch of {} HTTP Heartbeats submitted successfully from: {}, dropped: {}", heartbeats.size(), authenticationType, dropped);
 
         return ResponseEntity.ok()
-            .headers(HeaderUtil.createAlert(applicationName, "Batch heartbeat submission successful", String.valueOf(heartbeats.size())))
+            .headers(HeaderUtil.createAlert(applicationName, "Batch heartbeat submission successful", String.valueOf(heartbeats.size() - dropped)))
+            .header(AgentApiResource.HEARTBEATS_DROPPED_HEADER, String.valueOf(dropped))
             .build();
     }
 }
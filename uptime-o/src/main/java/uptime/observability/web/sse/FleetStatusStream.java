@@ -0,0 +1,261 @@
+package uptime.observability.web.sse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import uptime.observability.config.ApplicationProperties;
+import uptime.observability.service.dto.MonitorLiveStatusDTO;
+import uptime.observability.service.event.LiveStatusUpdateEvent;
+
+/**
+ * Fans coalesced live status out to Server-Sent Events subscribers.
+ * <p>
+ * Every delta is serialized exactly once into a complete SSE frame ({@code id}, {@code event}, {@code data});
+ * the same byte array is then written to every matching subscriber and kept in a bounded replay ring so
+ * that reconnecting clients can resume from their {@code Last-Event-ID}.
+ * <p>
+ * Frames are numbered, recorded and queued to each subscriber under the stream's lock, so every subscriber gets
+ * them in order. Each subscriber has a bounded queue, written to its client by a task of its own on the
+ * {@code sse-writer} threads: neither the live status flush nor other subscribers wait for a slow client. A
+ * subscriber whose queue overflows ({@code application.live-status.sse.queue-size}) is dropped; its client
+ * reconnects and resumes from its {@code Last-Event-ID}.
+ */
+@Component
+public class FleetStatusStream {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FleetStatusStream.class);
+
+    public static final String MONITOR_EVENT = "monitor";
+
+    public static final String FLEET_EVENT = "fleet";
+
+    private static final byte[] KEEP_ALIVE_FRAME = ": keep-alive\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+
+    private final long timeoutMs;
+
+    private final int queueSize;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService writers;
+
+    /** Ring of the most recent frames, guarded by {@code this}. */
+    private final Frame[] replayRing;
+
+    private long lastEventId;
+
+    public FleetStatusStream(ObjectMapper objectMapper, ApplicationProperties applicationProperties) {
+        this.objectMapper = objectMapper;
+        ApplicationProperties.LiveStatus.Sse sse = applicationProperties.getLiveStatus().getSse();
+        this.timeoutMs = sse.getTimeoutMs();
+        this.replayRing = new Frame[Math.max(1, sse.getReplaySize())];
+        this.queueSize = Math.max(1, sse.getQueueSize());
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("sse-writer-");
+        threadFactory.setDaemon(true);
+        // Unbounded, as each thread is blocked by at most one slow client
+        this.writers = Executors.newCachedThreadPool(threadFactory);
+    }
+
+    @PreDestroy
+    public void stop() {
+        writers.shutdownNow();
+    }
+
+    /**
+     * Open a new stream.
+     *
+     * @param monitorIds only stream these monitors; empty for all monitors plus the fleet summary.
+     * @param agentId only stream monitors last checked by this agent, or {@code null}.
+     * @param lastEventId the {@code Last-Event-ID} sent by a reconnecting client, or {@code null}.
+     * @return the emitter backing the response.
+     */
+    public SseEmitter subscribe(Set<Long> monitorIds, Long agentId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, monitorIds, agentId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        // Replay and registration happen under the same lock as publishing, so no frame is lost or duplicated
+        synchronized (this) {
+            subscribers.add(subscriber);
+            if (lastEventId != null && lastEventId < this.lastEventId) {
+                subscriber.enqueueAll(framesAfter(lastEventId));
+            }
+        }
+        LOG.debug("SSE subscriber registered, {} active", subscribers.size());
+        return emitter;
+    }
+
+    @EventListener
+    public void onLiveStatusUpdate(LiveStatusUpdateEvent event) {
+        List<Frame> frames = new ArrayList<>(event.getMonitors().size() + 1);
+        synchronized (this) {
+            for (MonitorLiveStatusDTO status : event.getMonitors()) {
+                Frame frame = toFrame(MONITOR_EVENT, status, status.getMonitorId(), status.getLastAgentId());
+                if (frame != null) {
+                    frames.add(frame);
+                }
+            }
+            Frame fleet = toFrame(FLEET_EVENT, event.getFleet(), null, null);
+            if (fleet != null) {
+                frames.add(fleet);
+            }
+            for (Frame frame : frames) {
+                replayRing[(int) (frame.id % replayRing.length)] = frame;
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.enqueueAll(frames);
+            }
+        }
+    }
+
+    /**
+     * Keep idle connections (and intermediate proxies) from timing out, and reap dead subscribers.
+     */
+    @Scheduled(fixedDelayString = "${application.live-status.sse.heartbeat-interval-ms:15000}")
+    public void sendKeepAlive() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(KEEP_ALIVE_FRAME);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private Frame toFrame(String eventName, Object payload, Long monitorId, Long agentId) {
+        byte[] data;
+        try {
+            data = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            LOG.warn("Could not serialize {} frame: {}", eventName, e.getMessage());
+            return null;
+        }
+        long id = ++lastEventId;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length + 48);
+        out.writeBytes(("id:" + id + "\nevent:" + eventName + "\ndata:").getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(data);
+        out.writeBytes(new byte[] { '\n', '\n' });
+        return new Frame(id, monitorId, agentId, out.toByteArray());
+    }
+
+    private List<Frame> framesAfter(long eventId) {
+        List<Frame> frames = new ArrayList<>();
+        long first = Math.max(eventId + 1, lastEventId - replayRing.length + 1);
+        for (long id = first; id <= lastEventId; id++) {
+            Frame frame = replayRing[(int) (id % replayRing.length)];
+            if (frame != null && frame.id == id) {
+                frames.add(frame);
+            }
+        }
+        return frames;
+    }
+
+    private record Frame(long id, Long monitorId, Long agentId, byte[] bytes) {}
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<Long> monitorIds;
+        private final Long agentId;
+        private final Queue<byte[]> queue = new ArrayBlockingQueue<>(queueSize);
+        private final AtomicBoolean writing = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, Set<Long> monitorIds, Long agentId) {
+            this.emitter = emitter;
+            this.monitorIds = monitorIds;
+            this.agentId = agentId;
+        }
+
+        boolean accepts(Frame frame) {
+            if (frame.monitorId == null) {
+                // Fleet summaries only go to unfiltered streams
+                return monitorIds.isEmpty() && agentId == null;
+            }
+            return (monitorIds.isEmpty() || monitorIds.contains(frame.monitorId)) && (agentId == null || agentId.equals(frame.agentId));
+        }
+
+        void enqueueAll(List<Frame> frames) {
+            for (Frame frame : frames) {
+                if (accepts(frame) && !queue.offer(frame.bytes)) {
+                    drop(new IOException("Client too slow, more than " + queueSize + " frames pending"));
+                    return;
+                }
+            }
+            startWriting();
+        }
+
+        void enqueue(byte[] frame) {
+            if (!queue.offer(frame)) {
+                drop(new IOException("Client too slow, more than " + queueSize + " frames pending"));
+                return;
+            }
+            startWriting();
+        }
+
+        private void startWriting() {
+            if (!queue.isEmpty() && writing.compareAndSet(false, true)) {
+                try {
+                    writers.execute(this::write);
+                } catch (RejectedExecutionException e) {
+                    drop(new IOException("Stream shut down"));
+                }
+            }
+        }
+
+        /**
+         * Write the queued frames, stopping at the first failure, which drops the subscriber.
+         */
+        private void write() {
+            for (byte[] frame = queue.poll(); frame != null; frame = queue.poll()) {
+                try {
+                    emitter.send(Set.of(new DataWithMediaType(frame, MediaType.TEXT_EVENT_STREAM)));
+                } catch (IOException | IllegalStateException e) {
+                    drop(e);
+                    return;
+                }
+            }
+            writing.set(false);
+            // Frames queued after the last poll and before the flag was cleared
+            startWriting();
+        }
+
+        private void drop(Exception cause) {
+            if (subscribers.remove(this)) {
+                LOG.debug("Dropping SSE subscriber: {}", cause.getMessage());
+                queue.clear();
+                // The emitter waits for a write in progress, which only a writer thread may block on
+                try {
+                    writers.execute(() -> emitter.completeWithError(cause));
+                } catch (RejectedExecutionException e) {
+                    LOG.debug("Not completing SSE subscriber, stream shut down");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Server-Sent Events streams.
+ */
+package uptime.observability.web.sse;
@@ -0,0 +1,41 @@
+package uptime.observability.web.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+import uptime.observability.service.dto.MonitorLiveStatusDTO;
+import uptime.observability.service.event.LiveStatusUpdateEvent;
+
+/**
+ * Pushes coalesced live status to STOMP subscribers.
+ * <ul>
+ *     <li>{@code /topic/monitors/{monitorId}} receives at most one frame per flush interval for that monitor;</li>
+ *     <li>{@code /topic/fleet} receives the fleet summary once per flush interval.</li>
+ * </ul>
+ */
+@Component
+public class LiveStatusBroadcaster {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LiveStatusBroadcaster.class);
+
+    public static final String MONITOR_TOPIC_PREFIX = "/topic/monitors/";
+
+    public static final String FLEET_TOPIC = "/topic/fleet";
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    public LiveStatusBroadcaster(SimpMessageSendingOperations messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @EventListener
+    public void onLiveStatusUpdate(LiveStatusUpdateEvent event) {
+        for (MonitorLiveStatusDTO status : event.getMonitors()) {
+            messagingTemplate.convertAndSend(MONITOR_TOPIC_PREFIX + status.getMonitorId(), status);
+        }
+        messagingTemplate.convertAndSend(FLEET_TOPIC, event.getFleet());
+        LOG.trace("Broadcast live status for {} monitors", event.getMonitors().size());
+    }
+}
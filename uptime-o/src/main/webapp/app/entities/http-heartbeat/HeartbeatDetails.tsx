@@ -1,4 +1,6 @@
-import React from 'react';
+import React, { useEffect, useState } from 'react';
+import axios from 'axios';
+import { IHttpHeartbeatPayload } from 'app/shared/model/http-heartbeat-payload.model';
 import './http-heartbeat.scss';
 
 interface HeartbeatDetailsProps {
@@ -7,6 +9,22 @@ interface HeartbeatDetailsProps {
 }
 
 const HeartbeatDetails: React.FC<HeartbeatDetailsProps> = ({ record, onClose }) => {
+  const [payload, setPayload] = useState<IHttpHeartbeatPayload | null>(null);
+
+  // Raw headers and body are not part of the heartbeat, load them for the selected one only
+  useEffect(() => {
+    setPayload(null);
+    if (record.id == null) return;
+    let cancelled = false;
+    axios
+      .get<IHttpHeartbeatPayload>(`api/http-heartbeats/${record.id}/payload`)
+      .then(response => !cancelled && setPayload(response.data))
+      .catch(() => undefined);
+    return () => {
+      cancelled = true;
+    };
+  }, [record.id]);
+
   const getStatusColor = () => {
     if (!record.success) return '#ef4444';
     if (record.responseTimeMs >= (record.criticalThresholdMs || 1000)) return '#f97316';
@@ -106,7 +124,7 @@ const HeartbeatDetails: React.FC<HeartbeatDetailsProps> = ({ record, onClose })
         </div>
       )}
 
-      {record.rawResponseHeaders && (
+      {payload?.rawResponseHeaders && (
         <div className="headers-section">
           <h4 className="section-title">Response Headers</h4>
           <div className="headers-content">
@@ -114,7 +132,7 @@ const HeartbeatDetails: React.FC<HeartbeatDetailsProps> = ({ record, onClose })
               {(() => {
                 try {
                   const headers =
-                    typeof record.rawResponseHeaders === 'string' ? JSON.parse(record.rawResponseHeaders) : record.rawResponseHeaders;
+                    typeof payload.rawResponseHeaders === 'string' ? JSON.parse(payload.rawResponseHeaders) : payload.rawResponseHeaders;
                   return Object.entries(headers).map(([key, value]) => (
                     <div key={key} className="header-line">
                       <span className="header-key">{key}:</span>
@@ -132,14 +150,14 @@ const HeartbeatDetails: React.FC<HeartbeatDetailsProps> = ({ record, onClose })
         </div>
       )}
 
-      {record.rawResponseBody != null && record.rawResponseBody !== '' && (
+      {payload?.rawResponseBody != null && payload?.rawResponseBody !== '' && (
         <div className="body-section">
           <h4 className="section-title">Response Body</h4>
           <div className="body-content">
             <pre className="body-code">
               {(() => {
                 const body =
-                  typeof record.rawResponseBody === 'string' ? record.rawResponseBody : JSON.stringify(record.rawResponseBody, null, 2);
+                  typeof payload.rawResponseBody === 'string' ? payload.rawResponseBody : JSON.stringify(payload.rawResponseBody, null, 2);
                 return body;
               })()}
             </pre>
@@ -2,6 +2,8 @@ import React, { useState, useEffect } from 'react';
 import { Modal, ModalHeader, ModalBody, Badge } from 'reactstrap';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 import { faTimes } from '@fortawesome/free-solid-svg-icons';
+import axios from 'axios';
+import { IHttpHeartbeatPayload } from 'app/shared/model/http-heartbeat-payload.model';
 import './MonitorHistoryModal.scss';
 
 interface TimeSeriesData {
@@ -20,8 +22,7 @@ interface TimeSeriesData {
   tcpConnectMs?: number;
   tlsHandshakeMs?: number;
   timeToFirstByteMs?: number;
-  rawResponseHeaders?: any;
-  rawResponseBody?: any;
+  heartbeatId?: number;
 }
 
 interface MonitorHistoryModalProps {
@@ -42,6 +43,7 @@ const MonitorHistoryModal: React.FC<MonitorHistoryModalProps> = ({
   agentName,
 }) => {
   const [selectedRecord, setSelectedRecord] = useState<TimeSeriesData | null>(null);
+  const [payload, setPayload] = useState<IHttpHeartbeatPayload | null>(null);
 
   // Reset selected record when modal closes
   useEffect(() => {
@@ -50,6 +52,21 @@ const MonitorHistoryModal: React.FC<MonitorHistoryModalProps> = ({
     }
   }, [isOpen]);
 
+  // Raw headers and body are not part of the time series, load them for the selected record only
+  useEffect(() => {
+    setPayload(null);
+    const heartbeatId = selectedRecord?.heartbeatId;
+    if (heartbeatId == null) return;
+    let cancelled = false;
+    axios
+      .get<IHttpHeartbeatPayload>(`api/http-heartbeats/${heartbeatId}/payload`)
+      .then(response => !cancelled && setPayload(response.data))
+      .catch(() => undefined);
+    return () => {
+      cancelled = true;
+    };
+  }, [selectedRecord?.heartbeatId]);
+
   if (records.length === 0) return null;
 
   const getStatusColor = (record: TimeSeriesData) => {
@@ -232,7 +249,7 @@ const MonitorHistoryModal: React.FC<MonitorHistoryModalProps> = ({
               )}
 
               {/* Response Headers */}
-              {selectedRecord.rawResponseHeaders && (
+              {payload?.rawResponseHeaders && (
                 <div className="headers-section">
                   <h4 className="section-title">Response Headers</h4>
                   <div className="headers-content">
@@ -240,9 +257,9 @@ const MonitorHistoryModal: React.FC<MonitorHistoryModalProps> = ({
                       {(() => {
                         try {
                           const headers =
-                            typeof selectedRecord.rawResponseHeaders === 'string'
-                              ? JSON.parse(selectedRecord.rawResponseHeaders)
-                              : selectedRecord.rawResponseHeaders;
+                            typeof payload.rawResponseHeaders === 'string'
+                              ? JSON.parse(payload.rawResponseHeaders)
+                              : payload.rawResponseHeaders;
                           return Object.entries(headers).map(([key, value]) => (
                             <div key={key} className="header-line">
                               <span className="header-key">{key}:</span>
@@ -261,16 +278,16 @@ const MonitorHistoryModal: React.FC<MonitorHistoryModalProps> = ({
               )}
 
               {/* Response Body */}
-              {selectedRecord.rawResponseBody != null && selectedRecord.rawResponseBody !== '' && (
+              {payload?.rawResponseBody != null && payload?.rawResponseBody !== '' && (
                 <div className="body-section">
                   <h4 className="section-title">Response Body</h4>
                   <div className="body-content">
                     <pre className="body-code">
                       {(() => {
                         const body =
-                          typeof selectedRecord.rawResponseBody === 'string'
-                            ? selectedRecord.rawResponseBody
-                            : JSON.stringify(selectedRecord.rawResponseBody, null, 2);
+                          typeof payload.rawResponseBody === 'string'
+                            ? payload.rawResponseBody
+                            : JSON.stringify(payload.rawResponseBody, null, 2);
                         return body;
                       })()}
                     </pre>
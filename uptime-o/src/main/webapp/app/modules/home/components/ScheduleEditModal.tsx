@@ -17,6 +17,8 @@ export const ScheduleEditModal: React.FC<ScheduleEditModalProps> = ({ isOpen, to
     includeResponseBody: false,
     thresholdsWarning: 0,
     thresholdsCritical: 0,
+    maxPayloadBytes: null as number | null,
+    changeOnlyStorage: false,
   });
   const [errors, setErrors] = useState<{ [key: string]: string }>({});
   const [loading, setLoading] = useState(false);
@@ -32,6 +34,8 @@ export const ScheduleEditModal: React.FC<ScheduleEditModalProps> = ({ isOpen, to
           includeResponseBody: false,
           thresholdsWarning: 0,
           thresholdsCritical: 0,
+          maxPayloadBytes: null,
+          changeOnlyStorage: false,
         });
       } else if (scheduleId) {
         loadSchedule(scheduleId);
@@ -49,6 +53,8 @@ export const ScheduleEditModal: React.FC<ScheduleEditModalProps> = ({ isOpen, to
         includeResponseBody: schedule.includeResponseBody || false,
         thresholdsWarning: schedule.thresholdsWarning || 0,
         thresholdsCritical: schedule.thresholdsCritical || 0,
+        maxPayloadBytes: schedule.maxPayloadBytes ?? null,
+        changeOnlyStorage: schedule.changeOnlyStorage || false,
       });
     } catch (error) {
       toast.error('Failed to load schedule');
@@ -164,6 +170,16 @@ export const ScheduleEditModal: React.FC<ScheduleEditModalProps> = ({ isOpen, to
             <small className="form-text text-muted d-block">Store the full HTTP response body in metrics</small>
           </FormGroup>
 
+          <FormGroup check className="mb-3">
+            <Label check>
+              <Input type="checkbox" name="changeOnlyStorage" checked={formData.changeOnlyStorage} onChange={handleChange} />
+              Change-only Storage
+            </Label>
+            <small className="form-text text-muted d-block">
+              Fold consecutive healthy checks into runs; failures, threshold breaches and hourly samples are kept in full
+            </small>
+          </FormGroup>
+
           <FormGroup>
             <Label for="thresholdsWarning">Thresholds Warning (ms)</Label>
             <Input
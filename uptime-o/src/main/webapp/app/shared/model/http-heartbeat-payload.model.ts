@@ -0,0 +1,8 @@
+export interface IHttpHeartbeatPayload {
+  heartbeatId?: number;
+  rawRequestHeaders?: any;
+  rawResponseHeaders?: any;
+  rawResponseBody?: any;
+  originalBytes?: number;
+  truncated?: boolean;
+}
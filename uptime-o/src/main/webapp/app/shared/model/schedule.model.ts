@@ -5,8 +5,11 @@ export interface ISchedule {
   includeResponseBody?: boolean | null;
   thresholdsWarning?: number | null;
   thresholdsCritical?: number | null;
+  maxPayloadBytes?: number | null;
+  changeOnlyStorage?: boolean | null;
 }
 
 export const defaultValue: Readonly<ISchedule> = {
   includeResponseBody: false,
+  changeOnlyStorage: false,
 };
@@ -0,0 +1,122 @@
+package uptime.observability.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import uptime.observability.service.AgentLeaseService;
+
+class ReadReplicaDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private final long[] lags = { 100, 100 };
+
+    private ReadReplicaDataSource readReplicaDataSource;
+
+    private final String[] replayedLsns = { "0/100", "0/100" };
+
+    @BeforeEach
+    void setup() throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getString(1)).thenReturn("0/200");
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(primaryConnection.createStatement()).thenReturn(statement);
+        DataSource primary = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(primary.getConnection("reader", "secret")).thenReturn(primaryConnection);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", replica(0));
+        replicas.put("replica-1", replica(1));
+        readReplicaDataSource = new ReadReplicaDataSource(primary, replicas, 1000);
+    }
+
+    private DataSource replica(int index) throws SQLException {
+        // Caught up when it replayed the WAL position of the primary, behind by its lag otherwise
+        String[] primaryLsn = new String[1];
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getLong(1)).thenAnswer(invocation -> replayedLsns[index].equals(primaryLsn[0]) ? 0 : lags[index]);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        doAnswer(invocation -> primaryLsn[0] = invocation.getArgument(1)).when(statement).setString(eq(1), anyString());
+        when(statement.executeQuery()).thenReturn(resultSet);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(dataSource.getConnection("reader", "secret")).thenReturn(connection);
+        return dataSource;
+    }
+
+    @Test
+    void replicasAreUsedInTurnOnceMeasured() throws SQLException {
+        assertThat(readReplicaDataSource.select()).as("not measured yet").isNull();
+        assertThat(readReplicaDataSource.getConnection()).isSameAs(primaryConnection);
+
+        readReplicaDataSource.checkLag();
+
+        assertThat(readReplicaDataSource.select().getName()).isNotEqualTo(readReplicaDataSource.select().getName());
+    }
+
+    @Test
+    void laggingReplicasAreSkipped() {
+        lags[0] = 5000;
+        readReplicaDataSource.checkLag();
+
+        assertThat(readReplicaDataSource.select().getName()).isEqualTo("replica-1");
+        assertThat(readReplicaDataSource.select().getName()).isEqualTo("replica-1");
+
+        lags[1] = 5000;
+        readReplicaDataSource.checkLag();
+
+        assertThat(readReplicaDataSource.select()).isNull();
+    }
+
+    @Test
+    void replicasThatReplayedThePrimaryWalAreCaughtUp() {
+        lags[0] = 5000;
+        lags[1] = 5000;
+        replayedLsns[0] = "0/200";
+        readReplicaDataSource.checkLag();
+
+        assertThat(readReplicaDataSource.select().getName()).isEqualTo("replica-0");
+        assertThat(readReplicaDataSource.select().getName()).isEqualTo("replica-0");
+    }
+
+    @Test
+    void connectionsWithCredentialsAreRoutedToo() throws SQLException {
+        assertThat(readReplicaDataSource.getConnection("reader", "secret")).isSameAs(primaryConnection);
+
+        readReplicaDataSource.checkLag();
+
+        assertThat(readReplicaDataSource.getConnection("reader", "secret")).isNotSameAs(primaryConnection);
+    }
+
+    @Test
+    void readsThatMustSeeTheirWritesAreNotReadOnly() throws NoSuchMethodException {
+        AnnotationTransactionAttributeSource attributes = new AnnotationTransactionAttributeSource();
+
+        TransactionAttribute isStale = attributes.getTransactionAttribute(
+            AgentLeaseService.class.getMethod("isStale", Long.class, Long.class),
+            AgentLeaseService.class
+        );
+
+        assertThat(isStale).isNotNull();
+        assertThat(isStale.isReadOnly()).isFalse();
+    }
+}
@@ -70,11 +70,7 @@ public class HttpHeartbeatAsserts {
                 assertThat(a.getCriticalThresholdMs()).as("check criticalThresholdMs").isEqualTo(expected.getCriticalThresholdMs())
             )
             .satisfies(a -> assertThat(a.getErrorType()).as("check errorType").isEqualTo(expected.getErrorType()))
-            .satisfies(a -> assertThat(a.getErrorMessage()).as("check errorMessage").isEqualTo(expected.getErrorMessage()))
-            .satisfies(a -> assertThat(a.getRawRequestHeaders()).as("check rawRequestHeaders").isEqualTo(expected.getRawRequestHeaders()))
-            .satisfies(a -> assertThat(a.getRawResponseHeaders()).as("check rawResponseHeaders").isEqualTo(expected.getRawResponseHeaders())
-            )
-            .satisfies(a -> assertThat(a.getRawResponseBody()).as("check rawResponseBody").isEqualTo(expected.getRawResponseBody()));
+            .satisfies(a -> assertThat(a.getErrorMessage()).as("check errorMessage").isEqualTo(expected.getErrorMessage()));
     }
 
     /**
@@ -0,0 +1,44 @@
+package uptime.observability.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import uptime.observability.service.dto.HttpHeartbeatDTO;
+
+class RawJsonTest {
+
+    private final ObjectMapper om = new ObjectMapper();
+
+    @Test
+    void bodyIsWrittenAsItsRawValue() throws Exception {
+        HttpHeartbeatDTO heartbeat = new HttpHeartbeatDTO();
+        heartbeat.setRawResponseBody(RawJson.of("{\"status\": \"ok\", \"name\": \"café\"}"));
+
+        String json = om.writeValueAsString(heartbeat);
+
+        assertThat(json).contains("\"rawResponseBody\":{\"status\": \"ok\", \"name\": \"café\"}");
+        assertThat(om.readTree(om.writeValueAsBytes(heartbeat)).path("rawResponseBody").path("name").asText()).isEqualTo("café");
+    }
+
+    @Test
+    void bodyIsReadWithoutTree() throws Exception {
+        HttpHeartbeatDTO heartbeat = om.readValue(
+            "{\"rawResponseHeaders\":{\"server\":\"nginx\",\"vary\":[\"a\",\"b\"]},\"rawResponseBody\":null}",
+            HttpHeartbeatDTO.class
+        );
+
+        assertThat(heartbeat.getRawResponseHeaders()).hasToString("{\"server\":\"nginx\",\"vary\":[\"a\",\"b\"]}");
+        assertThat(heartbeat.getRawResponseHeaders().toTree().path("vary").size()).isEqualTo(2);
+        assertThat(heartbeat.getRawResponseBody()).isNull();
+    }
+
+    @Test
+    void equalityComparesBytes() {
+        RawJson compact = RawJson.of("{\"a\":1,\"b\":[true]}");
+
+        assertThat(compact).isEqualTo(RawJson.of("{\"a\":1,\"b\":[true]}")).hasSameHashCodeAs(RawJson.of("{\"a\":1,\"b\":[true]}"));
+        assertThat(compact).isNotEqualTo(RawJson.of("{\"b\": [true], \"a\": 1}"));
+        assertThat(compact).isNotEqualTo(RawJson.of("{\"a\":2,\"b\":[true]}"));
+    }
+}
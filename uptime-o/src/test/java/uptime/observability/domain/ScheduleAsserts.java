@@ -54,6 +54,10 @@ public class ScheduleAsserts {
             )
             .satisfies(a -> assertThat(a.getThresholdsWarning()).as("check thresholdsWarning").isEqualTo(expected.getThresholdsWarning()))
             .satisfies(a -> assertThat(a.getThresholdsCritical()).as("check thresholdsCritical").isEqualTo(expected.getThresholdsCritical())
+            )
+            .satisfies(a -> assertThat(a.getMaxPayloadBytes()).as("check maxPayloadBytes").isEqualTo(expected.getMaxPayloadBytes()))
+            .satisfies(a ->
+                assertThat(a.getChangeOnlyStorage()).as("check changeOnlyStorage").isEqualTo(expected.getChangeOnlyStorage())
             );
     }
 
@@ -0,0 +1,69 @@
+package uptime.observability.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IngestionMetersServiceTest {
+
+    private SimpleMeterRegistry registry;
+
+    private IngestionMetersService ingestionMetersService;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        ingestionMetersService = new IngestionMetersService(registry);
+    }
+
+    @Test
+    void testOutcomesAreCountedAndInFlightIsBalanced() {
+        Instant executedAt = Instant.now().minusSeconds(5);
+        ingestionMetersService.trackReceived();
+        ingestionMetersService.trackReceived();
+        assertThat(ingestionMetersService.getInFlight()).isEqualTo(2);
+
+        ingestionMetersService.trackCompleted(IngestionMetersService.OUTCOME_ACCEPTED, 1L, 2L, executedAt);
+        ingestionMetersService.trackCompleted(IngestionMetersService.OUTCOME_STALE, 1L, 2L, executedAt);
+
+        assertThat(ingestionMetersService.getInFlight()).isZero();
+        assertThat(outcomeCount(IngestionMetersService.OUTCOME_ACCEPTED)).isEqualTo(1);
+        assertThat(outcomeCount(IngestionMetersService.OUTCOME_STALE)).isEqualTo(1);
+        assertThat(ingestionMetersService.getLag().count()).isEqualTo(1);
+        assertThat(ingestionMetersService.getLag().max(TimeUnit.SECONDS)).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    void testResubmittedHeartbeatIsCountedAsDuplicate() {
+        Instant executedAt = Instant.now();
+        for (int i = 0; i < 2; i++) {
+            ingestionMetersService.trackReceived();
+            ingestionMetersService.trackCompleted(IngestionMetersService.OUTCOME_ACCEPTED, 1L, 2L, executedAt);
+        }
+        ingestionMetersService.trackReceived();
+        ingestionMetersService.trackCompleted(IngestionMetersService.OUTCOME_ACCEPTED, 1L, 2L, executedAt.plusSeconds(60));
+        ingestionMetersService.trackReceived();
+        ingestionMetersService.trackCompleted(IngestionMetersService.OUTCOME_ACCEPTED, 3L, 2L, executedAt.plusSeconds(60));
+
+        assertThat(outcomeCount(IngestionMetersService.OUTCOME_ACCEPTED)).isEqualTo(4);
+        assertThat(outcomeCount(IngestionMetersService.OUTCOME_DUPLICATE)).isEqualTo(1);
+    }
+
+    @Test
+    void testQueueDepthIsPublished() {
+        AtomicInteger depth = new AtomicInteger(7);
+        ingestionMetersService.registerQueue("live-status", depth::get);
+
+        assertThat(registry.get(IngestionMetersService.QUEUE_METER_NAME).tag("queue", "live-status").gauge().value()).isEqualTo(7);
+        assertThat(ingestionMetersService.getQueueDepths()).containsEntry("live-status", 7);
+    }
+
+    private double outcomeCount(String outcome) {
+        return registry.get(IngestionMetersService.HEARTBEATS_METER_NAME).tag("outcome", outcome).counter().count();
+    }
+}
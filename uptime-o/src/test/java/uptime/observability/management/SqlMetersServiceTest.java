@@ -0,0 +1,111 @@
+package uptime.observability.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import uptime.observability.config.ApplicationProperties;
+
+class SqlMetersServiceTest {
+
+    private SimpleMeterRegistry registry;
+
+    private SqlMetersService sqlMetersService;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSql().setSlowQueryThresholdMs(100);
+        applicationProperties.getSql().setSlowQueryBufferSize(2);
+        applicationProperties.getSql().setExplainSlowQueries(false);
+        sqlMetersService = new SqlMetersService(registry, applicationProperties, new StaticListableBeanFactory().getBeanProvider(DataSource.class));
+    }
+
+    @Test
+    void testStatementsAreAttributedToTheEnclosingRepositoryMethod() {
+        String[] previous = sqlMetersService.enterRepositoryMethod("HttpHeartbeatRepository", "findByExecutedAtAfter");
+        try {
+            sqlMetersService.afterQuery(execution(20, false, 0, null), List.of(new QueryInfo("select h1_0.id from api_heartbeats h1_0")));
+        } finally {
+            sqlMetersService.exitRepositoryMethod(previous);
+        }
+        sqlMetersService.afterQuery(execution(5, true, 25, new int[] { 1, 1, 1 }), List.of(new QueryInfo("insert into api_heartbeats (id) values (?)")));
+
+        assertThat(
+            registry
+                .get(SqlMetersService.STATEMENTS_METER_NAME)
+                .tag(SqlMetersService.REPOSITORY_DIMENSION, "HttpHeartbeatRepository")
+                .tag(SqlMetersService.METHOD_DIMENSION, "findByExecutedAtAfter")
+                .timer()
+                .totalTime(TimeUnit.MILLISECONDS)
+        ).isEqualTo(20);
+        assertThat(
+            registry
+                .get(SqlMetersService.BATCH_SIZE_METER_NAME)
+                .tag(SqlMetersService.REPOSITORY_DIMENSION, SqlMetersService.NO_REPOSITORY)
+                .tag(SqlMetersService.METHOD_DIMENSION, "insert api_heartbeats")
+                .summary()
+                .totalAmount()
+        ).isEqualTo(25);
+        assertThat(
+            registry
+                .get(SqlMetersService.ROWS_METER_NAME)
+                .tag(SqlMetersService.METHOD_DIMENSION, "insert api_heartbeats")
+                .summary()
+                .totalAmount()
+        ).isEqualTo(3);
+    }
+
+    @Test
+    void testSlowStatementsAreKeptNewestFirstWithoutTheirBindValues() throws Exception {
+        for (long id = 1; id <= 3; id++) {
+            QueryInfo query = new QueryInfo("select * from api_heartbeats where monitor_id = ?");
+            query
+                .getParametersList()
+                .add(
+                    List.of(
+                        new ParameterSetOperation(PreparedStatement.class.getMethod("setString", int.class, String.class), new Object[] { 1, "key-" + id })
+                    )
+                );
+            sqlMetersService.afterQuery(execution(150, false, 0, null), List.of(query));
+        }
+        sqlMetersService.afterQuery(execution(50, false, 0, null), List.of(new QueryInfo("select 1")));
+
+        List<SqlMetersService.SlowQuery> slowQueries = sqlMetersService.getSlowQueries();
+        assertThat(slowQueries).hasSize(2);
+        assertThat(slowQueries.get(0).getSql()).isEqualTo("select * from api_heartbeats where monitor_id = ?");
+        assertThat(slowQueries.get(0).getParameterSets()).isEqualTo(1);
+        assertThat(slowQueries.get(1).getSql()).isEqualTo("select * from api_heartbeats where monitor_id = ?");
+        assertThat(slowQueries.get(0).getRepository()).isEqualTo(SqlMetersService.NO_REPOSITORY);
+        assertThat(slowQueries.get(0).getMethod()).isEqualTo("select");
+    }
+
+    @Test
+    void testQuotedLiteralsAreRedactedFromPlans() {
+        String plan = "Index Scan using ux_agent_api_key on agent\n  Index Cond: ((api_key)::text = 'secret''s key'::text)";
+
+        assertThat(SqlMetersService.redactLiterals(plan)).isEqualTo(
+            "Index Scan using ux_agent_api_key on agent\n  Index Cond: ((api_key)::text = '?'::text)"
+        );
+    }
+
+    private static ExecutionInfo execution(long elapsedMs, boolean batch, int batchSize, Object result) {
+        ExecutionInfo execution = new ExecutionInfo();
+        execution.setElapsedTime(elapsedMs);
+        execution.setBatch(batch);
+        execution.setBatchSize(batchSize);
+        execution.setResult(result);
+        execution.setSuccess(true);
+        return execution;
+    }
+}
@@ -0,0 +1,84 @@
+package uptime.observability.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uptime.observability.config.ApplicationProperties;
+
+class ApiKeyRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private ApplicationProperties applicationProperties;
+
+    private SimpleMeterRegistry registry;
+
+    private ApiKeyRateLimiter apiKeyRateLimiter;
+
+    @BeforeEach
+    void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getRateLimit().setEnabled(true);
+        applicationProperties.getRateLimit().setRequestsPerSecond(1000);
+        applicationProperties.getRateLimit().setBurst(5);
+        registry = new SimpleMeterRegistry();
+        apiKeyRateLimiter = new ApiKeyRateLimiter(applicationProperties, registry);
+    }
+
+    @Test
+    void testBucketAllowsBurstThenThrottles() {
+        ApiKeyRateLimiter.Bucket bucket = new ApiKeyRateLimiter.Bucket(0);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(0, 10, 5)).isZero();
+        }
+        assertThat(bucket.tryAcquire(0, 10, 5)).isEqualTo(SECOND / 10);
+    }
+
+    @Test
+    void testBucketRefillsAtRate() {
+        ApiKeyRateLimiter.Bucket bucket = new ApiKeyRateLimiter.Bucket(0);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(0, 10, 5);
+        }
+
+        assertThat(bucket.tryAcquire(SECOND / 10, 10, 5)).isZero();
+        assertThat(bucket.tryAcquire(SECOND / 10, 10, 5)).isPositive();
+        assertThat(bucket.tryAcquire(SECOND, 10, 5)).isZero();
+    }
+
+    @Test
+    void testKeysAreLimitedSeparatelyAndCounted() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(apiKeyRateLimiter.tryAcquire(1L, 1, 5, null)).isZero();
+        }
+        assertThat(apiKeyRateLimiter.tryAcquire(1L, 1, 5, null)).isPositive();
+        assertThat(apiKeyRateLimiter.tryAcquire(2L, 1, 5, null)).isZero();
+
+        assertThat(registry.get(ApiKeyRateLimiter.REQUESTS_METER_NAME).tags("key", "1", "outcome", "accepted").counter().count()).isEqualTo(5);
+        assertThat(registry.get(ApiKeyRateLimiter.REQUESTS_METER_NAME).tags("key", "1", "outcome", "throttled").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testAgentLimitAppliesWithinKey() {
+        applicationProperties.getRateLimit().setAgentRequestsPerSecond(1);
+        applicationProperties.getRateLimit().setAgentBurst(2);
+
+        assertThat(apiKeyRateLimiter.tryAcquire(1L, null, null, 7L)).isZero();
+        assertThat(apiKeyRateLimiter.tryAcquire(1L, null, null, 7L)).isZero();
+        assertThat(apiKeyRateLimiter.tryAcquire(1L, null, null, 7L)).isPositive();
+        assertThat(apiKeyRateLimiter.tryAcquire(1L, null, null, 8L)).isZero();
+    }
+
+    @Test
+    void testDisabledLimiterAcceptsEverything() {
+        applicationProperties.getRateLimit().setEnabled(false);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(apiKeyRateLimiter.tryAcquire(1L, 1, 1, null)).isZero();
+        }
+    }
+}
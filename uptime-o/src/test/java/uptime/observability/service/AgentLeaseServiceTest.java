@@ -0,0 +1,89 @@
+package uptime.observability.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import uptime.observability.repository.AgentLockRepository;
+import uptime.observability.service.event.RemoteChangesEvent;
+
+class AgentLeaseServiceTest {
+
+    private AgentLockRepository agentLockRepository;
+
+    private AgentLeaseService agentLeaseService;
+
+    @BeforeEach
+    void setup() {
+        agentLockRepository = mock(AgentLockRepository.class);
+        agentLeaseService = new AgentLeaseService(agentLockRepository, mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void testTokenOlderThanAcquiredLeaseIsStaleWithoutDatabaseLookup() {
+        when(agentLockRepository.acquireLease(eq(1L), anyString(), anyInt())).thenReturn(Optional.of(5L));
+        assertThat(agentLeaseService.acquire(1L, "instance-a")).isPresent();
+
+        assertThat(agentLeaseService.isStale(1L, 4L)).isTrue();
+        verify(agentLockRepository, never()).findFencingToken(1L);
+    }
+
+    @Test
+    void testCurrentTokenIsAcceptedWithoutDatabaseLookup() {
+        when(agentLockRepository.acquireLease(eq(4L), anyString(), anyInt())).thenReturn(Optional.of(5L));
+        assertThat(agentLeaseService.acquire(4L, "instance-a")).isPresent();
+
+        assertThat(agentLeaseService.isStale(4L, 5L)).isFalse();
+        assertThat(agentLeaseService.isStale(4L, 5L)).isFalse();
+        verify(agentLockRepository, never()).findFencingToken(4L);
+    }
+
+    @Test
+    void testLatestTokenSeenHereIsStaleOnceAnotherInstanceHandedOutANewerLease() {
+        when(agentLockRepository.acquireLease(eq(4L), anyString(), anyInt())).thenReturn(Optional.of(5L));
+        assertThat(agentLeaseService.acquire(4L, "instance-a")).isPresent();
+
+        agentLeaseService.onRemoteChanges(new RemoteChangesEvent(Set.of(), Map.of(), Map.of(), Set.of(), Set.of(), Map.of(4L, 6L)));
+
+        assertThat(agentLeaseService.isStale(4L, 5L)).isTrue();
+        verify(agentLockRepository, never()).findFencingToken(4L);
+    }
+
+    @Test
+    void testTokensAreCheckedAgainAfterAResync() {
+        when(agentLockRepository.acquireLease(eq(4L), anyString(), anyInt())).thenReturn(Optional.of(5L));
+        assertThat(agentLeaseService.acquire(4L, "instance-a")).isPresent();
+        when(agentLockRepository.findFencingToken(4L)).thenReturn(Optional.of(6L));
+
+        agentLeaseService.onClusterResync();
+
+        assertThat(agentLeaseService.isStale(4L, 5L)).isTrue();
+    }
+
+    @Test
+    void testNewerTokenIsVerifiedOnceAndRaisesTheBound() {
+        when(agentLockRepository.findFencingToken(2L)).thenReturn(Optional.of(7L));
+
+        assertThat(agentLeaseService.isStale(2L, 7L)).isFalse();
+        assertThat(agentLeaseService.isStale(2L, 6L)).isTrue();
+        verify(agentLockRepository, times(1)).findFencingToken(2L);
+    }
+
+    @Test
+    void testMissingTokenIsNeverStale() {
+        assertThat(agentLeaseService.isStale(3L, null)).isFalse();
+        assertThat(agentLeaseService.isStale(null, 1L)).isFalse();
+    }
+}
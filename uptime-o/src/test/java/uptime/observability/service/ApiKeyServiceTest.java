@@ -0,0 +1,106 @@
+package uptime.observability.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import uptime.observability.domain.ApiKey;
+import uptime.observability.repository.ApiKeyRepository;
+import uptime.observability.service.dto.ApiKeyDTO;
+import uptime.observability.service.event.CacheEvictedEvent;
+
+class ApiKeyServiceTest {
+
+    private ApiKeyRepository apiKeyRepository;
+
+    private ApiKeyService apiKeyService;
+
+    @BeforeEach
+    void setup() {
+        apiKeyRepository = mock(ApiKeyRepository.class);
+        when(apiKeyRepository.save(any(ApiKey.class))).thenAnswer(invocation -> {
+            ApiKey apiKey = invocation.getArgument(0);
+            if (apiKey.getId() == null) {
+                apiKey.setId(1L);
+            }
+            return apiKey;
+        });
+        // Without a transaction, evictions are applied as soon as they are published
+        apiKeyService = new ApiKeyService(apiKeyRepository, mock(PasswordEncoder.class), new ConcurrentMapCacheManager(), event -> {
+            if (event instanceof CacheEvictedEvent evicted) {
+                apiKeyService.onCacheEvicted(evicted);
+            }
+        });
+    }
+
+    @Test
+    void testValidKeyIsLookedUpOnce() {
+        String plainTextKey = createKey();
+
+        assertThat(apiKeyService.validateApiKey(plainTextKey)).isTrue();
+        assertThat(apiKeyService.validateApiKey(plainTextKey)).isTrue();
+
+        verify(apiKeyRepository, times(1)).findByKeyHash(anyString());
+    }
+
+    @Test
+    void testUnknownKeyIsLookedUpOnce() {
+        when(apiKeyRepository.findByKeyHash(anyString())).thenReturn(Optional.empty());
+
+        assertThat(apiKeyService.validateApiKey("uptimeo_unknown")).isFalse();
+        assertThat(apiKeyService.validateApiKey("uptimeo_unknown")).isFalse();
+
+        verify(apiKeyRepository, times(1)).findByKeyHash(anyString());
+    }
+
+    @Test
+    void testDeactivatedKeyIsRejectedAtOnce() {
+        String plainTextKey = createKey();
+        assertThat(apiKeyService.validateApiKey(plainTextKey)).isTrue();
+
+        apiKeyService.deactivateApiKey(1L);
+
+        assertThat(apiKeyService.validateApiKey(plainTextKey)).isFalse();
+    }
+
+    @Test
+    void testLastUsedDatesAreFlushedOncePerKey() {
+        String plainTextKey = createKey();
+        apiKeyService.validateApiKey(plainTextKey);
+        apiKeyService.validateApiKey(plainTextKey);
+        verify(apiKeyRepository, never()).updateLastUsedDate(any(), any());
+
+        apiKeyService.flushLastUsedDates();
+        apiKeyService.flushLastUsedDates();
+
+        ArgumentCaptor<Instant> lastUsedDate = ArgumentCaptor.forClass(Instant.class);
+        verify(apiKeyRepository, times(1)).updateLastUsedDate(eq(1L), lastUsedDate.capture());
+        assertThat(lastUsedDate.getValue()).isBeforeOrEqualTo(Instant.now());
+    }
+
+    private String createKey() {
+        ApiKeyDTO request = new ApiKeyDTO();
+        request.setName("agent");
+        ApiKeyDTO created = apiKeyService.createApiKey(request);
+
+        ArgumentCaptor<ApiKey> saved = ArgumentCaptor.forClass(ApiKey.class);
+        verify(apiKeyRepository).save(saved.capture());
+        ApiKey apiKey = saved.getValue();
+        when(apiKeyRepository.findByKeyHash(eq(apiKey.getKeyHash()))).thenReturn(Optional.of(apiKey));
+        when(apiKeyRepository.findById(1L)).thenReturn(Optional.of(apiKey));
+        return created.getPlainTextKey();
+    }
+}
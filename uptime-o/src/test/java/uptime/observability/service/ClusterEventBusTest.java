@@ -0,0 +1,102 @@
+package uptime.observability.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import uptime.observability.domain.IncidentCause;
+import uptime.observability.management.IngestionMetersService;
+import uptime.observability.repository.HttpHeartbeatRepository;
+import uptime.observability.service.ClusterEventBus.Message;
+import uptime.observability.service.LiveStatusService.StatusWindow;
+import uptime.observability.service.dto.MonitorLiveStatusDTO;
+import uptime.observability.service.event.HeartbeatIngestedEvent;
+import uptime.observability.service.event.LiveStatusUpdateEvent;
+
+class ClusterEventBusTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void messagesOverThePayloadLimitAreSplit() throws Exception {
+        Message message = new Message("node");
+        for (long i = 0; i < 2000; i++) {
+            message.getCaches().computeIfAbsent(ApiKeyService.API_KEYS_BY_HASH_CACHE, cacheName -> new HashSet<>()).add("hash-" + i);
+            message.getAgentIds().add(i);
+        }
+
+        List<String> payloads = ClusterEventBus.encode(objectMapper, message, ClusterEventBus.MAX_PAYLOAD_BYTES);
+
+        assertThat(payloads).hasSizeGreaterThan(1);
+        assertThat(payloads).allSatisfy(payload ->
+            assertThat(payload.getBytes(StandardCharsets.UTF_8).length).isLessThanOrEqualTo(ClusterEventBus.MAX_PAYLOAD_BYTES)
+        );
+        Set<String> keys = new HashSet<>();
+        Set<Long> agentIds = new HashSet<>();
+        for (String payload : payloads) {
+            Message part = objectMapper.readValue(payload, Message.class);
+            part.getCaches().values().forEach(keys::addAll);
+            agentIds.addAll(part.getAgentIds());
+        }
+        assertThat(keys).hasSize(2000);
+        assertThat(agentIds).hasSize(2000);
+    }
+
+    @Test
+    void remoteWindowsAreMergedIntoTheLiveStatus() throws Exception {
+        Instant now = Instant.now();
+        StatusWindow window = new StatusWindow();
+        window.add(heartbeat(now.minusSeconds(1), true, 100));
+        window.add(heartbeat(now, false, 300));
+        Message message = new Message("node");
+        message.getWindows().put(1L, window);
+        Message received = objectMapper.readValue(ClusterEventBus.encode(objectMapper, message, ClusterEventBus.MAX_PAYLOAD_BYTES).get(0), Message.class);
+
+        List<Object> publishedEvents = new ArrayList<>();
+        LiveStatusService liveStatusService = new LiveStatusService(
+            publishedEvents::add,
+            new IngestionMetersService(new SimpleMeterRegistry()),
+            mock(HttpHeartbeatRepository.class)
+        );
+        liveStatusService.onHeartbeatIngested(heartbeat(now.minusSeconds(2), true, 200));
+        liveStatusService.onRemoteWindows(received.getWindows());
+        liveStatusService.flush();
+
+        MonitorLiveStatusDTO monitor = ((LiveStatusUpdateEvent) publishedEvents.get(0)).getMonitors().get(0);
+        assertThat(monitor.getChecks()).isEqualTo(3);
+        assertThat(monitor.getFailures()).isEqualTo(1);
+        assertThat(monitor.getLastSuccess()).isFalse();
+        assertThat(monitor.getLastCheckedAt()).isEqualTo(now);
+        assertThat(monitor.getMinResponseTimeMs()).isEqualTo(100);
+        assertThat(monitor.getMaxResponseTimeMs()).isEqualTo(300);
+        assertThat(monitor.getAvgResponseTimeMs()).isEqualTo(200.0);
+    }
+
+    @Test
+    void closedIncidentsAreSentWithoutCause() throws Exception {
+        Message message = new Message("node");
+        Map<Long, IncidentCause> agents = new HashMap<>();
+        agents.put(2L, IncidentCause.LATENCY);
+        agents.put(3L, null);
+        message.getIncidents().put(1L, agents);
+
+        Message received = objectMapper.readValue(ClusterEventBus.encode(objectMapper, message, ClusterEventBus.MAX_PAYLOAD_BYTES).get(0), Message.class);
+
+        assertThat(received.getIncidents().get(1L)).containsEntry(2L, IncidentCause.LATENCY).containsEntry(3L, null);
+    }
+
+    private static HeartbeatIngestedEvent heartbeat(Instant executedAt, boolean success, int responseTimeMs) {
+        return new HeartbeatIngestedEvent(null, 1L, 2L, executedAt, success, responseTimeMs, success ? 200 : 500, null, null);
+    }
+}
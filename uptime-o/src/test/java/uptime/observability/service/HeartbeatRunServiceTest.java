@@ -0,0 +1,205 @@
+package uptime.observability.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import uptime.observability.config.ApplicationProperties;
+import uptime.observability.domain.HeartbeatRun;
+import uptime.observability.domain.HttpHeartbeat;
+import uptime.observability.domain.HttpMonitor;
+import uptime.observability.domain.Schedule;
+import uptime.observability.repository.AgentRepository;
+import uptime.observability.repository.HeartbeatRunRepository;
+import uptime.observability.repository.HttpMonitorRepository;
+import uptime.observability.service.dto.AgentDTO;
+import uptime.observability.service.dto.HttpHeartbeatDTO;
+import uptime.observability.service.dto.HttpMonitorDTO;
+
+class HeartbeatRunServiceTest {
+
+    private static final Instant START = Instant.parse("2026-10-19T10:00:00Z");
+
+    private final AtomicReference<HeartbeatRun> openRun = new AtomicReference<>();
+
+    private final List<HeartbeatRun> runs = new ArrayList<>();
+
+    private HeartbeatRunService heartbeatRunService;
+
+    @BeforeEach
+    void setup() {
+        HttpMonitor monitor = new HttpMonitor();
+        monitor.setId(1L);
+        monitor.setSchedule(new Schedule().changeOnlyStorage(true).thresholdsWarning(500).thresholdsCritical(1000));
+        HttpMonitorRepository httpMonitorRepository = mock(HttpMonitorRepository.class);
+        when(httpMonitorRepository.findById(1L)).thenReturn(Optional.of(monitor));
+
+        HeartbeatRunRepository heartbeatRunRepository = mock(HeartbeatRunRepository.class);
+        when(heartbeatRunRepository.findOpenForUpdate(1L, 2L)).thenAnswer(invocation ->
+            Optional.ofNullable(openRun.get()).filter(HeartbeatRun::getOpen)
+        );
+        when(heartbeatRunRepository.save(any(HeartbeatRun.class))).thenAnswer(invocation -> {
+            HeartbeatRun run = invocation.getArgument(0);
+            runs.add(run.id((long) runs.size() + 1));
+            openRun.set(run);
+            return run;
+        });
+        when(heartbeatRunRepository.findAllByIdForUpdate(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return runs.stream().filter(run -> ids.contains(run.getId())).toList();
+        });
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getIngestion().setRunSampleIntervalMs(3_600_000);
+        applicationProperties.getIngestion().setRunBucketSeconds(3600);
+        heartbeatRunService = new HeartbeatRunService(
+            heartbeatRunRepository,
+            httpMonitorRepository,
+            mock(AgentRepository.class),
+            mock(PlatformTransactionManager.class),
+            applicationProperties
+        );
+    }
+
+    private static HttpHeartbeatDTO heartbeat(int minute, boolean success, int responseTimeMs) {
+        return heartbeat(START.plusSeconds(60L * minute), success, responseTimeMs);
+    }
+
+    private static HttpHeartbeatDTO heartbeat(Instant executedAt, boolean success, int responseTimeMs) {
+        HttpMonitorDTO monitor = new HttpMonitorDTO();
+        monitor.setId(1L);
+        AgentDTO agent = new AgentDTO();
+        agent.setId(2L);
+        HttpHeartbeatDTO heartbeat = new HttpHeartbeatDTO();
+        heartbeat.setMonitor(monitor);
+        heartbeat.setAgent(agent);
+        heartbeat.setExecutedAt(executedAt);
+        heartbeat.setSuccess(success);
+        heartbeat.setResponseTimeMs(responseTimeMs);
+        heartbeat.setResponseStatusCode(200);
+        return heartbeat;
+    }
+
+    @Test
+    void healthyChecksAfterAChangeOfStateAreFolded() {
+        assertThat(heartbeatRunService.fold(heartbeat(0, true, 120))).as("change of state").isFalse();
+        assertThat(heartbeatRunService.fold(heartbeat(1, true, 130))).isTrue();
+        assertThat(heartbeatRunService.fold(heartbeat(2, true, 125))).isTrue();
+        HeartbeatRun run = openRun.get();
+        assertThat(heartbeatRunService.fold(heartbeat(3, true, 700))).as("warning threshold breach").isFalse();
+        assertThat(heartbeatRunService.fold(heartbeat(4, true, 120))).as("change of state").isFalse();
+        assertThat(heartbeatRunService.fold(heartbeat(5, false, 120))).as("failure").isFalse();
+        heartbeatRunService.flushFoldedChecks();
+
+        assertThat(run.getOpen()).isFalse();
+        assertThat(run.getCheckCount()).isEqualTo(2);
+        assertThat(run.getStartedAt()).isEqualTo(START.plusSeconds(60));
+        assertThat(run.getEndedAt()).isEqualTo(START.plusSeconds(120));
+        assertThat(run.getLatencyHistogram()).isEqualTo("125:1,130:1");
+    }
+
+    @Test
+    void oneCheckPerSampleIntervalIsKept() {
+        heartbeatRunService.fold(heartbeat(0, true, 120));
+
+        assertThat(heartbeatRunService.fold(heartbeat(59, true, 120))).isTrue();
+        assertThat(heartbeatRunService.fold(heartbeat(60, true, 120))).as("sampled").isFalse();
+        assertThat(heartbeatRunService.fold(heartbeat(61, true, 120))).isTrue();
+        heartbeatRunService.flushFoldedChecks();
+        assertThat(runs.stream().mapToInt(HeartbeatRun::getCheckCount).sum()).isEqualTo(2);
+    }
+
+    @Test
+    void foldedChecksAreWrittenOncePerFlush() {
+        heartbeatRunService.fold(heartbeat(0, true, 120));
+        heartbeatRunService.fold(heartbeat(1, true, 130));
+        HeartbeatRun run = openRun.get();
+        String histogram = run.getLatencyHistogram();
+        heartbeatRunService.fold(heartbeat(2, true, 125));
+        heartbeatRunService.fold(heartbeat(3, true, 125));
+
+        assertThat(run.getCheckCount()).as("first check only").isEqualTo(1);
+        assertThat(run.getLatencyHistogram()).isSameAs(histogram);
+        heartbeatRunService.flushFoldedChecks();
+        assertThat(run.getCheckCount()).isEqualTo(3);
+        assertThat(run.getLatencySumMs()).isEqualTo(380L);
+        assertThat(run.getLatencyMaxMs()).isEqualTo(130);
+        assertThat(run.getEndedAt()).isEqualTo(START.plusSeconds(180));
+        assertThat(run.getLatencyHistogram()).isEqualTo("125:2,130:1");
+    }
+
+    @Test
+    void longRunsOverlappingTheStartOfAWindowAreRolledAtBucketBoundaries() {
+        // Five hours of checks, one a minute, the first one opening the run
+        Instant start = START.minusSeconds(2 * 3600);
+        for (int minute = 0; minute < 300; minute++) {
+            heartbeatRunService.fold(heartbeat(start.plusSeconds(60L * minute), true, 100 + minute % 10));
+        }
+        heartbeatRunService.flushFoldedChecks();
+
+        assertThat(runs).allSatisfy(run ->
+            assertThat(heartbeatRunService.bucketOf(run.getEndedAt())).isEqualTo(heartbeatRunService.bucketOf(run.getStartedAt()))
+        );
+        // Unrolled, one run from the second minute on would overlap the window and count whole. The window gets the
+        // runs that started within it, as the repository reads them
+        Instant from = START;
+        Instant to = START.plusSeconds(3600 - 1);
+        CheckStatistics statistics = new CheckStatistics();
+        runs
+            .stream()
+            .filter(run -> !run.getStartedAt().isBefore(from) && !run.getStartedAt().isAfter(to))
+            .forEach(statistics::add);
+        // Minute 120 is sampled, so stored raw instead
+        assertThat(statistics.getTotalChecks()).isEqualTo(59);
+        assertThat(statistics.getLastCheckedAt()).isEqualTo(START.plusSeconds(59 * 60));
+    }
+
+    @Test
+    void runCountsThroughItsAggregates() {
+        HeartbeatRun run = new HeartbeatRun().responseStatusCode(200);
+        int[] responseTimes = { 130, 120, 125, 120, 140 };
+        for (int i = 0; i < responseTimes.length; i++) {
+            HeartbeatRunService.add(run, START.plusSeconds(60L * i), responseTimes[i]);
+        }
+        CheckStatistics statistics = new CheckStatistics();
+        statistics.add(new HttpHeartbeat().executedAt(START.minusSeconds(60)).success(false).responseTimeMs(900));
+        statistics.add(run);
+
+        assertThat(run.getLatencyHistogram()).isEqualTo("120:2,125:1,130:1,140:1");
+        assertThat(run.getLatencySumMs()).isEqualTo(635L);
+        assertThat(run.getLatencyMinMs()).isEqualTo(120);
+        assertThat(run.getLatencyMaxMs()).isEqualTo(140);
+        assertThat(statistics.getTotalChecks()).isEqualTo(6);
+        assertThat(statistics.getFailedChecks()).isEqualTo(1);
+        assertThat(statistics.getAverageResponseTime()).isEqualTo(1535 / 6.0);
+        assertThat(statistics.percentile(50)).isEqualTo(125);
+        assertThat(statistics.percentile(99)).isEqualTo(900);
+        assertThat(statistics.countResponseTimes(130, 500)).isEqualTo(2);
+        assertThat(statistics.getLastCheckedAt()).isEqualTo(START.plusSeconds(240));
+        assertThat(statistics.getLastResponseTime()).isEqualTo(127);
+    }
+
+    @Test
+    void runsBeforeTheOldestHeartbeatAreLeftOutOnceTheLimitIsReached() {
+        HeartbeatRun before = new HeartbeatRun().endedAt(START.minusSeconds(60));
+        HeartbeatRun overlapping = new HeartbeatRun().endedAt(START.plusSeconds(60));
+        List<HttpHeartbeat> heartbeats = List.of(
+            new HttpHeartbeat().executedAt(START.plusSeconds(120)),
+            new HttpHeartbeat().executedAt(START)
+        );
+
+        assertThat(HeartbeatRunService.within(heartbeats, 2, List.of(before, overlapping))).containsExactly(overlapping);
+        assertThat(HeartbeatRunService.within(heartbeats, 3, List.of(before, overlapping))).containsExactly(before, overlapping);
+    }
+}
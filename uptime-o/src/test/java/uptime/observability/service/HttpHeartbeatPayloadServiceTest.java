@@ -0,0 +1,61 @@
+package uptime.observability.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import uptime.observability.domain.RawJson;
+import uptime.observability.service.dto.HttpHeartbeatPayloadDTO;
+
+class HttpHeartbeatPayloadServiceTest {
+
+    private static final RawJson REQUEST_HEADERS = RawJson.of("{\"accept\":\"*/*\"}");
+    private static final RawJson RESPONSE_HEADERS = RawJson.of("{\"server\":\"nginx\",\"content-type\":\"application/json\"}");
+    private static final RawJson RESPONSE_BODY = RawJson.of("{\"status\":\"ok\",\"checks\":[\"db\",\"cache\",\"queue\"]}");
+
+    private static HttpHeartbeatPayloadDTO payload() {
+        HttpHeartbeatPayloadDTO payload = new HttpHeartbeatPayloadDTO();
+        payload.setRawRequestHeaders(REQUEST_HEADERS);
+        payload.setRawResponseHeaders(RESPONSE_HEADERS);
+        payload.setRawResponseBody(RESPONSE_BODY);
+        return payload;
+    }
+
+    private static int total() {
+        return REQUEST_HEADERS.length() + RESPONSE_HEADERS.length() + RESPONSE_BODY.length();
+    }
+
+    @Test
+    void payloadWithinCapIsKept() {
+        HttpHeartbeatPayloadDTO payload = payload();
+
+        HttpHeartbeatPayloadService.cap(payload, true, total());
+
+        assertThat(payload.getRawResponseBody()).isEqualTo(RESPONSE_BODY);
+        assertThat(payload.getOriginalBytes()).isEqualTo(total());
+        assertThat(payload.getTruncated()).isFalse();
+    }
+
+    @Test
+    void bodyIsDroppedWhenTheScheduleExcludesIt() {
+        HttpHeartbeatPayloadDTO payload = payload();
+
+        HttpHeartbeatPayloadService.cap(payload, false, total());
+
+        assertThat(payload.getRawResponseBody()).isNull();
+        assertThat(payload.getRawResponseHeaders()).isEqualTo(RESPONSE_HEADERS);
+        assertThat(payload.getTruncated()).isTrue();
+    }
+
+    @Test
+    void partsAreDroppedBodyFirstUntilThePayloadFits() {
+        HttpHeartbeatPayloadDTO payload = payload();
+
+        HttpHeartbeatPayloadService.cap(payload, true, REQUEST_HEADERS.length() + RESPONSE_HEADERS.length() - 1);
+
+        assertThat(payload.getRawResponseBody()).isNull();
+        assertThat(payload.getRawResponseHeaders()).isNull();
+        assertThat(payload.getRawRequestHeaders()).isEqualTo(REQUEST_HEADERS);
+        assertThat(payload.getOriginalBytes()).isEqualTo(total());
+        assertThat(payload.getTruncated()).isTrue();
+    }
+}
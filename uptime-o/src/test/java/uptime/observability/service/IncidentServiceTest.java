@@ -0,0 +1,87 @@
+package uptime.observability.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import uptime.observability.config.ApplicationProperties;
+import uptime.observability.domain.IncidentCause;
+import uptime.observability.service.IncidentService.Streak;
+import uptime.observability.service.IncidentService.Transition;
+
+class IncidentServiceTest {
+
+    private static final int CRITICAL_MS = 1000;
+
+    private final ApplicationProperties.Incidents rules = new ApplicationProperties.Incidents();
+
+    private final Streak streak = new Streak(1L, 2L);
+
+    private final Instant start = Instant.parse("2026-10-19T00:00:00Z");
+
+    private int checks;
+
+    private Transition check(boolean success, int responseTimeMs) {
+        return streak.add(start.plusSeconds(60L * checks++), success, responseTimeMs, CRITICAL_MS, success ? 200 : 503, rules);
+    }
+
+    @Test
+    void consecutiveFailuresOpenAnIncidentFromTheFirstOne() {
+        assertThat(check(false, 0)).isNull();
+        assertThat(check(false, 0)).isNull();
+        Transition opened = check(false, 0);
+
+        assertThat(opened.getCause()).isEqualTo(IncidentCause.FAILURES);
+        assertThat(opened.getAt()).isEqualTo(start);
+        assertThat(check(false, 0)).as("already open").isNull();
+    }
+
+    @Test
+    void interruptedStreaksDoNotOpenIncidents() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(check(false, 0)).isNull();
+            assertThat(check(false, 0)).isNull();
+            assertThat(check(true, 100)).isNull();
+        }
+        assertThat(streak.getCause()).isNull();
+    }
+
+    @Test
+    void slowChecksOpenAnIncidentThatFailuresEscalate() {
+        check(true, CRITICAL_MS);
+        check(true, 2000);
+        assertThat(check(true, 3000).getCause()).isEqualTo(IncidentCause.LATENCY);
+
+        check(false, 0);
+        check(false, 0);
+        Transition escalated = check(false, 0);
+
+        assertThat(escalated.getCause()).isEqualTo(IncidentCause.FAILURES);
+        assertThat(escalated.getAt()).isEqualTo(start.plusSeconds(180));
+    }
+
+    @Test
+    void recoveryNeedsConsecutiveHealthyChecks() {
+        check(false, 0);
+        check(false, 0);
+        check(false, 0);
+
+        assertThat(check(true, 100)).isNull();
+        assertThat(check(false, 0)).as("flapping keeps the incident open").isNull();
+        assertThat(check(true, 100)).isNull();
+        Transition closed = check(true, 100);
+
+        assertThat(closed.getCause()).isNull();
+        assertThat(closed.getAt()).isEqualTo(start.plusSeconds(300));
+        assertThat(streak.getCause()).isNull();
+    }
+
+    @Test
+    void lateChecksAreIgnored() {
+        check(false, 0);
+        check(false, 0);
+
+        assertThat(streak.add(start.minusSeconds(60), true, 100, CRITICAL_MS, 200, rules)).isNull();
+        assertThat(check(false, 0).getCause()).isEqualTo(IncidentCause.FAILURES);
+    }
+}
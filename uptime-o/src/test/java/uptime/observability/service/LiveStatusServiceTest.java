@@ -0,0 +1,122 @@
+package uptime.observability.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uptime.observability.management.IngestionMetersService;
+import uptime.observability.repository.HttpHeartbeatRepository;
+import uptime.observability.service.dto.MonitorLiveStatusDTO;
+import uptime.observability.service.event.HeartbeatIngestedEvent;
+import uptime.observability.service.event.LiveStatusUpdateEvent;
+import uptime.observability.service.event.MonitorDeletedEvent;
+
+class LiveStatusServiceTest {
+
+    private final List<Object> publishedEvents = new ArrayList<>();
+
+    private HttpHeartbeatRepository httpHeartbeatRepository;
+
+    private LiveStatusService liveStatusService;
+
+    @BeforeEach
+    void setup() {
+        publishedEvents.clear();
+        httpHeartbeatRepository = mock(HttpHeartbeatRepository.class);
+        liveStatusService = new LiveStatusService(publishedEvents::add, new IngestionMetersService(new SimpleMeterRegistry()), httpHeartbeatRepository);
+    }
+
+    @Test
+    void testHeartbeatsAreCoalescedIntoOneUpdatePerMonitor() {
+        Instant now = Instant.now();
+        liveStatusService.onHeartbeatIngested(heartbeat(1L, now.minusSeconds(2), true, 100));
+        liveStatusService.onHeartbeatIngested(heartbeat(1L, now, false, 300));
+        liveStatusService.onHeartbeatIngested(heartbeat(1L, now.minusSeconds(1), true, 200));
+        liveStatusService.onHeartbeatIngested(heartbeat(2L, now, true, 50));
+
+        liveStatusService.flush();
+
+        assertThat(publishedEvents).hasSize(1);
+        LiveStatusUpdateEvent event = (LiveStatusUpdateEvent) publishedEvents.get(0);
+        assertThat(event.getMonitors()).hasSize(2);
+        MonitorLiveStatusDTO monitor1 = event.getMonitors().stream().filter(m -> m.getMonitorId() == 1L).findFirst().orElseThrow();
+        assertThat(monitor1.getChecks()).isEqualTo(3);
+        assertThat(monitor1.getFailures()).isEqualTo(1);
+        assertThat(monitor1.getLastSuccess()).isFalse();
+        assertThat(monitor1.getLastResponseTimeMs()).isEqualTo(300);
+        assertThat(monitor1.getMinResponseTimeMs()).isEqualTo(100);
+        assertThat(monitor1.getMaxResponseTimeMs()).isEqualTo(300);
+        assertThat(monitor1.getAvgResponseTimeMs()).isEqualTo(200.0);
+        assertThat(event.getFleet().getMonitorsUp()).isEqualTo(1);
+        assertThat(event.getFleet().getMonitorsDown()).isEqualTo(1);
+        assertThat(event.getFleet().getChecks()).isEqualTo(4);
+    }
+
+    @Test
+    void testFlushWithoutHeartbeatsPublishesNothing() {
+        liveStatusService.onHeartbeatIngested(heartbeat(1L, Instant.now(), true, 100));
+        liveStatusService.flush();
+        liveStatusService.flush();
+
+        assertThat(publishedEvents).hasSize(1);
+    }
+
+    @Test
+    void deletedMonitorsLeaveTheFleetStatus() {
+        Instant now = Instant.now();
+        liveStatusService.onHeartbeatIngested(heartbeat(1L, now, false, 100));
+        liveStatusService.onHeartbeatIngested(heartbeat(2L, now, true, 100));
+        liveStatusService.flush();
+
+        liveStatusService.onMonitorDeleted(new MonitorDeletedEvent(1L));
+        liveStatusService.onHeartbeatIngested(heartbeat(2L, now.plusSeconds(1), true, 100));
+        liveStatusService.flush();
+
+        LiveStatusUpdateEvent event = (LiveStatusUpdateEvent) publishedEvents.get(1);
+        assertThat(event.getFleet().getTotalMonitors()).isEqualTo(1);
+        assertThat(event.getFleet().getMonitorsDown()).isZero();
+    }
+
+    @Test
+    void fleetTotalsIncludeMonitorsNotSeenSinceStartup() {
+        when(httpHeartbeatRepository.findLatestSuccessPerMonitor()).thenReturn(
+            List.of(new Object[] { 1L, true }, new Object[] { 2L, false }, new Object[] { 3L, true })
+        );
+        liveStatusService.restore();
+
+        liveStatusService.onHeartbeatIngested(heartbeat(2L, Instant.now(), true, 100));
+        liveStatusService.flush();
+
+        LiveStatusUpdateEvent event = (LiveStatusUpdateEvent) publishedEvents.get(0);
+        assertThat(event.getMonitors()).hasSize(1);
+        assertThat(event.getFleet().getTotalMonitors()).isEqualTo(3);
+        assertThat(event.getFleet().getMonitorsUp()).isEqualTo(3);
+        assertThat(event.getFleet().getMonitorsDown()).isZero();
+    }
+
+    @Test
+    void restoreForgetsMonitorsWithoutHeartbeats() {
+        liveStatusService.onHeartbeatIngested(heartbeat(1L, Instant.now(), false, 100));
+        liveStatusService.onHeartbeatIngested(heartbeat(2L, Instant.now(), true, 100));
+        liveStatusService.flush();
+        when(httpHeartbeatRepository.findLatestSuccessPerMonitor()).thenReturn(List.<Object[]>of(new Object[] { 2L, true }));
+
+        liveStatusService.restore();
+        liveStatusService.onHeartbeatIngested(heartbeat(2L, Instant.now(), true, 100));
+        liveStatusService.flush();
+
+        LiveStatusUpdateEvent event = (LiveStatusUpdateEvent) publishedEvents.get(1);
+        assertThat(event.getFleet().getTotalMonitors()).isEqualTo(1);
+        assertThat(event.getFleet().getMonitorsDown()).isZero();
+    }
+
+    private static HeartbeatIngestedEvent heartbeat(Long monitorId, Instant executedAt, boolean success, int latency) {
+        return new HeartbeatIngestedEvent(null, monitorId, 7L, executedAt, success, latency, success ? 200 : 500, null, null);
+    }
+}
@@ -0,0 +1,90 @@
+package uptime.observability.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import uptime.observability.config.ApplicationProperties;
+import uptime.observability.domain.RawJson;
+import uptime.observability.repository.PayloadBlobRepository;
+
+class PayloadBlobServiceTest {
+
+    private static final RawJson BODY = RawJson.of("{\"status\":\"ok\"}");
+
+    private PayloadBlobRepository payloadBlobRepository;
+
+    private PayloadBlobService payloadBlobService;
+
+    @BeforeEach
+    void setup() {
+        payloadBlobRepository = mock(PayloadBlobRepository.class);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getIngestion().setBlobHashCacheSize(1);
+        payloadBlobService = new PayloadBlobService(payloadBlobRepository, applicationProperties);
+    }
+
+    @Test
+    void repeatSkipsTheDatabase() {
+        payloadBlobService.store(BODY);
+        payloadBlobService.store(BODY);
+        payloadBlobService.store(BODY);
+
+        verify(payloadBlobRepository, times(1)).upsertReference(BODY.sha256(), BODY.toString(), BODY.length());
+        verify(payloadBlobRepository, never()).addReference(anyString());
+    }
+
+    @Test
+    void repeatIsStoredAgainWhenItsTransactionRolledBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            payloadBlobService.store(BODY);
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK
+            );
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        payloadBlobService.store(BODY);
+
+        verify(payloadBlobRepository, times(2)).upsertReference(BODY.sha256(), BODY.toString(), BODY.length());
+    }
+
+    @Test
+    void evictedHashIsStoredWithItsContent() {
+        RawJson other = RawJson.of("{\"status\":\"degraded\"}");
+
+        payloadBlobService.store(BODY);
+        payloadBlobService.store(other);
+        payloadBlobService.store(BODY);
+
+        verify(payloadBlobRepository, never()).addReference(anyString());
+        verify(payloadBlobRepository, times(2)).upsertReference(eq(BODY.sha256()), anyString(), anyInt());
+        assertThat(BODY.sha256()).hasSize(64).isNotEqualTo(other.sha256());
+    }
+
+    @Test
+    void sweepKeepsRecentlyReferencedBlobs() {
+        ArgumentCaptor<Instant> before = ArgumentCaptor.forClass(Instant.class);
+
+        payloadBlobService.removeUnreferencedBlobs();
+
+        verify(payloadBlobRepository).deleteUnreferenced(before.capture());
+        assertThat(before.getValue()).isBefore(Instant.now().minus(Duration.ofMinutes(59)));
+        assertThat(PayloadBlobService.STAMP_INTERVAL).isLessThan(Duration.ofMinutes(59));
+    }
+}
@@ -0,0 +1,41 @@
+package uptime.observability.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class PhaseOffsetsTest {
+
+    @Test
+    void testOffsetStaysWithinInterval() {
+        for (long monitorId = 1; monitorId <= 5000; monitorId++) {
+            assertThat(PhaseOffsets.offsetMs(3L, monitorId, 30)).isBetween(0L, 29_999L);
+        }
+        assertThat(PhaseOffsets.offsetMs(3L, 1L, 0)).isZero();
+    }
+
+    @Test
+    void testOffsetIsDeterministic() {
+        assertThat(PhaseOffsets.offsetMs(7L, 1234L, 60)).isEqualTo(PhaseOffsets.offsetMs(7L, 1234L, 60));
+    }
+
+    @Test
+    void testArrivalsAreNearlyFlat() {
+        long[] withOffsets = new long[ArrivalSmoothnessService.HORIZON_SECONDS];
+        long[] withoutOffsets = new long[ArrivalSmoothnessService.HORIZON_SECONDS];
+        for (long agentId = 1; agentId <= 5; agentId++) {
+            for (long monitorId = 1; monitorId <= 600; monitorId++) {
+                int interval = monitorId % 2 == 0 ? 30 : 60;
+                for (long second = PhaseOffsets.offsetMs(agentId, monitorId, interval) / 1000; second < withOffsets.length; second += interval) {
+                    withOffsets[(int) second]++;
+                }
+                for (int second = 0; second < withoutOffsets.length; second += interval) {
+                    withoutOffsets[second]++;
+                }
+            }
+        }
+
+        assertThat(ArrivalSmoothnessService.averagePeakToMean(withoutOffsets)).isGreaterThan(30);
+        assertThat(ArrivalSmoothnessService.averagePeakToMean(withOffsets)).isLessThan(1.5);
+    }
+}
@@ -0,0 +1,62 @@
+package uptime.observability.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class RendezvousHashingTest {
+
+    private static final int MONITORS = 10_000;
+
+    @Test
+    void testOwnerDoesNotDependOnReplicaOrder() {
+        List<String> replicas = List.of("replica-a", "replica-b", "replica-c");
+        List<String> reversed = List.of("replica-c", "replica-b", "replica-a");
+
+        for (long monitorId = 1; monitorId <= 1000; monitorId++) {
+            assertThat(RendezvousHashing.owner(monitorId, reversed)).isEqualTo(RendezvousHashing.owner(monitorId, replicas));
+        }
+    }
+
+    @Test
+    void testNoReplicaHasNoOwner() {
+        assertThat(RendezvousHashing.owner(1L, List.of())).isNull();
+    }
+
+    @Test
+    void testMonitorsAreSpreadEvenly() {
+        List<String> replicas = List.of("replica-a", "replica-b", "replica-c", "replica-d");
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (long monitorId = 1; monitorId <= MONITORS; monitorId++) {
+            counts.merge(RendezvousHashing.owner(monitorId, replicas), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(MONITORS / 4 - 300, MONITORS / 4 + 300));
+    }
+
+    @Test
+    void testJoiningReplicaOnlyTakesOverItsShare() {
+        List<String> before = List.of("replica-a", "replica-b", "replica-c");
+        List<String> after = new ArrayList<>(before);
+        after.add("replica-d");
+
+        int moved = 0;
+        for (long monitorId = 1; monitorId <= MONITORS; monitorId++) {
+            String oldOwner = RendezvousHashing.owner(monitorId, before);
+            String newOwner = RendezvousHashing.owner(monitorId, after);
+            if (!oldOwner.equals(newOwner)) {
+                // Monitors only ever move to the new replica, never between existing ones
+                assertThat(newOwner).isEqualTo("replica-d");
+                moved++;
+            }
+        }
+
+        assertThat(moved).isBetween(MONITORS / 4 - 300, MONITORS / 4 + 300);
+    }
+}
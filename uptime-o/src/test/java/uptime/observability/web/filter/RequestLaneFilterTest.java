@@ -0,0 +1,88 @@
+package uptime.observability.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RequestLaneFilterTest {
+
+    private final RequestLaneFilter.Bulkhead ingestion = new RequestLaneFilter.Bulkhead(1, 0);
+
+    private final RequestLaneFilter.Bulkhead agentControl = new RequestLaneFilter.Bulkhead(1, 0);
+
+    private final RequestLaneFilter.Bulkhead interactive = new RequestLaneFilter.Bulkhead(1, 0);
+
+    private final AtomicBoolean interactivePoolSaturated = new AtomicBoolean();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final RequestLaneFilter filter = new RequestLaneFilter(
+        Map.of(RequestLane.INGESTION, ingestion, RequestLane.AGENT_CONTROL, agentControl, RequestLane.INTERACTIVE, interactive),
+        interactivePoolSaturated::get,
+        registry
+    );
+
+    private MockHttpServletResponse perform(String uri, FilterChain chain) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setRequestURI(uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void requestsRunInTheirLane() throws Exception {
+        AtomicReference<RequestLane> lane = new AtomicReference<>();
+        FilterChain chain = (request, response) -> lane.set(RequestLane.current());
+
+        perform("/api/agent/heartbeats/batch", chain);
+        assertThat(lane.get()).isEqualTo(RequestLane.INGESTION);
+        perform("/api/agent/config", chain);
+        assertThat(lane.get()).isEqualTo(RequestLane.AGENT_CONTROL);
+        perform("/api/monitors/1", chain);
+        assertThat(lane.get()).isEqualTo(RequestLane.INTERACTIVE);
+
+        assertThat(RequestLane.current()).isNull();
+        assertThat(ingestion.getAvailableSlots()).isEqualTo(1);
+    }
+
+    @Test
+    void fullLanesRejectWithoutAffectingOthers() throws Exception {
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        AtomicReference<MockHttpServletResponse> other = new AtomicReference<>();
+
+        perform("/api/agent/heartbeats", (request, response) -> {
+            nested.set(perform("/api/agent/heartbeats", (r, s) -> {}));
+            other.set(perform("/api/agent/config", (r, s) -> {}));
+        });
+
+        assertThat(nested.get().getStatus()).isEqualTo(503);
+        assertThat(nested.get().getHeader("Retry-After")).isEqualTo("1");
+        assertThat(other.get().getStatus()).isEqualTo(200);
+        assertThat(registry.get(RequestLaneFilter.REQUESTS_METER_NAME).tag("lane", "ingestion").tag("outcome", "rejected").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void interactiveRequestsAreShedWhileTheirPoolIsExhausted() throws Exception {
+        AtomicReference<MockHttpServletResponse> duringIngestion = new AtomicReference<>();
+        perform("/api/agent/heartbeats", (request, response) -> duringIngestion.set(perform("/api/monitors", (r, s) -> {})));
+        assertThat(duringIngestion.get().getStatus()).as("ingestion has a pool of its own").isEqualTo(200);
+
+        interactivePoolSaturated.set(true);
+
+        assertThat(perform("/api/monitors", (request, response) -> {}).getStatus()).isEqualTo(503);
+        assertThat(perform("/api/agent/heartbeats", (request, response) -> {}).getStatus()).isEqualTo(200);
+        assertThat(registry.get(RequestLaneFilter.REQUESTS_METER_NAME).tag("lane", "interactive").tag("outcome", "shed").counter().count())
+            .isEqualTo(1);
+    }
+}
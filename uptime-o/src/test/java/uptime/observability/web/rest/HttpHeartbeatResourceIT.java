@@ -84,15 +84,6 @@ class HttpHeartbeatResourceIT {
     private static final String DEFAULT_ERROR_MESSAGE = "AAAAAAAAAA";
     private static final String UPDATED_ERROR_MESSAGE = "BBBBBBBBBB";
 
-    private static final String DEFAULT_RAW_REQUEST_HEADERS = "{\"header\":\"value\"}";
-    private static final String UPDATED_RAW_REQUEST_HEADERS = "{\"header\":\"updated\"}";
-
-    private static final String DEFAULT_RAW_RESPONSE_HEADERS = "{\"response\":\"header\"}";
-    private static final String UPDATED_RAW_RESPONSE_HEADERS = "{\"response\":\"updated\"}";
-
-    private static final String DEFAULT_RAW_RESPONSE_BODY = "{\"key\":\"value\"}";
-    private static final String UPDATED_RAW_RESPONSE_BODY = "{\"key\":\"updated\"}";
-
     private static final String ENTITY_API_URL = "/api/http-heartbeats";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
 
@@ -125,7 +116,6 @@ class HttpHeartbeatResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static HttpHeartbeat createEntity() throws Exception {
-        ObjectMapper om = new ObjectMapper();
         return new HttpHeartbeat()
             .executedAt(DEFAULT_EXECUTED_AT)
             .success(DEFAULT_SUCCESS)
@@ -142,10 +132,7 @@ class HttpHeartbeatResourceIT {
             .warningThresholdMs(DEFAULT_WARNING_THRESHOLD_MS)
             .criticalThresholdMs(DEFAULT_CRITICAL_THRESHOLD_MS)
             .errorType(DEFAULT_ERROR_TYPE)
-            .errorMessage(DEFAULT_ERROR_MESSAGE)
-            .rawRequestHeaders(om.readTree(DEFAULT_RAW_REQUEST_HEADERS))
-            .rawResponseHeaders(om.readTree(DEFAULT_RAW_RESPONSE_HEADERS))
-            .rawResponseBody(om.readTree(DEFAULT_RAW_RESPONSE_BODY));
+            .errorMessage(DEFAULT_ERROR_MESSAGE);
     }
 
     /**
@@ -155,7 +142,6 @@ class HttpHeartbeatResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static HttpHeartbeat createUpdatedEntity() throws Exception {
-        ObjectMapper om = new ObjectMapper();
         return new HttpHeartbeat()
             .executedAt(UPDATED_EXECUTED_AT)
             .success(UPDATED_SUCCESS)
@@ -172,10 +158,7 @@ class HttpHeartbeatResourceIT {
             .warningThresholdMs(UPDATED_WARNING_THRESHOLD_MS)
             .criticalThresholdMs(UPDATED_CRITICAL_THRESHOLD_MS)
             .errorType(UPDATED_ERROR_TYPE)
-            .errorMessage(UPDATED_ERROR_MESSAGE)
-            .rawRequestHeaders(om.readTree(UPDATED_RAW_REQUEST_HEADERS))
-            .rawResponseHeaders(om.readTree(UPDATED_RAW_RESPONSE_HEADERS))
-            .rawResponseBody(om.readTree(UPDATED_RAW_RESPONSE_BODY));
+            .errorMessage(UPDATED_ERROR_MESSAGE);
     }
 
     @BeforeEach
@@ -277,10 +260,7 @@ class HttpHeartbeatResourceIT {
             .andExpect(jsonPath("$.[*].warningThresholdMs").value(hasItem(DEFAULT_WARNING_THRESHOLD_MS)))
             .andExpect(jsonPath("$.[*].criticalThresholdMs").value(hasItem(DEFAULT_CRITICAL_THRESHOLD_MS)))
             .andExpect(jsonPath("$.[*].errorType").value(hasItem(DEFAULT_ERROR_TYPE)))
-            .andExpect(jsonPath("$.[*].errorMessage").value(hasItem(DEFAULT_ERROR_MESSAGE)))
-            .andExpect(jsonPath("$.[*].rawRequestHeaders").value(hasItem(DEFAULT_RAW_REQUEST_HEADERS)))
-            .andExpect(jsonPath("$.[*].rawResponseHeaders").value(hasItem(DEFAULT_RAW_RESPONSE_HEADERS)))
-            .andExpect(jsonPath("$.[*].rawResponseBody").value(hasItem(DEFAULT_RAW_RESPONSE_BODY)));
+            .andExpect(jsonPath("$.[*].errorMessage").value(hasItem(DEFAULT_ERROR_MESSAGE)));
     }
 
     @Test
@@ -310,10 +290,7 @@ class HttpHeartbeatResourceIT {
             .andExpect(jsonPath("$.warningThresholdMs").value(DEFAULT_WARNING_THRESHOLD_MS))
             .andExpect(jsonPath("$.criticalThresholdMs").value(DEFAULT_CRITICAL_THRESHOLD_MS))
             .andExpect(jsonPath("$.errorType").value(DEFAULT_ERROR_TYPE))
-            .andExpect(jsonPath("$.errorMessage").value(DEFAULT_ERROR_MESSAGE))
-            .andExpect(jsonPath("$.rawRequestHeaders").value(DEFAULT_RAW_REQUEST_HEADERS))
-            .andExpect(jsonPath("$.rawResponseHeaders").value(DEFAULT_RAW_RESPONSE_HEADERS))
-            .andExpect(jsonPath("$.rawResponseBody").value(DEFAULT_RAW_RESPONSE_BODY));
+            .andExpect(jsonPath("$.errorMessage").value(DEFAULT_ERROR_MESSAGE));
     }
 
     @Test
@@ -335,7 +312,6 @@ class HttpHeartbeatResourceIT {
         HttpHeartbeat updatedHttpHeartbeat = apiHeartbeatRepository.findById(apiHeartbeat.getId()).orElseThrow();
         // Disconnect from session so that the updates on updatedHttpHeartbeat are not directly saved in db
         em.detach(updatedHttpHeartbeat);
-        ObjectMapper om = new ObjectMapper();
         updatedHttpHeartbeat
             .executedAt(UPDATED_EXECUTED_AT)
             .success(UPDATED_SUCCESS)
@@ -352,10 +328,7 @@ class HttpHeartbeatResourceIT {
             .warningThresholdMs(UPDATED_WARNING_THRESHOLD_MS)
             .criticalThresholdMs(UPDATED_CRITICAL_THRESHOLD_MS)
             .errorType(UPDATED_ERROR_TYPE)
-            .errorMessage(UPDATED_ERROR_MESSAGE)
-            .rawRequestHeaders(om.readTree(UPDATED_RAW_REQUEST_HEADERS))
-            .rawResponseHeaders(om.readTree(UPDATED_RAW_RESPONSE_HEADERS))
-            .rawResponseBody(om.readTree(UPDATED_RAW_RESPONSE_BODY));
+            .errorMessage(UPDATED_ERROR_MESSAGE);
         HttpHeartbeatDTO apiHeartbeatDTO = apiHeartbeatMapper.toDto(updatedHttpHeartbeat);
 
         restHttpHeartbeatMockMvc
@@ -456,8 +429,7 @@ class HttpHeartbeatResourceIT {
             .tlsHandshakeMs(UPDATED_TLS_HANDSHAKE_MS)
             .timeToFirstByteMs(UPDATED_TIME_TO_FIRST_BYTE_MS)
             .warningThresholdMs(UPDATED_WARNING_THRESHOLD_MS)
-            .errorType(UPDATED_ERROR_TYPE)
-            .rawResponseHeaders(om.readTree(UPDATED_RAW_RESPONSE_HEADERS));
+            .errorType(UPDATED_ERROR_TYPE);
 
         restHttpHeartbeatMockMvc
             .perform(
@@ -504,10 +476,7 @@ class HttpHeartbeatResourceIT {
             .warningThresholdMs(UPDATED_WARNING_THRESHOLD_MS)
             .criticalThresholdMs(UPDATED_CRITICAL_THRESHOLD_MS)
             .errorType(UPDATED_ERROR_TYPE)
-            .errorMessage(UPDATED_ERROR_MESSAGE)
-            .rawRequestHeaders(om.readTree(UPDATED_RAW_REQUEST_HEADERS))
-            .rawResponseHeaders(om.readTree(UPDATED_RAW_RESPONSE_HEADERS))
-            .rawResponseBody(om.readTree(UPDATED_RAW_RESPONSE_BODY));
+            .errorMessage(UPDATED_ERROR_MESSAGE);
 
         restHttpHeartbeatMockMvc
             .perform(